@@ -2,6 +2,7 @@
 
 var summaryTable;
 var pairTable;
+var pairPageCursor; //the cursor sent with the last page of pairs
 var curSpaceId; //stores the ID of the job space that is currently selected from the space viewer
 var jobId; //the ID of the job being viewed
 var lastValidSelectOption;
@@ -1679,6 +1680,10 @@ function fnPaginationHandler(sSource, aoData, fnCallback) {
 		aoData.push({'name': 'sort_by', 'value': getSelectedSort()});
 		aoData.push({'name': 'sort_dir', 'value': isASC()});
 	}
+	// lets the server find the page after the last one it sent without counting the pairs before it
+	if (pairPageCursor) {
+		aoData.push({'name': 'sCursor', 'value': pairPageCursor});
+	}
 
 	var postUrl = null;
 	if (DETAILS_JOB.isAnonymousPage) {
@@ -1694,6 +1699,7 @@ function fnPaginationHandler(sSource, aoData, fnCallback) {
 		function(nextDataTablePage) {
 			var s = parseReturnCode(nextDataTablePage);
 			if (s) {
+				pairPageCursor = nextDataTablePage.sNextCursor;
 				pairTable.fnProcessingIndicator(false);
 				fnCallback(nextDataTablePage);
 				$("#errorField").hide();
@@ -22,6 +22,8 @@ var checkboxEnabled = {
 var jobId;
 var jobSpaceId;
 var stageNumber;
+// Only pairs that completed after this are fetched on the next refresh
+var lastCompletionId;
 
 // Entry point to JavaScript application.
 $(document).ready(function() {
@@ -30,6 +32,7 @@ $(document).ready(function() {
 	jobId = $('#jobId').text();
 	jobSpaceId = $('#jobSpaceId').text();
 	stageNumber = $('#stageNumber').text();
+	lastCompletionId = $('#lastCompletionId').text();
 
 	registerCheckboxEventHandlers();
 	removeHeader();
@@ -61,8 +64,7 @@ $(document).ready(function() {
 		log('Input value is ' + stageToRedirectTo);
 		if (isInt(stageToRedirectTo)) {
 			log('Input value is an integer, redirecting.');
-			var jobId = $('#jobId').text();
-			window.location.replace(starexecRoot + '/secure/details/jobMatrixView.jsp?id=' + jobId + '&stage=' + stageToRedirectTo);
+			window.location.replace(starexecRoot + '/secure/details/jobMatrixView.jsp?jobSpaceId=' + jobSpaceId + '&stage=' + stageToRedirectTo);
 		} else {
 			log('Input value is not an integer, showing error message.');
 			$('#selectStageError').show();
@@ -76,10 +78,11 @@ function getFinishedJobPairsFromServer(done, dataTable) {
 	'use strict';
 	if (!done) {
 		$.get(
-			starexecRoot + 'services/matrix/finished/' + jobSpaceId + '/' + stageNumber,
+			starexecRoot + 'services/matrix/finished/' + jobSpaceId + '/' + stageNumber + '/' + lastCompletionId,
 			'',
 			function(data) {
 				log(data);
+				lastCompletionId = data.lastCompletionId;
 				setTimeout(function() {
 					updateMatrix(data.benchSolverConfigElementMap, dataTable);
 					getFinishedJobPairsFromServer(data.done, dataTable);
@@ -92,19 +95,27 @@ function getFinishedJobPairsFromServer(done, dataTable) {
 
 function updateMatrix(jobPairData, dataTable) {
 	'use strict';
+	var updated = false;
 	for (var key in jobPairData) {
 		if (jobPairData.hasOwnProperty(key)) {
-			var selector = '#' + key;
-			/*log('Number of elements selected with selector='+selector+': '+$(selector).length);*/
-			$(selector + ' ' + '.wallclock').text(jobPairData[key].wallclock);
-			$(selector + ' ' + '.memUsage').text(jobPairData[key].memUsage);
-			$(selector + ' ' + '.cpuTime').text(jobPairData[key].cpuTime);
-			$(selector).removeClass('incomplete');
-			$(selector).addClass(jobPairData[key].status);
+			// Cells on other pages of the matrix are not in the document
+			var cell = document.getElementById(key);
+			if (cell === null) {
+				continue;
+			}
+			var $cell = $(cell);
+			$cell.find('.wallclock').text(jobPairData[key].wallclock);
+			$cell.find('.memUsage').text(jobPairData[key].memUsage);
+			$cell.find('.cpuTime').text(jobPairData[key].cpuTime);
+			$cell.removeClass('incomplete');
+			$cell.addClass(jobPairData[key].status);
+			updated = true;
 		}
 	}
-	// redraw the table
-	dataTable.fnDraw(false);
+	if (updated) {
+		// redraw the table
+		dataTable.fnDraw(false);
+	}
 }
 
 function isInt(value) {
@@ -1,3 +1,6 @@
+// the most characters of followed output kept in a text area
+var maxFollowedOutput = 1024 * 1024;
+
 jQuery(function($) {
 	PR.prettyPrint();
 
@@ -38,6 +41,36 @@ jQuery(function($) {
 		);
 	});
 
+	$(".followOutput").button({
+		icons: {
+			primary: "ui-icon-play"
+		}
+	});
+
+	// streams the output of a running pair into its text area as it is copied back
+	$(".followOutput").click(function() {
+		var button = $(this);
+		var output = button.siblings(".contentTextarea");
+		var source = new EventSource(
+			starexecRoot + "secure/follow/pair?id=" + $("#pairId").attr("value") +
+			"&stage=" + button.attr("stage")
+		);
+		output.val("");
+		button.button("disable");
+		source.onmessage = function(event) {
+			var text = output.val() + event.data;
+			if (text.length > maxFollowedOutput) {
+				text = text.substring(text.length - maxFollowedOutput);
+			}
+			output.val(text);
+			output.scrollTop(output[0].scrollHeight);
+		};
+		source.addEventListener("done", function() {
+			source.close();
+			button.button("option", "label", "finished");
+		});
+	});
+
 	$('#fieldDetails').expandable(false);
 	$('.fieldStats').expandable(true);
 	$('.fieldAttrs').expandable(true);
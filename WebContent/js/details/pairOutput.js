@@ -0,0 +1,59 @@
+// pages through a pair's output or log with the range service, one page of bytes at a time
+jQuery(function($) {
+	var url = starexecRoot + $("#outputUrl").attr("value");
+	var pageBytes = parseInt($("#pageBytes").attr("value"));
+
+	// the size of the file and the bytes of it being shown, as given by the last response
+	var fileSize = 0;
+	var sliceStart = 0;
+	var sliceEnd = 0;
+
+	function updateControls() {
+		$("#outputPosition").text(
+			fileSize === 0 ? "the file is empty" :
+			"bytes " + (sliceStart + 1) + " to " + sliceEnd + " of " + fileSize
+		);
+		$("#outputTruncated").toggle(sliceStart > 0 || sliceEnd < fileSize);
+		$("#firstPage, #previousPage").button("option", "disabled", sliceStart === 0);
+		$("#nextPage, #lastPage").button("option", "disabled", sliceEnd >= fileSize);
+	}
+
+	function load(offset) {
+		$("#firstPage, #previousPage, #nextPage, #lastPage").button("option", "disabled", true);
+		$.ajax({
+			url: url,
+			data: {offset: Math.max(0, offset), bytes: pageBytes},
+			dataType: "text"
+		}).done(function(text, status, xhr) {
+			fileSize = parseInt(xhr.getResponseHeader("X-File-Size"));
+			sliceStart = parseInt(xhr.getResponseHeader("X-Slice-Start"));
+			sliceEnd = parseInt(xhr.getResponseHeader("X-Slice-End"));
+			$("#output").text(text);
+			updateControls();
+		}).fail(function(xhr) {
+			$("#outputPosition").text(xhr.status === 404 ? "not available" : "could not be read");
+		});
+	}
+
+	$("#firstPage, #previousPage, #nextPage, #lastPage").button();
+	$("#downLink").button({
+		icons: {
+			secondary: "ui-icon-arrowthick-1-s"
+		}
+	});
+
+	$("#firstPage").click(function() {
+		load(0);
+	});
+	$("#previousPage").click(function() {
+		load(sliceStart - pageBytes);
+	});
+	$("#nextPage").click(function() {
+		load(sliceEnd);
+	});
+	$("#lastPage").click(function() {
+		load(fileSize - pageBytes);
+	});
+
+	load(0);
+});
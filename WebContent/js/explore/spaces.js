@@ -1123,6 +1123,9 @@ function makeRemoveSubspacesPost(selectedSubspaces, recyclePrims) {
 	});
 }
 
+// the cursor sent with the last page of each table, which lets the server find the page after it quickly
+var pageCursors = {};
+
 /**
  * Handles querying for pages in a given DataTable object
  *
@@ -1156,6 +1159,9 @@ function fnPaginationHandler(sSource, aoData, fnCallback) {
 		aoData.push({"name": "sort_by", "value": getSelectedSort()});
 		aoData.push({"name": "sort_dir", "value": isASC()});
 	}
+	if (pageCursors[tableName]) {
+		aoData.push({"name": "sCursor", "value": pageCursors[tableName]});
+	}
 	// Request the next page of primitives from the server via AJAX
 	log('Source: ' + sSource + idOfSelectedSpace + "/" + tableName + "/pagination");
 	$.ajax({
@@ -1166,6 +1172,7 @@ function fnPaginationHandler(sSource, aoData, fnCallback) {
 	}).done(function(nextDataTablePage) {
 		var s = parseReturnCode(nextDataTablePage, false);
 		if (s) {
+			pageCursors[tableName] = nextDataTablePage.sNextCursor;
 			// Replace the current page with the newly received page
 			fnCallback(nextDataTablePage);
 
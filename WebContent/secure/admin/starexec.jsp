@@ -1,10 +1,17 @@
 <%@page contentType="text/html" pageEncoding="UTF-8"
-        import="org.starexec.constants.R, org.starexec.app.RESTHelpers" %>
+        import="org.starexec.constants.R, org.starexec.app.RESTHelpers, org.starexec.jobs.ProcessingManager" %>
 <%@taglib prefix="star" tagdir="/WEB-INF/tags" %>
 <%
 	try {
 		request.setAttribute("debugModeActive", R.DEBUG_MODE_ACTIVE);
 		request.setAttribute("freezePrimitives", RESTHelpers.freezePrimitives());
+		request.setAttribute("postProcessingWorkers", ProcessingManager.getWorkerCount());
+		request.setAttribute("postProcessingBacklog", ProcessingManager.getBacklog());
+		request.setAttribute("postProcessingInFlight", ProcessingManager.getInFlight());
+		request.setAttribute("postProcessingProcessed", ProcessingManager.getProcessedCount());
+		request.setAttribute("postProcessingFailed", ProcessingManager.getFailedCount());
+		request.setAttribute("postProcessingRate", String.format("%.1f", ProcessingManager.getPairsPerMinute()));
+		request.setAttribute("postProcessingTimes", ProcessingManager.getProcessTimes());
 	} catch (NumberFormatException nfe) {
 		response.sendError(
 				HttpServletResponse.SC_BAD_REQUEST,
@@ -84,5 +91,19 @@
 				star.freezePrimitives = ${freezePrimitives}
 			</script>
 		</fieldset>
+		<fieldset>
+			<legend>post processing</legend>
+			<table id="postProcessingStats">
+				<tbody>
+					<tr><td>workers</td><td>${postProcessingWorkers}</td></tr>
+					<tr><td>waiting at last check</td><td>${postProcessingBacklog}</td></tr>
+					<tr><td>in progress</td><td>${postProcessingInFlight}</td></tr>
+					<tr><td>processed since startup</td><td>${postProcessingProcessed}</td></tr>
+					<tr><td>processor failures since startup</td><td>${postProcessingFailed}</td></tr>
+					<tr><td>pairs per minute (last 10 minutes)</td><td>${postProcessingRate}</td></tr>
+					<tr><td>time per pair</td><td>${postProcessingTimes}</td></tr>
+				</tbody>
+			</table>
+		</fieldset>
 	</div>
 </star:template>
@@ -1,5 +1,7 @@
 <%@page contentType="text/html" pageEncoding="UTF-8"
-        import="org.starexec.data.database.Spaces,
+        import="org.starexec.constants.R,
+                org.starexec.data.database.JobPairs,
+                org.starexec.data.database.Spaces,
                 org.starexec.data.to.Job,
                 org.starexec.data.to.JobSpace,
                 org.starexec.util.SessionUtil,
@@ -19,12 +21,27 @@
 		Job job = MatrixViewUtil
 				.getJobIfAvailableToUser(space.getJobId(), userId, response);
 
-		Matrix matrix = Matrix.getMatrixForJobSpaceFromJobAndStageNumber(job,
-		                                                                 jobSpaceId,
-		                                                                 stageNumber
-		);
+		if (job == null) {
+			return;
+		}
+
+		// Read before the matrix so that pairs finishing while it is built are sent again by the next refresh.
+		int lastCompletionId = JobPairs.getLatestCompletionId();
+
+		// Only one page of benchmarks is read and rendered at a time.
+		int firstRow = 0;
+		if (request.getParameter("firstRow") != null) {
+			firstRow = Integer.parseInt(request.getParameter("firstRow"));
+		}
+		Matrix matrix = Matrix.getMatrixPageForJobSpace(jobSpaceId, stageNumber, firstRow, R.MATRIX_VIEW_ROWS_PER_PAGE);
+		firstRow = matrix.getFirstRow();
+		int lastRow = firstRow + matrix.getRowCount() - 1;
 
 		request.setAttribute("matrix", matrix);
+		request.setAttribute("firstRow", firstRow);
+		request.setAttribute("lastRow", lastRow);
+		request.setAttribute("rowsPerPage", R.MATRIX_VIEW_ROWS_PER_PAGE);
+		request.setAttribute("lastCompletionId", lastCompletionId);
 
 		request.setAttribute("job", job);
 		request.setAttribute("jobSpaceId", jobSpaceId);
@@ -49,6 +66,7 @@
 		<span id="jobId" style="display: none;">${job.id}</span>
 		<span id="jobSpaceId" style="display: none;">${jobSpaceId}</span>
 		<span id="stageNumber" style="display:none;">${stage}</span>
+		<span id="lastCompletionId" style="display:none;">${lastCompletionId}</span>
 		<h2 class="jobSpaceName">matrix for job space
 			"${matrix.getJobSpaceName()}" with id=${matrix.getJobSpaceId()}</h2>
 		<div class="matrixLegend">
@@ -96,6 +114,17 @@
 					      style="color: red; display: none;">Stage must be a positive integer.</span>
 				</form>
 			</c:if>
+			<c:if test="${matrix.getTotalRowCount() > rowsPerPage}">
+				<p class="matrixPages">
+					Benchmarks ${firstRow + 1} to ${lastRow + 1} of ${matrix.getTotalRowCount()}
+					<c:if test="${firstRow > 0}">
+						<a href="${starexecRoot}/secure/details/jobMatrixView.jsp?jobSpaceId=${jobSpaceId}&stage=${stage}&firstRow=${firstRow - rowsPerPage}">previous</a>
+					</c:if>
+					<c:if test="${lastRow + 1 < matrix.getTotalRowCount()}">
+						<a href="${starexecRoot}/secure/details/jobMatrixView.jsp?jobSpaceId=${jobSpaceId}&stage=${stage}&firstRow=${lastRow + 1}">next</a>
+					</c:if>
+				</p>
+			</c:if>
 		</div>
 
 		<table id="jobMatrix">
@@ -1,5 +1,5 @@
 <%@page contentType="text/html" pageEncoding="UTF-8"
-        import="org.starexec.data.database.JobPairs, org.starexec.data.database.Jobs,org.starexec.data.database.Permissions, org.starexec.data.database.Users,org.starexec.data.security.GeneralSecurity, org.starexec.data.security.JobSecurity, org.starexec.data.to.Job, org.starexec.data.to.JobPair, org.starexec.data.to.User, org.starexec.data.to.enums.BenchmarkingFramework, org.starexec.data.to.pipelines.JoblineStage, org.starexec.logger.StarLogger, org.starexec.util.SessionUtil, java.util.Optional" %>
+        import="org.starexec.constants.R, org.starexec.data.database.JobPairs, org.starexec.data.database.Jobs,org.starexec.data.database.Permissions, org.starexec.data.database.Users,org.starexec.data.security.GeneralSecurity, org.starexec.data.security.JobSecurity, org.starexec.data.to.Job, org.starexec.data.to.JobPair, org.starexec.data.to.User, org.starexec.data.to.enums.BenchmarkingFramework, org.starexec.data.to.pipelines.JoblineStage, org.starexec.logger.StarLogger, org.starexec.util.SessionUtil, java.io.File, java.util.Optional" %>
 <%@taglib prefix="star" tagdir="/WEB-INF/tags" %>
 <%@taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
 <%
@@ -32,6 +32,9 @@
 			User u = Users.get(j.getUserId());
 			String pairlog = GeneralSecurity
 					.getHTMLSafeString(JobPairs.getJobLog(jp.getId()));
+			// getJobLog only reads the end of long logs
+			String logPath = JobPairs.getLogPath(jp.getId());
+			boolean logTruncated = logPath != null && new File(logPath).length() > R.MAX_PAIR_FILE_READ_BYTES;
 			boolean canRerun = (JobSecurity.canUserRerunPairs(j.getId(), userId,
 			                                                  jp.getStatus()
 			                                                    .getCode()
@@ -45,10 +48,14 @@
 					"isRunsolver", j.getBenchmarkingFramework() ==
 							BenchmarkingFramework.RUNSOLVER);
 			request.setAttribute("moreThanOneStage", moreThanOneStage);
+			request.setAttribute(
+					"canFollow", !jp.getStatus().getCode().finishedRunning() &&
+							Boolean.TRUE.equals(Jobs.doesJobCopyBackIncrementally(j.getId())));
 			request.setAttribute("pair", jp);
 			request.setAttribute("job", j);
 			request.setAttribute("usr", u);
 			request.setAttribute("log", pairlog);
+			request.setAttribute("logTruncated", logTruncated);
 			request.setAttribute("rerun", canRerun);
 		} else {
 			response.sendError(
@@ -228,10 +235,13 @@
 			</legend>
 			<textarea class=contentTextarea id="jpStdout"
 			          readonly="readonly">${stage.output}</textarea>
-			<a href="${starexecRoot}/services/jobs/pairs/${pair.id}/stdout/${stage.stageNumber}?limit=-1"
+			<a href="${starexecRoot}/secure/details/pairOutput.jsp?id=${pair.id}&stage=${stage.stageNumber}"
 			   target="_blank" class="popoutLink">popout</a>
-			<p class="caption">output may be truncated. 'popout' for the full
-				output.</p>
+			<c:if test="${canFollow}">
+				<button class="followOutput" stage="${stage.stageNumber}">follow</button>
+			</c:if>
+			<p class="caption">only the first 100 lines are shown. 'popout' to page
+				through all of the output.</p>
 		</fieldset>
 		<c:if test="${moreThanOneStage}">
 			</fieldset>
@@ -243,8 +253,12 @@
 			log
 		</legend>
 		<star:displayTextContents text="${log}" lang="log"/>
-		<a href="${starexecRoot}/services/jobs/pairs/${pair.id}/log"
+		<a href="${starexecRoot}/secure/details/pairOutput.jsp?id=${pair.id}&type=log"
 		   target="_blank" class="popoutLink">popout</a>
+		<c:if test="${logTruncated}">
+			<p class="caption">only the end of the log is shown. 'popout' to page
+				through all of it.</p>
+		</c:if>
 	</fieldset>
 
 	<fieldset id="fieldActions">
@@ -0,0 +1,70 @@
+<%@page contentType="text/html" pageEncoding="UTF-8"
+        import="org.starexec.constants.R, org.starexec.data.database.JobPairs, org.starexec.data.database.Permissions, org.starexec.data.to.JobPair, org.starexec.util.SessionUtil" %>
+<%@taglib prefix="star" tagdir="/WEB-INF/tags" %>
+<%@taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%
+	try {
+		int userId = SessionUtil.getUserId(request);
+		int pairId = Integer.parseInt(request.getParameter("id"));
+		boolean isLog = "log".equals(request.getParameter("type"));
+		int stageNumber = isLog ? 0 : Integer.parseInt(request.getParameter("stage"));
+
+		JobPair jp = JobPairs.getPair(pairId);
+		if (jp == null) {
+			response.sendError(
+					HttpServletResponse.SC_NOT_FOUND, "Job pair does not exist");
+			return;
+		} else if (!Permissions.canUserSeeJob(jp.getJobId(), userId).isSuccess()) {
+			response.sendError(
+					HttpServletResponse.SC_FORBIDDEN,
+					"You do not have permission to view this job pair"
+			);
+			return;
+		}
+		request.setAttribute("pairId", pairId);
+		request.setAttribute("isLog", isLog);
+		request.setAttribute("stage", stageNumber);
+		request.setAttribute("pageBytes", R.MAX_PAIR_FILE_READ_BYTES);
+	} catch (NumberFormatException nfe) {
+		response.sendError(
+				HttpServletResponse.SC_BAD_REQUEST,
+				"The given pair id or stage was in an invalid format"
+		);
+		return;
+	} catch (Exception e) {
+		response.sendError(
+				HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+		return;
+	}
+%>
+<c:choose>
+	<c:when test="${isLog}">
+		<c:set var="outputTitle" value="pair #${pairId} job log"/>
+		<c:set var="outputUrl" value="services/jobs/pairs/${pairId}/log/range"/>
+	</c:when>
+	<c:otherwise>
+		<c:set var="outputTitle" value="pair #${pairId} stage ${stage} output"/>
+		<c:set var="outputUrl" value="services/jobs/pairs/${pairId}/stdout/${stage}/range"/>
+	</c:otherwise>
+</c:choose>
+<star:template title="${outputTitle}" js="details/pairOutput" css="details/shared">
+	<span id="outputUrl" value="${outputUrl}"></span>
+	<span id="pageBytes" value="${pageBytes}"></span>
+	<fieldset id="fieldOutput">
+		<legend>${isLog ? 'job log' : 'output'}</legend>
+		<p id="outputPosition"></p>
+		<p id="outputTruncated" class="caption" style="display: none;">
+			only part of this file is shown. Use the buttons to page through
+			the rest, or download all output.
+		</p>
+		<div class="outputPages">
+			<button id="firstPage">first</button>
+			<button id="previousPage">previous</button>
+			<button id="nextPage">next</button>
+			<button id="lastPage">last</button>
+			<a href="${starexecRoot}/secure/download?type=jp_output&id=${pairId}"
+			   id="downLink">all output</a>
+		</div>
+		<pre id="output"></pre>
+	</fieldset>
+</star:template>
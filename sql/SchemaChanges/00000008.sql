@@ -0,0 +1,23 @@
+-- Add `job_pair_id_sequence` table
+-- Job pair IDs are handed out from this table in contiguous blocks, so that the
+-- pairs of a new job can be inserted in batches with their IDs already known
+-- instead of inserting them one at a time to read back each AUTO_INCREMENT ID
+
+DROP PROCEDURE IF EXISTS UpdateTo7_8 //
+CREATE PROCEDURE UpdateTo7_8()
+BEGIN
+	IF EXISTS (SELECT 1 FROM system_flags WHERE major_version=1 AND minor_version=7) THEN
+		UPDATE system_flags SET minor_version=8;
+
+		CREATE TABLE job_pair_id_sequence (
+			id INT NOT NULL,
+			next_id INT NOT NULL,
+			PRIMARY KEY (id)
+		);
+		INSERT INTO job_pair_id_sequence (id, next_id)
+			SELECT 1, COALESCE(MAX(id), 0) + 1 FROM job_pairs;
+	END IF;
+END //
+
+CALL UpdateTo7_8() //
+DROP PROCEDURE IF EXISTS UpdateTo7_8 //
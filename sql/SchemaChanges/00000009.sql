@@ -0,0 +1,23 @@
+-- Add `benchmark_id_sequence` table
+-- Benchmark IDs are handed out from this table in contiguous blocks, so that
+-- the benchmarks of a large upload can be inserted in batches along with their
+-- attributes, dependencies and space associations
+
+DROP PROCEDURE IF EXISTS UpdateTo8_9 //
+CREATE PROCEDURE UpdateTo8_9()
+BEGIN
+	IF EXISTS (SELECT 1 FROM system_flags WHERE major_version=1 AND minor_version=8) THEN
+		UPDATE system_flags SET minor_version=9;
+
+		CREATE TABLE benchmark_id_sequence (
+			id INT NOT NULL,
+			next_id INT NOT NULL,
+			PRIMARY KEY (id)
+		);
+		INSERT INTO benchmark_id_sequence (id, next_id)
+			SELECT 1, COALESCE(MAX(id), 0) + 1 FROM benchmarks;
+	END IF;
+END //
+
+CALL UpdateTo8_9() //
+DROP PROCEDURE IF EXISTS UpdateTo8_9 //
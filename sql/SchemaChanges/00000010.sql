@@ -0,0 +1,23 @@
+-- Add `node_benchmark_cache` table
+-- Records which benchmarks are held in the benchmark cache of each node, so
+-- that pairs can be sent to nodes that already have their benchmark
+
+DROP PROCEDURE IF EXISTS UpdateTo9_10 //
+CREATE PROCEDURE UpdateTo9_10()
+BEGIN
+	IF EXISTS (SELECT 1 FROM system_flags WHERE major_version=1 AND minor_version=9) THEN
+		UPDATE system_flags SET minor_version=10;
+
+		CREATE TABLE node_benchmark_cache (
+			node_id INT NOT NULL,
+			bench_id INT NOT NULL,
+			PRIMARY KEY (node_id, bench_id),
+			KEY (bench_id),
+			CONSTRAINT node_benchmark_cache_node_id FOREIGN KEY (node_id) REFERENCES nodes(id) ON DELETE CASCADE,
+			CONSTRAINT node_benchmark_cache_bench_id FOREIGN KEY (bench_id) REFERENCES benchmarks(id) ON DELETE CASCADE
+		);
+	END IF;
+END //
+
+CALL UpdateTo9_10() //
+DROP PROCEDURE IF EXISTS UpdateTo9_10 //
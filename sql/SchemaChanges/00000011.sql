@@ -0,0 +1,30 @@
+-- Drop `job_space_closure` table
+-- The spaces in a job space hierarchy are now taken from a tree of the job's
+-- spaces kept in memory, so the closure entries are no longer read or written.
+-- The queries over a hierarchy are now built with the hierarchy's spaces in
+-- them, so the procedures that joined the closure table are dropped as well
+
+DROP PROCEDURE IF EXISTS ClearOldJobClosureEntries //
+DROP PROCEDURE IF EXISTS InsertIntoJobSpaceClosure //
+DROP PROCEDURE IF EXISTS RefreshEntriesByAncestor //
+DROP PROCEDURE IF EXISTS GetJobPairsInJobSpaceHierarchy //
+DROP PROCEDURE IF EXISTS GetJobPairsInJobSpaceHierarchyCompletedSince //
+DROP PROCEDURE IF EXISTS GetJobPairStagesInJobSpaceHierarchyCompletedSince //
+DROP PROCEDURE IF EXISTS GetJobPairSummaryInJobSpaceHierarchy //
+DROP PROCEDURE IF EXISTS GetCompletedAttrNamesInJobSpaceHierarchy //
+DROP PROCEDURE IF EXISTS GetJobPairsWithAttrsInJobSpaceHierarchy //
+DROP PROCEDURE IF EXISTS GetJobPairStagesInJobSpaceHierarchy //
+DROP PROCEDURE IF EXISTS CountJobPairsInJobSpaceHierarchyByType //
+
+DROP PROCEDURE IF EXISTS UpdateTo10_11 //
+CREATE PROCEDURE UpdateTo10_11()
+BEGIN
+	IF EXISTS (SELECT 1 FROM system_flags WHERE major_version=1 AND minor_version=10) THEN
+		UPDATE system_flags SET minor_version=11;
+
+		DROP TABLE IF EXISTS job_space_closure;
+	END IF;
+END //
+
+CALL UpdateTo10_11() //
+DROP PROCEDURE IF EXISTS UpdateTo10_11 //
@@ -5,22 +5,39 @@
 -- Author: Tyler Jensen
 DROP PROCEDURE IF EXISTS AddBenchmark //
 CREATE PROCEDURE AddBenchmark(IN _name VARCHAR(256), IN _path TEXT, IN _downloadable TINYINT(1), IN _userId INT, IN _typeId INT, IN _diskSize BIGINT, IN _description TEXT, OUT _benchId INT)
+	BEGIN
+		CALL ReserveBenchmarkIds(1, _benchId);
+		CALL AddBenchmarkWithId(_benchId, _name, _path, _downloadable, _userId, _typeId, _diskSize, _description);
+	END //
+
+-- Adds a new benchmark with an ID reserved by ReserveBenchmarkIds
+DROP PROCEDURE IF EXISTS AddBenchmarkWithId //
+CREATE PROCEDURE AddBenchmarkWithId(IN _id INT, IN _name VARCHAR(256), IN _path TEXT, IN _downloadable TINYINT(1), IN _userId INT, IN _typeId INT, IN _diskSize BIGINT, IN _description TEXT)
 	BEGIN
 		UPDATE users SET disk_size=disk_size+_diskSize WHERE id = _userId;
-		INSERT INTO benchmarks (user_id, name, bench_type, uploaded, path, downloadable, disk_size, description)
-		VALUES (_userId, _name, _typeId, SYSDATE(), _path, _downloadable, _diskSize, _description);
+		INSERT INTO benchmarks (id, user_id, name, bench_type, uploaded, path, downloadable, disk_size, description)
+		VALUES (_id, _userId, _name, _typeId, SYSDATE(), _path, _downloadable, _diskSize, _description);
+	END //
 
-		SELECT LAST_INSERT_ID() INTO _benchId;
+-- Reserves a contiguous block of benchmark IDs and returns the first of them. The IDs are taken from
+-- benchmark_id_sequence rather than the AUTO_INCREMENT of benchmarks so that benchmarks can be inserted in batches
+-- with their IDs already known. Should be called outside of any long transaction, since it locks the sequence row
+DROP PROCEDURE IF EXISTS ReserveBenchmarkIds //
+CREATE PROCEDURE ReserveBenchmarkIds(IN _count INT, OUT _first INT)
+	BEGIN
+		INSERT IGNORE INTO benchmark_id_sequence (id, next_id) VALUES (1, 1);
+		-- never hand out an ID below one already in use, in case benchmarks were added some other way
+		UPDATE benchmark_id_sequence
+		SET next_id = LAST_INSERT_ID(GREATEST(next_id, (SELECT COALESCE(MAX(id), 0) + 1 FROM benchmarks)) + _count)
+		WHERE id = 1;
+		SELECT LAST_INSERT_ID() - _count INTO _first;
 	END //
 
 DROP PROCEDURE IF EXISTS AddAndAssociateBenchmark //
 CREATE PROCEDURE AddAndAssociateBenchmark(IN _name VARCHAR(256), IN _path TEXT, IN _downloadable TINYINT(1), IN _userId INT, IN _typeId INT, IN _diskSize BIGINT, IN _spaceId INT, OUT _benchId INT)
 	BEGIN
-		UPDATE users SET disk_size=disk_size+_diskSize WHERE id = _userId;
-		INSERT INTO benchmarks (user_id, name, bench_type, uploaded, path, downloadable, disk_size)
-		VALUES (_userId, _name, _typeId, SYSDATE(), _path, _downloadable, _diskSize);
-
-		SELECT LAST_INSERT_ID() INTO _benchId;
+		CALL ReserveBenchmarkIds(1, _benchId);
+		CALL AddBenchmarkWithId(_benchId, _name, _path, _downloadable, _userId, _typeId, _diskSize, NULL);
 
 		INSERT IGNORE INTO bench_assoc (space_id, bench_id) VALUES (_spaceId, _benchId);
 
@@ -86,6 +103,18 @@ CREATE PROCEDURE GetBenchByName(IN _id INT, IN _name VARCHAR(256))
 		AND bench.name = _name;
 	END //
 
+-- Gets the space, ID and name of every benchmark in the given space or any
+-- space below it that GetBenchByName would find
+DROP PROCEDURE IF EXISTS GetBenchNamesInHierarchy //
+CREATE PROCEDURE GetBenchNamesInHierarchy(IN _spaceId INT)
+	BEGIN
+		SELECT bench_assoc.space_id, bench.id, bench.name
+		FROM closure
+			JOIN bench_assoc ON bench_assoc.space_id=closure.descendant
+			JOIN benchmarks AS bench ON bench.id=bench_assoc.bench_id
+		WHERE closure.ancestor=_spaceId AND bench.deleted=false AND bench.recycled=false;
+	END //
+
 -- Retrieves all benchmark dependencies for a given primary benchmark id
 -- Author: Benton McCune
 DROP PROCEDURE IF EXISTS GetBenchmarkDependencies //
@@ -203,3 +203,35 @@ CREATE PROCEDURE DeleteNode(IN _id INT)
 	BEGIN
 		DELETE FROM nodes WHERE id=_id;
 	END //
+
+-- Records that a benchmark is held in the benchmark cache of the given node. Ignores nodes that are not known
+DROP PROCEDURE IF EXISTS AddCachedBenchmark //
+CREATE PROCEDURE AddCachedBenchmark(IN _nodeName VARCHAR(128), IN _benchId INT)
+	BEGIN
+		INSERT IGNORE INTO node_benchmark_cache (node_id, bench_id)
+			SELECT nodes.id, benchmarks.id FROM nodes, benchmarks
+			WHERE nodes.name = _nodeName AND benchmarks.id = _benchId;
+	END //
+
+-- Records that a benchmark has been evicted from the benchmark cache of the given node
+DROP PROCEDURE IF EXISTS RemoveCachedBenchmark //
+CREATE PROCEDURE RemoveCachedBenchmark(IN _nodeName VARCHAR(128), IN _benchId INT)
+	BEGIN
+		DELETE node_benchmark_cache FROM node_benchmark_cache
+			JOIN nodes ON nodes.id = node_benchmark_cache.node_id
+		WHERE nodes.name = _nodeName AND node_benchmark_cache.bench_id = _benchId;
+	END //
+
+-- Gets the nodes of a queue that hold the benchmarks of the first _limit pending pairs of a job in their benchmark
+-- cache, which are the pairs the job manager will submit next
+DROP PROCEDURE IF EXISTS GetCachedBenchmarkNodesForJob //
+CREATE PROCEDURE GetCachedBenchmarkNodesForJob(IN _jobId INT, IN _queueId INT, IN _limit INT)
+	BEGIN
+		SELECT DISTINCT node_benchmark_cache.bench_id, nodes.name
+		FROM (SELECT bench_id FROM job_pairs
+			WHERE job_id = _jobId AND status_code = 1
+			ORDER BY id ASC LIMIT _limit) AS pending
+		JOIN node_benchmark_cache ON node_benchmark_cache.bench_id = pending.bench_id
+		JOIN queue_assoc ON queue_assoc.node_id = node_benchmark_cache.node_id AND queue_assoc.queue_id = _queueId
+		JOIN nodes ON nodes.id = node_benchmark_cache.node_id;
+	END //
@@ -7,6 +7,15 @@ CREATE PROCEDURE AddErrorLog(IN _message TEXT, _logLevel VARCHAR(32), OUT _id IN
     SELECT LAST_INSERT_ID() INTO _id;
   END //
 
+-- Adds an error log to the database with the time it was first logged. Used
+-- to add logs in batches, where the IDs of the new logs are not needed.
+DROP PROCEDURE IF EXISTS AddErrorLogAt //
+CREATE PROCEDURE AddErrorLogAt(IN _message TEXT, _logLevel VARCHAR(32), _time TIMESTAMP)
+  BEGIN
+    SET @llid := (SELECT id FROM log_levels WHERE _logLevel = name);
+    INSERT INTO error_logs (message, log_level_id, time) VALUES (_message, @llid, _time);
+  END //
+
 -- Gets an error log from the database with the given id.
 DROP PROCEDURE IF EXISTS GetErrorLogById //
 CREATE PROCEDURE GetErrorLogById(IN _id INT)
@@ -128,6 +128,17 @@ CREATE PROCEDURE UpdatePairStatus(IN _jobPairId INT, IN _statusCode TINYINT)
 		END IF;
 	END //
 
+-- Sets the status code of every pair of a job that has the status code _oldStatusCode, and of all of their stages,
+-- to _newStatusCode
+DROP PROCEDURE IF EXISTS UpdateJobPairStatusesWithStatus //
+CREATE PROCEDURE UpdateJobPairStatusesWithStatus(IN _jobId INT, IN _oldStatusCode TINYINT, IN _newStatusCode TINYINT)
+	BEGIN
+		UPDATE job_pairs
+		JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id = job_pairs.id
+		SET job_pairs.status_code = _newStatusCode, jobpair_stage_data.status_code = _newStatusCode
+		WHERE job_pairs.job_id = _jobId AND job_pairs.status_code = _oldStatusCode;
+	END //
+
 -- Sets the status code for the given stage of the given pair
 DROP PROCEDURE IF EXISTS UpdatePairStageStatus //
 CREATE PROCEDURE UpdatePairStageStatus(IN _jobPairId INT,IN _stageNumber INT, IN _statusCode TINYINT)
@@ -326,6 +337,59 @@ CREATE PROCEDURE GetJobPairInputPaths(IN _pairId INT)
 		WHERE jobpair_id=_pairId ORDER BY input_number ASC;
 	END //
 
+-- Gets the input paths of every pending pair of the given job with an ID in the given range, ordered by pair and
+-- then by input number. Lets the scheduler load the inputs of a batch of pairs at once
+DROP PROCEDURE IF EXISTS GetJobPairInputPathsInRange //
+CREATE PROCEDURE GetJobPairInputPathsInRange(IN _jobId INT, IN _minPairId INT, IN _maxPairId INT)
+	BEGIN
+		SELECT jobpair_id, path, input_number
+		FROM job_pairs FORCE INDEX (job_id_2)
+		JOIN jobpair_inputs ON jobpair_inputs.jobpair_id=job_pairs.id
+		JOIN benchmarks ON benchmarks.id=jobpair_inputs.bench_id
+		WHERE job_pairs.job_id=_jobId AND job_pairs.status_code=1 AND job_pairs.id BETWEEN _minPairId AND _maxPairId
+		ORDER BY jobpair_id ASC, input_number ASC;
+	END //
+
+-- Gets every queue that has had a pair complete after the given completion ID, along with the newest
+-- completion ID and the earliest end time of those pairs. Used to wake the scheduler for queues with free slots
+DROP PROCEDURE IF EXISTS GetQueuesWithCompletionsSince //
+CREATE PROCEDURE GetQueuesWithCompletionsSince(IN _completionId INT)
+	BEGIN
+		SELECT jobs.queue_id, MAX(job_pair_completion.completion_id) AS last_completion_id,
+			MIN(job_pairs.end_time) AS first_end_time
+		FROM job_pair_completion
+		JOIN job_pairs ON job_pairs.id = job_pair_completion.pair_id
+		JOIN jobs ON jobs.id = job_pairs.job_id
+		WHERE job_pair_completion.completion_id > _completionId
+		GROUP BY jobs.queue_id;
+	END //
+
+-- Gets every job that has had a pair complete after the given completion ID, along with the newest of those
+-- completion IDs. Used to fold newly completed pairs into the in-memory solver stats of running jobs
+DROP PROCEDURE IF EXISTS GetJobsWithCompletionsSince //
+CREATE PROCEDURE GetJobsWithCompletionsSince(IN _completionId INT)
+	BEGIN
+		SELECT job_pairs.job_id, MAX(job_pair_completion.completion_id) AS last_completion_id
+		FROM job_pair_completion
+		JOIN job_pairs ON job_pairs.id = job_pair_completion.pair_id
+		WHERE job_pair_completion.completion_id > _completionId
+		GROUP BY job_pairs.job_id;
+	END //
+
+-- Gets only the status code of a pair
+DROP PROCEDURE IF EXISTS GetJobPairStatusCode //
+CREATE PROCEDURE GetJobPairStatusCode(IN _pairId INT)
+	BEGIN
+		SELECT status_code FROM job_pairs WHERE id=_pairId;
+	END //
+
+-- Gets the most recent completion ID, or 0 if no pairs have completed
+DROP PROCEDURE IF EXISTS GetLatestCompletionId //
+CREATE PROCEDURE GetLatestCompletionId()
+	BEGIN
+		SELECT IFNULL(MAX(completion_id), 0) AS completion_id FROM job_pair_completion;
+	END //
+
 -- Select all data from the jobpair_time_delta table for a specific
 -- queue. -1 means all queues
 DROP PROCEDURE IF EXISTS GetJobpairTimeDeltaData //
@@ -373,37 +437,3 @@ CREATE PROCEDURE SetBrokenPairStatus(IN _pairId INT, IN _current_status INT, IN
 	END //
 
 
--- Counts the total number of job pairs that satisfy GetNextPageOfJobPairsInJobSpaceHierarchy
-DROP PROCEDURE IF EXISTS CountJobPairsInJobSpaceHierarchyByType //
-CREATE PROCEDURE CountJobPairsInJobSpaceHierarchyByType(IN _jobSpaceId INT,IN _configId INT, IN _type VARCHAR(16), IN _query TEXT, IN _stageNumber INT)
-
-	BEGIN
-		SELECT COUNT(*) as count FROM job_pairs
-
-		JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id = job_pairs.id
-		LEFT JOIN job_pair_completion ON job_pair_completion.pair_id=job_pairs.id
-
-		LEFT JOIN job_attributes on (job_attributes.pair_id=job_pairs.id and job_attributes.stage_number=jobpair_stage_data.stage_number AND job_attributes.attr_key="starexec-result")
-		JOIN job_space_closure ON descendant=job_pairs.job_space_id
-		LEFT JOIN bench_attributes ON (job_pairs.bench_id=bench_attributes.bench_id AND bench_attributes.attr_key = "starexec-expected-result")
-
-		WHERE ancestor=_jobSpaceId AND jobpair_stage_data.config_id=_configId AND jobpair_stage_data.stage_number = _stageNumber AND
-				((_type = "all") OR
-				(_type="resource" AND job_pairs.status_code>=14 AND job_pairs.status_code<=17) OR
-				(_type = "incomplete" AND job_pairs.status_code!=7 AND !(job_pairs.status_code>=14 AND job_pairs.status_code<=17)) OR
-				(_type="failed" AND ((job_pairs.status_code>=8 AND job_pairs.status_code<=13) OR job_pairs.status_code=18)) OR
-				(_type ="complete" AND (job_pairs.status_code=7 OR (job_pairs.status_code<=14 ANd job_pairs.status_code<=17))) OR
-				(_type= "unknown" AND job_pairs.status_code=7 AND job_attributes.attr_value="starexec-unknown") OR
-				(_type = "solved" AND job_pairs.status_code=7 AND (job_attributes.attr_value=bench_attributes.attr_value OR bench_attributes.attr_value is null)) OR
-				(_type = "wrong" AND job_pairs.status_code=7 AND (bench_attributes.attr_value is not null) and (job_attributes.attr_value!=bench_attributes.attr_value)))
-
-				AND
-
-				(bench_name 		LIKE 	CONCAT('%', _query, '%')
-				OR		jobpair_stage_data.config_name		LIKE	CONCAT('%', _query, '%')
-				OR		jobpair_stage_data.solver_name		LIKE	CONCAT('%', _query, '%')
-				OR		jobpair_stage_data.status_code 	LIKE 	CONCAT('%', _query, '%')
-				OR		jobpair_stage_data.wallclock				LIKE	CONCAT('%', _query, '%')
-				OR		cpu				LIKE	CONCAT('%', _query, '%')
-				OR      job_attributes.attr_value 			LIKE 	CONCAT('%', _query, '%'));
-	END //
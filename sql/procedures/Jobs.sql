@@ -322,22 +322,6 @@ CREATE PROCEDURE GetJobPairsPrimaryStageByJob(IN _id INT)
 
 
 
--- Counts the entries in the job space closure table with the given ancestor and updates their last_used time
--- Author: Eric Burns
-DROP PROCEDURE IF EXISTS RefreshEntriesByAncestor //
-CREATE PROCEDURE RefreshEntriesByAncestor(IN _id INT, IN _time TIMESTAMP)
-	BEGIN
-		UPDATE job_space_closure
-		SET last_used=_time
-		WHERE ancestor=_id;
-
-		SELECT COUNT(*) AS count
-		FROM job_space_closure
-		WHERE ancestor=_id;
-	END //
-
-
-
 -- Gets all the attribute values for benchmarks in the given job
 -- Author: Eric Burns
 DROP PROCEDURE IF EXISTS GetAttrsOfNameForJob //
@@ -382,30 +366,6 @@ CREATE PROCEDURE GetJobPairsInJobSpace(IN _jobSpaceId INT, IN _jobId INT, IN _st
 
 	END //
 
--- Gets all the job pairs in a job space hierarchy. No stages are retrieved
--- Author: Eric Burns
-DROP PROCEDURE IF EXISTS GetJobPairsInJobSpaceHierarchy //
-CREATE PROCEDURE GetJobPairsInJobSpaceHierarchy(IN _jobSpaceId INT, IN _since INT)
-	BEGIN
-		SELECT
-		status_code,
-		job_pairs.id,
-		job_pairs.bench_id,
-		job_pairs.bench_name,
-		anonymous_primitive_names.anonymous_name AS anon_bench_name,
-		job_pairs.path,
-		completion_id,
-		primary_jobpair_data
-			FROM job_pairs
-			JOIN job_spaces ON job_spaces.id = job_pairs.job_space_id
-			LEFT JOIN anonymous_primitive_names ON
-				anonymous_primitive_names.primitive_id=job_pairs.bench_id AND anonymous_primitive_names.primitive_type="bench"
-						AND anonymous_primitive_names.job_id=job_spaces.job_id
-			JOIN job_space_closure ON descendant=job_space_id
-			LEFT JOIN job_pair_completion ON job_pairs.id=job_pair_completion.pair_id
-			WHERE ancestor=_jobSpaceId AND ((_since is null) OR job_pair_completion.completion_id>_since);
-	END //
-
 -- Gets all the stages of job pairs in a particular job space
 DROP PROCEDURE IF EXISTS GetJobPairStagesInJobSpace //
 CREATE PROCEDURE GetJobPairStagesInJobSpace(IN _jobSpaceId INT)
@@ -420,43 +380,6 @@ CREATE PROCEDURE GetJobPairStagesInJobSpace(IN _jobSpaceId INT)
 		WHERE job_space_id=_jobSpaceId;
 	END //
 
--- Gets all the stages of job pairs in a particular job space
-DROP PROCEDURE IF EXISTS GetJobPairStagesInJobSpaceHierarchy //
-CREATE PROCEDURE GetJobPairStagesInJobSpaceHierarchy(IN _jobSpaceId INT, IN _since INT)
-	BEGIN
-		SELECT
-		job_pairs.id AS pair_id,
-		jobpair_stage_data.solver_id,
-		jobpair_stage_data.solver_name,
-		jobpair_stage_data.status_code,
-		jobpair_stage_data.config_id,
-		jobpair_stage_data.config_name,
-		jobpair_stage_data.cpu,
-		jobpair_stage_data.stage_id,
-		jobpair_stage_data.wallclock AS wallclock,
-		job_pairs.id, jobpair_stage_data.stage_number,
-		jobpair_stage_data.max_vmem,
-		bench_attributes.attr_value AS expected,
-		job_attributes.attr_value AS result,
-		anonymous_solver_names.anonymous_name AS anon_solver_name,
-		anonymous_config_names.anonymous_name AS anon_config_name
-			FROM job_pairs
-			JOIN job_spaces ON job_spaces.id=job_pairs.job_space_id
-			JOIN job_space_closure ON descendant=job_space_id
-			JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id=job_pairs.id
-			LEFT JOIN anonymous_primitive_names AS anonymous_solver_names ON
-						anonymous_solver_names.primitive_id=jobpair_stage_data.solver_id AND anonymous_solver_names.primitive_type="solver"
-						AND anonymous_solver_names.job_id = job_spaces.job_id
-			LEFT JOIN anonymous_primitive_names AS anonymous_config_names ON
-						anonymous_config_names.primitive_id=jobpair_stage_data.config_id AND anonymous_config_names.primitive_type="config"
-						AND anonymous_config_names.job_id = job_spaces.job_id
-			LEFT JOIN job_attributes on (job_attributes.pair_id=job_pairs.id AND job_attributes.stage_number=jobpair_stage_data.stage_number and job_attributes.attr_key="starexec-result")
-			LEFT JOIN job_pair_completion ON job_pairs.id=job_pair_completion.pair_id
-
-			LEFT JOIN bench_attributes ON (job_pairs.bench_id=bench_attributes.bench_id AND bench_attributes.attr_key = "starexec-expected-result")
-			WHERE ancestor=_jobSpaceId AND ((_since is null) OR job_pair_completion.completion_id>_since);
-	END //
-
 -- Counts the number of pairs in a job
 -- Author Eric Burns
 DROP PROCEDURE IF EXISTS countPairsForJob //
@@ -483,6 +406,133 @@ CREATE PROCEDURE GetAllJobPairsByJob(IN _id INT)
 		-- configs are no longer removed from the table, so only non-deleted ones should be selected
 	END //
 
+-- Counts the benchmarks that have a pair with the given stage in a job space, which are the rows of the job matrix
+-- view. The primary stage of each pair is used if _stageNumber is 0 or less.
+DROP PROCEDURE IF EXISTS GetMatrixBenchmarkCountInJobSpace //
+CREATE PROCEDURE GetMatrixBenchmarkCountInJobSpace(IN _jobSpaceId INT, IN _stageNumber INT)
+	BEGIN
+		SELECT COUNT(DISTINCT job_pairs.bench_id) AS benchmarks
+			FROM jobpair_stage_data
+			JOIN job_pairs ON job_pairs.id=jobpair_stage_data.jobpair_id
+			JOIN configurations AS config ON jobpair_stage_data.config_id=config.id
+			WHERE jobpair_stage_data.job_space_id=_jobSpaceId
+			AND (jobpair_stage_data.stage_number=_stageNumber
+				OR (_stageNumber<=0 AND jobpair_stage_data.stage_number=job_pairs.primary_jobpair_data))
+			AND config.deleted=0;
+	END //
+
+-- Gets the solver-configs that have a pair with the given stage in a job space, which are the columns of the job
+-- matrix view. The primary stage of each pair is used if _stageNumber is 0 or less.
+DROP PROCEDURE IF EXISTS GetMatrixSolverConfigsInJobSpace //
+CREATE PROCEDURE GetMatrixSolverConfigsInJobSpace(IN _jobSpaceId INT, IN _stageNumber INT)
+	BEGIN
+		SELECT DISTINCT
+		config.id AS config_id,
+		config.name AS config_name,
+		solver.id AS solver_id,
+		solver.name AS solver_name
+			FROM jobpair_stage_data
+			JOIN job_pairs ON job_pairs.id=jobpair_stage_data.jobpair_id
+			JOIN configurations AS config ON jobpair_stage_data.config_id=config.id
+			JOIN solvers AS solver ON config.solver_id=solver.id
+			WHERE jobpair_stage_data.job_space_id=_jobSpaceId
+			AND (jobpair_stage_data.stage_number=_stageNumber
+				OR (_stageNumber<=0 AND jobpair_stage_data.stage_number=job_pairs.primary_jobpair_data))
+			AND config.deleted=0;
+	END //
+
+-- Gets one stage of the pairs in a job space that ran one page of its benchmarks, with just what the job matrix
+-- view shows for them. Benchmarks are ordered by name, and the page is the _rowCount benchmarks starting at
+-- _firstRow. The primary stage of each pair is used if _stageNumber is 0 or less.
+DROP PROCEDURE IF EXISTS GetMatrixPairsInJobSpaceForBenchmarkRows //
+CREATE PROCEDURE GetMatrixPairsInJobSpaceForBenchmarkRows(IN _jobSpaceId INT, IN _stageNumber INT, IN _firstRow INT, IN _rowCount INT)
+	BEGIN
+		SELECT
+		job_pairs.id AS pair_id,
+		job_pairs.bench_id,
+		bench.name AS bench_name,
+		jobpair_stage_data.stage_number,
+		jobpair_stage_data.status_code,
+		jobpair_stage_data.cpu,
+		jobpair_stage_data.wallclock,
+		jobpair_stage_data.max_vmem,
+		config.id AS config_id,
+		config.name AS config_name,
+		solver.id AS solver_id,
+		solver.name AS solver_name,
+		bench_attributes.attr_value AS expected,
+		job_attributes.attr_value AS result
+			FROM (SELECT job_pairs.bench_id
+				FROM jobpair_stage_data
+				JOIN job_pairs ON job_pairs.id=jobpair_stage_data.jobpair_id
+				JOIN configurations AS config ON jobpair_stage_data.config_id=config.id
+				WHERE jobpair_stage_data.job_space_id=_jobSpaceId
+				AND (jobpair_stage_data.stage_number=_stageNumber
+					OR (_stageNumber<=0 AND jobpair_stage_data.stage_number=job_pairs.primary_jobpair_data))
+				AND config.deleted=0
+				GROUP BY job_pairs.bench_name, job_pairs.bench_id
+				ORDER BY job_pairs.bench_name, job_pairs.bench_id
+				LIMIT _firstRow, _rowCount) AS bench_rows
+			JOIN job_pairs ON job_pairs.bench_id=bench_rows.bench_id
+			JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id=job_pairs.id
+			JOIN configurations AS config ON jobpair_stage_data.config_id=config.id
+			JOIN solvers AS solver ON config.solver_id=solver.id
+			JOIN benchmarks AS bench ON job_pairs.bench_id=bench.id
+			LEFT JOIN job_attributes ON (job_attributes.pair_id=job_pairs.id AND job_attributes.stage_number=jobpair_stage_data.stage_number AND job_attributes.attr_key="starexec-result")
+			LEFT JOIN bench_attributes ON (job_pairs.bench_id=bench_attributes.bench_id AND bench_attributes.attr_key="starexec-expected-result")
+			WHERE job_pairs.job_space_id=_jobSpaceId
+			AND jobpair_stage_data.job_space_id=_jobSpaceId
+			AND (jobpair_stage_data.stage_number=_stageNumber
+				OR (_stageNumber<=0 AND jobpair_stage_data.stage_number=job_pairs.primary_jobpair_data))
+			AND config.deleted=0;
+	END //
+
+-- Gets the same columns as GetMatrixPairsInJobSpace, but only for the pairs in the job space that
+-- completed after the given completion ID. The pairs are found through the completion ID, so the
+-- cost depends on how many pairs completed since then and not on the size of the job space
+DROP PROCEDURE IF EXISTS GetMatrixPairsInJobSpaceCompletedSince //
+CREATE PROCEDURE GetMatrixPairsInJobSpaceCompletedSince(IN _jobSpaceId INT, IN _stageNumber INT, IN _since INT)
+	BEGIN
+		SELECT
+		job_pairs.id AS pair_id,
+		complete.completion_id,
+		job_pairs.bench_id,
+		bench.name AS bench_name,
+		jobpair_stage_data.stage_number,
+		jobpair_stage_data.status_code,
+		jobpair_stage_data.cpu,
+		jobpair_stage_data.wallclock,
+		jobpair_stage_data.max_vmem,
+		config.id AS config_id,
+		config.name AS config_name,
+		solver.id AS solver_id,
+		solver.name AS solver_name,
+		bench_attributes.attr_value AS expected,
+		job_attributes.attr_value AS result
+			FROM job_pair_completion AS complete
+			JOIN job_pairs ON job_pairs.id=complete.pair_id
+			JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id=job_pairs.id
+			JOIN configurations AS config ON jobpair_stage_data.config_id=config.id
+			JOIN solvers AS solver ON config.solver_id=solver.id
+			JOIN benchmarks AS bench ON job_pairs.bench_id=bench.id
+			LEFT JOIN job_attributes ON (job_attributes.pair_id=job_pairs.id AND job_attributes.stage_number=jobpair_stage_data.stage_number AND job_attributes.attr_key="starexec-result")
+			LEFT JOIN bench_attributes ON (job_pairs.bench_id=bench_attributes.bench_id AND bench_attributes.attr_key="starexec-expected-result")
+			WHERE complete.completion_id>_since
+			AND job_pairs.job_space_id=_jobSpaceId
+			AND (jobpair_stage_data.stage_number=_stageNumber
+				OR (_stageNumber<=0 AND jobpair_stage_data.stage_number=job_pairs.primary_jobpair_data))
+			AND config.deleted=0;
+	END //
+
+-- Gets the highest stage number of any pair in a job space
+DROP PROCEDURE IF EXISTS GetMaxStageNumberInJobSpace //
+CREATE PROCEDURE GetMaxStageNumberInJobSpace(IN _jobSpaceId INT)
+	BEGIN
+		SELECT MAX(stage_number) AS max_stage
+			FROM jobpair_stage_data
+			WHERE job_space_id=_jobSpaceId;
+	END //
+
 -- Retrieves basic info about job pairs for the given job id for pairs completed after _completionId
 -- Author: Eric Burns
 DROP PROCEDURE IF EXISTS GetNewCompletedJobPairsByJob //
@@ -525,12 +575,18 @@ CREATE PROCEDURE GetTimelessJobPairsByStatus(IN _jobId INT, IN _statusCode INT)
 
 -- Retrieves information for pending job pairs with the given job id. Returns all stages for _limit pairs.
 -- Excludes any job pairs that are utilizing solvers that have still not been built
+-- broken_dependency_count lets the scheduler skip pairs with deleted or recycled dependencies without
+-- a separate query per pair
 -- Author: Eric Burns
 DROP PROCEDURE IF EXISTS GetPendingJobPairsByJob //
 CREATE PROCEDURE GetPendingJobPairsByJob(IN _id INT, IN _limit INT)
 	BEGIN
 		SELECT *,
-		(SELECT count(*) FROM bench_dependency WHERE primary_bench_id = benchmarks.id) AS dependency_count
+		(SELECT count(*) FROM bench_dependency WHERE primary_bench_id = benchmarks.id) AS dependency_count,
+		(SELECT count(*) FROM bench_dependency
+			JOIN benchmarks AS dependency ON dependency.id = bench_dependency.secondary_bench_id
+			WHERE primary_bench_id = benchmarks.id
+			AND (dependency.deleted = 1 OR dependency.recycled = 1)) AS broken_dependency_count
 		FROM job_pairs
 		JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id = job_pairs.id
 		LEFT JOIN benchmarks ON benchmarks.id = job_pairs.bench_id
@@ -543,7 +599,8 @@ CREATE PROCEDURE GetPendingJobPairsByJob(IN _id INT, IN _limit INT)
 		JOIN jobs ON jobs.id=jp.job_id
 		WHERE jobpair_stage_data.jobpair_id = job_pairs.id AND solvers.build_status=0 AND buildJob=false)
 		ORDER BY job_pairs.id ASC LIMIT _limit) AS temp
-		ON temp.id=job_pairs.id;
+		ON temp.id=job_pairs.id
+		ORDER BY job_pairs.id ASC, jobpair_stage_data.stage_number ASC;
 	END //
 
 -- Retrieves basic info about enqueued job pairs for the given job id
@@ -709,14 +766,35 @@ CREATE PROCEDURE ChangeQueue(IN _jobId INT, IN _queueId INT)
 		WHERE id = _jobId;
 	END //
 
+-- Reserves a contiguous block of job pair IDs and returns the first of them. The IDs are taken from
+-- job_pair_id_sequence rather than the AUTO_INCREMENT of job_pairs so that pairs can be inserted in batches
+-- with their IDs already known. Should be called outside of any long transaction, since it locks the sequence row
+DROP PROCEDURE IF EXISTS ReserveJobPairIds //
+CREATE PROCEDURE ReserveJobPairIds(IN _count INT, OUT _first INT)
+	BEGIN
+		INSERT IGNORE INTO job_pair_id_sequence (id, next_id) VALUES (1, 1);
+		-- never hand out an ID below one already in use, in case pairs were added some other way
+		UPDATE job_pair_id_sequence
+		SET next_id = LAST_INSERT_ID(GREATEST(next_id, (SELECT COALESCE(MAX(id), 0) + 1 FROM job_pairs)) + _count)
+		WHERE id = 1;
+		SELECT LAST_INSERT_ID() - _count INTO _first;
+	END //
+
 -- Adds a new job pair record to the database
 -- Author: Tyler Jensen + Eric Burns
 DROP PROCEDURE IF EXISTS AddJobPair //
 CREATE PROCEDURE AddJobPair(IN _jobId INT, IN _benchId INT, IN _status TINYINT, IN _path VARCHAR(2048),IN _jobSpaceId INT, IN _benchName VARCHAR(256), IN _stageNumber INT, OUT _id INT)
 	BEGIN
-		INSERT INTO job_pairs (job_id, bench_id, status_code, path,job_space_id,bench_name,primary_jobpair_data)
-		VALUES (_jobId, _benchId, _status, _path, _jobSpaceId,  _benchName,_stageNumber);
-		SELECT LAST_INSERT_ID() INTO _id;
+		CALL ReserveJobPairIds(1, _id);
+		CALL AddJobPairWithId(_id, _jobId, _benchId, _status, _path, _jobSpaceId, _benchName, _stageNumber);
+	END //
+
+-- Adds a new job pair record with an ID reserved by ReserveJobPairIds
+DROP PROCEDURE IF EXISTS AddJobPairWithId //
+CREATE PROCEDURE AddJobPairWithId(IN _id INT, IN _jobId INT, IN _benchId INT, IN _status TINYINT, IN _path VARCHAR(2048),IN _jobSpaceId INT, IN _benchName VARCHAR(256), IN _stageNumber INT)
+	BEGIN
+		INSERT INTO job_pairs (id, job_id, bench_id, status_code, path,job_space_id,bench_name,primary_jobpair_data)
+		VALUES (_id, _jobId, _benchId, _status, _path, _jobSpaceId,  _benchName,_stageNumber);
 	END //
 
 DROP PROCEDURE IF EXISTS AddJobPairStage //
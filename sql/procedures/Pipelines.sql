@@ -30,6 +30,19 @@ CREATE PROCEDURE GetDependenciesForJobPair(IN _pairId INT)
 		WHERE jobpair_id=_pairId ORDER BY input_number;
 	END //
 
+-- Gets the dependencies of every stage of every pending pair of the given job with an ID in the given range
+DROP PROCEDURE IF EXISTS GetDependenciesForJobPairsInRange //
+CREATE PROCEDURE GetDependenciesForJobPairsInRange(IN _jobId INT, IN _minPairId INT, IN _maxPairId INT)
+	BEGIN
+		SELECT jobpair_stage_data.jobpair_id, pipeline_dependencies.stage_id, pipeline_dependencies.input_type,
+		pipeline_dependencies.input_id, pipeline_dependencies.input_number
+		FROM job_pairs FORCE INDEX (job_id_2)
+		JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id=job_pairs.id
+		JOIN pipeline_dependencies ON pipeline_dependencies.stage_id=jobpair_stage_data.stage_id
+		WHERE job_pairs.job_id=_jobId AND job_pairs.status_code=1 AND job_pairs.id BETWEEN _minPairId AND _maxPairId
+		ORDER BY jobpair_stage_data.jobpair_id, pipeline_dependencies.input_number;
+	END //
+
 -- Adds a solver pipeline to the database
 DROP PROCEDURE IF EXISTS AddPipeline //
 CREATE PROCEDURE AddPipeline(IN _uid INT, IN _name VARCHAR(128), OUT _id INT)
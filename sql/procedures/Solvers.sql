@@ -524,6 +524,20 @@ CREATE PROCEDURE GetMaxConfigTimestamp(IN _solverId INT)
         WHERE configurations.solver_id=_solverId AND configurations.deleted = 0;
 	END //
 
+-- Gets the timestamp of the most recently added or updated configuration of every solver used by a pending pair
+-- of the given job with an ID in the given range, as GetMaxConfigTimestamp does for one solver
+DROP PROCEDURE IF EXISTS GetMaxConfigTimestampsForJobPairsInRange //
+CREATE PROCEDURE GetMaxConfigTimestampsForJobPairsInRange(IN _jobId INT, IN _minPairId INT, IN _maxPairId INT)
+	BEGIN
+		SELECT used.solver_id, MAX(configurations.updated) AS recent
+		FROM (SELECT DISTINCT solver_id FROM job_pairs FORCE INDEX (job_id_2)
+			JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id=job_pairs.id
+			WHERE job_pairs.job_id=_jobId AND job_pairs.status_code=1
+			AND job_pairs.id BETWEEN _minPairId AND _maxPairId AND solver_id IS NOT NULL) AS used
+		LEFT JOIN configurations ON configurations.solver_id=used.solver_id AND configurations.deleted = 0
+		GROUP BY used.solver_id;
+	END //
+
 -- Gets the ids of every orphaned solver a user owns (orphaned meaning the solver is in no spaces
 DROP PROCEDURE IF EXISTS GetOrphanedSolverIds //
 CREATE PROCEDURE GetOrphanedSolverIds(IN _userId INT)
@@ -31,20 +31,15 @@ CREATE PROCEDURE SetJobSpaceMaxStages(IN _id INT, IN _max INT)
 		UPDATE job_spaces SET max_stages=_max WHERE id=_id;
 	END //
 
--- Clears entries from the job_space_closure table that are older than the given time
--- Author: Eric Burns
-DROP PROCEDURE IF EXISTS ClearOldJobClosureEntries //
-CREATE PROCEDURE ClearOldJobClosureEntries(IN _cutoff TIMESTAMP)
-	BEGIN
-		DELETE FROM job_space_closure WHERE last_used<_cutoff;
-	END //
-
--- Insets a new ancestor/descendant pair into the job space closure table
--- Author: Eric Burns
-DROP PROCEDURE IF EXISTS InsertIntoJobSpaceClosure //
-CREATE PROCEDURE InsertIntoJobSpaceClosure(IN _ancestor INT, IN _descendant INT, IN _time TIMESTAMP)
+-- Gets every space in the job that the given job space is in, along with the ID of its parent, which is null for
+-- the job's primary space
+DROP PROCEDURE IF EXISTS GetJobSpaceTree //
+CREATE PROCEDURE GetJobSpaceTree(IN _jobSpaceId INT)
 	BEGIN
-		INSERT IGNORE INTO job_space_closure (ancestor, descendant, last_used) VALUES (_ancestor,_descendant, _time);
+		SELECT job_spaces.id, job_spaces.job_id, job_space_assoc.space_id AS parent_id
+		FROM job_spaces
+		LEFT JOIN job_space_assoc ON job_space_assoc.child_id=job_spaces.id
+		WHERE job_spaces.job_id=(SELECT job_id FROM job_spaces WHERE id=_jobSpaceId);
 	END //
 
 -- Adds an association between two spaces
@@ -300,6 +295,32 @@ CREATE PROCEDURE GetSubSpaceByName(IN _spaceId INT, IN _userId INT, IN _name VAR
 		END IF;
 	END //
 
+-- Gets the ID, name and parent of every space below the given space, leaving
+-- out the spaces GetSubSpaceByName would not find for the given user. Used to
+-- resolve benchmark include paths without a query for every path segment.
+DROP PROCEDURE IF EXISTS GetSubSpaceHierarchyByUser //
+CREATE PROCEDURE GetSubSpaceHierarchyByUser(IN _spaceId INT, IN _userId INT)
+	BEGIN
+		IF _userId>0 THEN
+			SELECT set_assoc.space_id AS parent_id, spaces.id, spaces.name
+			FROM closure
+				JOIN set_assoc ON set_assoc.child_id=closure.descendant
+				JOIN spaces ON spaces.id=set_assoc.child_id
+			WHERE closure.ancestor=_spaceId AND closure.descendant!=_spaceId
+			AND EXISTS
+				(SELECT 1
+				FROM closure AS visible
+					JOIN user_assoc ON (user_assoc.user_id=_userId AND user_assoc.space_id=visible.descendant)
+				WHERE visible.ancestor=spaces.id);
+		ELSE
+			SELECT set_assoc.space_id AS parent_id, spaces.id, spaces.name
+			FROM closure
+				JOIN set_assoc ON set_assoc.child_id=closure.descendant
+				JOIN spaces ON spaces.id=set_assoc.child_id
+			WHERE closure.ancestor=_spaceId AND closure.descendant!=_spaceId;
+		END IF;
+	END //
+
 
 -- Returns all spaces that are a subspace of the root
 -- Author: Todd Elvers
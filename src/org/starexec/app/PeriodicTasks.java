@@ -14,6 +14,7 @@ import org.starexec.data.to.Queue;
 import org.starexec.exceptions.StarExecException;
 import org.starexec.jobs.JobManager;
 import org.starexec.jobs.ProcessingManager;
+import org.starexec.jobs.SubmissionTrigger;
 import org.starexec.logger.StarLogger;
 import org.starexec.util.Mail;
 import org.starexec.util.RobustRunnable;
@@ -46,6 +47,7 @@ class PeriodicTasks {
         // period needs to be a supplier since CLUSTER_UPDATE_PERIOD is dynamically set by configuration.
         UPDATE_CLUSTER(true, UPDATE_CLUSTER_TASK, 0, () -> R.CLUSTER_UPDATE_PERIOD, TimeUnit.SECONDS),
         SUBMIT_JOBS(true, SUBMIT_JOBS_TASK, 0, () -> 60, TimeUnit.SECONDS),
+        POLL_PAIR_COMPLETIONS(true, POLL_PAIR_COMPLETIONS_TASK, 0, () -> R.PAIR_COMPLETION_POLL_PERIOD, TimeUnit.SECONDS),
         POST_PROCESS_JOBS(true, POST_PROCESS_JOBS_TASK, 0, () -> 45, TimeUnit.SECONDS),
         RERUN_FAILED_PAIRS(true, RERUN_FAILED_PAIRS_TASK, 0, () -> 90, TimeUnit.MINUTES),
         FIND_BROKEN_JOB_PAIRS(true, FIND_BROKEN_JOB_PAIRS_TASK, 0, () -> 3, TimeUnit.HOURS),
@@ -61,6 +63,7 @@ class PeriodicTasks {
         UPDATE_USER_DISK_SIZES(false, UPDATE_USER_DISK_SIZES_TASK, 0, () -> 1, TimeUnit.DAYS),
         UPDATE_COMMUNITY_STATS(false, UPDATE_COMMUNITY_STATS_TASK, 0, () -> 6, TimeUnit.HOURS),
         SAVE_ANALYTICS(false, SAVE_ANALYTICS_TASK, 10, () -> 10, TimeUnit.MINUTES),
+        LOG_CONNECTION_STATISTICS(false, LOG_CONNECTION_STATISTICS_TASK, 60, () -> 60, TimeUnit.MINUTES),
         NOTIFY_USERS_OF_JOBS(false, NOTIFY_USERS_OF_JOBS_TASK, 0, () -> 5, TimeUnit.MINUTES),
 	GENERATE_CLUSTER_GRAPH(true, GENERATE_CLUSTER_GRAPH_TASK, 5, () -> 5, TimeUnit.SECONDS);
 	//CLEAR_JOB_SCRIPTS(true, CLEAR_JOB_SCRIPTS_TASK, 0, () -> 7, TimeUnit.DAYS); 
@@ -170,6 +173,15 @@ class PeriodicTasks {
         }
     };
 
+    private static final String pollPairCompletionsTaskName = "pollPairCompletionsTask";
+    private static final Runnable POLL_PAIR_COMPLETIONS_TASK = new RobustRunnable(pollPairCompletionsTaskName) {
+        @Override
+        protected void dorun() {
+            SubmissionTrigger.pollCompletions();
+            SolverStatsCache.pollCompletions();
+        }
+    };
+
     private static final String rerunFailedPairsTaskName = "rerunFailedPairsTask";
     private static final Runnable RERUN_FAILED_PAIRS_TASK = new RobustRunnable(rerunFailedPairsTaskName) {
         @Override
@@ -265,6 +277,14 @@ class PeriodicTasks {
         }
     };
 
+    private static final String logConnectionStatisticsTaskName = "logConnectionStatisticsTask";
+    private static final Runnable LOG_CONNECTION_STATISTICS_TASK = new RobustRunnable(logConnectionStatisticsTaskName) {
+        @Override
+        protected void dorun() {
+            log.info(logConnectionStatisticsTaskName, "Database connections: " + Common.getConnectionStatistics());
+        }
+    };
+
     private static final String findBrokenNodesTaskName = "findBrokenNodes";
     private static final Runnable FIND_BROKEN_NODES_TASK = new RobustRunnable(findBrokenNodesTaskName) {
         @Override
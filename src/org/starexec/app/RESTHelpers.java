@@ -23,6 +23,7 @@ import org.starexec.data.to.enums.ProcessorType;
 import org.starexec.data.to.pipelines.JoblineStage;
 import org.starexec.data.to.tuples.AttributesTableData;
 import org.starexec.data.to.tuples.AttributesTableRow;
+import org.starexec.data.to.tuples.FileSlice;
 import org.starexec.data.to.tuples.Locatable;
 import org.starexec.data.to.tuples.SolverConfig;
 import org.starexec.exceptions.StarExecDatabaseException;
@@ -33,6 +34,7 @@ import org.starexec.util.*;
 //import org.starexec.data.database.Common;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.Response;
 import java.awt.*;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -42,6 +44,8 @@ import java.sql.SQLException;
 //import java.sql.ResultSet;
 import java.util.*;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -57,6 +61,15 @@ public class RESTHelpers {
 	private static final String SORT_COLUMN_OVERRIDE_DIR = "sort_dir";
 	private static final String STARTING_RECORD = "iDisplayStart";
 	private static final String RECORDS_PER_PAGE = "iDisplayLength";
+	// lets tables that page through large lists ask for the page after the one they were last sent without an offset
+	private static final String CURSOR = "sCursor";
+	private static final String NEXT_CURSOR = "sNextCursor";
+	// a single range of bytes, as in "bytes=0-499", "bytes=500-" or "bytes=-500"
+	private static final Pattern BYTE_RANGE = Pattern.compile("bytes=(\\d{0,18})-(\\d{0,18})");
+	// headers giving the size of a file and the part of it sent by getFileSliceResponse
+	private static final String FILE_SIZE_HEADER = "X-File-Size";
+	private static final String SLICE_START_HEADER = "X-Slice-Start";
+	private static final String SLICE_END_HEADER = "X-Slice-End";
 	/**
 	 * Used to display the 'total entries' information at the bottom of
 	 * the DataTable; also indirectly controls whether or not the
@@ -232,6 +245,8 @@ public class RESTHelpers {
 			query.setNumRecords(Integer.parseInt(iDisplayLength));
 			query.setStartingRecord(Integer.parseInt(iDisplayStart));
 			query.setSyncValue(Integer.parseInt(sEcho));
+			query.setCursorScope(request.getRequestURI().hashCode());
+			query.setCursor(PageCursor.decode(request.getParameter(CURSOR)));
 
 			return query;
 		} catch (Exception e) {
@@ -2091,6 +2106,9 @@ public class RESTHelpers {
 		nextPage.addProperty(TOTAL_RECORDS, query.getTotalRecords());
 		nextPage.addProperty(TOTAL_RECORDS_AFTER_QUERY, query.getTotalRecordsAfterQuery());
 		nextPage.add("aaData", entries);
+		if (query.getNextCursor() != null) {
+			nextPage.addProperty(NEXT_CURSOR, query.getNextCursor().encode());
+		}
 
 		// Return the next DataTable page
 		return nextPage;
@@ -2413,4 +2431,55 @@ public class RESTHelpers {
 			this.isCommunity = c;
 		}
 	}
+
+	/**
+	 * Builds the response to a request for part of a text file, such as the output or log of a pair. A Range header
+	 * for a single range of bytes is answered with 206 Partial Content, or with 416 if the range lies past the end
+	 * of the file. Without one, a positive tail gives the number of lines to send from the end of the file, and
+	 * otherwise the file is read from offset. At most R.MAX_PAIR_FILE_READ_BYTES are sent either way, and the size of
+	 * the file and the offsets of the part sent are set in headers so the client can ask for what comes next.
+	 *
+	 * @param f The file to read
+	 * @param range The Range header of the request, or null if there was none
+	 * @param offset The byte to start reading at
+	 * @param bytes The most bytes to send, or 0 to send as many as are allowed
+	 * @param tail The number of lines to send from the end of the file, or 0 to read from offset
+	 * @return The response holding the text that was read
+	 * @throws IOException If the file could not be read
+	 */
+	public static Response getFileSliceResponse(File f, String range, long offset, int bytes, int tail)
+			throws IOException {
+		int maxBytes = bytes > 0 ? Math.min(bytes, R.MAX_PAIR_FILE_READ_BYTES) : R.MAX_PAIR_FILE_READ_BYTES;
+		Matcher byteRange = range == null ? null : BYTE_RANGE.matcher(range.trim());
+		if (byteRange != null && byteRange.matches() &&
+		    !(byteRange.group(1).isEmpty() && byteRange.group(2).isEmpty())) {
+			long size = f.length();
+			long start;
+			long end;
+			if (byteRange.group(1).isEmpty()) {
+				// a suffix range asks for the last n bytes
+				start = Math.max(0, size - Long.parseLong(byteRange.group(2)));
+				end = size;
+			} else {
+				start = Long.parseLong(byteRange.group(1));
+				end = byteRange.group(2).isEmpty() ? size : Math.min(Long.parseLong(byteRange.group(2)) + 1, size);
+			}
+			FileSlice slice = null;
+			if (start < end) {
+				slice = RangedFileReader.read(f, start, (int) Math.min(end - start, maxBytes));
+			}
+			if (slice == null || slice.start == slice.end) {
+				return Response.status(416).header("Content-Range", "bytes */" + size).build();
+			}
+			return fileSliceHeaders(Response.status(206), slice)
+					.header("Content-Range", "bytes " + slice.start + "-" + (slice.end - 1) + "/" + slice.size).build();
+		}
+		FileSlice slice = tail > 0 ? RangedFileReader.tail(f, tail, maxBytes) : RangedFileReader.read(f, offset, maxBytes);
+		return fileSliceHeaders(Response.ok(), slice).build();
+	}
+
+	private static Response.ResponseBuilder fileSliceHeaders(Response.ResponseBuilder builder, FileSlice slice) {
+		return builder.entity(slice.text).header("Accept-Ranges", "bytes").header(FILE_SIZE_HEADER, slice.size)
+		              .header(SLICE_START_HEADER, slice.start).header(SLICE_END_HEADER, slice.end);
+	}
 }
@@ -32,6 +32,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
 import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
@@ -327,6 +328,30 @@ public class RESTServices {
 		return log;
 	}
 
+	/**
+	 * @param id the ID of the job pair
+	 * @param offset The byte of the log to start reading at
+	 * @param bytes The most bytes to return
+	 * @param tail If positive, the number of lines to return from the end of the log instead
+	 * @param range The Range header of the request, which is used instead of the other parameters when given
+	 * @param request HTTP Request
+	 * @return part of the log of the job pair with the given id, with the size of the log and the offsets of the part
+	 * returned in headers
+	 */
+	@GET
+	@Path("/jobs/pairs/{id}/log/range")
+	@Produces("text/plain;charset=UTF-8")
+	public Response getJobPairLogRange(@PathParam("id") int id, @QueryParam("offset") long offset,
+			@QueryParam("bytes") int bytes, @QueryParam("tail") int tail, @HeaderParam("Range") String range,
+			@Context HttpServletRequest request) {
+		int userId = SessionUtil.getUserId(request);
+		ValidatorStatusCode status = JobSecurity.canUserSeeJobWithPair(id, userId);
+		if (!status.isSuccess()) {
+			throw RESTException.FORBIDDEN;
+		}
+		return getPairFileRange(JobPairs.getLogPath(id), range, offset, bytes, tail, "getJobPairLogRange");
+	}
+
 	/**
 	 * @param id The ID of the benchmark
 	 * @param limit The maximum number of characters to return
@@ -475,6 +500,53 @@ public class RESTServices {
 		}
 	}
 
+	/**
+	 * @param id The ID of the pair to get output for
+	 * @param stageNumber the stage to get output for
+	 * @param offset The byte of the output to start reading at
+	 * @param bytes The most bytes to return
+	 * @param tail If positive, the number of lines to return from the end of the output instead
+	 * @param range The Range header of the request, which is used instead of the other parameters when given
+	 * @param request HTTP Request
+	 * @return part of the stdout of the job pair with the given id, with the size of the output and the offsets of
+	 * the part returned in headers
+	 */
+	@GET
+	@Path("/jobs/pairs/{id}/stdout/{stageNumber}/range")
+	@Produces("text/plain;charset=UTF-8")
+	public Response getJobPairStdoutRange(@PathParam("id") int id, @PathParam("stageNumber") int stageNumber,
+			@QueryParam("offset") long offset, @QueryParam("bytes") int bytes, @QueryParam("tail") int tail,
+			@HeaderParam("Range") String range, @Context HttpServletRequest request) {
+		JobPair jp = JobPairs.getPair(id);
+		if (jp == null) {
+			throw RESTException.NOT_FOUND;
+		}
+		int userId = SessionUtil.getUserId(request);
+		ValidatorStatusCode status = JobSecurity.canUserSeeJob(jp.getJobId(), userId);
+		if (!status.isSuccess()) {
+			throw RESTException.FORBIDDEN;
+		}
+		return getPairFileRange(JobPairs.getStdout(id, stageNumber), range, offset, bytes, tail,
+		                        "getJobPairStdoutRange");
+	}
+
+	private static Response getPairFileRange(String path, String range, long offset, int bytes, int tail,
+			String methodName) {
+		if (path == null) {
+			throw RESTException.NOT_FOUND;
+		}
+		File f = new File(path);
+		if (!f.isFile()) {
+			throw RESTException.NOT_FOUND;
+		}
+		try {
+			return RESTHelpers.getFileSliceResponse(f, range, offset, bytes, tail);
+		} catch (IOException e) {
+			log.warn(methodName, "Caught IOException while reading " + path, e);
+			throw RESTException.INTERNAL_SERVER_ERROR;
+		}
+	}
+
 	/**
 	 * @param id The ID of the node to get details for
 	 * @param request HTTP Request
@@ -684,17 +756,22 @@ public class RESTServices {
 	}
 
 	/**
+	 * Gets the matrix cells of the pairs in a job space that finished after a given completion ID. The matrix view
+	 * polls this with the completion ID returned by the previous call, so each call only returns the cells that
+	 * changed since then.
 	 *
 	 * @param jobSpaceId ID of the job space to get pairs for
 	 * @param stageNumber Number of stage to get pair data for
+	 * @param since Only pairs with a completion ID greater than this are returned
 	 * @param request HTTP request
 	 * @return json MatrixJson object
 	 */
 	@GET
-	@Path("/matrix/finished/{jobSpaceId}/{stageId}")
+	@Path("/matrix/finished/{jobSpaceId}/{stageId}/{since}")
 	@Produces("application/json")
 	public String getFinishedJobPairsForMatrix(@PathParam("jobSpaceId") int jobSpaceId,
-											   @PathParam("stageId") int stageNumber, @Context HttpServletRequest request) {
+											   @PathParam("stageId") int stageNumber, @PathParam("since") int since,
+											   @Context HttpServletRequest request) {
 		int userId = SessionUtil.getUserId(request);
 		ValidatorStatusCode valid =JobSecurity.canUserSeeJobSpace(jobSpaceId, userId);
 		if (!valid.isSuccess()) {
@@ -704,25 +781,29 @@ public class RESTServices {
 
 		final String method = "getFinishedJobPairsForMatrix";
 		log.entry(method);
-		log.debug(method, "Inputs: jobId="+jobId+" jobSpaceId="+jobSpaceId+" stageId="+stageNumber);
+		log.debug(method, "Inputs: jobId="+jobId+" jobSpaceId="+jobSpaceId+" stageId="+stageNumber+" since="+since);
 
 		Map<String, SimpleMatrixElement> benchSolverConfigElementMap = new HashMap<>();
-		// Get all the latest new completed job pairs.
-		List<JobPair> completedJobPairs = Jobs.getNewCompletedPairsDetailed(jobId, 0);
-		for (JobPair pair : completedJobPairs) {
+		// Get the pairs in this job space only that finished since the last call.
+		List<JobPair> jobPairs;
+		try {
+			jobPairs = Jobs.getMatrixPairsInJobSpaceCompletedSince(jobSpaceId, stageNumber, since);
+		} catch (SQLException e) {
+			log.error(method, e);
+			return gson.toJson(ERROR_DATABASE);
+		}
+		int lastCompletionId = since;
+		for (JobPair pair : jobPairs) {
+			lastCompletionId = Math.max(lastCompletionId, pair.getCompletionId());
 			JoblineStage stage = pair.getStageFromNumber(stageNumber);
-			if (stage != null) {
+			if (stage != null && !stage.getStatus().getCode().statIncomplete()) {
 				// Get the three primitives that uniquely identify the MatrixElement we want to send back to the server.
 				Benchmark benchmark = pair.getBench();
 				Solver solver = stage.getSolver();
 				Configuration configuration = stage.getConfiguration();
-				// Build a unique string from the three primitives.
+				// Build a unique string from the three primitives. It is the ID of the cell on the page.
 				String benchSolverConfigIdentifier = String.format(R.MATRIX_ELEMENT_ID_FORMAT, benchmark.getName(), benchmark.getId(),
 						solver.getName(), solver.getId(), configuration.getName(), configuration.getId());
-				// Make it so the identifiers can be used in Jquery selectors.
-				benchSolverConfigIdentifier = benchSolverConfigIdentifier.replace("#", "\\#");
-				benchSolverConfigIdentifier = benchSolverConfigIdentifier.replace(".", "\\.");
-				benchSolverConfigIdentifier = benchSolverConfigIdentifier.replace(":", "\\:");
 				// Get the element associated with the job pair.
 				String status = Jobs.getStatusFromStage(stage);
 				String cpuTime = String.valueOf(stage.getCpuTime());
@@ -735,13 +816,12 @@ public class RESTServices {
 		}
 
 		boolean isComplete = Jobs.isJobComplete(jobId);
-		MatrixJson matrixData = new MatrixJson(isComplete, benchSolverConfigElementMap);
+		MatrixJson matrixData = new MatrixJson(isComplete, lastCompletionId, benchSolverConfigElementMap);
 
 		log.exit(method);
 		return gson.toJson(matrixData);
 	}
 
-	// Simplified matrix element so we can send less data via JSON.
 	private static class SimpleMatrixElement {
 		@Expose final String status;
 		@Expose final String cpuTime;
@@ -757,10 +837,12 @@ public class RESTServices {
 
 	private static class MatrixJson {
 		@Expose final boolean done;
+		@Expose final int lastCompletionId;
 		@Expose final Map<String, SimpleMatrixElement> benchSolverConfigElementMap;
 
-		public MatrixJson(boolean done, Map<String, SimpleMatrixElement> benchSolverConfigElementMap) {
+		public MatrixJson(boolean done, int lastCompletionId, Map<String, SimpleMatrixElement> benchSolverConfigElementMap) {
 			this.done = done;
+			this.lastCompletionId = lastCompletionId;
 			this.benchSolverConfigElementMap = benchSolverConfigElementMap;
 		}
 	}
@@ -2,14 +2,20 @@ package org.starexec.app;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.PropertyConfigurator;
+import org.starexec.constants.HierarchyQueries;
 import org.starexec.constants.PaginationQueries;
 import org.starexec.constants.R;
 import org.starexec.data.database.Analytics;
 import org.starexec.data.database.Common;
 import org.starexec.data.database.Users;
 import org.starexec.exceptions.StarExecException;
+import org.starexec.jobs.JobManager;
+import org.starexec.jobs.ProcessingManager;
+import org.starexec.jobs.SubmissionTrigger;
+import org.starexec.logger.ErrorLogSink;
 import org.starexec.logger.StarLogger;
 import org.starexec.test.integration.TestManager;
+import org.starexec.util.OutputFollower;
 import org.starexec.util.Util;
 import org.starexec.util.Validator;
 
@@ -64,6 +70,10 @@ public class Starexec implements ServletContextListener {
 			// Save cached Analytics events to DB
 			Analytics.saveToDB();
 
+			// Save any error logs still waiting while the database is available
+			log.debug("Saving queued error logs...");
+			ErrorLogSink.getSink().shutdown(10000);
+
 			// Make sure to clean up database resources
 			log.debug("Releasing database connections...");
 			Common.release();
@@ -71,6 +81,12 @@ public class Starexec implements ServletContextListener {
 			log.debug("Releasing Util threadpool...");
 			Util.shutdownThreadPool();
 
+			log.debug("Stopping job script writers...");
+			JobManager.shutdown();
+			SubmissionTrigger.shutdown();
+			OutputFollower.getFollower().shutdown();
+			ProcessingManager.shutdown();
+
 			R.BACKEND.destroyIf();
 			// Wait for the task scheduler to finish
 			taskScheduler.awaitTermination(10, TimeUnit.SECONDS);
@@ -195,5 +211,11 @@ public class Starexec implements ServletContextListener {
 			log.error("unable to correctly load pagination queries");
 			log.error(e.getMessage(), e);
 		}
+		try {
+			HierarchyQueries.loadHierarchyQueries();
+		} catch (Exception e) {
+			log.error("unable to correctly load job space hierarchy queries");
+			log.error(e.getMessage(), e);
+		}
 	}
 }
@@ -1,6 +1,8 @@
 package org.starexec.backend;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -55,6 +57,38 @@ public interface Backend{
      * @return an identifier for the task that submitScript starts, should allow a user to identify which task/script to kill
      **/
     int submitScript(String scriptPath, String workingDirectoryPath, String logPath);
+
+    /**
+     * Submits a script that would rather run on a particular node, such as one that already holds the files it
+     * needs. The preference is a hint: the script may still run on any node of its queue. Backends that cannot
+     * express a preference ignore it.
+     * @param scriptPath : the full path to the jobscript file
+     * @param workingDirectoryPath  :  path to a directory that can be used for scratch space (read/write)
+     * @param logPath  :  path to a directory that should be used to store jobscript logs
+     * @param preferredNode : the name of the node to prefer, or null for no preference
+     * @return an identifier for the task that submitScript starts, should allow a user to identify which task/script to kill
+     **/
+    default int submitScript(String scriptPath, String workingDirectoryPath, String logPath, String preferredNode) {
+        return submitScript(scriptPath, workingDirectoryPath, logPath);
+    }
+
+    /**
+     * Submits several scripts that belong to the same job and queue and share a preferred node. Backends that can
+     * hand many scripts to the scheduler at once should do so; by default each script is submitted on its own.
+     * @param scriptPaths : the full paths to the jobscript files
+     * @param workingDirectoryPath  :  path to a directory that can be used for scratch space (read/write)
+     * @param logPaths  :  the paths the jobscript logs should be stored at, in the same order as scriptPaths
+     * @param preferredNode : the name of the node to prefer, or null for no preference
+     * @return the identifiers submitScript would have returned for each script, in the same order as scriptPaths
+     **/
+    default int[] submitScripts(List<String> scriptPaths, String workingDirectoryPath, List<String> logPaths,
+                                String preferredNode) {
+        int[] execIds = new int[scriptPaths.size()];
+        for (int i = 0; i < execIds.length; i++) {
+            execIds[i] = submitScript(scriptPaths.get(i), workingDirectoryPath, logPaths.get(i), preferredNode);
+        }
+        return execIds;
+    }
     
 
     /**
@@ -64,6 +98,19 @@ public interface Backend{
      */
     boolean killPair(int execId);
 
+    /**
+     * kills many jobpairs. Backends that can kill several pairs with one command should do so
+     * @param execIds the ids of the pairs to be killed, as returned by submitScript
+     * @return true if every pair was killed, false otherwise
+     */
+    default boolean killPairs(Collection<Integer> execIds) {
+        boolean success = true;
+        for (int execId : execIds) {
+            success = killPair(execId) && success;
+        }
+        return success;
+    }
+
     /**
      * kills all pairs
      * @return true on success and false on error.
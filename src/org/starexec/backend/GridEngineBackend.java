@@ -5,6 +5,8 @@ import org.ggf.drmaa.JobTemplate;
 import org.ggf.drmaa.Session;
 import org.ggf.drmaa.SessionFactory;
 
+import com.google.common.collect.Iterables;
+
 import com.sun.grid.drmaa.SessionFactoryImpl;
 import java.lang.reflect.Field;
 
@@ -16,8 +18,11 @@ import org.starexec.util.Validator;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * This is a backend implementation that uses Sun Grid Engine
@@ -43,6 +48,16 @@ public class GridEngineBackend implements Backend{
     // The regex patterns used to parse SGE output
  	private static final Pattern queueAssocPattern;
 
+	// node names are passed to qsub as part of the native specification, so nothing else may be passed with them
+	private static final Pattern NODE_NAME_PATTERN = Pattern.compile("[A-Za-z0-9._-]+");
+
+	// Each task of an array job gets an exec ID of ARRAY_EXEC_ID_BASE + job ID * ARRAY_TASK_LIMIT + task ID. These are
+	// above any job ID grid engine hands out with its default max_jobid of 9999999, so they can be told apart from the
+	// exec IDs of single jobs, and still fit in an int. Array jobs have fewer than ARRAY_TASK_LIMIT tasks.
+	private static final int ARRAY_EXEC_ID_BASE = 1000000000;
+	private static final int ARRAY_TASK_LIMIT = 100;
+	private static final int MAX_ARRAY_JOB_ID = (Integer.MAX_VALUE - ARRAY_EXEC_ID_BASE) / ARRAY_TASK_LIMIT - 1;
+
  	static {
  		// Compile the SGE output parsing patterns when this class is loaded
  		queueAssocPattern = Pattern.compile(QUEUE_ASSOC_PATTERN, Pattern.CASE_INSENSITIVE);
@@ -56,6 +71,16 @@ public class GridEngineBackend implements Backend{
 		log = StarLogger.getLogger(GridEngineBackend.class);
     }
 
+	/**
+	 * Creates a backend that submits through the given session rather than one created by initialize. Used for
+	 * testing.
+	 * @param session the DRMAA session to submit scripts through
+	 */
+	public GridEngineBackend(Session session) {
+		this();
+		this.session = session;
+	}
+
     /**
      * use to initialize fields and prepare backend for tasks
 
@@ -139,6 +164,20 @@ public class GridEngineBackend implements Backend{
      * @return an identifier for the task that submitScript starts, should allow a user to identify which task/script to kill
      **/  
     public int submitScript(String scriptPath, String workingDirectoryPath, String logPath){
+		return submitScript(scriptPath, workingDirectoryPath, logPath, null);
+    }
+
+    /**
+     * Submits a script with a soft request for the preferred node, so that grid engine runs it there if the node
+     * has a free slot and anywhere else in the queue otherwise
+     * @param scriptPath : the full path to the jobscript file
+     * @param workingDirectoryPath  :  path to a directory that can be used for scratch space (read/write)
+     * @param logPath  :  path to a directory that should be used to store jobscript logs
+     * @param preferredNode : the name of the node to prefer, or null for no preference
+     * @return an identifier for the task that submitScript starts, should allow a user to identify which task/script to kill
+     **/
+    @Override
+    public int submitScript(String scriptPath, String workingDirectoryPath, String logPath, String preferredNode){
     	synchronized(this){
     		JobTemplate sgeTemplate = null;
 		try {
@@ -148,8 +187,7 @@ public class GridEngineBackend implements Backend{
 			// Set up the grid engine template
 			sgeTemplate = session.createJobTemplate();
 
-			// DRMAA needs to be told to expect a shell script and not a binary
-			sgeTemplate.setNativeSpecification("-shell y -b n -w n");
+			sgeTemplate.setNativeSpecification(getNativeSpecification(preferredNode));
 
 			// Tell the job where it will deal with files
 			sgeTemplate.setWorkingDirectory(workingDirectoryPath);
@@ -188,6 +226,167 @@ public class GridEngineBackend implements Backend{
 }
 }
 
+	/**
+	 * @param preferredNode the name of the node to prefer, or null for no preference
+	 * @return the native specification for a job that runs a job script
+	 */
+	private static String getNativeSpecification(String preferredNode) {
+		// DRMAA needs to be told to expect a shell script and not a binary
+		String nativeSpecification = "-shell y -b n -w n";
+		if (preferredNode != null && NODE_NAME_PATTERN.matcher(preferredNode).matches()) {
+			nativeSpecification += " -soft -l hostname=" + preferredNode;
+		}
+		return nativeSpecification;
+	}
+
+	/**
+	 * Submits the scripts as array jobs of up to ARRAY_TASK_LIMIT - 1 tasks, so that grid engine is asked to queue
+	 * many pairs with a single request. Scripts that cannot be submitted as part of an array job are submitted on
+	 * their own.
+	 * @param scriptPaths : the full paths to the jobscript files, which must all have the same grid engine options
+	 * @param workingDirectoryPath  :  path to a directory that can be used for scratch space (read/write)
+	 * @param logPaths  :  the paths the jobscript logs should be stored at, in the same order as scriptPaths
+	 * @param preferredNode : the name of the node to prefer, or null for no preference
+	 * @return the identifiers of the array job tasks that run each script, in the same order as scriptPaths
+	 */
+	@Override
+	public int[] submitScripts(List<String> scriptPaths, String workingDirectoryPath, List<String> logPaths,
+	                           String preferredNode) {
+		int[] execIds = new int[scriptPaths.size()];
+		int start = 0;
+		while (start < execIds.length) {
+			int end = Math.min(execIds.length, start + ARRAY_TASK_LIMIT - 1);
+			int[] taskIds = null;
+			if (end - start > 1) {
+				taskIds = submitArrayJob(scriptPaths.subList(start, end), workingDirectoryPath,
+				                         logPaths.subList(start, end), preferredNode);
+			}
+			for (int i = start; i < end; i++) {
+				if (taskIds != null) {
+					execIds[i] = taskIds[i - start];
+				} else {
+					execIds[i] = submitScript(scriptPaths.get(i), workingDirectoryPath, logPaths.get(i), preferredNode);
+				}
+			}
+			start = end;
+		}
+		return execIds;
+	}
+
+	/**
+	 * Submits one array job with a task for each script
+	 * @return the exec IDs of the tasks, or null if the array job could not be submitted
+	 */
+	private int[] submitArrayJob(List<String> scriptPaths, String workingDirectoryPath, List<String> logPaths,
+	                             String preferredNode) {
+		File arrayScript;
+		try {
+			arrayScript = writeArrayScript(scriptPaths, logPaths);
+		} catch (IOException e) {
+			log.error("submitArrayJob", "could not write the array job script for " + scriptPaths.get(0), e);
+			return null;
+		}
+		synchronized (this) {
+			JobTemplate sgeTemplate = null;
+			try {
+				sgeTemplate = session.createJobTemplate();
+				sgeTemplate.setNativeSpecification(getNativeSpecification(preferredNode));
+				sgeTemplate.setWorkingDirectory(workingDirectoryPath);
+				// every task sends its output to the log of its own pair
+				sgeTemplate.setOutputPath(":/dev/null");
+				sgeTemplate.setRemoteCommand(arrayScript.getAbsolutePath());
+
+				List<?> ids = session.runBulkJobs(sgeTemplate, 1, scriptPaths.size(), 1);
+				int[] execIds = new int[ids.size()];
+				for (int i = 0; i < execIds.length; i++) {
+					execIds[i] = toArrayExecId(ids.get(i).toString());
+				}
+				if (execIds.length != scriptPaths.size() || Arrays.stream(execIds).anyMatch(id -> id < 0)) {
+					log.warn("submitArrayJob", "could not map the tasks of array job " + ids + " to exec IDs");
+					Util.executeCommand("qdel " + ids.get(0).toString().split("\\.")[0]);
+					return null;
+				}
+				return execIds;
+			} catch (Exception e) {
+				log.error("submitArrayJob", "scriptPath: " + scriptPaths.get(0), e);
+				arrayScript.delete();
+			} finally {
+				if (sgeTemplate != null) {
+					try {
+						session.deleteJobTemplate(sgeTemplate);
+					} catch (Exception e) {
+						log.error(e.getMessage(), e);
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the script that every task of an array job runs. It has the grid engine options of the first job
+	 * script and runs the job script for its task with output sent to that script's log. It is written next to the
+	 * job scripts, where it is cleared out along with any old job scripts.
+	 */
+	private static File writeArrayScript(List<String> scriptPaths, List<String> logPaths) throws IOException {
+		File first = new File(scriptPaths.get(0));
+		StringBuilder script = new StringBuilder("#!/bin/bash\n");
+		try (Stream<String> lines = Files.lines(first.toPath())) {
+			lines.filter(line -> line.startsWith("#$")).forEach(line -> script.append(line).append('\n'));
+		}
+		script.append("SCRIPTS=(");
+		scriptPaths.forEach(path -> script.append(' ').append(quote(path)));
+		script.append(" )\nLOGS=(");
+		logPaths.forEach(path -> script.append(' ').append(quote(path)));
+		script.append(" )\n");
+		script.append("TASK=$((SGE_TASK_ID - 1))\n");
+		script.append("export SGE_STDOUT_PATH=\"${LOGS[$TASK]}\"\n");
+		script.append("exec \"${SCRIPTS[$TASK]}\" > \"$SGE_STDOUT_PATH\" 2>&1\n");
+
+		File arrayScript = File.createTempFile("array_", ".bash", first.getParentFile());
+		FileUtils.writeStringToFile(arrayScript, script.toString(), StandardCharsets.UTF_8);
+		if (!arrayScript.setExecutable(true, false) || !arrayScript.setReadable(true, false)) {
+			arrayScript.delete();
+			throw new IOException("could not make " + arrayScript.getAbsolutePath() + " executable");
+		}
+		return arrayScript;
+	}
+
+	private static String quote(String s) {
+		return "'" + s.replace("'", "'\\''") + "'";
+	}
+
+	/**
+	 * @param jobTaskId the ID of an array job task in the form grid engine gives it, job ID.task ID
+	 * @return the exec ID of the task, or -1 if it does not have one
+	 */
+	public static int toArrayExecId(String jobTaskId) {
+		String[] parts = jobTaskId.trim().split("\\.");
+		if (parts.length != 2 || !Validator.isValidInteger(parts[0]) || !Validator.isValidInteger(parts[1])) {
+			return -1;
+		}
+		return toArrayExecId(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+	}
+
+	private static int toArrayExecId(int jobId, int taskId) {
+		if (jobId <= 0 || jobId > MAX_ARRAY_JOB_ID || taskId <= 0 || taskId >= ARRAY_TASK_LIMIT) {
+			return -1;
+		}
+		return ARRAY_EXEC_ID_BASE + jobId * ARRAY_TASK_LIMIT + taskId;
+	}
+
+	/**
+	 * @param execId an exec ID returned by submitScript or submitScripts
+	 * @return the ID grid engine commands such as qdel take for the job or array job task with the exec ID
+	 */
+	public static String toJobTaskId(int execId) {
+		if (execId <= ARRAY_EXEC_ID_BASE) {
+			return String.valueOf(execId);
+		}
+		int arrayId = execId - ARRAY_EXEC_ID_BASE;
+		return (arrayId / ARRAY_TASK_LIMIT) + "." + (arrayId % ARRAY_TASK_LIMIT);
+	}
+
     /**
      * Kills all running pairs
      * @return true if successful, false otherwise
@@ -211,7 +410,7 @@ public class GridEngineBackend implements Backend{
 	public boolean killPair(int execId){
 		try{
 			log.trace("Killing pair " + execId);
-			Util.executeCommand("qdel " + execId);
+			Util.executeCommand("qdel " + toJobTaskId(execId));
 			return true;
 		} catch (Exception e) {
 			log.error("Unable to killPair " + execId, e);
@@ -219,6 +418,31 @@ public class GridEngineBackend implements Backend{
 		}
 	}
 
+	/**
+	 * Kills pairs with one qdel for every BACKEND_KILL_BATCH_SIZE of them
+	 * @param execIds the ids of the pairs to be killed, as returned by submitScript
+	 * @return true if every qdel could be run, false otherwise
+	 */
+	@Override
+	public boolean killPairs(Collection<Integer> execIds) {
+		boolean success = true;
+		for (List<Integer> batch : Iterables.partition(execIds, R.BACKEND_KILL_BATCH_SIZE)) {
+			String[] command = new String[batch.size() + 1];
+			command[0] = "qdel";
+			for (int i = 0; i < batch.size(); i++) {
+				command[i + 1] = toJobTaskId(batch.get(i));
+			}
+			try {
+				log.trace("Killing " + batch.size() + " pairs");
+				Util.executeCommand(command);
+			} catch (Exception e) {
+				log.error("Unable to kill " + batch.size() + " pairs starting with " + batch.get(0), e);
+				success = false;
+			}
+		}
+		return success;
+	}
+
     /**
 
      * @return a string representing the status of jobs running on the system
@@ -593,16 +817,31 @@ public class GridEngineBackend implements Backend{
 
 	@Override
 	public Set<Integer> getActiveExecutionIds() throws IOException {
-		String output = Util.executeCommand("qstat -s a");
+		// -g d lists every task of an array job on its own line
+		return parseActiveExecutionIds(Util.executeCommand("qstat -s a -g d"));
+	}
+
+	/**
+	 * @param output the output of qstat -s a -g d
+	 * @return the exec IDs of the jobs and array job tasks listed
+	 */
+	public static Set<Integer> parseActiveExecutionIds(String output) {
 		Set<Integer> answer = new HashSet<>();
-		for (String s : output.split(System.getProperty("line.separator"))) {
-			for (String e : s.split("\\s+")) {
-				if (!e.isEmpty()) {
-					if (Validator.isValidInteger(e)) {
-						answer.add(Integer.parseInt(e));
-					}
-					break;
+		for (String s : output.split("\\r?\\n")) {
+			String[] columns = s.trim().split("\\s+");
+			if (!Validator.isValidInteger(columns[0])) {
+				continue;
+			}
+			// the columns are job ID, priority, name, user, state, date, time, then the queue for jobs that have
+			// started, the number of slots, and the task ID for array jobs
+			int taskColumn = columns.length > 7 && columns[7].contains("@") ? 9 : 8;
+			if (columns.length > taskColumn && Validator.isValidInteger(columns[taskColumn])) {
+				int execId = toArrayExecId(Integer.parseInt(columns[0]), Integer.parseInt(columns[taskColumn]));
+				if (execId > 0) {
+					answer.add(execId);
 				}
+			} else {
+				answer.add(Integer.parseInt(columns[0]));
 			}
 		}
 
@@ -11,7 +11,10 @@ import java.util.*;
 
 /**
  * This backend implementation does not rely on any external system outside of basic Unix
- * utilities. It uses a single static queue and node and runs a single job pair at a time
+ * utilities. It uses a single static queue and node and runs as many job pairs at a time as it
+ * has slots, one per processor unless R.LOCAL_BACKEND_SLOTS says otherwise.
+ * For testing, it can instead pretend to have several nodes, each of which is a directory
+ * that the job scripts sent to that node use as their working directory base.
  *
  */
 public class LocalBackend implements Backend {
@@ -22,6 +25,7 @@ public class LocalBackend implements Backend {
 		public String scriptPath = "";
 		public String workingDirectoryPath = "";
 		public String logPath = "";
+		public String node = null;
 		public Process process;
 		
 	@Override
@@ -37,13 +41,70 @@ public class LocalBackend implements Backend {
 			return sb.toString();
 		}
 	}	
+	// every job that has been submitted and has not finished or been killed
 	private final Map<Integer, LocalJob> activeIds = new HashMap<>();
+
+	// the job running in each slot, or null for slots that are free
+	private final LocalJob[] slots;
 	
 	private String NODE_NAME = "n001";
+
+	// maps the names of pretend nodes to their working directory bases, or null if there is just the one real node
+	private final Map<String, File> nodeWorkingDirectories;
+	private final List<String> nodeNames = new ArrayList<>();
+	private int nextNode = 0;
+
+	/**
+	 * Creates a backend that runs pairs on this machine as its only node
+	 */
+	public LocalBackend() {
+		this(getDefaultSlotCount());
+	}
+
+	/**
+	 * Creates a backend that runs pairs on this machine as its only node
+	 *
+	 * @param slotCount The number of pairs to run at once
+	 */
+	public LocalBackend(int slotCount) {
+		this.nodeWorkingDirectories = null;
+		this.slots = new LocalJob[slotCount];
+	}
+
+	/**
+	 * Creates a backend that runs pairs on this machine, but sends each of them to one of the given pretend nodes.
+	 * Job scripts are run with HOSTNAME set to the name of their node and STAREXEC_WORKING_DIR_BASE set to its
+	 * directory. Pairs with no preferred node are sent to the nodes in turn.
+	 *
+	 * @param nodeWorkingDirectories A map from node names to the working directory base of each node
+	 */
+	public LocalBackend(Map<String, File> nodeWorkingDirectories) {
+		this(nodeWorkingDirectories, getDefaultSlotCount());
+	}
+
 	/**
-	 * An ordered queue of all jobs that have been submitted to the backend and have not yet
-	 * completed. Jobs are kept in this queue until they are finished executing, meaning
-	 * that the running job will be the head of the queue
+	 * Creates a backend that runs pairs on this machine, but sends each of them to one of the given pretend nodes.
+	 * The slots are shared by all of the nodes.
+	 *
+	 * @param nodeWorkingDirectories A map from node names to the working directory base of each node
+	 * @param slotCount The number of pairs to run at once
+	 */
+	public LocalBackend(Map<String, File> nodeWorkingDirectories, int slotCount) {
+		this.nodeWorkingDirectories = new LinkedHashMap<>(nodeWorkingDirectories);
+		this.nodeNames.addAll(nodeWorkingDirectories.keySet());
+		this.slots = new LocalJob[slotCount];
+	}
+
+	private static int getDefaultSlotCount() {
+		if (R.LOCAL_BACKEND_SLOTS > 0) {
+			return R.LOCAL_BACKEND_SLOTS;
+		}
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * An ordered queue of the jobs that have been submitted to the backend and are waiting for
+	 * a free slot. Jobs leave the queue when they start running.
 	 */
 	final java.util.Queue<LocalJob> jobsToRun = new ArrayDeque<>();
 	
@@ -73,62 +134,89 @@ public class LocalBackend implements Backend {
 	}
 	
 	/**
-	 * Runs a local job. This function does not return until the job is complete.
-	 * @param j
+	 * Waits for a job to be submitted, then takes it off the queue and starts it in the given slot. The process is
+	 * started while holding the lock so that killPair always sees either a queued job or a started one.
+	 * @param slot the slot to run the job in
+	 * @return the job, whose process is null if it could not be started
 	 */
-	private void runJob(LocalJob j){
+	private synchronized LocalJob startNextJob(int slot) throws InterruptedException {
+		while (jobsToRun.isEmpty()) {
+			wait();
+		}
+		LocalJob j = jobsToRun.poll();
+		slots[slot] = j;
 		try {
-			j.process = Util.executeCommandAndReturnProcess(new String[] {j.scriptPath}, null, new File(j.workingDirectoryPath));
 	    	ProcessBuilder builder = new ProcessBuilder(j.scriptPath);
 	    	builder.redirectErrorStream(true);
 	    	builder.directory(new File(j.workingDirectoryPath));
 	    	builder.redirectOutput(new File(j.logPath));
+	    	if (j.node != null) {
+	    		builder.environment().put("HOSTNAME", j.node);
+	    		builder.environment().put("STAREXEC_WORKING_DIR_BASE", nodeWorkingDirectories.get(j.node).getAbsolutePath());
+	    	}
 	    	j.process = builder.start();
-			j.process.waitFor();
 		} catch (Exception e) {
 			log.error(e.getMessage(),e);
 		}
+		return j;
 	}
-	
-	private synchronized void removeJob(LocalJob j) {
-		jobsToRun.remove(j);
-		activeIds.remove(j.execId);
+
+	private synchronized void finishJob(int slot, LocalJob j) {
+		slots[slot] = null;
+		// the job may have been killed, and its exec ID given to a new job since
+		activeIds.remove(j.execId, j);
 	}
-	
+
 	/**
-	 * Loops forever, executing the jobs in jobsToRun. Sleeps for 20 seconds at a time if the queue is empty, and
-	 * runs a single job at a time when it is not empty.
+	 * Loops forever, running the jobs in jobsToRun in the given slot one after another. Waits for a job to be
+	 * submitted whenever the queue is empty.
+	 * @param slot the slot to run jobs in
 	 */
 	@SuppressWarnings("InfiniteLoopStatement")
-	private void runJobsForever() {
+	private void runJobsForever(int slot) {
 		while (true) {
+			LocalJob job;
 			try {
-				if (jobsToRun.isEmpty()) {
-					Thread.sleep(R.JOB_SUBMISSION_PERIOD * 1000);
-					continue;
+				job = startNextJob(slot);
+				if (job.process != null) {
+					job.process.waitFor();
 				}
-			
-			} catch (Exception e) {
-				log.error(e.getMessage(),e);
-				continue;
+			} catch (InterruptedException e) {
+				log.info("stopping local job execution in slot " + slot);
+				return;
 			}
-			LocalJob job = jobsToRun.peek();
-			runJob(job);
-			removeJob(job);
-			
+			finishJob(slot, job);
 		}
 	}
 
 	@Override
-	public synchronized int submitScript(String scriptPath, String workingDirectoryPath, String logPath) {
+	public int submitScript(String scriptPath, String workingDirectoryPath, String logPath) {
+		return submitScript(scriptPath, workingDirectoryPath, logPath, null);
+	}
+
+	/**
+	 * Sends the script to the preferred node if this backend has pretend nodes and that is one of them
+	 */
+	@Override
+	public synchronized int submitScript(String scriptPath, String workingDirectoryPath, String logPath,
+			String preferredNode) {
 		try {
 			LocalJob j = new LocalJob();
 			j.execId = generateExecId();
 			j.scriptPath = scriptPath;
 			j.workingDirectoryPath = workingDirectoryPath;
 			j.logPath = logPath;
+			if (nodeWorkingDirectories != null) {
+				if (preferredNode != null && nodeWorkingDirectories.containsKey(preferredNode)) {
+					j.node = preferredNode;
+				} else {
+					j.node = nodeNames.get(nextNode);
+					nextNode = (nextNode + 1) % nodeNames.size();
+				}
+			}
 			activeIds.put(j.execId, j);
 			jobsToRun.add(j);
+			notify();
 			return j.execId;
 		} catch (Exception e) {
 			log.error(e.getMessage(),e);
@@ -156,16 +244,28 @@ public class LocalBackend implements Backend {
 		
 	}
 
+	/**
+	 * Kills the pairs while holding the lock on the queue once, rather than once per pair
+	 */
+	@Override
+	public synchronized boolean killPairs(Collection<Integer> execIds) {
+		boolean success = true;
+		for (int execId : execIds) {
+			success = killPair(execId) && success;
+		}
+		return success;
+	}
+
 	@Override
 	public synchronized boolean killAll() {
 		try {
-			while (!jobsToRun.isEmpty()) {
-				LocalJob j = jobsToRun.poll();
-				if (j.process!=null) {
+			for (LocalJob j : slots) {
+				if (j != null && j.process != null) {
 					j.process.destroyForcibly();
 				}
-				activeIds.remove(j.execId);
 			}
+			jobsToRun.clear();
+			activeIds.clear();
 			return true;
 		} catch (Exception e) {
 			log.debug(e.getMessage(), e);
@@ -174,9 +274,24 @@ public class LocalBackend implements Backend {
 		
 	}
 
+	/**
+	 * Lists what each slot is running, followed by the jobs waiting for a slot
+	 */
 	@Override
 	public synchronized String getRunningJobsStatus() {
 		StringBuilder sb = new StringBuilder();
+		int busy = 0;
+		for (LocalJob j : slots) {
+			if (j != null) {
+				busy++;
+			}
+		}
+		sb.append(busy).append(" of ").append(slots.length).append(" slots in use\n");
+		for (int i = 0; i < slots.length; i++) {
+			sb.append("slot ").append(i + 1).append(": ");
+			sb.append(slots[i] == null ? "idle" : slots[i].toString());
+			sb.append("\n");
+		}
 		for (LocalJob j : jobsToRun) {
 			sb.append(j.toString());
 			sb.append("\n");
@@ -185,7 +300,7 @@ public class LocalBackend implements Backend {
 	}
 
 	@Override
-	public Set<Integer> getActiveExecutionIds() throws IOException {
+	public synchronized Set<Integer> getActiveExecutionIds() throws IOException {
 		// we don't want to return the keyset of activeIds, since
 		// changes to that set are reflected in the map, meaning returning it
 		// makes activeIds externally mutable
@@ -196,6 +311,9 @@ public class LocalBackend implements Backend {
 
 	@Override
 	public String[] getWorkerNodes() {
+		if (nodeWorkingDirectories != null) {
+			return nodeNames.toArray(new String[0]);
+		}
 		return new String[] {NODE_NAME};
 	}
 
@@ -207,7 +325,9 @@ public class LocalBackend implements Backend {
 	@Override
 	public Map<String, String> getNodeQueueAssociations() {
 		HashMap<String, String> mapping = new HashMap<>();
-		mapping.put(NODE_NAME, R.DEFAULT_QUEUE_NAME);
+		for (String node : getWorkerNodes()) {
+			mapping.put(node, R.DEFAULT_QUEUE_NAME);
+		}
 		return mapping;
 	}
 
@@ -249,25 +369,30 @@ public class LocalBackend implements Backend {
 
 	/**
 	 * BACKEND_ROOT is not meaningful for this backend and will be ignored.
-	 * Initialization creates the execution loop for local jobs
+	 * Initialization creates an execution loop for local jobs in each slot
 	 */
 	@Override
 	public void initialize(String BACKEND_ROOT) {
 		// set the name of the single node used by this backend to the name of the system
-		try {
-			String nodeName = Util.executeCommand("hostname");
-			NODE_NAME=nodeName.split("\n")[0];
-		} catch (Exception e) {
-			log.error(e.getMessage(), e);
-		}
-		final Runnable runLocalJobsRunnable = new RobustRunnable("runLocalJobsRunnable") {
-			@Override
-			protected void dorun() {
-				log.info("initializing local job execution");
-				runJobsForever();
+		if (nodeWorkingDirectories == null) {
+			try {
+				String nodeName = Util.executeCommand("hostname");
+				NODE_NAME=nodeName.split("\n")[0];
+			} catch (Exception e) {
+				log.error(e.getMessage(), e);
 			}
-		};
-		new Thread(runLocalJobsRunnable).start();
+		}
+		for (int i = 0; i < slots.length; i++) {
+			final int slot = i;
+			final Runnable runLocalJobsRunnable = new RobustRunnable("runLocalJobsRunnable") {
+				@Override
+				protected void dorun() {
+					log.info("initializing local job execution in slot " + slot);
+					runJobsForever(slot);
+				}
+			};
+			new Thread(runLocalJobsRunnable).start();
+		}
 		log.debug("returning from local backend initialization");
 	}
 
@@ -2,7 +2,9 @@ package org.starexec.backend;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.common.collect.Iterables;
 import com.google.gson.JsonParser;
+import org.starexec.constants.R;
 import org.starexec.logger.StarLogger;
 import org.starexec.util.Util;
 
@@ -71,13 +73,33 @@ public class OARBackend implements Backend {
 		}
 	}
 
+	/**
+	 * Kills pairs with one oardel for every BACKEND_KILL_BATCH_SIZE of them
+	 */
+	@Override
+	public boolean killPairs(Collection<Integer> execIds) {
+		boolean success = true;
+		for (List<Integer> batch : Iterables.partition(execIds, R.BACKEND_KILL_BATCH_SIZE)) {
+			String[] command = new String[batch.size() + 1];
+			command[0] = "oardel";
+			for (int i = 0; i < batch.size(); i++) {
+				command[i + 1] = String.valueOf(batch.get(i));
+			}
+			try {
+				Util.executeCommand(command);
+			} catch (Exception e) {
+				log.error("ERROR: Unable to kill " + batch.size() + " pairs starting with execution id: " + batch.get(0));
+				success = false;
+			}
+		}
+		return success;
+	}
+
 	@Override
 	public boolean killAll() {
 		try{
-			for (Integer i : this.getActiveExecutionIds()) {
-				if (!killPair(i)) {
-					log.error("ERROR: Unable to kill pair with execution id: " +i);
-				}
+			if (!killPairs(this.getActiveExecutionIds())) {
+				log.error("ERROR: Unable to kill every active pair");
 			}
 		    return true;
 		} catch (Exception e) {
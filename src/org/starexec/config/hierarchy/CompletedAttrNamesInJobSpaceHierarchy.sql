@@ -0,0 +1,21 @@
+-- Gets the names of every attribute of a complete pair in a job space hierarchy, including the expected result
+-- when any of those pairs has a benchmark with one
+-- hierarchy, in braces below, is replaced with a condition on job_pairs that holds for the pairs in the hierarchy
+-- vars
+-- since If null, every pair in the hierarchy is included. Otherwise, only pairs with a completion ID in (since, until] are
+-- until See since
+
+		SELECT DISTINCT job_attributes.attr_key
+			FROM job_pairs
+			JOIN job_attributes ON job_attributes.pair_id=job_pairs.id
+			LEFT JOIN job_pair_completion ON job_pairs.id=job_pair_completion.pair_id
+			WHERE {hierarchy} AND job_pairs.status_code=7
+			AND (( :since IS NULL) OR (job_pair_completion.completion_id> :since AND job_pair_completion.completion_id<= :until))
+		UNION
+		SELECT DISTINCT bench_attributes.attr_key
+			FROM job_pairs
+			JOIN bench_attributes ON (job_pairs.bench_id=bench_attributes.bench_id AND bench_attributes.attr_key = "starexec-expected-result")
+			LEFT JOIN job_pair_completion ON job_pairs.id=job_pair_completion.pair_id
+			WHERE {hierarchy} AND job_pairs.status_code=7
+			AND (( :since IS NULL) OR (job_pair_completion.completion_id> :since AND job_pair_completion.completion_id<= :until))
+		ORDER BY attr_key
@@ -0,0 +1,36 @@
+-- Counts the job pairs in a job space hierarchy that PairInJobSpaceHierarchyPagination would return
+-- hierarchy, in braces below, is replaced with a condition on job_pairs that holds for the pairs in the hierarchy
+-- vars
+-- configId The ID of the configuration used by the given stage of the pairs
+-- pairType The "type" of the pairs, where type is defined by the columns of the solver stats table
+-- query The query to filter pairs by
+-- stageNumber The stage number to get data for
+
+		SELECT COUNT(*) as count FROM job_pairs
+
+		JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id = job_pairs.id
+		LEFT JOIN job_pair_completion ON job_pair_completion.pair_id=job_pairs.id
+
+		LEFT JOIN job_attributes on (job_attributes.pair_id=job_pairs.id and job_attributes.stage_number=jobpair_stage_data.stage_number AND job_attributes.attr_key="starexec-result")
+		LEFT JOIN bench_attributes ON (job_pairs.bench_id=bench_attributes.bench_id AND bench_attributes.attr_key = "starexec-expected-result")
+
+		WHERE {hierarchy}
+		AND jobpair_stage_data.config_id= :configId AND jobpair_stage_data.stage_number = :stageNumber AND
+				(( :pairType = "all") OR
+				( :pairType="resource" AND job_pairs.status_code>=14 AND job_pairs.status_code<=17) OR
+				( :pairType = "incomplete" AND job_pairs.status_code!=7 AND !(job_pairs.status_code>=14 AND job_pairs.status_code<=17)) OR
+				( :pairType="failed" AND ((job_pairs.status_code>=8 AND job_pairs.status_code<=13) OR job_pairs.status_code=18)) OR
+				( :pairType ="complete" AND (job_pairs.status_code=7 OR (job_pairs.status_code<=14 ANd job_pairs.status_code<=17))) OR
+				( :pairType= "unknown" AND job_pairs.status_code=7 AND job_attributes.attr_value="starexec-unknown") OR
+				( :pairType = "solved" AND job_pairs.status_code=7 AND (job_attributes.attr_value=bench_attributes.attr_value OR bench_attributes.attr_value is null)) OR
+				( :pairType = "wrong" AND job_pairs.status_code=7 AND (bench_attributes.attr_value is not null) and (job_attributes.attr_value!=bench_attributes.attr_value)))
+
+				AND
+
+				(bench_name 		LIKE 	CONCAT('%', :query, '%')
+				OR		jobpair_stage_data.config_name		LIKE	CONCAT('%', :query, '%')
+				OR		jobpair_stage_data.solver_name		LIKE	CONCAT('%', :query, '%')
+				OR		jobpair_stage_data.status_code 	LIKE 	CONCAT('%', :query, '%')
+				OR		jobpair_stage_data.wallclock				LIKE	CONCAT('%', :query, '%')
+				OR		cpu				LIKE	CONCAT('%', :query, '%')
+				OR      job_attributes.attr_value 			LIKE 	CONCAT('%', :query, '%'))
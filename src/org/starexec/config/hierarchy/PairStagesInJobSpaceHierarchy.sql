@@ -0,0 +1,35 @@
+-- Gets all the stages of the job pairs in a job space hierarchy
+-- hierarchy, in braces below, is replaced with a condition on job_pairs that holds for the pairs in the hierarchy
+-- vars
+-- since If null, every pair in the hierarchy is included. Otherwise, only pairs with a completion ID greater than this are
+
+		SELECT
+		job_pairs.id AS pair_id,
+		jobpair_stage_data.solver_id,
+		jobpair_stage_data.solver_name,
+		jobpair_stage_data.status_code,
+		jobpair_stage_data.config_id,
+		jobpair_stage_data.config_name,
+		jobpair_stage_data.cpu,
+		jobpair_stage_data.stage_id,
+		jobpair_stage_data.wallclock AS wallclock,
+		job_pairs.id, jobpair_stage_data.stage_number,
+		jobpair_stage_data.max_vmem,
+		bench_attributes.attr_value AS expected,
+		job_attributes.attr_value AS result,
+		anonymous_solver_names.anonymous_name AS anon_solver_name,
+		anonymous_config_names.anonymous_name AS anon_config_name
+			FROM job_pairs
+			JOIN job_spaces ON job_spaces.id=job_pairs.job_space_id
+			JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id=job_pairs.id
+			LEFT JOIN anonymous_primitive_names AS anonymous_solver_names ON
+						anonymous_solver_names.primitive_id=jobpair_stage_data.solver_id AND anonymous_solver_names.primitive_type="solver"
+						AND anonymous_solver_names.job_id = job_spaces.job_id
+			LEFT JOIN anonymous_primitive_names AS anonymous_config_names ON
+						anonymous_config_names.primitive_id=jobpair_stage_data.config_id AND anonymous_config_names.primitive_type="config"
+						AND anonymous_config_names.job_id = job_spaces.job_id
+			LEFT JOIN job_attributes on (job_attributes.pair_id=job_pairs.id AND job_attributes.stage_number=jobpair_stage_data.stage_number and job_attributes.attr_key="starexec-result")
+			LEFT JOIN job_pair_completion ON job_pairs.id=job_pair_completion.pair_id
+			LEFT JOIN bench_attributes ON (job_pairs.bench_id=bench_attributes.bench_id AND bench_attributes.attr_key = "starexec-expected-result")
+			WHERE {hierarchy}
+			AND (( :since IS NULL) OR job_pair_completion.completion_id> :since)
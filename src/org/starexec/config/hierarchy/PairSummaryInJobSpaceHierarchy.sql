@@ -0,0 +1,12 @@
+-- Counts the pairs in a job space hierarchy, along with the newest completion ID and the most stages any of them has
+-- hierarchy, in braces below, is replaced with a condition on job_pairs that holds for the pairs in the hierarchy
+-- vars
+-- since If null, every pair in the hierarchy is included. Otherwise, only pairs with a completion ID greater than this are
+
+		SELECT COUNT(*) AS pair_count,
+		MAX(job_pair_completion.completion_id) AS max_completion,
+		MAX((SELECT COUNT(*) FROM jobpair_stage_data WHERE jobpair_stage_data.jobpair_id=job_pairs.id)) AS max_stages
+			FROM job_pairs
+			LEFT JOIN job_pair_completion ON job_pairs.id=job_pair_completion.pair_id
+			WHERE {hierarchy}
+			AND (( :since IS NULL) OR job_pair_completion.completion_id> :since)
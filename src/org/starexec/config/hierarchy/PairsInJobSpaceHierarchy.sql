@@ -0,0 +1,22 @@
+-- Gets all the job pairs in a job space hierarchy. No stages are retrieved
+-- hierarchy, in braces below, is replaced with a condition on job_pairs that holds for the pairs in the hierarchy
+-- vars
+-- since If null, every pair in the hierarchy is included. Otherwise, only pairs with a completion ID greater than this are
+
+		SELECT
+		status_code,
+		job_pairs.id,
+		job_pairs.bench_id,
+		job_pairs.bench_name,
+		anonymous_primitive_names.anonymous_name AS anon_bench_name,
+		job_pairs.path,
+		completion_id,
+		primary_jobpair_data
+			FROM job_pairs
+			JOIN job_spaces ON job_spaces.id = job_pairs.job_space_id
+			LEFT JOIN anonymous_primitive_names ON
+				anonymous_primitive_names.primitive_id=job_pairs.bench_id AND anonymous_primitive_names.primitive_type="bench"
+						AND anonymous_primitive_names.job_id=job_spaces.job_id
+			LEFT JOIN job_pair_completion ON job_pairs.id=job_pair_completion.pair_id
+			WHERE {hierarchy}
+			AND (( :since IS NULL) OR job_pair_completion.completion_id> :since)
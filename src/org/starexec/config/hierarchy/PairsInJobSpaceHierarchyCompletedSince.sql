@@ -0,0 +1,22 @@
+-- Gets the job pairs in a job space hierarchy that have completed since the given completion ID. Starts from the
+-- completion table so that the cost depends on the number of new completions rather than the size of the job
+-- hierarchy, in braces below, is replaced with a condition on job_pairs that holds for the pairs in the hierarchy
+-- vars
+-- since Only pairs with a completion ID greater than this are included
+
+		SELECT
+		status_code,
+		job_pairs.id,
+		job_pairs.bench_id,
+		job_pairs.bench_name,
+		anonymous_primitive_names.anonymous_name AS anon_bench_name,
+		job_pairs.path,
+		completion_id,
+		primary_jobpair_data
+			FROM job_pair_completion
+			JOIN job_pairs ON job_pairs.id=job_pair_completion.pair_id
+			JOIN job_spaces ON job_spaces.id = job_pairs.job_space_id
+			LEFT JOIN anonymous_primitive_names ON
+				anonymous_primitive_names.primitive_id=job_pairs.bench_id AND anonymous_primitive_names.primitive_type="bench"
+						AND anonymous_primitive_names.job_id=job_spaces.job_id
+			WHERE job_pair_completion.completion_id> :since AND {hierarchy}
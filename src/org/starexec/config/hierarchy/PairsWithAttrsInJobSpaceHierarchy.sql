@@ -0,0 +1,35 @@
+-- Gets every stage of the pairs in a job space hierarchy with all of its attributes, one row per attribute, ordered
+-- so that the rows of each pair and each stage are together
+-- hierarchy, in braces below, is replaced with a condition on job_pairs that holds for the pairs in the hierarchy
+-- vars
+-- since If null, every pair in the hierarchy is included. Otherwise, only pairs with a completion ID in (since, until] are
+-- until See since
+
+		SELECT
+		job_pairs.id AS pair_id,
+		job_pairs.status_code AS pair_status_code,
+		job_pairs.bench_id,
+		job_pairs.bench_name,
+		job_pairs.path,
+		job_pairs.primary_jobpair_data,
+		job_pair_completion.completion_id,
+		jobpair_stage_data.stage_number,
+		jobpair_stage_data.solver_id,
+		jobpair_stage_data.solver_name,
+		jobpair_stage_data.config_id,
+		jobpair_stage_data.config_name,
+		jobpair_stage_data.status_code AS stage_status_code,
+		jobpair_stage_data.cpu,
+		jobpair_stage_data.wallclock,
+		jobpair_stage_data.max_vmem,
+		bench_attributes.attr_value AS expected,
+		job_attributes.attr_key,
+		job_attributes.attr_value
+			FROM job_pairs
+			JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id=job_pairs.id
+			LEFT JOIN job_pair_completion ON job_pairs.id=job_pair_completion.pair_id
+			LEFT JOIN bench_attributes ON (job_pairs.bench_id=bench_attributes.bench_id AND bench_attributes.attr_key = "starexec-expected-result")
+			LEFT JOIN job_attributes ON (job_attributes.pair_id=job_pairs.id AND job_attributes.stage_number=jobpair_stage_data.stage_number)
+			WHERE {hierarchy}
+			AND (( :since IS NULL) OR (job_pair_completion.completion_id> :since AND job_pair_completion.completion_id<= :until))
+			ORDER BY job_pairs.id, jobpair_stage_data.stage_number
@@ -6,7 +6,8 @@
 -- vars
 -- query The query to filter pairs by
 -- stageNumber The stage number to get data for
--- jobSpaceId The root space of the job space hierarchy to get pairs for
+-- hierarchy, in braces below, is replaced with a condition on job_pairs that holds for the pairs in the job space
+-- hierarchy to get pairs for
 -- configId The ID of the configuration used by the given stage of the pairs
 -- pairType The "type" of the pairs, where type is defined by the columns of the solver stats table
 
@@ -29,10 +30,9 @@
 				JOIN jobpair_stage_data ON jobpair_stage_data.jobpair_id = job_pairs.id
 				LEFT JOIN job_attributes on (job_attributes.pair_id=job_pairs.id and job_attributes.stage_number=jobpair_stage_data.stage_number AND job_attributes.attr_key="starexec-result")
 				
-				JOIN job_space_closure ON descendant=job_pairs.job_space_id
 				LEFT JOIN bench_attributes ON (job_pairs.bench_id=bench_attributes.bench_id AND bench_attributes.attr_key = "starexec-expected-result")
 
-				WHERE 	ancestor= :jobSpaceId AND jobpair_stage_data.config_id= :configId AND 
+				WHERE 	{hierarchy} AND jobpair_stage_data.config_id= :configId AND 
 				(( :stageNumber = 0 AND jobpair_stage_data.stage_number=job_pairs.primary_jobpair_data) OR jobpair_stage_data.stage_number= :stageNumber)
 				
 				-- this large block handles filtering the pairs according to their status code
@@ -0,0 +1,148 @@
+#!/bin/bash
+
+# /////////////////////////////////////////////
+# NAME:
+# StarExec Benchmark Cache Script
+#
+# DESCRIPTION:
+# Keeps copies of the benchmarks that pairs on this node have used in
+# $WORKING_DIR_BASE/benchcache, so that a benchmark that is run against
+# many solvers is read from shared storage once per node instead of once
+# per pair. Each entry is a directory named after the path, size and
+# modification time of the benchmark it holds:
+#
+#   benchmark      the copy of the benchmark
+#   bench_id       the benchmark's ID, if it has one
+#   lock.lock      held while the entry is being filled
+#   finished.lock  exists once the entry can be used. Its modification
+#                  time is when the entry was last used
+#
+# When the cache grows past BENCH_CACHE_MAX_KB kilobytes, the least
+# recently used entries are removed. Entries that hold a benchmark with an
+# ID are recorded in the database, so that the job manager can send pairs
+# to nodes that already have their benchmark.
+#
+# /////////////////////////////////////////////
+
+BENCH_CACHE_DIR="$WORKING_DIR_BASE/benchcache"
+
+# Locks and unfinished entries older than this many minutes were left behind by a pair that was killed
+BENCH_CACHE_STALE_MINUTES=60
+
+# prints the path to the cache entry for the given benchmark
+function benchCacheEntry {
+	local STAMP=$(stat -L -c '%s:%Y' "$1")
+	local KEY=$(sha1sum <<< "$1:$STAMP")
+	echo "$BENCH_CACHE_DIR/${KEY%% *}"
+}
+
+# Copies a benchmark to the execution host, using the copy in the cache if there is one and adding it to the
+# cache otherwise. If the cache cannot be used, the benchmark is copied from shared storage.
+# $1 The path to the benchmark on shared storage
+# $2 The path to copy the benchmark to
+# $3 The ID of the benchmark, if it has one
+function copyBenchmarkFromCache {
+	local SOURCE=$1
+	local DEST=$2
+	local ID=$3
+	if ((BENCH_CACHE_MAX_KB <= 0)) || [ ! -f "$SOURCE" ]; then
+		cp "$SOURCE" "$DEST"
+		return
+	fi
+
+	local ENTRY=$(benchCacheEntry "$SOURCE")
+	if [ -d "$ENTRY/finished.lock" ]; then
+		# the entry can be evicted while it is being copied, in which case the copy fails
+		if cp "$ENTRY/benchmark" "$DEST" 2>/dev/null; then
+			touch "$ENTRY/finished.lock"
+			log "benchmark $SOURCE copied from the cache at $ENTRY"
+			return 0
+		fi
+		log "benchmark $SOURCE could not be copied from the cache, copying it from shared storage"
+	fi
+
+	cp "$SOURCE" "$DEST" || return
+	storeInBenchmarkCache "$DEST" "$ENTRY" "$ID"
+	return 0
+}
+
+# Fills a cache entry with a benchmark that has been copied to the execution host. Does nothing if another pair
+# is already filling the entry.
+# $1 The local copy of the benchmark
+# $2 The cache entry to fill
+# $3 The ID of the benchmark, if it has one
+function storeInBenchmarkCache {
+	local LOCAL=$1
+	local ENTRY=$2
+	local ID=$3
+	mkdir -p "$ENTRY" 2>/dev/null
+	if ! mkdir "$ENTRY/lock.lock" 2>/dev/null; then
+		return
+	fi
+	if [ -d "$ENTRY/finished.lock" ]; then
+		rmdir "$ENTRY/lock.lock"
+		return
+	fi
+
+	# the benchmark is moved into place so the entry never holds part of it
+	if cp "$LOCAL" "$ENTRY/benchmark.tmp" && mv "$ENTRY/benchmark.tmp" "$ENTRY/benchmark"; then
+		if [ "$ID" != "" ]; then
+			echo "$((ID))" > "$ENTRY/bench_id"
+		fi
+		mkdir "$ENTRY/finished.lock"
+		rmdir "$ENTRY/lock.lock"
+		log "benchmark stored in the cache at $ENTRY"
+		if [ "$ID" != "" ]; then
+			dbExec "CALL AddCachedBenchmark('$(dbEscape $HOSTNAME)', $((ID)))"
+		fi
+		evictFromBenchmarkCache
+	else
+		log "the benchmark could not be stored in the cache"
+		rm -rf "$ENTRY"
+	fi
+}
+
+# Removes the least recently used entries from the cache until it is back under 90% of BENCH_CACHE_MAX_KB, if it
+# is over BENCH_CACHE_MAX_KB. Only one pair on a node evicts at a time; the others skip eviction.
+function evictFromBenchmarkCache {
+	local LOCK="$BENCH_CACHE_DIR/evict.lock"
+	if ! mkdir "$LOCK" 2>/dev/null; then
+		if [ -n "$(find "$LOCK" -maxdepth 0 -mmin +$BENCH_CACHE_STALE_MINUTES 2>/dev/null)" ]; then
+			log "removing stale benchmark cache eviction lock"
+			rmdir "$LOCK"
+		fi
+		return
+	fi
+
+	local ENTRY
+	while read -r ENTRY; do
+		if [ ! -d "$ENTRY/finished.lock" ]; then
+			log "removing unfinished benchmark cache entry $ENTRY"
+			rm -rf "$ENTRY"
+		fi
+	done < <(find "$BENCH_CACHE_DIR" -mindepth 1 -maxdepth 1 -type d ! -name evict.lock -mmin +$BENCH_CACHE_STALE_MINUTES)
+
+	local SIZE=$(du -sk "$BENCH_CACHE_DIR" | cut -f1)
+	if ((SIZE > BENCH_CACHE_MAX_KB)); then
+		local TARGET=$((BENCH_CACHE_MAX_KB * 9 / 10))
+		local REMOVED=""
+		local USED
+		log "benchmark cache is using $SIZE KB of $BENCH_CACHE_MAX_KB KB, evicting down to $TARGET KB"
+		while read -r USED ENTRY; do
+			if ((SIZE <= TARGET)); then
+				break
+			fi
+			((SIZE -= $(du -sk "$ENTRY" | cut -f1)))
+			if [ -f "$ENTRY/bench_id" ]; then
+				REMOVED+="CALL RemoveCachedBenchmark('$(dbEscape $HOSTNAME)', $(($(cat "$ENTRY/bench_id"))));"
+			fi
+			# readers check finished.lock before copying, so remove it first
+			rmdir "$ENTRY/finished.lock"
+			rm -rf "$ENTRY"
+		done < <(find "$BENCH_CACHE_DIR" -mindepth 2 -maxdepth 2 -type d -name finished.lock -printf '%T@ %h\n' | sort -n)
+		if [ "$REMOVED" != "" ]; then
+			dbExec "$REMOVED"
+		fi
+	fi
+	rmdir "$LOCK"
+}
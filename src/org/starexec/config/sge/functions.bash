@@ -14,6 +14,8 @@
 
 # Include the predefined status codes and functions
 . $SCRIPT_DIR/status_codes.bash
+# Include the node-local benchmark cache
+. $SCRIPT_DIR/benchcache.bash
 
 #################################################################################
 # base64 decode some names which could otherwise have nasty characters in them
@@ -774,7 +776,7 @@ function copyBenchmarkDependencies {
 			"./process" "${BENCH_DEPENDS_ARRAY[i]}" $RAND_SEED > "$LOCAL_BENCH_DIR/${LOCAL_DEPENDS_ARRAY[i]}"
 		else
 			log "copying benchmark ${BENCH_DEPENDS_ARRAY[i]} to $LOCAL_BENCH_DIR/${LOCAL_DEPENDS_ARRAY[i]} on execution host..."
-			cp "${BENCH_DEPENDS_ARRAY[i]}" "$LOCAL_BENCH_DIR/${LOCAL_DEPENDS_ARRAY[i]}"
+			copyBenchmarkFromCache "${BENCH_DEPENDS_ARRAY[i]}" "$LOCAL_BENCH_DIR/${LOCAL_DEPENDS_ARRAY[i]}"
 		fi
 	done
 
@@ -783,7 +785,7 @@ function copyBenchmarkDependencies {
 
 	while ((BENCH_INPUT_INDEX < NUM_BENCH_INPUTS)); do
 		CURRENT_BENCH_INPUT_PATH=${BENCH_INPUT_PATHS[BENCH_INPUT_INDEX]}
-		cp "$CURRENT_BENCH_INPUT_PATH" "$BENCH_INPUT_DIR/$((BENCH_INPUT_INDEX+1))"
+		copyBenchmarkFromCache "$CURRENT_BENCH_INPUT_PATH" "$BENCH_INPUT_DIR/$((BENCH_INPUT_INDEX+1))"
 		((++BENCH_INPUT_INDEX))
 	done
 
@@ -912,7 +914,12 @@ function copyDependencies {
 	ls -l "$LOCAL_RUNSOLVER_PATH"
 
 	log "copying benchmark $BENCH_PATH to $LOCAL_BENCH_PATH on execution host..."
-	cp "$BENCH_PATH" "$LOCAL_BENCH_PATH"
+	# after the first stage the benchmark is the output of the stage before, which is not worth caching
+	if ((STAGE_INDEX == 0)) && [[ $BUILD_JOB != "true" ]]; then
+		copyBenchmarkFromCache "$BENCH_PATH" "$LOCAL_BENCH_PATH" "$BENCH_ID"
+	else
+		cp "$BENCH_PATH" "$LOCAL_BENCH_PATH"
+	fi
 
 	log "benchmark copy complete"
 
@@ -0,0 +1,56 @@
+package org.starexec.constants;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Queries over the pairs in a job space hierarchy. Each has a {hierarchy} placeholder that is replaced with the
+ * condition JobSpaceTree builds for the hierarchy before the query is run.
+ */
+public class HierarchyQueries {
+	private static final String GET_PAIRS_PATH = "/hierarchy/PairsInJobSpaceHierarchy.sql";
+	public static String GET_PAIRS_QUERY = "";
+
+	private static final String GET_PAIR_STAGES_PATH = "/hierarchy/PairStagesInJobSpaceHierarchy.sql";
+	public static String GET_PAIR_STAGES_QUERY = "";
+
+	private static final String GET_PAIRS_COMPLETED_SINCE_PATH = "/hierarchy/PairsInJobSpaceHierarchyCompletedSince.sql";
+	public static String GET_PAIRS_COMPLETED_SINCE_QUERY = "";
+
+	private static final String GET_PAIR_STAGES_COMPLETED_SINCE_PATH =
+			"/hierarchy/PairStagesInJobSpaceHierarchyCompletedSince.sql";
+	public static String GET_PAIR_STAGES_COMPLETED_SINCE_QUERY = "";
+
+	private static final String GET_PAIR_SUMMARY_PATH = "/hierarchy/PairSummaryInJobSpaceHierarchy.sql";
+	public static String GET_PAIR_SUMMARY_QUERY = "";
+
+	private static final String GET_COMPLETED_ATTR_NAMES_PATH = "/hierarchy/CompletedAttrNamesInJobSpaceHierarchy.sql";
+	public static String GET_COMPLETED_ATTR_NAMES_QUERY = "";
+
+	private static final String GET_PAIRS_WITH_ATTRS_PATH = "/hierarchy/PairsWithAttrsInJobSpaceHierarchy.sql";
+	public static String GET_PAIRS_WITH_ATTRS_QUERY = "";
+
+	private static final String COUNT_PAIRS_BY_TYPE_PATH = "/hierarchy/CountPairsInJobSpaceHierarchyByType.sql";
+	public static String COUNT_PAIRS_BY_TYPE_QUERY = "";
+
+	/**
+	 * Reads in the queries stored in the config/hierarchy package
+	 * @throws IOException
+	 */
+	public static void loadHierarchyQueries() throws IOException {
+		GET_PAIRS_QUERY = read(GET_PAIRS_PATH);
+		GET_PAIR_STAGES_QUERY = read(GET_PAIR_STAGES_PATH);
+		GET_PAIRS_COMPLETED_SINCE_QUERY = read(GET_PAIRS_COMPLETED_SINCE_PATH);
+		GET_PAIR_STAGES_COMPLETED_SINCE_QUERY = read(GET_PAIR_STAGES_COMPLETED_SINCE_PATH);
+		GET_PAIR_SUMMARY_QUERY = read(GET_PAIR_SUMMARY_PATH);
+		GET_COMPLETED_ATTR_NAMES_QUERY = read(GET_COMPLETED_ATTR_NAMES_PATH);
+		GET_PAIRS_WITH_ATTRS_QUERY = read(GET_PAIRS_WITH_ATTRS_PATH);
+		COUNT_PAIRS_BY_TYPE_QUERY = read(COUNT_PAIRS_BY_TYPE_PATH);
+	}
+
+	private static String read(String path) throws IOException {
+		return FileUtils.readFileToString(new File(R.CONFIG_PATH, path));
+	}
+}
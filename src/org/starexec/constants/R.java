@@ -147,7 +147,19 @@ public class R {
 
 	// Matrix view settings
 	public static final int MATRIX_VIEW_COLUMN_HEADER = 18; // Limit on number of letters for Solver or config name
-	public static final int MAX_MATRIX_JOBPAIRS = 10000;
+	public static final int MAX_MATRIX_JOBPAIRS = 1000000; // Limit on job pairs read for one page of the matrix view
+	public static final int MAX_MATRIX_CELLS = 4000000; // Limit on benchmarks times solver-configs, since empty cells take space too
+	public static final int MATRIX_VIEW_ROWS_PER_PAGE = 250; // Number of benchmarks shown on each page of the matrix view
+
+	// Pair output and log settings
+	public static final int MAX_PAIR_FILE_READ_BYTES = 1024 * 1024; // Most bytes of a pair's stdout or log sent for one request
+	public static final long OUTPUT_FOLLOW_INTERVAL = 1000; // milliseconds between checks of followed pair output files for new bytes
+	public static final int OUTPUT_FOLLOW_CHUNK_BYTES = 64 * 1024; // most bytes of followed output read and held for one viewer at a time
+	public static final long OUTPUT_FOLLOW_HEARTBEAT = 15 * 1000; // milliseconds without new output before a viewer is sent a comment to keep its connection open
+	public static final long OUTPUT_FOLLOW_STATUS_INTERVAL = 10 * 1000; // milliseconds between checks of whether a pair with idle output has finished
+	public static final long OUTPUT_FOLLOW_TIMEOUT = 30 * 60 * 1000; // milliseconds before a following connection is closed, after which the browser reconnects
+	public static final int MAX_OUTPUT_FOLLOWERS = 500; // most viewers that can follow pair output at once
+	public static final int OUTPUT_FOLLOW_WRITER_THREADS = 4; // threads kept to send new output to viewers; more are started while sends to slow viewers are blocked
 
 	// JSP page constants
 	public static final String SUPPRESS_TIMESTAMP_INPUT_NAME = "suppressTimestamp"; // Name of input value for suppress timestamps in job.jsp
@@ -252,6 +264,7 @@ public class R {
 	public static final int DEFAULT_PAIR_QUOTA = 750000;                            // The default max number of pairs a user should be able to own
 	public static final String PERSONAL_SPACE_DESCRIPTION =                            // The default text that appears at the top of a user's personal space
 			"this is your personal space";
+	public static final int BENCHMARK_VALIDATION_THREADS = 4;                       //Number of benchmarks run through a processor at the same time during an upload
 	public static final int MAX_FAILED_VALIDATIONS = 50;                            //More than this number of benchmark validation failures triggers a message and ends
 	public static final String VALID_BENCHMARK_ATTRIBUTE = "starexec-valid"; //Name of attribute given by benchmark processors to show a benchmark is valid
 	//Reserved Names for users
@@ -289,14 +302,36 @@ public class R {
 	// BACKEND configurations
 	public static final String BACKEND_ROOT = "@Backend.Root@"; // root directory for the backend executable
 	public static final String BACKEND_WORKING_DIR = "@Backend.WorkingDir@";
+	public static final int LOCAL_BACKEND_SLOTS = @Backend.LocalSlots@;          // The number of pairs the local backend runs at once. 0 runs one per processor
 	public static final long MAX_PAIR_FILE_WRITE = @JobPair.MaxFileWrite@;      // The largest possible amount disk space (in kilobytes) a job pair is allowed to use
 	public static final String JOBPAIR_EXECUTION_PREFIX = "@JobPair.ExecutionPrefix@"; // Prefix to (ie) enable GCC 7 for Solver build jobs
 	public static final long DEFAULT_PAIR_VMEM = 17179869184L;                              // The default limit on memory (in bytes) for job pairs
 	public static final int NODE_MULTIPLIER = 8;                                  // The number of job scripts to submit is the number of nodes in the queue times this
+	public static final int BACKEND_KILL_BATCH_SIZE = 500;                         // The most pairs killed with a single backend command, such as qdel
+	public static final long BENCH_CACHE_MAX_KB = 20L * 1024 * 1024;              // Most disk space (in kilobytes) the benchmark cache on each node may use. 0 turns the cache off
 
 	public static final int MAX_STAGES_PER_PIPELINE = 10000;
 	public static final int NUM_JOB_PAIRS_AT_A_TIME = 5;  // the number of job pairs from a job to submit at the same time, as we cycle through all jobs submitting pairs.
-	public static final int NUM_REPOSTPROCESS_AT_A_TIME = 200; // number of job pairs to re-postprocess at a time with our periodic task
+	public static final int NUM_REPOSTPROCESS_AT_A_TIME = 200; // number of job pairs handed to the post processing workers at a time
+	public static final int POST_PROCESSING_THREADS = 4; // number of pairs post processed at the same time
+	public static final int POST_PROCESSING_SAVE_BATCH_SIZE = 25; // number of post processed pairs whose results are saved in one transaction
+	public static final int JOB_SCRIPT_WRITER_THREADS = 4; // number of threads used to write job scripts in parallel during submission
+	public static final int QUEUE_SCHEDULER_THREADS = 4; // number of queues scheduled at once; scheduling holds at most this many plus JOB_SCRIPT_WRITER_THREADS database connections
+	public static final int CONNECTION_CALL_SITE_SAMPLE_RATE = 16; // one in this many database connections records which method it was borrowed by
+	public static final int CONNECTION_STATISTICS_CALL_SITES = 25; // number of call sites listed in the connection statistics log
+	public static final int SOLVER_STATS_CACHE_SIZE = 500; // number of job space hierarchies of running jobs whose solver stats are kept in memory
+	public static final int JOB_SPACE_TREE_CACHE_SIZE = 1000; // number of jobs whose job space hierarchies are kept in memory
+	public static final int USER_NAME_CACHE_SIZE = 1000; // number of user names kept in memory for displaying queue loads
+	public static final long USER_NAME_CACHE_LIFETIME = 10 * 60 * 1000; // milliseconds after which a cached user name is read from the database again
+	public static final int JOB_CSV_PROGRESS_INTERVAL = 10000; // number of pairs between progress messages while a job csv is streamed
+	public static final int JOB_PAIR_INSERT_BATCH_SIZE = 1000; // number of new job pairs sent to the database in one batch during job creation
+	public static final int BENCHMARK_INSERT_BATCH_SIZE = 1000; // number of uploaded benchmarks added to the database in one transaction
+	public static final int PAIR_STATUS_BATCH_SIZE = 1000; // maximum number of pair updates sent in one JDBC batch
+	public static final int ERROR_LOG_QUEUE_SIZE = 10000; // number of error log messages that can wait to be saved before new ones are dropped
+	public static final long ERROR_LOG_COALESCE_WINDOW = 10 * 1000; // milliseconds over which identical error log messages are saved once with a count
+	public static final int ERROR_LOG_BATCH_SIZE = 200; // number of distinct waiting error log messages that are saved without waiting for the window to end
+	public static final int SUBMISSION_TRIGGER_DEBOUNCE = 2000; // milliseconds to wait after a submission request so bursts of events cause one scheduling run
+	public static final int PAIR_COMPLETION_POLL_PERIOD = 5; // seconds between checks for newly completed pairs
 	public static final int DEFAULT_MAX_TIMEOUT = 259200;
         public static final Long LOAD_DIFFERENCE_THRESHOLD = 5400L; // 90 minutes in seconds
 	/* Maximum Runsolver kill-delay */
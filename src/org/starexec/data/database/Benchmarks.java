@@ -12,6 +12,7 @@ import org.starexec.logger.StarLogger;
 import org.starexec.servlets.UploadBenchmark;
 import org.starexec.util.*;
 import org.starexec.util.Timer;
+import org.starexec.util.dataStructures.BenchmarkPathTrie;
 
 import java.io.File;
 import java.io.IOException;
@@ -21,6 +22,13 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 /**
@@ -373,32 +381,61 @@ public class Benchmarks {
 	}
 
 	/**
-	 * Adds a list of benchmarks to the database and associates them with the given space ID
+	 * Adds a list of benchmarks to the database and associates them with the given space ID. The benchmarks are added
+	 * R.BENCHMARK_INSERT_BATCH_SIZE at a time, each group in its own transaction, with the benchmarks, their
+	 * attributes, their dependencies and their space associations each sent as one batch.
 	 *
-	 * @param benchmarks
-	 * @param spaceId
-	 * @param statusId
-	 * @return
-	 * @throws Exception
+	 * @param benchmarks The benchmarks to add. Each one is given its new ID.
+	 * @param spaceId The space to put the benchmarks in, or null to leave them out of any space
+	 * @param statusId The ID of an upload status to update, or null if there is none
+	 * @return The IDs of the new benchmarks, in the same order as the benchmarks
+	 * @throws SQLException If a group of benchmarks could not be added. The groups before it stay added.
+	 * @throws StarExecException If any benchmark was not validated by its processor, in which case none are added
 	 */
 	protected static List<Integer> addAndAssociate(List<Benchmark> benchmarks, Integer spaceId, Integer statusId)
 	throws SQLException, StarExecException {
-		ArrayList<Integer> benchmarkIds = new ArrayList<>();
 		log.info("in add (list) method (no con parameter )- adding " + benchmarks.size() + " benchmarks to space " +
 				         spaceId);
-		int incrementCounter = 0;
-		Timer timer = new Timer();
 		for (Benchmark b : benchmarks) {
-			int id = Benchmarks.addAndAssociate(b, spaceId, statusId);
-			if (id < 0) {
-				String message = ("failed to add bench " + b.getName());
-				Uploads.setBenchmarkErrorMessage(statusId, message);
-				//Note - this does not occur when Benchmark fails validation even though those benchmarks not added
+			if (!Benchmarks.isBenchValid(b.getAttributes())) {
+				Uploads.setBenchmarkErrorMessage(
+						statusId, "Benchmark validation failed for benchmark " + b.getName() + ".");
 				throw new StarExecValidationException(String.format("Failed to add benchmark [%s] to space [%d]", b.getName(), spaceId));
 			}
-
-			benchmarkIds.add(id);
-			incrementCounter++;
+		}
+		ArrayList<Integer> benchmarkIds = new ArrayList<>(benchmarks.size());
+		if (benchmarks.isEmpty()) {
+			return benchmarkIds;
+		}
+		int nextId = reserveBenchmarkIds(benchmarks.size());
+		int incrementCounter = 0;
+		Timer timer = new Timer();
+		for (int start = 0; start < benchmarks.size(); start += R.BENCHMARK_INSERT_BATCH_SIZE) {
+			List<Benchmark> group =
+					benchmarks.subList(start, Math.min(start + R.BENCHMARK_INSERT_BATCH_SIZE, benchmarks.size()));
+			for (Benchmark b : group) {
+				b.setId(nextId++);
+			}
+			Connection con = null;
+			try {
+				con = Common.getConnection();
+				Common.beginTransaction(con);
+				insertBenchmarks(con, group, spaceId);
+				Common.endTransaction(con);
+			} catch (SQLException e) {
+				Common.doRollback(con);
+				Uploads.setBenchmarkErrorMessage(statusId, "failed to add bench " + group.get(0).getName() +
+				                                           " or one of the " + (group.size() - 1) + " after it");
+				log.error("addAndAssociate", "rethrowing exception", e);
+				throw e;
+			} finally {
+				Common.endTransaction(con);
+				Common.safeClose(con);
+			}
+			for (Benchmark b : group) {
+				benchmarkIds.add(b.getId());
+			}
+			incrementCounter += group.size();
 			if (timer.getTime() > R.UPLOAD_STATUS_TIME_BETWEEN_UPDATES) {
 				Uploads.incrementCompletedBenchmarks(statusId, incrementCounter);
 				incrementCounter = 0;
@@ -411,6 +448,118 @@ public class Benchmarks {
 		return benchmarkIds;
 	}
 
+	/**
+	 * Adds benchmarks with already reserved IDs to the database along with their attributes and dependencies, and
+	 * puts them in a space. Each kind of record is sent as a single batch. The benchmarks must already have been
+	 * validated by their processor. The validity attribute is removed from their attributes and not added.
+	 *
+	 * @param con The connection to add the benchmarks on. Transactions are left to the caller.
+	 * @param benchmarks The benchmarks to add, each with an ID reserved by ReserveBenchmarkIds
+	 * @param spaceId The space to put the benchmarks in, or null to leave them out of any space
+	 * @throws SQLException If any of the batches failed
+	 */
+	public static void insertBenchmarks(Connection con, List<Benchmark> benchmarks, Integer spaceId)
+			throws SQLException {
+		CallableStatement benchProcedure = null;
+		CallableStatement attrProcedure = null;
+		CallableStatement dependencyProcedure = null;
+		CallableStatement assocProcedure = null;
+		try {
+			benchProcedure = con.prepareCall("{CALL AddBenchmarkWithId(?, ?, ?, ?, ?, ?, ?, ?)}");
+			attrProcedure = con.prepareCall("{CALL AddBenchAttr(?, ?, ?)}");
+			dependencyProcedure = con.prepareCall("{CALL AddBenchDependency(?, ?, ?)}");
+			assocProcedure = con.prepareCall("{CALL AssociateBench(?, ?)}");
+			int attrs = 0;
+			int dependencies = 0;
+			for (Benchmark benchmark : benchmarks) {
+				benchProcedure.setInt(1, benchmark.getId());
+				benchProcedure.setString(2, benchmark.getName());
+				benchProcedure.setString(3, benchmark.getPath());
+				benchProcedure.setBoolean(4, benchmark.isDownloadable());
+				benchProcedure.setInt(5, benchmark.getUserId());
+				benchProcedure.setInt(6, benchmark.getType().getId());
+				benchProcedure.setLong(7, FileUtils.sizeOf(new File(benchmark.getPath())));
+				benchProcedure.setString(8, benchmark.getDescription());
+				benchProcedure.addBatch();
+
+				Map<String, String> benchAttrs = benchmark.getAttributes();
+				// Discard the valid attribute, we don't need it
+				benchAttrs.remove(R.VALID_BENCHMARK_ATTRIBUTE);
+				for (Map.Entry<String, String> attr : benchAttrs.entrySet()) {
+					if (attr.getKey().length() > 128 || attr.getValue().length() > 128) {
+						log.warn("insertBenchmarks",
+						         "skipping attribute that exceeds max length\n\tbenchId :" + benchmark.getId() +
+						         "\n\tkey:     " + attr.getKey() + "\n\tval:     " + attr.getValue());
+						// one attribute that does not fit would fail the whole batch
+						continue;
+					}
+					attrProcedure.setInt(1, benchmark.getId());
+					attrProcedure.setString(2, attr.getKey());
+					attrProcedure.setString(3, attr.getValue());
+					attrProcedure.addBatch();
+					attrs++;
+				}
+
+				//do previously validated dependencies here
+				for (BenchmarkDependency d : benchmark.getDependencies()) {
+					dependencyProcedure.setInt(1, benchmark.getId());
+					dependencyProcedure.setInt(2, d.getSecondaryBench().getId());
+					dependencyProcedure.setString(3, d.getDependencyPath());
+					dependencyProcedure.addBatch();
+					dependencies++;
+				}
+
+				if (spaceId != null) {
+					assocProcedure.setInt(1, benchmark.getId());
+					assocProcedure.setInt(2, spaceId);
+					assocProcedure.addBatch();
+				}
+			}
+			// the benchmarks must exist before anything that refers to them
+			benchProcedure.executeBatch();
+			if (attrs > 0) {
+				attrProcedure.executeBatch();
+			}
+			if (dependencies > 0) {
+				dependencyProcedure.executeBatch();
+			}
+			if (spaceId != null) {
+				assocProcedure.executeBatch();
+			}
+			log.debug("insertBenchmarks", "added " + benchmarks.size() + " benchmarks with " + attrs +
+			                              " attributes and " + dependencies + " dependencies");
+		} finally {
+			Common.safeClose(benchProcedure);
+			Common.safeClose(attrProcedure);
+			Common.safeClose(dependencyProcedure);
+			Common.safeClose(assocProcedure);
+		}
+	}
+
+	/**
+	 * Reserves a block of consecutive benchmark IDs. Runs on its own connection so that the sequence is not held
+	 * locked for the length of the caller's transaction.
+	 *
+	 * @param count The number of IDs to reserve
+	 * @return The first of the reserved IDs
+	 * @throws SQLException on database error
+	 */
+	private static int reserveBenchmarkIds(int count) throws SQLException {
+		Connection con = null;
+		CallableStatement procedure = null;
+		try {
+			con = Common.getConnection();
+			procedure = con.prepareCall("{CALL ReserveBenchmarkIds(?, ?)}");
+			procedure.setInt(1, count);
+			procedure.registerOutParameter(2, java.sql.Types.INTEGER);
+			procedure.executeUpdate();
+			return procedure.getInt(2);
+		} finally {
+			Common.safeClose(procedure);
+			Common.safeClose(con);
+		}
+	}
+
 	/**
 	 * Runs the given benchmark processor on the list of benchmarks before adding them to the database and associates
 	 * them with the given spaceId. The benchmark types are also processed based on the type of the first benchmark
@@ -583,7 +732,8 @@ public class Benchmarks {
 	/**
 	 * Given a set of benchmarks and a processor, this method runs each benchmark through the processor and adds a
 	 * hashmap of attributes to the benchmark that are given from the processor. Attributes are NOT added to the
-	 * database! They are just added to the benchmark objects themselves.
+	 * database! They are just added to the benchmark objects themselves. Up to R.BENCHMARK_VALIDATION_THREADS
+	 * benchmarks are processed at once.
 	 *
 	 * @param benchmarks The set of benchmarks to get attributes for
 	 * @param p The processor to run each benchmark on
@@ -605,76 +755,137 @@ public class Benchmarks {
 		}
 
 		log.info("Beginning processing for " + benchmarks.size() + " benchmarks");
-		int count = benchmarks.size();
-		// For each benchmark in the list to process...
-		int validatedCounter = 0; //stores the number of benchmarks that have been validated since the last update
-		int failedCounter = 0; //stores the TOTAL number of benchmarks that failed
-		Timer timer = new Timer();
-		for (Benchmark b : benchmarks) {
+		// Benchmarks are handed out to a bounded number of workers, each of which copies the processor into its own
+		// sandbox once and then runs it on one benchmark after another.
+		AtomicInteger next = new AtomicInteger(0);
+		AtomicInteger count = new AtomicInteger(benchmarks.size());
+		AtomicInteger failedCounter = new AtomicInteger(0); //stores the TOTAL number of benchmarks that failed
+		AtomicBoolean stop = new AtomicBoolean(false);
+		Uploads.BenchmarkValidationCounter counter = new Uploads.BenchmarkValidationCounter(statusId);
+		int workers = Math.max(1, Math.min(R.BENCHMARK_VALIDATION_THREADS, benchmarks.size()));
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		Throwable error = null;
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int i = 0; i < workers; i++) {
+				futures.add(pool.submit(() -> {
+					processBenchmarks(benchmarks, p, statusId, next, count, failedCounter, stop, counter);
+					return null;
+				}));
+			}
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if (error == null) {
+						error = e.getCause();
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			stop.set(true);
+			Thread.currentThread().interrupt();
+			throw new StarExecException("Interrupted while processing benchmarks", e);
+		} finally {
+			pool.shutdown();
+			counter.flush();
+		}
+		if (error instanceof IOException) {
+			throw (IOException) error;
+		} else if (error instanceof StarExecException) {
+			throw (StarExecException) error;
+		} else if (error != null) {
+			throw new StarExecException("Benchmark processing failed", error);
+		}
+		return true;
+	}
+
+	/**
+	 * Runs the processor on benchmarks from the given list until there are none left, as one of the workers of
+	 * attachBenchAttrs. The processor is copied into a sandbox once, and each benchmark is copied in next to it.
+	 *
+	 * @param benchmarks The benchmarks being processed
+	 * @param p The processor to run each benchmark on
+	 * @param statusId The ID of an upload status if one exists for this operation, null otherwise
+	 * @param next The index of the next benchmark to process, shared by all workers
+	 * @param count The number of benchmarks left to process
+	 * @param failedCounter The total number of benchmarks that have failed validation
+	 * @param stop Set when any worker fails, so the others stop taking benchmarks
+	 * @param counter Collects the upload status counts
+	 */
+	private static void processBenchmarks(
+			List<Benchmark> benchmarks, Processor p, Integer statusId, AtomicInteger next, AtomicInteger count,
+			AtomicInteger failedCounter, AtomicBoolean stop, Uploads.BenchmarkValidationCounter counter
+	) throws IOException, StarExecException {
+		File sandbox = null;
+		File staging = null;
+		try {
 			List<File> files = new ArrayList<>();
 			files.add(new File(p.getFilePath()));
-			files.add(new File(b.getPath()));
-			File sandbox = Util.copyFilesToNewSandbox(files);
-			String benchPath = new File(sandbox, new File(b.getPath()).getName()).getAbsolutePath();
+			sandbox = Util.copyFilesToNewSandbox(files);
+			staging = Util.getRandomSandboxDirectory();
 			File working = new File(sandbox, new File(p.getFilePath()).getName());
-			// Run the processor on the benchmark file
-			log.info("executing - " + p.getExecutablePath() + " \"" + b.getPath() + "\"");
-			String[] procCmd = new String[2];
+			int index;
+			while (!stop.get() && (index = next.getAndIncrement()) < benchmarks.size()) {
+				Benchmark b = benchmarks.get(index);
+				File benchFile = Util.copyFileToSandbox(new File(b.getPath()), staging, sandbox);
+				// Run the processor on the benchmark file
+				log.info("executing - " + p.getExecutablePath() + " \"" + b.getPath() + "\"");
+				String[] procCmd = new String[2];
+
+				procCmd[0] = "./" + R.PROCESSOR_RUN_SCRIPT;
+				procCmd[1] = benchFile.getAbsolutePath();
+				String propstr = null;
+				try {
+					propstr = Util.executeSandboxCommand(procCmd, null, working);
+				} finally {
+					FileUtils.deleteQuietly(benchFile);
+				}
 
-			procCmd[0] = "./" + R.PROCESSOR_RUN_SCRIPT;
-			procCmd[1] = benchPath;
-			String propstr = null;
-			propstr = Util.executeSandboxCommand(procCmd, null, working);
+				checkProcessorOutput(propstr);
 
-			checkProcessorOutput(propstr);
+				// Load results into a properties file
+				Properties prop = new Properties();
 
-			FileUtils.deleteQuietly(sandbox);
-			// Load results into a properties file
-			Properties prop = new Properties();
+				prop.load(new StringReader(propstr));
 
-			prop.load(new StringReader(propstr));
+				log.debug("read this string from the processor: " + propstr);
+				log.debug("read " + prop.size() + " properties");
 
-			log.debug("read this string from the processor: " + propstr);
-			log.debug("read " + prop.size() + " properties");
+				// Attach the attributes to the benchmark
+				Map<String, String> attrs = new HashMap<>();
 
-			// Attach the attributes to the benchmark
-			Map<String, String> attrs = new HashMap<>();
-
-			for (Object o : prop.keySet()) {
-				attrs.put((String) o, (String) prop.get(o));
-			}
-			b.setAttributes(attrs);
-			count--;
-			if (Benchmarks.isBenchValid(attrs)) {
-				validatedCounter++;
-				if (timer.getTime() > R.UPLOAD_STATUS_TIME_BETWEEN_UPDATES) {
-					Uploads.incrementValidatedBenchmarks(statusId, validatedCounter);
-					validatedCounter = 0;
-					timer.reset();
+				for (Object o : prop.keySet()) {
+					attrs.put((String) o, (String) prop.get(o));
 				}
-			} else {
-				failedCounter++;
-				Uploads.incrementFailedBenchmarks(statusId, 1);
-				if (failedCounter < R.MAX_FAILED_VALIDATIONS) {
-					if (propstr.length() > DB.TEXT_FIELD_LEN) {
-						propstr = propstr.substring(0, DB.TEXT_FIELD_LEN);
-					}
-					Uploads.addFailedBenchmark(statusId, b.getName(), propstr);
-					String message = b.getName() + " failed validation";
-					log.debug(message);
-					Uploads.setBenchmarkErrorMessage(statusId, message);
+				b.setAttributes(attrs);
+				if (Benchmarks.isBenchValid(attrs)) {
+					counter.addValidated();
 				} else {
-					String message = "Major Benchmark Validation Errors - examine your validator";
-					log.warn(message + ", status id = " + statusId);
-					Uploads.setBenchmarkErrorMessage(statusId, message);
+					counter.addFailed();
+					if (failedCounter.incrementAndGet() < R.MAX_FAILED_VALIDATIONS) {
+						if (propstr.length() > DB.TEXT_FIELD_LEN) {
+							propstr = propstr.substring(0, DB.TEXT_FIELD_LEN);
+						}
+						Uploads.addFailedBenchmark(statusId, b.getName(), propstr);
+						String message = b.getName() + " failed validation";
+						log.debug(message);
+						Uploads.setBenchmarkErrorMessage(statusId, message);
+					} else {
+						String message = "Major Benchmark Validation Errors - examine your validator";
+						log.warn(message + ", status id = " + statusId);
+						Uploads.setBenchmarkErrorMessage(statusId, message);
+					}
 				}
+				log.info(b.getName() + " processed. " + count.decrementAndGet() + " more benchmarks to go.");
 			}
-			log.info(b.getName() + " processed. " + count + " more benchmarks to go.");
-		}
-		if (validatedCounter > 0) {
-			Uploads.incrementValidatedBenchmarks(statusId, validatedCounter);
+		} catch (IOException | StarExecException | RuntimeException e) {
+			stop.set(true);
+			throw e;
+		} finally {
+			FileUtils.deleteQuietly(sandbox);
+			FileUtils.deleteQuietly(staging);
 		}
-		return true;
 	}
 
 	/**
@@ -1407,6 +1618,53 @@ public class Benchmarks {
 		return -1;
 	}
 
+	/**
+	 * Loads the names of the spaces below a dependency root space, and of the benchmarks in them, so that include paths
+	 * can be resolved without a query for each path segment.
+	 *
+	 * @param spaceId The dependency root space
+	 * @param userId The ID of the user whose benchmarks have the dependencies. Only subspaces that
+	 * Spaces.getSubSpaceIDbyName would find for this user are loaded.
+	 * @return The spaces and benchmarks below the root, indexed by name
+	 * @throws SQLException on database error
+	 */
+	private static BenchmarkPathTrie getDependencyPathTrie(int spaceId, int userId) throws SQLException {
+		Connection con = null;
+		CallableStatement procedure = null;
+		ResultSet results = null;
+		try {
+			con = Common.getConnection();
+			BenchmarkPathTrie trie = new BenchmarkPathTrie(spaceId);
+			procedure = con.prepareCall("{CALL GetSubSpaceHierarchyByUser(?,?)}");
+			procedure.setInt(1, spaceId);
+			procedure.setInt(2, userId);
+			results = procedure.executeQuery();
+			int spaces = 0;
+			while (results.next()) {
+				trie.addSpace(results.getInt("parent_id"), results.getInt("id"), results.getString("name"));
+				spaces++;
+			}
+			Common.safeClose(results);
+			Common.safeClose(procedure);
+
+			procedure = con.prepareCall("{CALL GetBenchNamesInHierarchy(?)}");
+			procedure.setInt(1, spaceId);
+			results = procedure.executeQuery();
+			int benchmarks = 0;
+			while (results.next()) {
+				trie.addBenchmark(results.getInt("space_id"), results.getInt("id"), results.getString("name"));
+				benchmarks++;
+			}
+			log.debug("getDependencyPathTrie",
+			          "loaded " + spaces + " spaces and " + benchmarks + " benchmarks below space " + spaceId);
+			return trie;
+		} finally {
+			Common.safeClose(con);
+			Common.safeClose(procedure);
+			Common.safeClose(results);
+		}
+	}
+
 	/**
 	 * Get the total count of the benchmarks belong to a specific user
 	 *
@@ -1556,17 +1814,19 @@ public class Benchmarks {
 			PaginationQueryBuilder builder = new PaginationQueryBuilder(PaginationQueries
 					                                                            .GET_BENCHMARKS_IN_SPACE_QUERY,
 			                                                            getBenchmarkOrderColumn(query.getSortColumn()),
-			                                                            query
+			                                                            "benchmarks.id", query
 			);
 
 			procedure = new NamedParameterStatement(con, builder.getSQL());
 			procedure.setInt("spaceId", spaceId);
 			procedure.setString("query", query.getSearchQuery());
+			builder.setCursorParameters(procedure);
 
 			results = procedure.executeQuery();
 			List<Benchmark> benchmarks = new LinkedList<>();
 
 			while (results.next()) {
+				builder.readCursor(results);
 				Benchmark b = new Benchmark();
 				b.setId(results.getInt("id"));
 				b.setName(results.getString("name"));
@@ -2194,9 +2454,11 @@ public class Benchmarks {
 	 */
 	private static boolean validateDependencies(List<Benchmark> benchmarks, Integer spaceId, Boolean linked, Integer statusID) {
 		HashMap<String, BenchmarkDependency> foundDependencies = new HashMap<>();
+		// the dependency root space is loaded once for each user whose benchmarks have new include paths
+		HashMap<Integer, BenchmarkPathTrie> tries = new HashMap<>();
 		for (Benchmark benchmark1 : benchmarks) {
 			Benchmark benchmark = benchmark1;
-			String out = validateIndBenchDependencies(benchmark, spaceId, linked, foundDependencies);
+			String out = validateIndBenchDependencies(benchmark, spaceId, linked, foundDependencies, tries);
 			if (out != "true") {
 				log.warn("Dependent benchs not found for Bench " + benchmark.getName());
 				Uploads.addFailedBenchmark(statusID, benchmark.getName(), "Dependancy check failed for this benchmark. Failed search for " + out + ".");
@@ -2212,11 +2474,13 @@ public class Benchmarks {
 	 * @param bench The benchmark that might have dependencies
 	 * @param spaceId the id of the space where the axiom benchmarks lie
 	 * @param linked true if the depRootSpace is the same as the first directory in the include statement
+	 * @param tries the dependency root space loaded for each user so far, to which this method adds if needed
 	 * @return "true" if the dependencies are valid, the name of the failed dependency if otherwise
 	 * @author Benton McCune
 	 */
 	private static String  validateIndBenchDependencies(
-			Benchmark bench, Integer spaceId, Boolean linked, HashMap<String, BenchmarkDependency> foundDependencies
+			Benchmark bench, Integer spaceId, Boolean linked, HashMap<String, BenchmarkDependency> foundDependencies,
+			HashMap<Integer, BenchmarkPathTrie> tries
 	) {
 		Map<String, String> atts = bench.getAttributes();
 		String includePath = "";
@@ -2232,9 +2496,19 @@ public class Benchmarks {
 						log.info("validateIndBenchDependencies", "Already found this one before, its id is " +
 								         foundDependencies.get(includePath).getSecondaryBench().getId());
 					} else {
-						log.info("validateIndBenchDependencies", "This include path (" + includePath + ") is new so we must search the database.");
-						int depBenchId = Benchmarks.findDependentBench(spaceId, includePath, linked, bench.getUserId
-								());
+						log.info("validateIndBenchDependencies", "This include path (" + includePath + ") is new so we must search the dependency root space.");
+						int depBenchId;
+						if (spaceId == null || spaceId <= 0) {
+							// an invalid root stands for the root space, which is too big to load
+							depBenchId = Benchmarks.findDependentBench(spaceId, includePath, linked, bench.getUserId());
+						} else {
+							BenchmarkPathTrie trie = tries.get(bench.getUserId());
+							if (trie == null) {
+								trie = getDependencyPathTrie(spaceId, bench.getUserId());
+								tries.put(bench.getUserId(), trie);
+							}
+							depBenchId = trie.resolve(includePath, linked);
+						}
 						if (depBenchId > 0) {
 							// these are new benchmarks, so the primary benchmark has no ID yet. This is fine:
 							// the DB code for entering benchmarks will utilize the correct ID
@@ -2582,20 +2856,35 @@ public class Benchmarks {
 			return benchmarks;
 		}
 
-		searchQuery = searchQuery.toLowerCase();
+		Predicate<Benchmark> filter = getBenchmarkFilter(searchQuery);
 		List<Benchmark> filteredBenchmarks = new ArrayList<>();
 		for (Benchmark b : benchmarks) {
-			log.debug("benchmark name " + b.getName());
+			if (filter.test(b)) {
+				filteredBenchmarks.add(b);
+			}
+		}
+		return filteredBenchmarks;
+	}
+
+	/**
+	 * Gets the test used by filterBenchmarks, so that benchmarks can be filtered without building a new list
+	 *
+	 * @param searchQuery Query for the Benchmarks. Not case sensitive. Every benchmark passes if it is empty
+	 * @return A test that benchmarks whose name or description includes the query pass
+	 */
+	protected static Predicate<Benchmark> getBenchmarkFilter(String searchQuery) {
+		if (Util.isNullOrEmpty(searchQuery)) {
+			return b -> true;
+		}
+		final String query = searchQuery.toLowerCase();
+		return b -> {
 			try {
-				if (b.getName().toLowerCase().contains(searchQuery) ||
-						b.getDescription().toLowerCase().contains(searchQuery)) {
-					filteredBenchmarks.add(b);
-				}
+				return b.getName().toLowerCase().contains(query) || b.getDescription().toLowerCase().contains(query);
 			} catch (Exception e) {
 				log.error("filterBenchmarks", e);
+				return false;
 			}
-		}
-		return filteredBenchmarks;
+		};
 	}
 
 	/**
@@ -2612,12 +2901,10 @@ public class Benchmarks {
 	public static List<Benchmark> getBenchmarksForNextPageByUser(DataTablesQuery query, int userId, int[] totals) {
 		List<Benchmark> benchmarks = Benchmarks.getByUser(userId);
 
-		totals[0] = benchmarks.size();
-		benchmarks = Benchmarks.filterBenchmarks(benchmarks, query.getSearchQuery());
-
-		totals[1] = benchmarks.size();
 		BenchmarkComparator compare = new BenchmarkComparator(query.getSortColumn(), query.isSortASC());
-		return Util.handlePagination(benchmarks, compare, query.getStartingRecord(), query.getNumRecords());
+		return Util.handlePagination(benchmarks, b -> true, getBenchmarkFilter(query.getSearchQuery()), compare,
+		                             query.getStartingRecord(), query.getNumRecords(), totals
+		);
 	}
 
 	public static List<Benchmark> getBrokenBenchDependencies(int benchId) throws SQLException {
@@ -4,11 +4,14 @@ import org.starexec.constants.R;
 import org.starexec.data.to.Job;
 import org.starexec.data.to.Queue;
 import org.starexec.data.to.WorkerNode;
+import org.starexec.jobs.SubmissionTrigger;
 import org.starexec.logger.StarLogger;
 
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -75,18 +78,35 @@ public class Cluster {
 		log.info("Completed loading the queue details into the db");
 	}
 
+	// queue name -> number of nodes the last time setQueueAssociationsInDb ran
+	private static Map<String, Integer> queueNodeCounts = new HashMap<>();
+
 	/**
 	 * Extracts queue-node association from BACKEND and puts it into the db.
 	 *
 	 * @author Benton McCune
 	 */
-	public static void setQueueAssociationsInDb() {
+	public static synchronized void setQueueAssociationsInDb() {
 		Queues.clearQueueAssociations();
 		Map<String, String> assoc = R.BACKEND.getNodeQueueAssociations();
+		Map<String, Integer> nodeCounts = new HashMap<>();
 
 		for (String node : assoc.keySet()) {
 			Queues.associate(assoc.get(node), node);
+			nodeCounts.merge(assoc.get(node), 1, Integer::sum);
 		}
+
+		// queues that gained nodes can take more pairs right away
+		for (Map.Entry<String, Integer> e : nodeCounts.entrySet()) {
+			Integer oldCount = queueNodeCounts.get(e.getKey());
+			if (oldCount != null && e.getValue() > oldCount) {
+				int queueId = Queues.getIdByName(e.getKey());
+				if (queueId >= 0) {
+					SubmissionTrigger.requestSubmission(queueId, "nodes added to queue");
+				}
+			}
+		}
+		queueNodeCounts = nodeCounts;
 	}
 
 	/**
@@ -491,4 +511,40 @@ public class Cluster {
 		}
 		return null;
 	}
+
+	/**
+	 * Gets the nodes of a queue that hold the benchmarks of a job's next pending pairs in their benchmark cache
+	 *
+	 * @param jobId The ID of the job
+	 * @param queueId The ID of the queue whose nodes are wanted
+	 * @param limit How many of the job's pending pairs to look at, in the order they are submitted in
+	 * @return A map from benchmark IDs to the names of the nodes that hold them. Benchmarks that no node holds are
+	 * left out. Null on error.
+	 */
+	public static Map<Integer, List<String>> getCachedBenchmarkNodes(int jobId, int queueId, int limit) {
+		Connection con = null;
+		CallableStatement procedure = null;
+		ResultSet results = null;
+		try {
+			con = Common.getConnection();
+			procedure = con.prepareCall("{CALL GetCachedBenchmarkNodesForJob(?, ?, ?)}");
+			procedure.setInt(1, jobId);
+			procedure.setInt(2, queueId);
+			procedure.setInt(3, limit);
+			results = procedure.executeQuery();
+			Map<Integer, List<String>> benchToNodes = new HashMap<>();
+			while (results.next()) {
+				benchToNodes.computeIfAbsent(results.getInt("bench_id"), k -> new ArrayList<>())
+				            .add(results.getString("name"));
+			}
+			return benchToNodes;
+		} catch (Exception e) {
+			log.error("getCachedBenchmarkNodes", e);
+		} finally {
+			Common.safeClose(con);
+			Common.safeClose(procedure);
+			Common.safeClose(results);
+		}
+		return null;
+	}
 }
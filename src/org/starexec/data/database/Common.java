@@ -24,8 +24,9 @@ public class Common {
 	private static final NonSavingStarLogger log = NonSavingStarLogger.getLogger(Common.class);
 	private static DataSource dataPool = null;
 
-	private static int connectionsOpened = 0;
-	private static int connectionsDrift  = 0;
+	// counts connections and records how long they take to get and how long they are held
+	private static final ConnectionTracker connectionTracker =
+			new ConnectionTracker(R.CONNECTION_CALL_SITE_SAMPLE_RATE);
 
 	//args to append to the mysql URL.
 	private static final String MYSQL_URL_ARGUMENTS = "?autoReconnect=true&zeroDateTimeBehavior=convertToNull&rewriteBatchedStatements=true";
@@ -96,10 +97,18 @@ public class Common {
 		log.info("logConnectionsOpen",
 				"idle=" + dataPool.getIdle()
 				+ "\tactive=" + dataPool.getActive()
-				+ "\tinternal count=" + String.valueOf(connectionsOpened)
+				+ "\tinternal count=" + String.valueOf(connectionTracker.getConnectionsOpened())
 		);
 	}
 
+	/**
+	 * @return A report of how long connections take to get from the pool and how long they are held, including the
+	 * database methods that hold connections the longest
+	 */
+	public static String getConnectionStatistics() {
+		return connectionTracker.getStatistics(R.CONNECTION_STATISTICS_CALL_SITES);
+	}
+
 	/**
 	 * Ends a transaction by committing any changes and re-enabling auto-commit
 	 */
@@ -116,29 +125,18 @@ public class Common {
 	 * @return a new connection to the database from the connection pool
 	 * @author Tyler Jensen
 	 */
-	protected synchronized static Connection getConnection() throws SQLException {
+	protected static Connection getConnection() throws SQLException {
 		try {
+			long start = System.nanoTime();
 			Connection c = dataPool.getConnection();
-			++connectionsOpened;
-			checkConnectionsCount();
+			connectionTracker.acquired(c, System.nanoTime() - start);
 			return c;
 		} catch (SQLException e) {
-			log.error("getConnection", "connectionsOpened: "+connectionsOpened, e);
+			log.error("getConnection", "connectionsOpened: "+connectionTracker.getConnectionsOpened(), e);
 			throw e;
 		}
 	}
 
-	private synchronized static void checkConnectionsCount() {
-		if (connectionsOpened-dataPool.getActive() != connectionsDrift) {
-			log.info("logConnectionsOpen",
-			         "Number of active connections reported by dataPool differs from internal count." +
-			         "\n\tconnectionsOpened:    " + connectionsOpened +
-			         "\n\tdataPool.getActive(): " + dataPool.getActive()
-			);
-			connectionsDrift = connectionsOpened-dataPool.getActive();
-		}
-	}
-
 	/**
 	 * Gets information on the data pool.  Used to track down connection leak.
 	 * @return Returns true if not nearing max active connections
@@ -409,7 +407,7 @@ public class Common {
 		}
 	}
 
-	protected static synchronized void safeClose(Statement statement) {
+	protected static void safeClose(Statement statement) {
 		try {
 			if (statement!=null && !statement.isClosed()) {
 				statement.close();
@@ -448,16 +446,15 @@ public class Common {
 	 * and doesn't raise any errors
 	 * @param c The connection to safely close
 	 */
-	protected static synchronized void safeClose(Connection c) {
+	protected static void safeClose(Connection c) {
 		try {
 			if(c != null && !c.isClosed()) {
+				connectionTracker.released(c);
 				c.close();
-				--connectionsOpened;
 			}
 		} catch (SQLException e) {
 			// Do nothing
 			log.error("safeClose", e);
 		}
-		checkConnectionsCount();
 	}
 }
@@ -0,0 +1,133 @@
+package org.starexec.data.database;
+
+import org.starexec.util.LatencyHistogram;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps count of the connections borrowed from the pool and records how long it takes to get them and how long they
+ * are held, without any thread having to wait on another to do so. Acquire and hold times are also recorded per call
+ * site (the database method that asked for the connection) for a sample of connections, since finding the call site
+ * requires a stack trace.
+ */
+public class ConnectionTracker {
+	private static class Lease {
+		final long start = System.nanoTime();
+		final String callSite;
+
+		Lease(String callSite) {
+			this.callSite = callSite;
+		}
+	}
+
+	private final int callSiteSampleRate;
+
+	private final LongAdder connectionsOpened = new LongAdder();
+	private final LatencyHistogram acquireTimes = new LatencyHistogram();
+	private final LatencyHistogram holdTimes = new LatencyHistogram();
+	private final Map<String, LatencyHistogram> acquireTimesByCallSite = new ConcurrentHashMap<>();
+	private final Map<String, LatencyHistogram> holdTimesByCallSite = new ConcurrentHashMap<>();
+	private final Map<Connection, Lease> leases = new ConcurrentHashMap<>();
+
+	/**
+	 * @param callSiteSampleRate One in this many connections has its call site recorded. 1 records all of them.
+	 */
+	public ConnectionTracker(int callSiteSampleRate) {
+		this.callSiteSampleRate = Math.max(1, callSiteSampleRate);
+	}
+
+	/**
+	 * Records that a connection was borrowed from the pool
+	 *
+	 * @param c The connection
+	 * @param acquireNanos How long it took to get the connection
+	 */
+	public void acquired(Connection c, long acquireNanos) {
+		connectionsOpened.increment();
+		acquireTimes.record(acquireNanos);
+		String callSite = null;
+		if (callSiteSampleRate == 1 || ThreadLocalRandom.current().nextInt(callSiteSampleRate) == 0) {
+			callSite = findCallSite();
+			acquireTimesByCallSite.computeIfAbsent(callSite, k -> new LatencyHistogram()).record(acquireNanos);
+		}
+		leases.put(c, new Lease(callSite));
+	}
+
+	/**
+	 * Records that a connection is being returned to the pool. Connections that were never recorded with acquired
+	 * are ignored.
+	 *
+	 * @param c The connection
+	 */
+	public void released(Connection c) {
+		Lease lease = leases.remove(c);
+		if (lease == null) {
+			return;
+		}
+		connectionsOpened.decrement();
+		long held = System.nanoTime() - lease.start;
+		holdTimes.record(held);
+		if (lease.callSite != null) {
+			holdTimesByCallSite.computeIfAbsent(lease.callSite, k -> new LatencyHistogram()).record(held);
+		}
+	}
+
+	/**
+	 * @return The number of connections that have been acquired and not yet released
+	 */
+	public long getConnectionsOpened() {
+		return connectionsOpened.sum();
+	}
+
+	/**
+	 * Finds the first method on the stack outside of this class and Common, which is the database method that asked
+	 * for the connection.
+	 */
+	private static String findCallSite() {
+		for (StackTraceElement e : Thread.currentThread().getStackTrace()) {
+			String cls = e.getClassName();
+			if (cls.equals(Thread.class.getName()) || cls.equals(ConnectionTracker.class.getName()) ||
+			    cls.equals(Common.class.getName())) {
+				continue;
+			}
+			return cls.substring(cls.lastIndexOf('.') + 1) + "." + e.getMethodName();
+		}
+		return "unknown";
+	}
+
+	/**
+	 * Adds the call sites with the longest total time in the given histograms to a report, longest first
+	 */
+	private void appendCallSites(StringBuilder sb, String title, Map<String, LatencyHistogram> byCallSite, int limit) {
+		List<Map.Entry<String, LatencyHistogram>> sites = new ArrayList<>(byCallSite.entrySet());
+		sites.sort((a, b) -> Long.compare(b.getValue().getTotalNanos(), a.getValue().getTotalNanos()));
+		if (!sites.isEmpty()) {
+			sb.append("\n\t").append(title).append(" by call site (1 in ").append(callSiteSampleRate)
+			  .append(" connections sampled):");
+		}
+		for (int i = 0; i < Math.min(limit, sites.size()); i++) {
+			sb.append("\n\t\t").append(sites.get(i).getKey()).append(": ").append(sites.get(i).getValue());
+		}
+	}
+
+	/**
+	 * @param limit The maximum number of call sites to include in each list
+	 * @return A report of acquire and hold times, listing the call sites with the longest total acquire and hold
+	 * times first
+	 */
+	public String getStatistics(int limit) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("open=").append(getConnectionsOpened());
+		sb.append("\n\tacquire: ").append(acquireTimes);
+		sb.append("\n\thold: ").append(holdTimes);
+		appendCallSites(sb, "acquire", acquireTimesByCallSite, limit);
+		appendCallSites(sb, "hold", holdTimesByCallSite, limit);
+		return sb.toString();
+	}
+}
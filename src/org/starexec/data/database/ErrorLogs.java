@@ -4,6 +4,8 @@ import org.starexec.data.to.ErrorLog;
 import org.starexec.logger.NonSavingStarLogger;
 import org.starexec.logger.StarLevel;
 
+import java.sql.CallableStatement;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -43,6 +45,37 @@ public class ErrorLogs {
 		}
 	}
 
+	/**
+	 * Adds several error logs to the error_logs table in one batch, each with its own time. The IDs of the logs are
+	 * ignored. Like add, this method must catch all exceptions.
+	 *
+	 * @param logs the logs to add to the table.
+	 * @return true on success, false if the logs could not be added.
+	 */
+	public static boolean addAll(List<ErrorLog> logs) {
+		Connection con = null;
+		CallableStatement procedure = null;
+		try {
+			con = Common.getConnection();
+			procedure = con.prepareCall("{CALL AddErrorLogAt(?, ?, ?)}");
+			for (ErrorLog errorLog : logs) {
+				procedure.setString(1, errorLog.getMessage());
+				procedure.setString(2, errorLog.getLevel().toString());
+				procedure.setTimestamp(3, errorLog.getTime());
+				procedure.addBatch();
+			}
+			procedure.executeBatch();
+			return true;
+		} catch (Exception e) {
+			// Must catch all exceptions for the same reason as in add.
+			log.error("Caught exception while trying to add " + logs.size() + " messages to database.");
+		} finally {
+			Common.safeClose(procedure);
+			Common.safeClose(con);
+		}
+		return false;
+	}
+
 	/**
 	 * Gets an Error Log with the given id.
 	 *
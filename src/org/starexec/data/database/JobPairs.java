@@ -10,7 +10,10 @@ import org.starexec.data.to.pipelines.JoblineStage;
 import org.starexec.data.to.pipelines.PairStageProcessorTriple;
 import org.starexec.data.to.tuples.ConfigAttrMapPair;
 import org.starexec.data.to.tuples.PairIdJobId;
+import org.starexec.data.to.tuples.PostProcessedStage;
+import org.starexec.data.to.tuples.QueueCompletions;
 import org.starexec.logger.StarLogger;
+import org.starexec.util.RangedFileReader;
 import org.starexec.util.Util;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -22,6 +25,7 @@ import java.io.StringReader;
 import java.sql.*;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 /**
  * Contains handles on database queries for retrieving and updating job pairs.
@@ -224,6 +228,39 @@ public class JobPairs {
 		return null;
 	}
 
+	/**
+	 * Retrieves the inputs of every pending pair of a job with an ID in the given range from the jobpair_inputs
+	 * table, ordered by their input numbers
+	 *
+	 * @param jobId The ID of the job the pairs are in
+	 * @param minPairId The smallest pair ID to get inputs for
+	 * @param maxPairId The largest pair ID to get inputs for
+	 * @param con An open database connection to make calls on
+	 * @return A map from pair IDs to the paths of their inputs. Pairs without inputs are left out.
+	 * @throws SQLException If the inputs could not be retrieved
+	 */
+	public static Map<Integer, List<String>> getJobPairInputPaths(
+			int jobId, int minPairId, int maxPairId, Connection con) throws SQLException {
+		CallableStatement procedure = null;
+		ResultSet results = null;
+		try {
+			procedure = con.prepareCall("{CALL GetJobPairInputPathsInRange(?, ?, ?)}");
+			procedure.setInt(1, jobId);
+			procedure.setInt(2, minPairId);
+			procedure.setInt(3, maxPairId);
+			results = procedure.executeQuery();
+			Map<Integer, List<String>> paths = new HashMap<>();
+			while (results.next()) {
+				paths.computeIfAbsent(results.getInt("jobpair_id"), k -> new ArrayList<>())
+				     .add(results.getString("path"));
+			}
+			return paths;
+		} finally {
+			Common.safeClose(procedure);
+			Common.safeClose(results);
+		}
+	}
+
 	/**
 	 * Adds all the jobline stages for all of the given pairs to the database
 	 *
@@ -312,55 +349,112 @@ public class JobPairs {
 	}
 
 	/**
-	 * Adds a job pair record to the database. This is a helper method for the Jobs.add method
+	 * Adds job pair records to the database, along with their stages and inputs. This is a helper method for the
+	 * Jobs.add method. A block of IDs is reserved for the pairs up front, and the pairs are then sent in batches of
+	 * R.JOB_PAIR_INSERT_BATCH_SIZE. Each pair has its ID set.
 	 *
 	 * @param con The connection the update will take place on
+	 * @param jobId The ID of the job the pairs belong to
+	 * @param pairs The pairs to add. These are read one batch at a time, so pairs may be created as they are asked for.
 	 * @return True if the operation was successful
 	 */
 	protected static boolean addJobPairs(Connection con, int jobId, List<JobPair> pairs) {
 		final String methodName = "addJobPairs";
 		log.entry(methodName);
+		try {
+			if (pairs.isEmpty()) {
+				return true;
+			}
+			insertJobPairs(con, jobId, pairs, reserveJobPairIds(pairs.size()));
+			return true;
+		} catch (Exception e) {
+			log.error(methodName, e);
+		}
+		return false;
+	}
+
+	/**
+	 * Adds job pair records with already reserved IDs to the database, along with their stages and inputs. Pairs are
+	 * sent in batches of R.JOB_PAIR_INSERT_BATCH_SIZE, and only one batch of pairs is held at a time.
+	 *
+	 * @param con The connection the update will take place on
+	 * @param jobId The ID of the job the pairs belong to
+	 * @param pairs The pairs to add. Each pair has its ID set.
+	 * @param firstId The first of pairs.size() consecutive IDs reserved with ReserveJobPairIds
+	 * @throws SQLException If a batch of pairs could not be added
+	 */
+	public static void insertJobPairs(Connection con, int jobId, List<JobPair> pairs, int firstId)
+			throws SQLException {
+		final String methodName = "insertJobPairs";
 		CallableStatement procedure = null;
 		try {
-			procedure = con.prepareCall("{CALL AddJobPair(?, ?, ?, ?, ?, ?, ?, ?)}");
+			procedure = con.prepareCall("{CALL AddJobPairWithId(?, ?, ?, ?, ?, ?, ?, ?)}");
+			List<JobPair> batch = new ArrayList<>(Math.min(pairs.size(), R.JOB_PAIR_INSERT_BATCH_SIZE));
+			int nextId = firstId;
 			int pairsProcessed = 0;
 			for (JobPair pair : pairs) {
 				pair.setJobId(jobId);
-				procedure.setInt(1, jobId);
-				procedure.setInt(2, pair.getBench().getId());
-				procedure.setInt(3, StatusCode.STATUS_PENDING_SUBMIT.getVal());
-
-				procedure.setString(4, pair.getPath());
-				procedure.setInt(5, pair.getJobSpaceId());
-
-				procedure.setString(6, pair.getBench().getName());
-				// The procedure will return the pair's new ID in this parameter
-				procedure.setInt(7, pair.getPrimaryStageNumber());
-				procedure.registerOutParameter(8, java.sql.Types.INTEGER);
-				procedure.executeUpdate();
-
-				// Update the pair's ID so it can be used outside this method
-				int newPairId = procedure.getInt(8);
-				pair.setId(newPairId);
-
-				pairsProcessed += 1;
-				if (pairsProcessed % 1000 == 0) {
+				pair.setId(nextId++);
+				procedure.setInt(1, pair.getId());
+				procedure.setInt(2, jobId);
+				procedure.setInt(3, pair.getBench().getId());
+				procedure.setInt(4, StatusCode.STATUS_PENDING_SUBMIT.getVal());
+				procedure.setString(5, pair.getPath());
+				procedure.setInt(6, pair.getJobSpaceId());
+				procedure.setString(7, pair.getBench().getName());
+				procedure.setInt(8, pair.getPrimaryStageNumber());
+				procedure.addBatch();
+				batch.add(pair);
+
+				if (batch.size() == R.JOB_PAIR_INSERT_BATCH_SIZE) {
+					pairsProcessed += batch.size();
+					submitJobPairBatch(procedure, batch, con);
 					log.debug(methodName, "Pairs Processed: " + pairsProcessed);
 				}
 			}
+			if (!batch.isEmpty()) {
+				pairsProcessed += batch.size();
+				submitJobPairBatch(procedure, batch, con);
+			}
 			log.debug(methodName, "Pairs Processed: " + pairsProcessed);
+		} finally {
+			Common.safeClose(procedure);
+		}
+	}
 
-			log.debug(methodName, "Adding job pair stages.");
-			addJobPairStages(pairs, con);
-			log.debug(methodName, "Adding job pair inputs.");
-			addJobPairInputs(pairs, con);
-			return true;
-		} catch (Exception e) {
-			log.error(methodName, e);
+	/**
+	 * Sends a batch of pairs, then their stages and inputs, and empties the batch
+	 */
+	private static void submitJobPairBatch(CallableStatement procedure, List<JobPair> batch, Connection con)
+			throws SQLException {
+		procedure.executeBatch();
+		addJobPairStages(batch, con);
+		addJobPairInputs(batch, con);
+		batch.clear();
+	}
+
+	/**
+	 * Reserves a block of consecutive job pair IDs. This is done on its own connection so that other jobs can reserve
+	 * IDs while the pairs are being added.
+	 *
+	 * @param count The number of IDs to reserve
+	 * @return The first ID of the block
+	 * @throws SQLException If the IDs could not be reserved
+	 */
+	private static int reserveJobPairIds(int count) throws SQLException {
+		Connection con = null;
+		CallableStatement procedure = null;
+		try {
+			con = Common.getConnection();
+			procedure = con.prepareCall("{CALL ReserveJobPairIds(?, ?)}");
+			procedure.setInt(1, count);
+			procedure.registerOutParameter(2, java.sql.Types.INTEGER);
+			procedure.executeUpdate();
+			return procedure.getInt(2);
 		} finally {
 			Common.safeClose(procedure);
+			Common.safeClose(con);
 		}
-		return false;
 	}
 
 	/**
@@ -369,12 +463,12 @@ public class JobPairs {
 	 *
 	 * @param pairId The pair to get output for
 	 * @param stageNumber The stage to get pair info for
-	 * @param limit The maximum number of lines to return
+	 * @param limit The maximum number of lines to return. No more than R.MAX_PAIR_FILE_READ_BYTES are read
 	 * @return All console output from a job pair run for the given pair
 	 */
 	public static Optional<String> getStdOut(int pairId, int stageNumber, int limit) throws IOException {
 		String stdoutPath = JobPairs.getStdout(pairId, stageNumber);
-		return Util.readFileLimited(new File(stdoutPath), limit);
+		return Util.readFileLimited(new File(stdoutPath), limit, R.MAX_PAIR_FILE_READ_BYTES);
 	}
 
 	/**
@@ -489,22 +583,69 @@ public class JobPairs {
 	 * @param processorId The ID of the processor to use
 	 */
 	public static void postProcessPair(int pairId, int stageNumber, int processorId) {
+		Properties props = runPostProcessorOnPair(pairId, stageNumber, processorId);
+		savePostProcessingResults(Collections.singletonList(new PostProcessedStage(pairId, stageNumber, props)));
+	}
+
+	/**
+	 * Saves the results of post processing several pair stages in one transaction: the attributes of every stage are
+	 * added in a single batch, and every pair and stage is marked complete. Stages whose attributes are null are
+	 * marked complete without attributes.
+	 *
+	 * @param results The pair stages and the attributes their post processor produced
+	 * @return True on success, false on error, in which case nothing was saved
+	 */
+	public static boolean savePostProcessingResults(List<PostProcessedStage> results) {
 		Connection con = null;
 		try {
-			Properties props = runPostProcessorOnPair(pairId, stageNumber, processorId);
 			con = Common.getConnection();
 			Common.beginTransaction(con);
-			JobPairs.addJobPairAttributes(pairId, stageNumber, props, con);
-			JobPairs.setPairStatus(pairId, StatusCode.STATUS_COMPLETE.getVal(), con);
-			JobPairs.setPairStageStatus(pairId, StatusCode.STATUS_COMPLETE.getVal(), stageNumber, con);
+			savePostProcessingResults(con, results);
 			Common.endTransaction(con);
+			return true;
 		} catch (Exception e) {
 			Common.doRollback(con);
-			log.error("postProcessPair", e);
+			log.error("savePostProcessingResults", e);
 		} finally {
 			Common.endTransaction(con);
 			Common.safeClose(con);
 		}
+		return false;
+	}
+
+	/**
+	 * Saves the results of post processing several pair stages on the given connection. Attributes too long for the
+	 * attribute table are logged and skipped, so that one bad attribute does not fail the whole batch.
+	 *
+	 * @param con The connection to save on. The caller is responsible for the transaction.
+	 * @param results The pair stages and the attributes their post processor produced
+	 * @throws SQLException If the attributes could not be saved
+	 */
+	public static void savePostProcessingResults(Connection con, List<PostProcessedStage> results)
+			throws SQLException {
+		CallableStatement procedure = null;
+		try {
+			procedure = con.prepareCall("{CALL AddJobAttr(?, ?, ?,?)}");
+			int attrs = 0;
+			for (PostProcessedStage result : results) {
+				if (result.attributes != null) {
+					attrs += addJobPairAttributesToBatch(procedure, result.pairId, result.stageNumber,
+					                                     result.attributes);
+				}
+			}
+			if (attrs > 0) {
+				procedure.executeBatch();
+			}
+			for (PostProcessedStage result : results) {
+				JobPairs.setPairStatus(result.pairId, StatusCode.STATUS_COMPLETE.getVal(), con);
+				JobPairs.setPairStageStatus(result.pairId, StatusCode.STATUS_COMPLETE.getVal(), result.stageNumber,
+				                            con);
+			}
+			log.debug("saved post processing results for " + results.size() + " pair stages with " + attrs +
+			          " attributes");
+		} finally {
+			Common.safeClose(procedure);
+		}
 	}
 
 	/**
@@ -515,29 +656,57 @@ public class JobPairs {
 	 * @return The properties on success, or null otherwise
 	 */
 	private static Properties runPostProcessorOnPair(int pairId, int stageNumber, int processorId) {
+		File sandbox = null;
+		File staging = null;
 		try {
-			JobPair pair = JobPairs.getPairDetailed(pairId);
-			File output = new File(JobPairs.getFilePath(pair, stageNumber));
 			Processor p = Processors.get(processorId);
-			// Run the processor on the benchmark file
 			List<File> files = new ArrayList<>();
 			files.add(new File(p.getFilePath()));
-			files.add(new File(pair.getBench().getPath()));
-			files.add(output);
-			File sandbox = Util.copyFilesToNewSandbox(files);
-			String benchPath = new File(sandbox, new File(pair.getBench().getPath()).getName()).getAbsolutePath();
-			String outputPath = new File(sandbox, output.getName()).getAbsolutePath();
+			sandbox = Util.copyFilesToNewSandbox(files);
+			staging = Util.getRandomSandboxDirectory();
+			return runPostProcessorOnPair(pairId, stageNumber, p, sandbox, staging);
+		} catch (Exception e) {
+			log.error("runPostProcessorOnPair", e);
+		} finally {
+			FileUtils.deleteQuietly(sandbox);
+			FileUtils.deleteQuietly(staging);
+		}
+		return null;
+	}
+
+	/**
+	 * Runs a post processor that has already been copied into a sandbox on the given pair stage and returns the
+	 * properties that were obtained. The benchmark and output of the pair are copied in next to the processor and
+	 * removed again afterwards, so the same sandbox can be used for any number of pairs.
+	 *
+	 * @param pairId The ID of the pair in question
+	 * @param stageNumber The stage to process
+	 * @param p The processor to run
+	 * @param sandbox A sandbox directory from Util.copyFilesToNewSandbox containing the processor
+	 * @param staging A directory from Util.getRandomSandboxDirectory to stage copies in
+	 * @return The properties on success, or null otherwise
+	 */
+	public static Properties runPostProcessorOnPair(
+			int pairId, int stageNumber, Processor p, File sandbox, File staging
+	) {
+		File benchCopy = null;
+		File outputCopy = null;
+		try {
+			JobPair pair = JobPairs.getPairDetailed(pairId);
+			File output = new File(JobPairs.getFilePath(pair, stageNumber));
+			// Run the processor on the benchmark file
+			benchCopy = Util.copyFileToSandbox(new File(pair.getBench().getPath()), staging, sandbox);
+			outputCopy = Util.copyFileToSandbox(output, staging, sandbox);
 			File working = new File(sandbox, new File(p.getFilePath()).getName());
 
 
 			String[] procCmd = new String[3];
 			procCmd[0] = "./" + R.PROCESSOR_RUN_SCRIPT;
 
-			procCmd[1] = outputPath;
+			procCmd[1] = outputCopy.getAbsolutePath();
 
-			procCmd[2] = benchPath;
+			procCmd[2] = benchCopy.getAbsolutePath();
 			String propstr = Util.executeSandboxCommand(procCmd, null, working);
-			FileUtils.deleteQuietly(sandbox);
 
 			// Load results into a properties file
 			Properties prop = new Properties();
@@ -546,6 +715,9 @@ public class JobPairs {
 			return prop;
 		} catch (Exception e) {
 			log.error("runPostProcessorOnPair", e);
+		} finally {
+			FileUtils.deleteQuietly(benchCopy);
+			FileUtils.deleteQuietly(outputCopy);
 		}
 		return null;
 	}
@@ -588,21 +760,58 @@ public class JobPairs {
 	 * @return True on success, false on error
 	 */
 	public static boolean addJobPairAttributes(int pairId, int stageId, Properties attributes, Connection con) {
+		CallableStatement procedure = null;
 		try {
 			// For each attribute (key, value)...
 			log.info("Adding " + attributes.entrySet().size() + " attributes to job pair " + pairId);
-			for (Entry<Object, Object> keyVal : attributes.entrySet()) {
-				// Add the attribute to the database
-				JobPairs.addJobPairAttr(con, pairId, stageId, (String) keyVal.getKey(), (String) keyVal.getValue());
+			procedure = con.prepareCall("{CALL AddJobAttr(?, ?, ?,?)}");
+			if (addJobPairAttributesToBatch(procedure, pairId, stageId, attributes) > 0) {
+				procedure.executeBatch();
 			}
 
 			return true;
 		} catch (Exception e) {
 			log.error("addJobPairAttributes", e);
+		} finally {
+			Common.safeClose(procedure);
 		}
 		return false;
 	}
 
+	/**
+	 * Adds a call to AddJobAttr for each of the given attributes to the batch of the given statement
+	 *
+	 * @param procedure A statement prepared with AddJobAttr
+	 * @param pairId The ID of the pair to add attributes to
+	 * @param stageId The ID of the stage to add attributes for.
+	 * @param attributes The key/value attributes
+	 * @return The number of calls added to the batch
+	 * @throws SQLException
+	 */
+	private static int addJobPairAttributesToBatch(
+			CallableStatement procedure, int pairId, int stageId, Properties attributes
+	) throws SQLException {
+		int added = 0;
+		for (Entry<Object, Object> keyVal : attributes.entrySet()) {
+			String key = (String) keyVal.getKey();
+			String val = (String) keyVal.getValue();
+			// attribute keys and values are VARCHAR(128), and one that does not fit would fail the whole batch
+			if (key.length() > 128 || val.length() > 128) {
+				log.warn("addJobPairAttributesToBatch",
+				         "skipping attribute that exceeds max length\n\tpairId: " + pairId + "\n\tstage:  " +
+				         stageId + "\n\tkey:    " + key + "\n\tval:    " + val);
+				continue;
+			}
+			procedure.setInt(1, pairId);
+			procedure.setString(2, key);
+			procedure.setString(3, val);
+			procedure.setInt(4, stageId);
+			procedure.addBatch();
+			added++;
+		}
+		return added;
+	}
+
 	/**
 	 * Adds a set of attributes to a job pair
 	 *
@@ -636,66 +845,45 @@ public class JobPairs {
 	protected static List<JobPair> filterPairsByType(List<JobPair> pairs, String type, int stageNumber) {
 
 		log.debug("filtering pairs by type with type = " + type);
+		Predicate<JobPair> filter = getTypeFilter(type, stageNumber);
+		if (filter == null) {
+			return pairs;
+		}
 		List<JobPair> filteredPairs = new ArrayList<>();
+		for (JobPair jp : pairs) {
+			if (filter.test(jp)) {
+				filteredPairs.add(jp);
+			}
+		}
+		return filteredPairs;
+	}
 
+	/**
+	 * Gets the test used by filterPairsByType, so that pairs can be filtered without building a new list
+	 *
+	 * @param type The "type" to filter by, where the type refers to the different columns of the solver stats table
+	 * @param stageNumber The stage number containing the relevant data, or 0 for the primary stage
+	 * @return A test that pairs of the given type pass, or null if the type does not filter anything out
+	 */
+	protected static Predicate<JobPair> getTypeFilter(String type, int stageNumber) {
 		switch (type) {
 		case "incomplete":
-			for (JobPair jp : pairs) {
-				if (jp.getStageFromNumber(stageNumber).getStatus().getCode().statIncomplete()) {
-					filteredPairs.add(jp);
-				}
-			}
-			break;
+			return jp -> jp.getStageFromNumber(stageNumber).getStatus().getCode().statIncomplete();
 		case "resource":
-			for (JobPair jp : pairs) {
-				if (jp.getStageFromNumber(stageNumber).getStatus().getCode().resource()) {
-					filteredPairs.add(jp);
-				}
-			}
-			break;
+			return jp -> jp.getStageFromNumber(stageNumber).getStatus().getCode().resource();
 		case "failed":
-			for (JobPair jp : pairs) {
-				if (jp.getStageFromNumber(stageNumber).getStatus().getCode().failed()) {
-					filteredPairs.add(jp);
-				}
-			}
-			break;
+			return jp -> jp.getStageFromNumber(stageNumber).getStatus().getCode().failed();
 		case "solved":
-			for (JobPair jp : pairs) {
-				JoblineStage stage = jp.getStageFromNumber(stageNumber);
-				if (JobPairs.isPairCorrect(stage) == 0) {
-					filteredPairs.add(jp);
-				}
-			}
-			break;
+			return jp -> JobPairs.isPairCorrect(jp.getStageFromNumber(stageNumber)) == 0;
 		case "wrong":
-			for (JobPair jp : pairs) {
-				JoblineStage stage = jp.getStageFromNumber(stageNumber);
-				if (JobPairs.isPairCorrect(stage) == 1) {
-					filteredPairs.add(jp);
-				}
-			}
-			break;
+			return jp -> JobPairs.isPairCorrect(jp.getStageFromNumber(stageNumber)) == 1;
 		case "unknown":
-			for (JobPair jp : pairs) {
-				JoblineStage stage = jp.getStageFromNumber(stageNumber);
-				if (JobPairs.isPairCorrect(stage) == 2) {
-					filteredPairs.add(jp);
-				}
-			}
-			break;
+			return jp -> JobPairs.isPairCorrect(jp.getStageFromNumber(stageNumber)) == 2;
 		case "complete":
-			for (JobPair jp : pairs) {
-				if (jp.getStageFromNumber(stageNumber).getStatus().getCode().statComplete()) {
-					filteredPairs.add(jp);
-				}
-			}
-			break;
+			return jp -> jp.getStageFromNumber(stageNumber).getStatus().getCode().statComplete();
 		default:
-			filteredPairs = pairs;
-			break;
+			return null;
 		}
-		return filteredPairs;
 	}
 
 	/**
@@ -750,21 +938,38 @@ public class JobPairs {
 			return comparisons;
 		}
 
-		searchQuery = searchQuery.toLowerCase();
+		Predicate<SolverComparison> filter = getComparisonFilter(searchQuery);
 		List<SolverComparison> filteredComparisons = new ArrayList<>();
 		for (SolverComparison c : comparisons) {
-			try {
-				if (c.getBenchmark().getName().toLowerCase().contains(searchQuery)) {
-					filteredComparisons.add(c);
-				}
-			} catch (Exception e) {
-				log.error(e.getMessage(), e);
+			if (filter.test(c)) {
+				filteredComparisons.add(c);
 			}
 		}
 
 		return filteredComparisons;
 	}
 
+	/**
+	 * Gets the test used by filterComparisons, so that comparisons can be filtered without building a new list
+	 *
+	 * @param searchQuery The query. Every comparison passes if it is empty
+	 * @return A test that the comparisons matching the query pass
+	 */
+	protected static Predicate<SolverComparison> getComparisonFilter(String searchQuery) {
+		if (Util.isNullOrEmpty(searchQuery)) {
+			return c -> true;
+		}
+		final String query = searchQuery.toLowerCase();
+		return c -> {
+			try {
+				return c.getBenchmark().getName().toLowerCase().contains(query);
+			} catch (Exception e) {
+				log.error(e.getMessage(), e);
+				return false;
+			}
+		};
+	}
+
 	/**
 	 * Filters a list of job pairs against some search query. The query is compared to solver, benchmark, and config
 	 * names, as well as integer status code and result. The job pair is not filtered if the query is a
@@ -783,25 +988,42 @@ public class JobPairs {
 			return pairs;
 		}
 
-		searchQuery = searchQuery.toLowerCase();
+		Predicate<JobPair> filter = getSearchFilter(searchQuery, stageNumber);
 		List<JobPair> filteredPairs = new ArrayList<>();
 		for (JobPair jp : pairs) {
+			if (filter.test(jp)) {
+				filteredPairs.add(jp);
+			}
+		}
+
+		return filteredPairs;
+	}
+
+	/**
+	 * Gets the test used by filterPairs, so that pairs can be filtered without building a new list
+	 *
+	 * @param searchQuery The query. Every pair passes if it is empty
+	 * @param stageNumber The stage number containing the relevant data, or 0 for the primary stage
+	 * @return A test that the pairs matching the query pass
+	 */
+	protected static Predicate<JobPair> getSearchFilter(String searchQuery, int stageNumber) {
+		if (Util.isNullOrEmpty(searchQuery)) {
+			return jp -> true;
+		}
+		final String query = searchQuery.toLowerCase();
+		return jp -> {
 			JoblineStage stage = jp.getStageFromNumber(stageNumber);
 			try {
-				if (jp.getBench().getName().toLowerCase().contains(searchQuery) ||
-						String.valueOf(stage.getStatus().getCode().getVal()).equals(searchQuery) ||
-						stage.getSolver().getName().toLowerCase().contains(searchQuery) ||
-						stage.getConfiguration().getName().toLowerCase().contains(searchQuery) ||
-						stage.getStarexecResult().contains(searchQuery)) {
-
-					filteredPairs.add(jp);
-				}
+				return jp.getBench().getName().toLowerCase().contains(query) ||
+						String.valueOf(stage.getStatus().getCode().getVal()).equals(query) ||
+						stage.getSolver().getName().toLowerCase().contains(query) ||
+						stage.getConfiguration().getName().toLowerCase().contains(query) ||
+						stage.getStarexecResult().contains(query);
 			} catch (Exception e) {
 				log.warn("filterPairs", "JobPair: " +  jp.getId(), e);
+				return false;
 			}
-		}
-
-		return filteredPairs;
+		};
 	}
 
 	/**
@@ -1021,7 +1243,8 @@ public class JobPairs {
 	}
 
 	/**
-	 * Returns the log of a job pair by reading in the physical log file into a string.
+	 * Returns the log of a job pair by reading in the physical log file into a string. Only the last
+	 * R.MAX_PAIR_FILE_READ_BYTES of a longer log are read.
 	 *
 	 * @param pairId The id of the pair to get the log for
 	 * @return The log of the job run
@@ -1034,7 +1257,7 @@ public class JobPairs {
 			File logFile = new File(logPath);
 
 			if (logFile.exists()) {
-				return FileUtils.readFileToString(logFile);
+				return RangedFileReader.tail(logFile, Integer.MAX_VALUE, R.MAX_PAIR_FILE_READ_BYTES).text;
 			}
 		} catch (Exception e) {
 			log.warn(e.getMessage(), e);
@@ -1051,18 +1274,29 @@ public class JobPairs {
 	 */
 	public static String getLogFilePath(JobPair pair) {
 		try {
-
-			File file = new File(Jobs.getLogDirectory(pair.getJobId()));
-			file = new File(file, String.valueOf(pair.getJobSpaceId()));
-			file = new File(file, pair.getId() + ".txt");
-			log.trace("found this log path " + file.getAbsolutePath());
-			return file.getAbsolutePath();
+			return getLogFilePath(pair, Jobs.getLogDirectory(pair.getJobId()));
 		} catch (Exception e) {
 			log.error("getLogFilePath", e);
 		}
 		return null;
 	}
 
+	/**
+	 * Returns the absolute path to where the log for a pair is stored given the pair and the log directory of its
+	 * job. Useful when computing log paths for many pairs from the same job.
+	 *
+	 * @param pair
+	 * @param jobLogDirectory The directory returned by Jobs.getLogDirectory for the pair's job
+	 * @return The absolute path to the log file for the given pair
+	 */
+	public static String getLogFilePath(JobPair pair, String jobLogDirectory) {
+		File file = new File(jobLogDirectory);
+		file = new File(file, String.valueOf(pair.getJobSpaceId()));
+		file = new File(file, pair.getId() + ".txt");
+		log.trace("found this log path " + file.getAbsolutePath());
+		return file.getAbsolutePath();
+	}
+
 	/**
 	 * Retrieves the output of a single stage of the given job pair. Requires that the jobId, path, solver name, config
 	 * name, and bench names of the PRIMARY STAGE be populated. The fields do NOT need to be populated for given stage,
@@ -1498,6 +1732,80 @@ public class JobPairs {
 		return false;
 	}
 
+	/**
+	 * Assigns a given status code to every pair of a job that currently has another given status code, and to all of
+	 * their stages, with a single update
+	 *
+	 * @param con An open database connection
+	 * @param jobId The ID of the job
+	 * @param oldStatusCode The status code of the pairs to update
+	 * @param newStatusCode The status code to give them
+	 * @throws SQLException If the update fails
+	 */
+	public static void setStatusForJobPairsWithStatus(Connection con, int jobId, int oldStatusCode, int newStatusCode)
+			throws SQLException {
+		Common.updateUsingConnection(con, "{CALL UpdateJobPairStatusesWithStatus(?, ?, ?)}", procedure -> {
+			procedure.setInt(1, jobId);
+			procedure.setInt(2, oldStatusCode);
+			procedure.setInt(3, newStatusCode);
+		});
+	}
+
+	/**
+	 * Assigns a given status code to every given job pair and all of their stages. All of the updates are sent as
+	 * JDBC batches on a single connection inside one transaction.
+	 *
+	 * @param pairIds The IDs of the pairs to update
+	 * @param statusCode
+	 * @return True on success and false otherwise
+	 */
+	public static boolean setStatusForPairsAndStages(Collection<Integer> pairIds, int statusCode) {
+		if (pairIds.isEmpty()) {
+			return true;
+		}
+		Connection con = null;
+		CallableStatement pairProcedure = null;
+		CallableStatement stageProcedure = null;
+		try {
+			con = Common.getConnection();
+			Common.beginTransaction(con);
+			pairProcedure = con.prepareCall("{CALL UpdatePairStatus(?, ?)}");
+			stageProcedure = con.prepareCall("{CALL UpdateLaterStageStatuses(?, ?,?)}");
+			int batchCounter = 0;
+			for (Integer pairId : pairIds) {
+				pairProcedure.setInt(1, pairId);
+				pairProcedure.setInt(2, statusCode);
+				pairProcedure.addBatch();
+
+				stageProcedure.setInt(1, pairId);
+				stageProcedure.setInt(2, -1);
+				stageProcedure.setInt(3, statusCode);
+				stageProcedure.addBatch();
+
+				batchCounter++;
+				if (batchCounter >= R.PAIR_STATUS_BATCH_SIZE) {
+					pairProcedure.executeBatch();
+					stageProcedure.executeBatch();
+					batchCounter = 0;
+				}
+			}
+			if (batchCounter > 0) {
+				pairProcedure.executeBatch();
+				stageProcedure.executeBatch();
+			}
+			Common.endTransaction(con);
+			return true;
+		} catch (Exception e) {
+			log.error("setStatusForPairsAndStages", e);
+			Common.doRollback(con);
+		} finally {
+			Common.safeClose(con);
+			Common.safeClose(pairProcedure);
+			Common.safeClose(stageProcedure);
+		}
+		return false;
+	}
+
 	/**
 	 * Sets the status code of every stage for the given pair to the given code
 	 *
@@ -1551,6 +1859,75 @@ public class JobPairs {
 				});
 	}
 
+	/**
+	 * Gets every queue that has had at least one pair complete after the given completion ID.
+	 *
+	 * @param completionId Only completions with IDs greater than this are considered
+	 * @return One entry per queue with new completions
+	 * @throws SQLException if something goes wrong in the database.
+	 */
+	public static List<QueueCompletions> getQueuesWithCompletionsSince(int completionId) throws SQLException {
+		return Common.query("{CALL GetQueuesWithCompletionsSince(?)}", procedure -> procedure.setInt(1, completionId),
+		                    results -> {
+					List<QueueCompletions> completions = new ArrayList<>();
+					while (results.next()) {
+						completions.add(new QueueCompletions(results.getInt("queue_id"),
+						                                     results.getInt("last_completion_id"),
+						                                     results.getTimestamp("first_end_time")));
+					}
+					return completions;
+				}
+		);
+	}
+
+	/**
+	 * Gets every job that has had at least one pair complete after the given completion ID.
+	 *
+	 * @param completionId Only completions with IDs greater than this are considered
+	 * @return Maps the ID of every job with new completions to the newest of its completion IDs
+	 * @throws SQLException if something goes wrong in the database.
+	 */
+	public static Map<Integer, Integer> getJobsWithCompletionsSince(int completionId) throws SQLException {
+		return Common.query("{CALL GetJobsWithCompletionsSince(?)}", procedure -> procedure.setInt(1, completionId),
+		                    results -> {
+					Map<Integer, Integer> jobs = new HashMap<>();
+					while (results.next()) {
+						jobs.put(results.getInt("job_id"), results.getInt("last_completion_id"));
+					}
+					return jobs;
+				}
+		);
+	}
+
+	/**
+	 * Gets the status of a pair without reading the rest of it
+	 *
+	 * @param pairId The ID of the pair
+	 * @return The pair's status code, or null if the pair does not exist
+	 * @throws SQLException if something goes wrong in the database.
+	 */
+	public static StatusCode getPairStatusCode(int pairId) throws SQLException {
+		return Common.query("{CALL GetJobPairStatusCode(?)}", procedure -> procedure.setInt(1, pairId), results -> {
+			if (results.next()) {
+				return StatusCode.toStatusCode(results.getInt("status_code"));
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * @return The most recent completion ID of any pair, or 0 if no pairs have completed
+	 * @throws SQLException if something goes wrong in the database.
+	 */
+	public static int getLatestCompletionId() throws SQLException {
+		return Common.query("{CALL GetLatestCompletionId()}", procedure -> {}, results -> {
+			if (results.next()) {
+				return results.getInt("completion_id");
+			}
+			return 0;
+		});
+	}
+
 	/**
 	 * Gets nodes that may have had pairs enqueued longer than the given amount of time without setting them to
 	 * "running". The SQL procedure gets the queues for pairs that have been enqueued for the amount of time without
@@ -1716,6 +2093,46 @@ public class JobPairs {
 		return false;
 	}
 
+	/**
+	 * Updates the backend execution IDs of many job pairs at once using a JDBC batch.
+	 *
+	 * @param pairIdsToExecIds A mapping from job pair IDs to the backend IDs to set for those pairs
+	 * @return True if the operation was a success, false otherwise.
+	 */
+	public static boolean updateBackendExecIds(Map<Integer, Integer> pairIdsToExecIds) {
+		if (pairIdsToExecIds.isEmpty()) {
+			return true;
+		}
+		Connection con = null;
+		CallableStatement procedure = null;
+		try {
+			con = Common.getConnection();
+			procedure = con.prepareCall("{CALL SetBackendExecId(?, ?)}");
+			int batchCounter = 0;
+			for (Entry<Integer, Integer> e : pairIdsToExecIds.entrySet()) {
+				procedure.setInt(1, e.getKey());
+				procedure.setInt(2, e.getValue());
+				procedure.addBatch();
+				batchCounter++;
+				if (batchCounter >= R.PAIR_STATUS_BATCH_SIZE) {
+					procedure.executeBatch();
+					batchCounter = 0;
+				}
+			}
+			if (batchCounter > 0) {
+				procedure.executeBatch();
+			}
+			return true;
+		} catch (Exception e) {
+			log.error("updateBackendExecIds", e);
+		} finally {
+			Common.safeClose(con);
+			Common.safeClose(procedure);
+		}
+
+		return false;
+	}
+
 	/**
 	 * Updates the database to give the job pair with the given ID the given job space.
 	 *
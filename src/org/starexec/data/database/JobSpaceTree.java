@@ -0,0 +1,171 @@
+package org.starexec.data.database;
+
+import org.starexec.constants.R;
+import org.starexec.logger.StarLogger;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * The space hierarchy of one job. The job spaces of a job are all created along with it and never change after, so
+ * a tree is read from the database once, with a single query, and kept in memory. Queries over a job space hierarchy
+ * are given the descendants of its root from here instead of reading them from the database.
+ */
+public class JobSpaceTree {
+	private static final StarLogger log = StarLogger.getLogger(JobSpaceTree.class);
+
+	// job ID -> tree, least recently used first
+	private static final Map<Integer, JobSpaceTree> trees = new LinkedHashMap<Integer, JobSpaceTree>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, JobSpaceTree> eldest) {
+			if (size() <= R.JOB_SPACE_TREE_CACHE_SIZE) {
+				return false;
+			}
+			spaceJobs.keySet().removeAll(eldest.getValue().parents.keySet());
+			return true;
+		}
+	};
+
+	// job space ID -> job ID, for every space in a cached tree
+	private static final Map<Integer, Integer> spaceJobs = new HashMap<>();
+
+	private final int jobId;
+	private final Map<Integer, Integer> parents;
+	private final Map<Integer, List<Integer>> children;
+
+	/**
+	 * @param jobId The ID of the job
+	 * @param parents Maps every job space in the job to the ID of its parent, or to null if it has none
+	 */
+	public JobSpaceTree(int jobId, Map<Integer, Integer> parents) {
+		this.jobId = jobId;
+		this.parents = Collections.unmodifiableMap(new HashMap<>(parents));
+		Map<Integer, List<Integer>> children = new HashMap<>();
+		for (Map.Entry<Integer, Integer> e : parents.entrySet()) {
+			if (e.getValue() != null) {
+				children.computeIfAbsent(e.getValue(), k -> new ArrayList<>()).add(e.getKey());
+			}
+		}
+		this.children = Collections.unmodifiableMap(children);
+	}
+
+	/**
+	 * @return The ID of the job
+	 */
+	public int getJobId() {
+		return jobId;
+	}
+
+	/**
+	 * @param jobSpaceId The ID of a job space
+	 * @return True if the space is in this job
+	 */
+	public boolean contains(int jobSpaceId) {
+		return parents.containsKey(jobSpaceId);
+	}
+
+	/**
+	 * @param jobSpaceId The ID of the root of a hierarchy in this job
+	 * @return The IDs of the root and every space below it, or an empty set if the space is not in this job
+	 */
+	public Set<Integer> getDescendantIds(int jobSpaceId) {
+		Set<Integer> ids = new HashSet<>();
+		if (!contains(jobSpaceId)) {
+			return ids;
+		}
+		Deque<Integer> toVisit = new ArrayDeque<>();
+		toVisit.add(jobSpaceId);
+		while (!toVisit.isEmpty()) {
+			int id = toVisit.remove();
+			if (!ids.add(id)) {
+				log.error("getDescendantIds", "found a loop in the space hierarchy! Involved space ID = " + id);
+				continue;
+			}
+			toVisit.addAll(children.getOrDefault(id, Collections.emptyList()));
+		}
+		return ids;
+	}
+
+	/**
+	 * Gets a condition on job_pairs that holds for exactly the pairs in a hierarchy. When the hierarchy is the whole
+	 * job the condition is on the job ID, and otherwise it lists the spaces in the hierarchy so that their pairs are
+	 * found through the job_space_id index.
+	 *
+	 * @param jobSpaceId The ID of the root of a hierarchy in this job
+	 * @return The condition, as SQL
+	 */
+	public String getPairCondition(int jobSpaceId) {
+		Set<Integer> ids = getDescendantIds(jobSpaceId);
+		if (ids.size() == parents.size()) {
+			return "job_pairs.job_id=" + jobId;
+		}
+		StringBuilder sb = new StringBuilder("job_pairs.job_space_id IN (");
+		boolean first = true;
+		for (Integer id : ids) {
+			if (!first) {
+				sb.append(',');
+			}
+			sb.append(id);
+			first = false;
+		}
+		return sb.append(')').toString();
+	}
+
+	/**
+	 * Fills in the hierarchy placeholder of one of the HierarchyQueries
+	 *
+	 * @param query The query
+	 * @param jobSpaceId The ID of the root of a hierarchy in this job
+	 * @return The query, restricted to the pairs in the hierarchy
+	 */
+	public String restrictToHierarchy(String query, int jobSpaceId) {
+		return query.replace("{hierarchy}", getPairCondition(jobSpaceId));
+	}
+
+	/**
+	 * Gets the tree of the job a space is in, reading it from the database if it is not already cached
+	 *
+	 * @param jobSpaceId The ID of any space in the job
+	 * @return The tree
+	 * @throws SQLException If the tree could not be read, or the space does not exist
+	 */
+	static JobSpaceTree forJobSpace(int jobSpaceId) throws SQLException {
+		synchronized (trees) {
+			Integer jobId = spaceJobs.get(jobSpaceId);
+			if (jobId != null) {
+				return trees.get(jobId);
+			}
+		}
+		JobSpaceTree tree = load(jobSpaceId);
+		synchronized (trees) {
+			JobSpaceTree old = trees.put(tree.jobId, tree);
+			if (old != null) {
+				spaceJobs.keySet().removeAll(old.parents.keySet());
+			}
+			for (Integer id : tree.parents.keySet()) {
+				spaceJobs.put(id, tree.jobId);
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 * Reads the tree of the job a space is in from the database
+	 */
+	private static JobSpaceTree load(int jobSpaceId) throws SQLException {
+		return Common.query("{CALL GetJobSpaceTree(?)}", procedure -> procedure.setInt(1, jobSpaceId), results -> {
+			int jobId = -1;
+			Map<Integer, Integer> parents = new HashMap<>();
+			while (results.next()) {
+				jobId = results.getInt("job_id");
+				int parentId = results.getInt("parent_id");
+				parents.put(results.getInt("id"), results.wasNull() ? null : parentId);
+			}
+			if (!parents.containsKey(jobSpaceId)) {
+				throw new SQLException("job space " + jobSpaceId + " does not exist");
+			}
+			log.debug("load", "read " + parents.size() + " spaces of job " + jobId);
+			return new JobSpaceTree(jobId, parents);
+		});
+	}
+}
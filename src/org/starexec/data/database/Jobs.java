@@ -2,10 +2,13 @@ package org.starexec.data.database;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.time.StopWatch;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.starexec.backend.Backend;
 import org.starexec.backend.GridEngineBackend;
+import org.starexec.constants.HierarchyQueries;
 import org.starexec.constants.PaginationQueries;
 import org.starexec.constants.R;
 import org.starexec.data.database.AnonymousLinks.PrimitivesToAnonymize;
@@ -21,19 +24,23 @@ import org.starexec.data.to.pipelines.SolverPipeline;
 import org.starexec.data.to.pipelines.StageAttributes;
 import org.starexec.data.to.pipelines.StageAttributes.SaveResultsOption;
 import org.starexec.data.to.tuples.AttributesTableData;
+import org.starexec.data.to.tuples.JobPairSummary;
 import org.starexec.data.to.tuples.TimePair;
 import org.starexec.exceptions.StarExecDatabaseException;
 import org.starexec.exceptions.StarExecException;
+import org.starexec.jobs.SubmissionTrigger;
 import org.starexec.logger.StarLogger;
 import org.starexec.util.DataTablesQuery;
 import org.starexec.util.NamedParameterStatement;
 import org.starexec.util.PaginationQueryBuilder;
 import org.starexec.util.Util;
+import org.starexec.util.functionalInterfaces.ThrowingConsumer;
 
 import java.io.File;
 import java.io.IOException;
 import java.sql.*;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Handles all database interaction for jobs (NOT grid engine job execution, see JobManager for that)
@@ -92,8 +99,14 @@ public class Jobs {
 		parent = Spaces.get(parentSpaceId, con);
 		parent.setPermission(Permissions.getSpaceDefault(parentSpaceId));
 		HashMap<String, Integer> pathsToIds = new HashMap<>(); // maps a job space path to a job space id
+		String lastPath = null;
 		for (JobPair pair : pairs) {
 			//log.debug("finding spaces for a new pair with path = " +pair.getPath());
+			// pairs are mostly added a space at a time, so most pairs need the same spaces as the one before
+			if (pair.getPath().equals(lastPath)) {
+				continue;
+			}
+			lastPath = pair.getPath();
 			String[] spaces = getSpaceNames(pair.getPath());
 			StringBuilder curPathBuilder = new StringBuilder();
 			for (String name : spaces) {
@@ -139,7 +152,20 @@ public class Jobs {
 		HashMap<Integer, Integer> idsToMaxStages = new HashMap<>();
 		HashMap<String, Integer> pathsToIds = new HashMap<>(); // maps a job space path to a job space id
 		int topLevelSpaceId = -1; // -1 indicates that it is not set
+		// the path of the previous pair and the ids of the job spaces along it
+		String lastPath = null;
+		List<Integer> lastIds = new ArrayList<>();
 		for (JobPair pair : pairs) {
+			// pairs are mostly added a space at a time, so most pairs go in the same spaces as the one before
+			if (pair.getPath().equals(lastPath)) {
+				for (Integer id : lastIds) {
+					idsToMaxStages.put(id, Math.max(idsToMaxStages.get(id), pair.getStages().size()));
+				}
+				pair.setJobSpaceId(lastIds.get(lastIds.size() - 1));
+				continue;
+			}
+			lastPath = pair.getPath();
+			lastIds.clear();
 			//log.debug("finding spaces for a new pair with path = " +pair.getPath());
 			String[] spaces = getSpaceNames(pair.getPath());
 			StringBuilder curPathBuilder = new StringBuilder();
@@ -166,6 +192,7 @@ public class Jobs {
 				}
 				int id = pathsToIds.get(curPathBuilder.toString());
 				idsToMaxStages.put(id, Math.max(idsToMaxStages.get(id), pair.getStages().size()));
+				lastIds.add(id);
 			}
 			pair.setJobSpaceId(pathsToIds.get(curPathBuilder.toString()));
 		}
@@ -540,6 +567,9 @@ public class Jobs {
 			new File(Jobs.getDirectory(job.getId())).mkdirs();
 			log.debug("job added successfully");
 			Jobs.resume(job.getId(), con); // now that the job has been added, we can resume
+			if (job.getQueue() != null) {
+				SubmissionTrigger.requestSubmission(job.getQueue().getId(), "job " + job.getId() + " created");
+			}
 			return true;
 		} catch (Exception e) {
 			log.error("add", e);
@@ -1152,12 +1182,20 @@ public class Jobs {
 		//we will cache the stats only if the job is complete
 		boolean isJobComplete = Jobs.isJobComplete(jobId);
 
-		//otherwise, we need to compile the stats
-		log.debug("stats not present in database -- compiling stats now");
-		List<JobPair> pairs = getJobPairsInJobSpaceHierarchy(spaceId, primitivesToAnonymize);
+		if (isJobComplete) {
+			//the job is done but its stats have not been stored yet, so compile them now
+			log.debug("stats not present in database -- compiling stats now");
+			List<JobPair> pairs = getJobPairsInJobSpaceHierarchy(spaceId, primitivesToAnonymize);
 
-		//compiles pairs into solver stats
-		stats = processPairsToSolverStats(jobId, pairs);
+			//compiles pairs into solver stats
+			stats = processPairsToSolverStats(jobId, pairs);
+		} else {
+			//the job is still running, so its stats are kept up to date in memory as pairs complete
+			stats = SolverStatsCache.getStats(jobId, spaceId, primitivesToAnonymize);
+		}
+		if (stats == null) {
+			return null;
+		}
 		for (SolverStats s : stats) {
 			s.setJobSpaceId(spaceId);
 		}
@@ -1165,6 +1203,7 @@ public class Jobs {
 		//caches the job stats so we do not need to compute them again in the future
 		if (isJobComplete) {
 			saveStats(jobId, stats);
+			SolverStatsCache.invalidateJob(jobId);
 		}
 
 		//next, we simply filter down the stats to the ones for the given stage
@@ -1206,12 +1245,20 @@ public class Jobs {
 		//we will cache the stats only if the job is complete
 		boolean isJobComplete = Jobs.isJobComplete(jobId);
 
-		//otherwise, we need to compile the stats
-		log.debug("stats not present in database -- compiling stats now");
-		List<JobPair> pairs = getJobPairsInJobSpaceHierarchy(spaceId, primitivesToAnonymize);
+		if (isJobComplete) {
+			//the job is done but its stats have not been stored yet, so compile them now
+			log.debug("stats not present in database -- compiling stats now");
+			List<JobPair> pairs = getJobPairsInJobSpaceHierarchy(spaceId, primitivesToAnonymize);
 
-		//compiles pairs into solver stats
-		stats = processPairsToSolverStats(jobId, pairs);
+			//compiles pairs into solver stats
+			stats = processPairsToSolverStats(jobId, pairs);
+		} else {
+			//the job is still running, so its stats are kept up to date in memory as pairs complete
+			stats = SolverStatsCache.getStats(jobId, spaceId, primitivesToAnonymize);
+		}
+		if (stats == null) {
+			return null;
+		}
 		for (SolverStats s : stats) {
 			s.setJobSpaceId(spaceId);
 		}
@@ -1219,6 +1266,7 @@ public class Jobs {
 		//caches the job stats so we do not need to compute them again in the future
 		if (isJobComplete) {
 			saveStats(jobId, stats);
+			SolverStatsCache.invalidateJob(jobId);
 		}
 
 		//next, we simply filter down the stats to the ones for the given stage
@@ -1810,26 +1858,21 @@ public class Jobs {
 			int stageNumber
 	) {
 		List<JobPair> pairs = Jobs.getJobPairsInJobSpaceHierarchy(jobSpaceId, PrimitivesToAnonymize.NONE);
-		List<JobPair> pairs1 = new ArrayList<>();
+		// only complete pairs are compared
+		HashMap<Integer, JobPair> benchesToPairs = new HashMap<>();
 		List<JobPair> pairs2 = new ArrayList<>();
 		for (JobPair jp : pairs) {
 			JoblineStage stage = jp.getStageFromNumber(stageNumber);
-			if (stage == null || stage.isNoOp()) {
+			if (stage == null || stage.isNoOp() || !stage.getStatus().getCode().statComplete()) {
 				continue;
 			}
 			if (stage.getConfiguration().getId() == configId1) {
-				pairs1.add(jp);
+				benchesToPairs.put(jp.getBench().getId(), jp);
 			} else if (stage.getConfiguration().getId() == configId2) {
 				pairs2.add(jp);
 			}
 		}
-		pairs1 = JobPairs.filterPairsByType(pairs1, "complete", stageNumber);
-		pairs2 = JobPairs.filterPairsByType(pairs2, "complete", stageNumber);
 		List<SolverComparison> comparisons = new ArrayList<>();
-		HashMap<Integer, JobPair> benchesToPairs = new HashMap<>();
-		for (JobPair jp : pairs1) {
-			benchesToPairs.put(jp.getBench().getId(), jp);
-		}
 		for (JobPair jp : pairs2) {
 			if (benchesToPairs.containsKey(jp.getBench().getId())) {
 				try {
@@ -1840,13 +1883,11 @@ public class Jobs {
 			}
 		}
 
-		totals[0] = comparisons.size();
-		comparisons = JobPairs.filterComparisons(comparisons, query.getSearchQuery());
-
-		totals[1] = comparisons.size();
 		SolverComparisonComparator compare =
 				new SolverComparisonComparator(query.getSortColumn(), wallclock, query.isSortASC(), stageNumber);
-		return Util.handlePagination(comparisons, compare, query.getStartingRecord(), query.getNumRecords());
+		return Util.handlePagination(comparisons, c -> true, JobPairs.getComparisonFilter(query.getSearchQuery()),
+		                             compare, query.getStartingRecord(), query.getNumRecords(), totals
+		);
 	}
 
 	/**
@@ -1865,19 +1906,18 @@ public class Jobs {
 	public static List<JobPair> getJobPairsForNextPage(
 			List<JobPair> pairs, DataTablesQuery query, String type, boolean wallclock, int stageNumber, int[] totals
 	) {
-		pairs = JobPairs.filterPairsByType(pairs, type, stageNumber);
-
-		totals[0] = pairs.size();
-
-		pairs = JobPairs.filterPairs(pairs, query.getSearchQuery(), stageNumber);
-
-		totals[1] = pairs.size();
+		Predicate<JobPair> typeFilter = JobPairs.getTypeFilter(type, stageNumber);
+		if (typeFilter == null) {
+			typeFilter = jp -> true;
+		}
 		int indexOfColumnSortedBy = query.getSortColumn();
 		if (!wallclock && indexOfColumnSortedBy == 4) {
 			indexOfColumnSortedBy = 8;
 		}
 		JobPairComparator compare = new JobPairComparator(indexOfColumnSortedBy, stageNumber, query.isSortASC());
-		return Util.handlePagination(pairs, compare, query.getStartingRecord(), query.getNumRecords());
+		return Util.handlePagination(pairs, typeFilter, JobPairs.getSearchFilter(query.getSearchQuery(), stageNumber),
+		                             compare, query.getStartingRecord(), query.getNumRecords(), totals
+		);
 	}
 
 	/**
@@ -1910,16 +1950,15 @@ public class Jobs {
 			int jobSpaceId, int configId, String type, String query, int stageNumber
 	) {
 		Connection con = null;
-		CallableStatement procedure = null;
+		NamedParameterStatement procedure = null;
 		ResultSet results = null;
 		try {
 			con = Common.getConnection();
-			procedure = con.prepareCall("{CALL CountJobPairsInJobSpaceHierarchyByType(?,?,?,?,?)}");
-			procedure.setInt(1, jobSpaceId);
-			procedure.setInt(2, configId);
-			procedure.setString(3, type);
-			procedure.setString(4, query);
-			procedure.setInt(5, stageNumber);
+			procedure = prepareHierarchyQuery(con, HierarchyQueries.COUNT_PAIRS_BY_TYPE_QUERY, jobSpaceId);
+			procedure.setInt("configId", configId);
+			procedure.setString("pairType", type);
+			procedure.setString("query", query);
+			procedure.setInt("stageNumber", stageNumber);
 			results = procedure.executeQuery();
 			if (results.next()) {
 				return results.getInt("count");
@@ -2099,18 +2138,21 @@ public class Jobs {
 		}
 		int jobId = Spaces.getJobSpace(jobSpaceId).getId();
 		try {
+			// the result column is an alias, which cannot be used to seek
+			String idColumn = query.getSortColumn() == 5 ? null : "job_pairs.id";
 			PaginationQueryBuilder builder = new PaginationQueryBuilder(PaginationQueries.GET_PAIRS_IN_SPACE_QUERY,
 			                                                            getJobPairOrderColumn(query.getSortColumn(),
 			                                                                                  wallclock
-			                                                            ), query
+			                                                            ), idColumn, query
 			);
 			con = Common.getConnection();
 			procedure = new NamedParameterStatement(con, builder.getSQL());
 			procedure.setString("query", searchQuery);
 			procedure.setInt("stageNumber", stageNumber);
 			procedure.setInt("jobSpaceId", jobSpaceId);
+			builder.setCursorParameters(procedure);
 			results = procedure.executeQuery();
-			return getJobPairsForDataTable(jobId, results, false, false, primitivesToAnonymize);
+			return getJobPairsForDataTable(jobId, results, false, false, primitivesToAnonymize, builder);
 		} catch (Exception e) {
 			log.error("getJobPairsForNextPageInJobSpace", "jobId: " + jobId, e);
 		} finally {
@@ -2304,6 +2346,52 @@ public class Jobs {
 		return null;
 	}
 
+	/**
+	 * Prepares one of the HierarchyQueries for a job space hierarchy. The spaces in the hierarchy are taken from the
+	 * job's cached JobSpaceTree.
+	 *
+	 * @param con The connection to prepare the query on
+	 * @param query The query
+	 * @param jobSpaceId The ID of the root of the hierarchy
+	 * @return The statement, with every parameter but the hierarchy still to be set
+	 * @throws SQLException If the job space tree could not be read or the query could not be prepared
+	 */
+	private static NamedParameterStatement prepareHierarchyQuery(Connection con, String query, int jobSpaceId)
+			throws SQLException {
+		return new NamedParameterStatement(con,
+		                                   JobSpaceTree.forJobSpace(jobSpaceId).restrictToHierarchy(query, jobSpaceId));
+	}
+
+	/**
+	 * Runs one of the HierarchyQueries for a job space hierarchy, as Common.query does for a procedure
+	 *
+	 * @param query The query
+	 * @param jobSpaceId The ID of the root of the hierarchy
+	 * @param setParameters Sets every parameter of the query
+	 * @param resultsConsumer Reads the results
+	 * @return Whatever resultsConsumer returns
+	 * @throws SQLException
+	 */
+	private static <T> T queryHierarchy(
+			String query, int jobSpaceId, ThrowingConsumer<NamedParameterStatement, SQLException> setParameters,
+			ResultsConsumer<T> resultsConsumer
+	) throws SQLException {
+		Connection con = null;
+		NamedParameterStatement procedure = null;
+		ResultSet results = null;
+		try {
+			con = Common.getConnection();
+			procedure = prepareHierarchyQuery(con, query, jobSpaceId);
+			setParameters.accept(procedure);
+			results = procedure.executeQuery();
+			return resultsConsumer.query(results);
+		} finally {
+			Common.safeClose(results);
+			Common.safeClose(procedure);
+			Common.safeClose(con);
+		}
+	}
+
 	/**
 	 * Returns all of the job pairs in a given job space hierarchy, populated with all the fields necessary to display
 	 * in a SolverStats table. All job pair stages are obtained
@@ -2353,38 +2441,232 @@ public class Jobs {
 		log.entry(methodName);
 		Connection con = null;
 		ResultSet results = null;
-		CallableStatement procedure = null;
+		NamedParameterStatement procedure = null;
 		log.debug("called with jobSpaceId = " + jobSpaceId);
 		log.debug(
 				methodName,
 				"primitivesToAnonymize equals " + AnonymousLinks.getPrimitivesToAnonymizeName(primitivesToAnonymize)
 		);
 		try {
-			Spaces.updateJobSpaceClosureTable(jobSpaceId);
+			con = Common.getConnection();
+			procedure = prepareHierarchyQuery(con, HierarchyQueries.GET_PAIRS_QUERY, jobSpaceId);
+			procedure.setObject("since", since);
+			results = procedure.executeQuery();
+
+			List<JobPair> pairs = processStatResults(results, false, primitivesToAnonymize);
 
+
+			Common.safeClose(procedure);
+			Common.safeClose(results);
+			procedure = prepareHierarchyQuery(con, HierarchyQueries.GET_PAIR_STAGES_QUERY, jobSpaceId);
+			procedure.setObject("since", since);
+			results = procedure.executeQuery();
+			if (populateJobPairStages(pairs, results, true, primitivesToAnonymize)) {
+				return pairs;
+			}
+		} catch (Exception e) {
+			log.error(methodName, e);
+		} finally {
+			Common.safeClose(con);
+			Common.safeClose(results);
+			Common.safeClose(procedure);
+		}
+		return null;
+	}
+
+	/**
+	 * Counts the pairs in a job space hierarchy, or those that have completed since a given completion ID.
+	 *
+	 * @param jobSpaceId The space ID of the root of the hierarchy
+	 * @param since If null, every pair in the hierarchy is counted. Otherwise, only pairs that have a completion ID
+	 * greater than since are counted
+	 * @return The number of pairs, the greatest completion ID among them (or since if there are none), and the most
+	 * stages any of them has
+	 * @throws SQLException
+	 */
+	public static JobPairSummary getJobPairSummaryInJobSpaceHierarchy(int jobSpaceId, Integer since)
+			throws SQLException {
+		return queryHierarchy(HierarchyQueries.GET_PAIR_SUMMARY_QUERY, jobSpaceId,
+		                      procedure -> procedure.setObject("since", since), results -> {
+			int defaultCompletion = since == null ? 0 : since;
+			if (!results.next()) {
+				return new JobPairSummary(0, defaultCompletion, 0);
+			}
+			return new JobPairSummary(results.getInt("pair_count"),
+			                          Math.max(defaultCompletion, results.getInt("max_completion")),
+			                          results.getInt("max_stages"));
+		});
+	}
+
+	/**
+	 * Gets the names of all the attributes of complete pairs in a job space hierarchy, which are the attribute
+	 * columns of a job CSV. Includes the expected result if any of the pairs' benchmarks have one.
+	 *
+	 * @param jobSpaceId The space ID of the root of the hierarchy
+	 * @param since If null, every pair in the hierarchy is considered. Otherwise, only pairs with a completion ID
+	 * greater than since and at most until are
+	 * @param until See since. Ignored if since is null
+	 * @return The attribute names, sorted
+	 * @throws SQLException
+	 */
+	public static List<String> getCompletedAttrNamesInJobSpaceHierarchy(int jobSpaceId, Integer since, int until)
+			throws SQLException {
+		return queryHierarchy(HierarchyQueries.GET_COMPLETED_ATTR_NAMES_QUERY, jobSpaceId, procedure -> {
+			procedure.setObject("since", since);
+			procedure.setInt("until", until);
+		}, results -> {
+			List<String> names = new ArrayList<>();
+			while (results.next()) {
+				names.add(results.getString("attr_key"));
+			}
+			return names;
+		});
+	}
+
+	/**
+	 * Reads every pair in a job space hierarchy, with its stages and their attributes, and hands them to the given
+	 * consumer one at a time in order of ID. Rows are streamed from the database rather than read all at once, so
+	 * memory use does not depend on the number of pairs. The pairs and stages are populated the same way as by
+	 * getJobPairsInJobSpaceHierarchy followed by loadPropertiesIntoPairs, and the expected result of each benchmark
+	 * is put into the attributes of the pair's primary stage.
+	 *
+	 * @param jobSpaceId The space ID of the root of the hierarchy
+	 * @param since If null, every pair in the hierarchy is read. Otherwise, only pairs with a completion ID greater
+	 * than since and at most until are
+	 * @param until See since. Ignored if since is null
+	 * @param consumer Called with each pair. The connection is held until it returns, so it should not block for
+	 * long.
+	 * @throws SQLException
+	 * @throws IOException If the consumer throws one
+	 */
+	public static void forEachJobPairInJobSpaceHierarchy(
+			int jobSpaceId, Integer since, int until, ThrowingConsumer<JobPair, IOException> consumer
+	) throws SQLException, IOException {
+		Connection con = null;
+		NamedParameterStatement procedure = null;
+		ResultSet results = null;
+		try {
 			con = Common.getConnection();
-			procedure = con.prepareCall("{CALL GetJobPairsInJobSpaceHierarchy(?,?)}");
+			procedure = prepareHierarchyQuery(con, HierarchyQueries.GET_PAIRS_WITH_ATTRS_QUERY, jobSpaceId);
+			// tells the driver to stream rows one at a time instead of reading the whole result into memory
+			procedure.getStatement().setFetchSize(Integer.MIN_VALUE);
+			procedure.setObject("since", since);
+			procedure.setInt("until", until);
+			results = procedure.executeQuery();
 
-			procedure.setInt(1, jobSpaceId);
-			if (since == null) {
-				procedure.setNull(2, java.sql.Types.INTEGER);
-			} else {
-				procedure.setInt(2, since);
+			JobPair pair = null;
+			String expected = null;
+			JoblineStage stage = null;
+			boolean stageHasAttrs = false;
+			while (results.next()) {
+				int pairId = results.getInt("pair_id");
+				if (pair == null || pair.getId() != pairId) {
+					if (pair != null) {
+						finishStreamedPair(pair, expected);
+						consumer.accept(pair);
+					}
+					pair = new JobPair();
+					pair.setId(pairId);
+					pair.getStatus().setCode(results.getInt("pair_status_code"));
+					pair.setPath(results.getString("path"));
+					pair.setPrimaryStageNumber(results.getInt("primary_jobpair_data"));
+					pair.setCompletionId(results.getInt("completion_id"));
+					Benchmark bench = new Benchmark();
+					bench.setId(results.getInt("bench_id"));
+					bench.setName(results.getString("bench_name"));
+					pair.setBench(bench);
+					expected = results.getString("expected");
+					stage = null;
+				}
+				int stageNumber = results.getInt("stage_number");
+				if (stage == null || stage.getStageNumber() != stageNumber) {
+					stage = new JoblineStage();
+					stage.setStageNumber(stageNumber);
+					stage.getStatus().setCode(results.getInt("stage_status_code"));
+					stage.setCpuUsage(results.getDouble("cpu"));
+					stage.setWallclockTime(results.getDouble("wallclock"));
+					stage.setMaxVirtualMemory(results.getDouble("max_vmem"));
+					int solverId = results.getInt("solver_id");
+					//means it was null in SQL
+					if (solverId == 0) {
+						stage.setNoOp(true);
+					} else {
+						Solver solver = new Solver();
+						solver.setId(solverId);
+						solver.setName(results.getString("solver_name"));
+						Configuration config = new Configuration();
+						config.setId(results.getInt("config_id"));
+						config.setName(results.getString("config_name"));
+						solver.addConfiguration(config);
+						stage.setSolver(solver);
+						stage.setConfiguration(config);
+						if (expected != null) {
+							stage.getAttributes().put(R.EXPECTED_RESULT, expected);
+						}
+					}
+					stageHasAttrs = false;
+					pair.addStage(stage);
+				}
+				String key = results.getString("attr_key");
+				if (key != null) {
+					// pair attributes replace the ones taken from the stage, as in loadPropertiesIntoPairs
+					if (!stageHasAttrs) {
+						stage.setAttributes(new Properties());
+						stageHasAttrs = true;
+					}
+					String value = results.getString("attr_value");
+					if (value != null) {
+						stage.getAttributes().put(key, value);
+					}
+				}
 			}
+			if (pair != null) {
+				finishStreamedPair(pair, expected);
+				consumer.accept(pair);
+			}
+		} finally {
+			Common.safeClose(results);
+			Common.safeClose(procedure);
+			Common.safeClose(con);
+		}
+	}
+
+	private static void finishStreamedPair(JobPair pair, String expected) {
+		if (expected != null && pair.getPrimaryStage() != null) {
+			pair.getPrimaryStage().getAttributes().put(R.EXPECTED_RESULT, expected);
+		}
+	}
+
+	/**
+	 * Returns the job pairs in a given job space hierarchy that have completed since the given completion ID,
+	 * populated with all the fields necessary to display in a SolverStats table. Unlike
+	 * getJobPairsInJobSpaceHierarchy with a since value, the cost of this depends only on the number of new
+	 * completions and not on the size of the hierarchy.
+	 *
+	 * @param jobSpaceId The space ID of the root of the hierarchy
+	 * @param since Only pairs with a completion ID greater than this are returned
+	 * @param primitivesToAnonymize PrimitivesToAnonymize instance
+	 * @return The newly completed job pairs, or null on error
+	 */
+	static List<JobPair> getJobPairsInJobSpaceHierarchyCompletedSince(
+			int jobSpaceId, int since, PrimitivesToAnonymize primitivesToAnonymize
+	) {
+		final String methodName = "getJobPairsInJobSpaceHierarchyCompletedSince";
+		Connection con = null;
+		ResultSet results = null;
+		NamedParameterStatement procedure = null;
+		try {
+			con = Common.getConnection();
+			procedure = prepareHierarchyQuery(con, HierarchyQueries.GET_PAIRS_COMPLETED_SINCE_QUERY, jobSpaceId);
+			procedure.setInt("since", since);
 			results = procedure.executeQuery();
 
 			List<JobPair> pairs = processStatResults(results, false, primitivesToAnonymize);
 
-
 			Common.safeClose(procedure);
 			Common.safeClose(results);
-			procedure = con.prepareCall("{CALL GetJobPairStagesInJobSpaceHierarchy(?,?)}");
-			procedure.setInt(1, jobSpaceId);
-			if (since == null) {
-				procedure.setNull(2, java.sql.Types.INTEGER);
-			} else {
-				procedure.setInt(2, since);
-			}
+			procedure = prepareHierarchyQuery(con, HierarchyQueries.GET_PAIR_STAGES_COMPLETED_SINCE_QUERY, jobSpaceId);
+			procedure.setInt("since", since);
 			results = procedure.executeQuery();
 			if (populateJobPairStages(pairs, results, true, primitivesToAnonymize)) {
 				return pairs;
@@ -2424,8 +2706,6 @@ public class Jobs {
 				"primitivesToAnonymize equals " + AnonymousLinks.getPrimitivesToAnonymizeName(primitivesToAnonymize)
 		);
 		try {
-			Spaces.updateJobSpaceClosureTable(jobSpaceId);
-
 			con = Common.getConnection();
 			procedure = con.prepareCall("{CALL GetSuccessfullyCompletedJobPairsInJobSpaceHierarchy(?,?)}");
 
@@ -2469,16 +2749,20 @@ public class Jobs {
 	 *
 	 * @param jobId The ID of the job containing all these pairs
 	 * @param results
+	 * @param builder The builder the results' query came from, which records the page's cursor, or null
 	 * @return The list of job pairs or null on failure
 	 */
 
 	private static List<JobPair> getJobPairsForDataTable(
 			int jobId, ResultSet results, boolean includeExpected, boolean includeCompletion,
-			PrimitivesToAnonymize primitivesToAnonymize
+			PrimitivesToAnonymize primitivesToAnonymize, PaginationQueryBuilder builder
 	) {
 		List<JobPair> pairs = new ArrayList<>();
 		try {
 			while (results.next()) {
+				if (builder != null) {
+					builder.readCursor(results);
+				}
 				JobPair jp = new JobPair();
 				jp.setJobId(jobId);
 				jp.setId(results.getInt("id"));
@@ -2572,7 +2856,8 @@ public class Jobs {
 			}
 
 			PaginationQueryBuilder builder =
-					new PaginationQueryBuilder(PaginationQueries.GET_PAIRS_IN_SPACE_HIERARCHY_QUERY,
+					new PaginationQueryBuilder(JobSpaceTree.forJobSpace(jobSpaceId).restrictToHierarchy(
+							PaginationQueries.GET_PAIRS_IN_SPACE_HIERARCHY_QUERY, jobSpaceId),
 					                           getJobPairOrderColumn(query.getSortColumn(), false), query
 					);
 
@@ -2589,12 +2874,11 @@ public class Jobs {
 
 
 			procedure.setString("query", query.getSearchQuery());
-			procedure.setInt("jobSpaceId", jobSpaceId);
 			procedure.setInt("stageNumber", stageNumber);
 			procedure.setInt("configId", configId);
 			procedure.setString("pairType", type);
 			results = procedure.executeQuery();
-			return getJobPairsForDataTable(jobId, results, false, false, PrimitivesToAnonymize.NONE);
+			return getJobPairsForDataTable(jobId, results, false, false, PrimitivesToAnonymize.NONE, null);
 		} catch (Exception e) {
 			log.error("getJobPairsForTableInJobSpaceHierarchy", "job: " + jobId, e);
 		} finally {
@@ -3008,11 +3292,178 @@ public class Jobs {
 	}
 
 	/**
-	 * @param jobId ID of job to return
-	 * @return A job populated with all details and pairs
+	 * Counts the benchmarks that are rows of the job matrix view of a job space
+	 *
+	 * @param jobSpaceId The ID of the job space. Pairs in its subspaces are not included
+	 * @param stageNumber The stage to count, or 0 or less to count the primary stage of each pair
+	 * @return The number of benchmarks with a pair that has the given stage
+	 * @throws SQLException
+	 */
+	public static int getMatrixBenchmarkCountInJobSpace(int jobSpaceId, int stageNumber) throws SQLException {
+		return Common.query("{CALL GetMatrixBenchmarkCountInJobSpace(?,?)}", procedure -> {
+			procedure.setInt(1, jobSpaceId);
+			procedure.setInt(2, stageNumber);
+		}, results -> results.next() ? results.getInt("benchmarks") : 0);
+	}
+
+	/**
+	 * Gets the solver-configs that are columns of the job matrix view of a job space. Each solver has only its ID
+	 * and name, and each configuration only its ID, name and solver ID.
+	 *
+	 * @param jobSpaceId The ID of the job space. Pairs in its subspaces are not included
+	 * @param stageNumber The stage to look at, or 0 or less to look at the primary stage of each pair
+	 * @return The solver-configs with a pair that has the given stage, in no particular order
+	 * @throws SQLException
+	 */
+	public static List<Pair<Solver, Configuration>> getMatrixSolverConfigsInJobSpace(int jobSpaceId, int stageNumber)
+			throws SQLException {
+		return Common.query("{CALL GetMatrixSolverConfigsInJobSpace(?,?)}", procedure -> {
+			procedure.setInt(1, jobSpaceId);
+			procedure.setInt(2, stageNumber);
+		}, results -> {
+			List<Pair<Solver, Configuration>> solverConfigs = new ArrayList<>();
+			Map<Integer, Solver> solvers = new HashMap<>();
+			while (results.next()) {
+				int solverId = results.getInt("solver_id");
+				Solver solver = solvers.get(solverId);
+				if (solver == null) {
+					solver = new Solver();
+					solver.setId(solverId);
+					solver.setName(results.getString("solver_name"));
+					solvers.put(solverId, solver);
+				}
+				Configuration config = new Configuration();
+				config.setId(results.getInt("config_id"));
+				config.setName(results.getString("config_name"));
+				config.setSolverId(solverId);
+				solver.addConfiguration(config);
+				solverConfigs.add(new ImmutablePair<>(solver, config));
+			}
+			return solverConfigs;
+		});
+	}
+
+	/**
+	 * Gets one stage of the pairs in a job space that ran one page of its benchmarks, for the job matrix view.
+	 * Benchmarks are ordered by name, so that pages follow one another. Each pair has only its ID, job space ID,
+	 * benchmark ID and name, and the requested stage. The stage has its solver, configuration, status, cpu time,
+	 * wallclock time and max virtual memory, and its starexec-result and the benchmark's expected result as
+	 * attributes when they exist. Pairs with the same benchmark, solver or configuration share the same object.
+	 *
+	 * @param jobSpaceId The ID of the job space. Pairs in its subspaces are not included
+	 * @param stageNumber The stage to get, or 0 or less to get the primary stage of each pair
+	 * @param firstRow The position of the first benchmark of the page
+	 * @param rowCount The number of benchmarks on the page
+	 * @return The pairs of the page's benchmarks that have the given stage
+	 * @throws SQLException
+	 */
+	public static List<JobPair> getMatrixPairsInJobSpaceForBenchmarkRows(int jobSpaceId, int stageNumber,
+	                                                                     int firstRow, int rowCount)
+			throws SQLException {
+		return Common.query("{CALL GetMatrixPairsInJobSpaceForBenchmarkRows(?,?,?,?)}", procedure -> {
+			procedure.setInt(1, jobSpaceId);
+			procedure.setInt(2, stageNumber);
+			procedure.setInt(3, firstRow);
+			procedure.setInt(4, rowCount);
+		}, results -> readMatrixPairs(results, jobSpaceId, false));
+	}
+
+	/**
+	 * Gets one stage of the pairs in a job space that completed after a given completion ID, with the same fields
+	 * as getMatrixPairsInJobSpaceForBenchmarkRows. Each pair also has its completion ID set.
+	 *
+	 * @param jobSpaceId The ID of the job space. Pairs in its subspaces are not included
+	 * @param stageNumber The stage to get, or 0 or less to get the primary stage of each pair
+	 * @param since Only pairs with a completion ID greater than this are returned
+	 * @return The pairs that have the given stage, in no particular order
+	 * @throws SQLException
 	 */
-	public static Job getJobForMatrix(int jobId) {
-		return getDetailed(jobId, 0, false);
+	public static List<JobPair> getMatrixPairsInJobSpaceCompletedSince(int jobSpaceId, int stageNumber, int since)
+			throws SQLException {
+		return Common.query("{CALL GetMatrixPairsInJobSpaceCompletedSince(?,?,?)}", procedure -> {
+			procedure.setInt(1, jobSpaceId);
+			procedure.setInt(2, stageNumber);
+			procedure.setInt(3, since);
+		}, results -> readMatrixPairs(results, jobSpaceId, true));
+	}
+
+	/**
+	 * Reads the pairs returned by one of the matrix procedures
+	 */
+	private static List<JobPair> readMatrixPairs(ResultSet results, int jobSpaceId, boolean withCompletionId)
+			throws SQLException {
+		List<JobPair> pairs = new ArrayList<>();
+		Map<Integer, Benchmark> benchmarks = new HashMap<>();
+		Map<Integer, Solver> solvers = new HashMap<>();
+		Map<Integer, Configuration> configs = new HashMap<>();
+		while (results.next()) {
+			JobPair pair = new JobPair();
+			pair.setId(results.getInt("pair_id"));
+			pair.setJobSpaceId(jobSpaceId);
+			if (withCompletionId) {
+				pair.setCompletionId(results.getInt("completion_id"));
+			}
+
+			int benchId = results.getInt("bench_id");
+			Benchmark bench = benchmarks.get(benchId);
+			if (bench == null) {
+				bench = new Benchmark();
+				bench.setId(benchId);
+				bench.setName(results.getString("bench_name"));
+				benchmarks.put(benchId, bench);
+			}
+			pair.setBench(bench);
+
+			int solverId = results.getInt("solver_id");
+			Solver solver = solvers.get(solverId);
+			if (solver == null) {
+				solver = new Solver();
+				solver.setId(solverId);
+				solver.setName(results.getString("solver_name"));
+				solvers.put(solverId, solver);
+			}
+			int configId = results.getInt("config_id");
+			Configuration config = configs.get(configId);
+			if (config == null) {
+				config = new Configuration();
+				config.setId(configId);
+				config.setName(results.getString("config_name"));
+				config.setSolverId(solverId);
+				solver.addConfiguration(config);
+				configs.put(configId, config);
+			}
+
+			JoblineStage stage = new JoblineStage();
+			stage.setStageNumber(results.getInt("stage_number"));
+			stage.getStatus().setCode(results.getInt("status_code"));
+			stage.setCpuUsage(results.getDouble("cpu"));
+			stage.setWallclockTime(results.getDouble("wallclock"));
+			stage.setMaxVirtualMemory(results.getDouble("max_vmem"));
+			stage.setSolver(solver);
+			stage.setConfiguration(config);
+			String result = results.getString("result");
+			if (result != null) {
+				stage.getAttributes().put(R.STAREXEC_RESULT, result);
+			}
+			String expected = results.getString("expected");
+			if (expected != null) {
+				stage.getAttributes().put(R.EXPECTED_RESULT, expected);
+			}
+			pair.addStage(stage);
+			pairs.add(pair);
+		}
+		return pairs;
+	}
+
+	/**
+	 * @param jobSpaceId The ID of a job space
+	 * @return The highest stage number of any pair in the job space, or 0 if it has no pairs
+	 * @throws SQLException
+	 */
+	public static int getMaxStageNumberInJobSpace(int jobSpaceId) throws SQLException {
+		return Common.query("{CALL GetMaxStageNumberInJobSpace(?)}", procedure -> procedure.setInt(1, jobSpaceId),
+		                    results -> results.next() ? results.getInt("max_stage") : 0
+		);
 	}
 
 	private static List<JobPair> getAllPairs(int jobId) {
@@ -3622,11 +4073,13 @@ public class Jobs {
 
 	/**
 	 * Gets all job pairs that are pending or were rejected (up to limit) for the given job and also populates its used
-	 * resource TOs (Worker node, status, benchmark and solver WILL be populated). Gets all stages (except noops)
+	 * resource TOs (Worker node, status, benchmark and solver WILL be populated). Gets all stages (except noops).
+	 * Inputs, dependencies and solver timestamps are loaded for all the pairs at once, so this takes the same number
+	 * of queries however many pairs there are.
 	 *
 	 * @param con The connection to make the query on
 	 * @param j The job to get pairs for. Must have id and using_dependencies set.
-	 * @return A list of job pair objects that belong to the given job.
+	 * @return A list of job pair objects that belong to the given job, in order of ID.
 	 * @author TBebnton
 	 */
 	protected static List<JobPair> getPendingPairsDetailed(Connection con, Job j, int limit) {
@@ -3638,9 +4091,11 @@ public class Jobs {
 			procedure.setInt(1, j.getId());
 			procedure.setInt(2, limit);
 			results = procedure.executeQuery();
-			//we map ID's to  primitives so we don't need to query the database repeatedly for them
-			HashMap<Integer, JobPair> pairs = new HashMap<>();
-			HashMap<Integer, String> solverIdsToTimestamps = new HashMap<>();
+			// pairs come back in order of ID, one row per stage
+			LinkedHashMap<Integer, JobPair> pairs = new LinkedHashMap<>();
+			List<Solver> solvers = new ArrayList<>();
+			int minPairId = Integer.MAX_VALUE;
+			int maxPairId = Integer.MIN_VALUE;
 			while (results.next()) {
 
 				try {
@@ -3658,14 +4113,12 @@ public class Jobs {
 						jp.setStatus(s);
 						Benchmark b = Benchmarks.resultToBenchmarkWithPrefix(results, "benchmarks");
 						b.setUsesDependencies(results.getInt("dependency_count") > 0);
+						b.setHasBrokenDependencies(results.getInt("broken_dependency_count") > 0);
 						jp.setBench(b);
-
-						if (j.isUsingDependencies()) {
-							jp.setBenchInputPaths(JobPairs.getJobPairInputPaths(jp.getId(), con));
-						} else {
-							jp.setBenchInputPaths(new ArrayList<>());
-						}
+						jp.setBenchInputPaths(new ArrayList<>());
 						pairs.put(currentJobPairId, jp);
+						minPairId = Math.min(minPairId, currentJobPairId);
+						maxPairId = Math.max(maxPairId, currentJobPairId);
 					}
 
 					JoblineStage stage = new JoblineStage();
@@ -3685,10 +4138,7 @@ public class Jobs {
 					Solver s = Solvers.resultSetToSolver(results, "solvers");
 					stage.setSolver(s /* could be null, if Solver s above was null */);
 					if (s != null) {
-						if (!solverIdsToTimestamps.containsKey(s.getId())) {
-							solverIdsToTimestamps.put(s.getId(), Solvers.getMostRecentTimestamp(con, s.getId()));
-						}
-						s.setMostRecentUpdate(solverIdsToTimestamps.get(s.getId()));
+						solvers.add(s);
 					}
 				} catch (Exception e) {
 					log.error("getPendingPairsDetailed", "there was an error making a single job pair object", e);
@@ -3696,12 +4146,31 @@ public class Jobs {
 			}
 
 			Common.safeClose(results);
+			if (pairs.isEmpty()) {
+				return new ArrayList<>();
+			}
+
+			// only the job's pending pairs in the range are read, which are the pairs above apart from any that
+			// are waiting on a solver build, so the cost depends on limit and not on how far apart the IDs are
+			Map<Integer, String> solverIdsToTimestamps =
+					Solvers.getMostRecentTimestamps(j.getId(), minPairId, maxPairId, con);
+			for (Solver s : solvers) {
+				s.setMostRecentUpdate(solverIdsToTimestamps.get(s.getId()));
+			}
+			Map<Integer, List<String>> inputPaths = new HashMap<>();
+			Map<Integer, HashMap<Integer, List<PipelineDependency>>> dependencies = new HashMap<>();
+			if (j.isUsingDependencies()) {
+				inputPaths = JobPairs.getJobPairInputPaths(j.getId(), minPairId, maxPairId, con);
+				dependencies = Pipelines.getDependenciesForJobPairs(j.getId(), minPairId, maxPairId, con);
+			}
 
 			for (JobPair jp : pairs.values()) {
-				if (j.isUsingDependencies()) {
-					//populate all the dependencies for the pair
-					HashMap<Integer, List<PipelineDependency>> deps =
-							Pipelines.getDependenciesForJobPair(jp.getId(), con);
+				if (inputPaths.containsKey(jp.getId())) {
+					jp.setBenchInputPaths(inputPaths.get(jp.getId()));
+				}
+				//populate all the dependencies for the pair
+				HashMap<Integer, List<PipelineDependency>> deps = dependencies.get(jp.getId());
+				if (deps != null) {
 					for (JoblineStage stage : jp.getStages()) {
 						if (deps.containsKey(stage.getStageId())) {
 							stage.setDependencies(deps.get(stage.getStageId()));
@@ -3712,9 +4181,7 @@ public class Jobs {
 
 				jp.sortStages();
 			}
-			List<JobPair> returnList = new ArrayList<>();
-			returnList.addAll(pairs.values());
-			return returnList;
+			return new ArrayList<>(pairs.values());
 		} catch (Exception e) {
 			log.error("getPendingPairsDetailed", e);
 		} finally {
@@ -4241,10 +4708,10 @@ public class Jobs {
 
 			log.debug("Killing of job id = " + jobId + " was successful");
 
-			List<JobPair> jobPairsEnqueued = Jobs.getEnqueuedPairs(jobId);
-			for (JobPair jp : jobPairsEnqueued) {
-				JobPairs.killPair(jp.getId(), jp.getBackendExecId());
-			}
+			List<JobPair> jobPairsEnqueued = Jobs.getEnqueuedPairs(con, jobId);
+			killPairs(jobPairsEnqueued);
+			JobPairs.setStatusForJobPairsWithStatus(
+					con, jobId, StatusCode.STATUS_ENQUEUED.getVal(), StatusCode.STATUS_KILLED.getVal());
 
 			log.debug("deletion of killed job pairs from the queue was successful");
 			return true;
@@ -4328,17 +4795,16 @@ public class Jobs {
 
 			log.debug("Pausing of job with id = " + jobId + " was successful");
 
-			//Get the enqueued job pairs and remove them
-			List<JobPair> jobPairsEnqueued = Jobs.getEnqueuedPairs(con, jobId);
-			killPairs(jobPairsEnqueued);
-			numPairs += jobPairsEnqueued.size();
-
-			//Get the running job pairs and remove them
+			//Get the enqueued and running job pairs and remove them
+			List<JobPair> pairs = new ArrayList<>(Jobs.getEnqueuedPairs(con, jobId));
 			List<JobPair> jobPairsRunning = Jobs.getRunningPairs(con, jobId);
 			if (jobPairsRunning != null) {
-				killPairs(jobPairsRunning);
-				numPairs += jobPairsRunning.size();
+				pairs.addAll(jobPairsRunning);
 			}
+			killPairs(pairs);
+			numPairs += pairs.size();
+			JobPairs.setStatusForJobPairsWithStatus(con, jobId, StatusCode.STATUS_ENQUEUED.getVal(), paused);
+			JobPairs.setStatusForJobPairsWithStatus(con, jobId, StatusCode.STATUS_RUNNING.getVal(), paused);
 
 			timer.stop();
 			log.info("Pause job with " + numPairs + " pairs took " + timer.getTime() + " milliseconds");
@@ -4354,12 +4820,18 @@ public class Jobs {
 		return false;
 	}
 
+	/**
+	 * Removes the given pairs from the backend, many at a time. Their statuses are not changed.
+	 *
+	 * @param pairs The pairs to remove. Only their backend execution IDs are used
+	 */
 	private static void killPairs(List<JobPair> pairs) {
+		List<Integer> execIds = new ArrayList<>(pairs.size());
 		for (JobPair jp : pairs) {
-			int execId = jp.getBackendExecId();
-			int pairId = jp.getId();
-			R.BACKEND.killPair(execId);
-			JobPairs.setStatusForPairAndStages(pairId, StatusCode.STATUS_PAUSED.getVal());
+			execIds.add(jp.getBackendExecId());
+		}
+		if (!R.BACKEND.killPairs(execIds)) {
+			log.warn("killPairs", "the backend could not kill all of " + execIds.size() + " pairs");
 		}
 	}
 
@@ -4394,28 +4866,19 @@ public class Jobs {
 			R.BACKEND.killAll();
 			List<Integer> jobs = Jobs.getRunningJobs();
 			if (jobs != null) {
+				// every pair was removed from the backend above, so enqueued and running pairs go back to pending
+				final int pending = StatusCode.STATUS_PENDING_SUBMIT.getVal();
+				final int enqueued = StatusCode.STATUS_ENQUEUED.getVal();
+				final int running = StatusCode.STATUS_RUNNING.getVal();
 				for (Integer jobId : jobs) {
-					//Get the enqueued job pairs and remove them
 					try {
-						List<JobPair> jobPairsEnqueued = Jobs.getEnqueuedPairs(jobId);
-
-						for (JobPair jp : jobPairsEnqueued) {
-							JobPairs.UpdateStatus(jp.getId(), 1);
-						}
+						JobPairs.setStatusForJobPairsWithStatus(con, jobId, enqueued, pending);
+						JobPairs.setStatusForJobPairsWithStatus(con, jobId, running, pending);
 					} catch (SQLException e) {
-						log.warn("Caught SQLException while getting enqueued pairs.");
+						log.warn("pauseAll", "Caught SQLException while resetting the pairs of job " + jobId, e);
 					}
-
-					//Get the running job pairs and remove them
-					List<JobPair> jobPairsRunning = Jobs.getRunningPairs(jobId);
-					log.debug("JPR = " + jobPairsRunning);
-					if (jobPairsRunning != null) {
-						for (JobPair jp : jobPairsRunning) {
-							JobPairs.UpdateStatus(jp.getId(), 1);
-						}
-					}
-					log.debug("Deletion of paused job pairs from queue was successful");
 				}
+				log.debug("Deletion of paused job pairs from queue was successful");
 			}
 
 
@@ -4446,7 +4909,7 @@ public class Jobs {
 			procedure.setInt(1, jobId);
 			procedure.setInt(2, queueId);
 			procedure.executeUpdate();
-
+			SubmissionTrigger.requestSubmission(queueId, "job " + jobId + " moved to queue");
 			return true;
 		} catch (Exception e) {
 			log.error("changeQueue", e);
@@ -4599,6 +5062,116 @@ public class Jobs {
 		}
 	}
 
+	/**
+	 * Adds the stages of one pair to the given stats, creating stats for any stage/configuration that are not there
+	 * yet.
+	 *
+	 * @param jobId The ID of the job the pair is in
+	 * @param stats Stats keyed by getStageConfigHashKey
+	 * @param jp The pair, with its stages populated
+	 * @throws SQLException If the conflicts for a new stage/configuration cannot be counted
+	 */
+	static void addPairToSolverStats(int jobId, Map<String, SolverStats> stats, JobPair jp) throws SQLException {
+		String key;
+		for (JoblineStage stage : jp.getStages()) {
+
+			//we need to exclude noOp stages
+			if (stage.isNoOp()) {
+				continue;
+			}
+
+			//entries in the stats table determined by stage/configuration pairs
+			key = getStageConfigHashKey(stage);
+			log.trace("Got solver stats key: " + key);
+			int configId = stage.getConfiguration().getId();
+
+			// // print status
+			// log.debug( "in Jobs.processPairsToSolverStats(): current configId = " + stage.getConfiguration().getId() +
+			// 		"; current deleted status = " + stage.getConfiguration().getDeleted() );
+
+			int stageNumber = stage.getStageNumber();
+			Integer conflicts = null;
+			if (!stats.containsKey(key)) { // current stats entry does not yet exist
+				SolverStats newSolver = new SolverStats();
+				newSolver.setStageNumber(stage.getStageNumber());
+				newSolver.setSolver(stage.getSolver());
+				newSolver.setConfiguration(stage.getConfiguration());
+				// Compute the number of conflicts and save them in variable in case we need to use them again.
+				conflicts = Solvers.getConflictsForConfigInJobWithStage(jobId, configId, stageNumber);
+				newSolver.setConflicts(conflicts);
+				stats.put(key, newSolver);
+			}
+
+
+			//update stats info for entry that current job-pair belongs to
+			SolverStats curSolver = stats.get(key);
+			addStageToSolverStats(curSolver, stage);
+			if (stage.getStageNumber().equals(jp.getPrimaryStageNumber())) {
+				//if we get here, we need to add this stage to the primary stats as well
+				key = 0 + ":" + String.valueOf(stage.getConfiguration().getId());
+				if (!stats.containsKey(key)) { // current stats entry does not yet exist
+					SolverStats newSolver = new SolverStats();
+					newSolver.setStageNumber(0);
+					newSolver.setSolver(stage.getSolver());
+					newSolver.setConfiguration(stage.getConfiguration());
+					if (conflicts == null) {
+						conflicts = Solvers.getConflictsForConfigInJobWithStage(jobId, configId, stageNumber);
+					}
+					newSolver.setConflicts(conflicts);
+					stats.put(key, newSolver);
+				}
+
+
+				//update stats info for entry that current job-pair belongs to
+				curSolver = stats.get(key);
+			}
+		}
+	}
+
+	/**
+	 * Takes the stages of one pair back out of the given stats. This is the inverse of addPairToSolverStats.
+	 *
+	 * @param stats Stats keyed by getStageConfigHashKey
+	 * @param jp The pair, with its stages populated as they were when it was added
+	 */
+	static void removePairFromSolverStats(Map<String, SolverStats> stats, JobPair jp) {
+		for (JoblineStage stage : jp.getStages()) {
+			if (stage.isNoOp()) {
+				continue;
+			}
+			SolverStats curSolver = stats.get(getStageConfigHashKey(stage));
+			if (curSolver != null) {
+				removeStageFromSolverStats(curSolver, stage);
+			}
+		}
+	}
+
+	private static void removeStageFromSolverStats(SolverStats stats, JoblineStage stage) {
+		StatusCode statusCode = stage.getStatus().getCode();
+
+		if (statusCode.failed()) {
+			stats.setFailedJobPairs(stats.getFailedJobPairs() - 1);
+		}
+		if (statusCode.resource()) {
+			stats.setResourceOutJobPairs(stats.getResourceOutJobPairs() - 1);
+		}
+		if (statusCode.incomplete()) {
+			stats.setIncompleteJobPairs(stats.getIncompleteJobPairs() - 1);
+		}
+		if (statusCode.statComplete()) {
+			stats.setCompleteJobPairs(stats.getCompleteJobPairs() - 1);
+		}
+
+		int correct = JobPairs.isPairCorrect(stage);
+		if (correct == 0) {
+			stats.setWallTime(stats.getWallTime() - stage.getWallclockTime());
+			stats.setCpuTime(stats.getCpuTime() - stage.getCpuTime());
+			stats.setCorrectJobPairs(stats.getCorrectJobPairs() - 1);
+		} else if (correct == 1) {
+			stats.setIncorrectJobPairs(stats.getIncorrectJobPairs() - 1);
+		}
+	}
+
 	/**
 	 * Given a list of JobPairs, compiles them into SolverStats objects.
 	 *
@@ -4615,62 +5188,8 @@ public class Jobs {
 			//solverIdToNumberOfConflicts = buildSolverIdToNumberOfConflictsMap(jobId);
 
 			Hashtable<String, SolverStats> stats = new Hashtable<>();
-			String key;
 			for (JobPair jp : pairs) {
-
-				for (JoblineStage stage : jp.getStages()) {
-
-					//we need to exclude noOp stages
-					if (stage.isNoOp()) {
-						continue;
-					}
-
-					//entries in the stats table determined by stage/configuration pairs
-					key = getStageConfigHashKey(stage);
-					log.trace("Got solver stats key: " + key);
-					int configId = stage.getConfiguration().getId();
-
-					// // print status
-					// log.debug( "in Jobs.processPairsToSolverStats(): current configId = " + stage.getConfiguration().getId() +
-					// 		"; current deleted status = " + stage.getConfiguration().getDeleted() );
-
-					int stageNumber = stage.getStageNumber();
-					Integer conflicts = null;
-					if (!stats.containsKey(key)) { // current stats entry does not yet exist
-						SolverStats newSolver = new SolverStats();
-						newSolver.setStageNumber(stage.getStageNumber());
-						newSolver.setSolver(stage.getSolver());
-						newSolver.setConfiguration(stage.getConfiguration());
-						// Compute the number of conflicts and save them in variable in case we need to use them again.
-						conflicts = Solvers.getConflictsForConfigInJobWithStage(jobId, configId, stageNumber);
-						newSolver.setConflicts(conflicts);
-						stats.put(key, newSolver);
-					}
-
-
-					//update stats info for entry that current job-pair belongs to
-					SolverStats curSolver = stats.get(key);
-					addStageToSolverStats(curSolver, stage);
-					if (stage.getStageNumber().equals(jp.getPrimaryStageNumber())) {
-						//if we get here, we need to add this stage to the primary stats as well
-						key = 0 + ":" + String.valueOf(stage.getConfiguration().getId());
-						if (!stats.containsKey(key)) { // current stats entry does not yet exist
-							SolverStats newSolver = new SolverStats();
-							newSolver.setStageNumber(0);
-							newSolver.setSolver(stage.getSolver());
-							newSolver.setConfiguration(stage.getConfiguration());
-							if (conflicts == null) {
-								conflicts = Solvers.getConflictsForConfigInJobWithStage(jobId, configId, stageNumber);
-							}
-							newSolver.setConflicts(conflicts);
-							stats.put(key, newSolver);
-						}
-
-
-						//update stats info for entry that current job-pair belongs to
-						curSolver = stats.get(key);
-					}
-				}
+				addPairToSolverStats(jobId, stats, jp);
 			}
 
 			stopWatch.stop();
@@ -4738,7 +5257,7 @@ public class Jobs {
 //		return stage.isNoOp() || stage.getStarexecResult().equals(R.STAREXEC_UNKNOWN);
 //	}
 
-	private static String getStageConfigHashKey(JoblineStage stage) {
+	static String getStageConfigHashKey(JoblineStage stage) {
 		return stage.getStageNumber() + ":" + String.valueOf(stage.getConfiguration().getId());
 	}
 
@@ -4875,7 +5394,14 @@ public class Jobs {
 		Connection con = null;
 		try {
 			con = Common.getConnection();
-			return resume(jobId, con);
+			if (!resume(jobId, con)) {
+				return false;
+			}
+			Job j = Jobs.get(jobId);
+			if (j != null && j.getQueue() != null) {
+				SubmissionTrigger.requestSubmission(j.getQueue().getId(), "job " + jobId + " resumed");
+			}
+			return true;
 		} catch (Exception e) {
 			log.error("resume", e);
 		} finally {
@@ -4928,7 +5454,9 @@ public class Jobs {
 			con = Common.getConnection();
 			procedure = con.prepareCall("{CALL ResumeAll()}");
 			procedure.executeUpdate();
-
+			for (org.starexec.data.to.Queue q : Queues.getAllActive()) {
+				SubmissionTrigger.requestSubmission(q.getId(), "system resumed");
+			}
 			return true;
 		} catch (Exception e) {
 			log.error("resumeAll", e);
@@ -5126,6 +5654,7 @@ public class Jobs {
 	 */
 	public static boolean removeCachedJobStats(int jobId, Connection con) {
 		CallableStatement procedure = null;
+		SolverStatsCache.invalidateJob(jobId);
 		try {
 			Job j = Jobs.get(jobId);
 			if (j == null) {
@@ -9,9 +9,11 @@ import org.starexec.logger.StarLogger;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Class responsible for inserting and removing pipelines from the database
@@ -96,6 +98,46 @@ public class Pipelines {
 		return null;
 	}
 
+	/**
+	 * Gets the dependencies of every pending pair of a job with an ID in the given range, in the form
+	 * getDependenciesForJobPair returns them for one pair
+	 *
+	 * @param jobId The ID of the job the pairs are in
+	 * @param minPairId The smallest pair ID to get dependencies for
+	 * @param maxPairId The largest pair ID to get dependencies for
+	 * @param con The open connection to make the call on
+	 * @return A map from pair IDs to maps from stage IDs to the dependencies of that stage. Pairs without any
+	 * dependencies are left out.
+	 * @throws SQLException If the dependencies could not be retrieved
+	 */
+	public static Map<Integer, HashMap<Integer, List<PipelineDependency>>> getDependenciesForJobPairs(
+			int jobId, int minPairId, int maxPairId, Connection con) throws SQLException {
+		CallableStatement procedure = null;
+		ResultSet results = null;
+		try {
+			procedure = con.prepareCall("{CALL GetDependenciesForJobPairsInRange(?, ?, ?)}");
+			procedure.setInt(1, jobId);
+			procedure.setInt(2, minPairId);
+			procedure.setInt(3, maxPairId);
+			results = procedure.executeQuery();
+			Map<Integer, HashMap<Integer, List<PipelineDependency>>> answers = new HashMap<>();
+			while (results.next()) {
+				PipelineDependency dep = new PipelineDependency();
+				dep.setStageId(results.getInt("stage_id"));
+				dep.setDependencyId(results.getInt("input_id"));
+				dep.setType(PipelineInputType.valueOf(results.getInt("input_type")));
+				dep.setInputNumber(results.getInt("input_number"));
+
+				answers.computeIfAbsent(results.getInt("jobpair_id"), k -> new HashMap<>())
+				       .computeIfAbsent(dep.getStageId(), k -> new ArrayList<>()).add(dep);
+			}
+			return answers;
+		} finally {
+			Common.safeClose(procedure);
+			Common.safeClose(results);
+		}
+	}
+
 	/**
 	 * Retrieves a list of stages for the given pipeline. Dependencies ARE populated
 	 *
@@ -0,0 +1,327 @@
+package org.starexec.data.database;
+
+import org.starexec.constants.R;
+import org.starexec.data.database.AnonymousLinks.PrimitivesToAnonymize;
+import org.starexec.data.to.JobPair;
+import org.starexec.data.to.SolverStats;
+import org.starexec.data.to.pipelines.JoblineStage;
+import org.starexec.logger.StarLogger;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Keeps the solver stats of running jobs up to date in memory. The stats for a job space hierarchy are compiled from
+ * every pair the first time they are asked for. After that, pairs are folded in as they complete: the periodic
+ * completion poll calls pollCompletions, which reads only the pairs that have completed since the last poll (found by
+ * completion ID) in jobs that have cached stats. Asking for the stats is then just a lookup. Once a job is complete
+ * its stats are saved to the database by Jobs and this cache is no longer used for it.
+ */
+public class SolverStatsCache {
+	private static final StarLogger log = StarLogger.getLogger(SolverStatsCache.class);
+
+	private static class Entry {
+		final int jobId;
+		final int jobSpaceId;
+		final PrimitivesToAnonymize primitivesToAnonymize;
+
+		boolean built = false;
+		int lastCompletionId = 0;
+		Map<String, SolverStats> stats = new HashMap<>();
+
+		// The pairs that had not completed when the stats were compiled, sorted by ID, and for each one the index in
+		// pendingContributions of a pair whose stages add exactly what that pair added to the stats, or -1 once it
+		// has been replaced. Pending pairs mostly look alike, so this takes a few bytes per pair rather than a
+		// JobPair per pair.
+		int[] pendingPairIds = new int[0];
+		int[] pendingContributionIds = new int[0];
+		List<JobPair> pendingContributions = new ArrayList<>();
+
+		Entry(int jobId, int jobSpaceId, PrimitivesToAnonymize primitivesToAnonymize) {
+			this.jobId = jobId;
+			this.jobSpaceId = jobSpaceId;
+			this.primitivesToAnonymize = primitivesToAnonymize;
+		}
+	}
+
+	// job space ID and anonymization -> stats for that hierarchy, least recently used first
+	private static final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > R.SOLVER_STATS_CACHE_SIZE;
+		}
+	};
+
+	// the newest completion ID seen by pollCompletions, or null if it has not yet run
+	private static Integer lastPolledCompletionId = null;
+
+	/**
+	 * Gets the stats for every stage and configuration in a job space hierarchy of a running job. They are compiled
+	 * from the database the first time they are asked for, and are kept up to date by pollCompletions after that.
+	 *
+	 * @param jobId The ID of the job the space is in
+	 * @param jobSpaceId The ID of the root of the hierarchy
+	 * @param primitivesToAnonymize PrimitivesToAnonymize instance
+	 * @return Copies of the stats, which the caller may modify, or null on error
+	 */
+	static Collection<SolverStats> getStats(int jobId, int jobSpaceId, PrimitivesToAnonymize primitivesToAnonymize) {
+		String key = jobSpaceId + ":" + primitivesToAnonymize;
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry == null) {
+				entry = new Entry(jobId, jobSpaceId, primitivesToAnonymize);
+				entries.put(key, entry);
+			}
+		}
+		synchronized (entry) {
+			try {
+				if (!entry.built) {
+					build(entry);
+				}
+				List<SolverStats> copies = new ArrayList<>();
+				for (SolverStats s : entry.stats.values()) {
+					copies.add(copyOf(s));
+				}
+				return copies;
+			} catch (SQLException e) {
+				log.error("getStats", "jobSpaceId: " + jobSpaceId, e);
+				entry.built = false;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Folds the pairs that have completed since the last call into the cached stats of their jobs. Called by the
+	 * periodic completion poll. When nothing is cached this only reads the newest completion ID. Otherwise it costs
+	 * one indexed range query on job_pair_completion plus, for each cached hierarchy in a job with new completions, a
+	 * query for those completions and a count of conflicts for each configuration they ran.
+	 */
+	public static void pollCompletions() {
+		List<Entry> cached;
+		synchronized (entries) {
+			cached = new ArrayList<>(entries.values());
+		}
+		try {
+			if (lastPolledCompletionId == null) {
+				// stats compiled before the first poll may be missing pairs that completed before this point
+				lastPolledCompletionId = JobPairs.getLatestCompletionId();
+				for (Entry entry : cached) {
+					synchronized (entry) {
+						entry.built = false;
+					}
+				}
+				return;
+			}
+			if (cached.isEmpty()) {
+				// stats compiled from now on include everything up to the latest completion
+				lastPolledCompletionId = JobPairs.getLatestCompletionId();
+				return;
+			}
+			Map<Integer, Integer> jobs = JobPairs.getJobsWithCompletionsSince(lastPolledCompletionId);
+			// conflicts are counted over a whole job, so hierarchies in the same job can share the counts
+			Map<String, Integer> conflicts = new HashMap<>();
+			for (Entry entry : cached) {
+				if (!jobs.containsKey(entry.jobId)) {
+					continue;
+				}
+				try {
+					update(entry, conflicts);
+				} catch (SQLException e) {
+					log.error("pollCompletions", "jobSpaceId: " + entry.jobSpaceId, e);
+					synchronized (entry) {
+						entry.built = false;
+					}
+				}
+			}
+			for (int completionId : jobs.values()) {
+				lastPolledCompletionId = Math.max(lastPolledCompletionId, completionId);
+			}
+		} catch (SQLException e) {
+			log.error("pollCompletions", "could not check for completed pairs", e);
+		}
+	}
+
+	/**
+	 * Drops the stats of every hierarchy in the given job, so that they are compiled from scratch the next time they
+	 * are asked for. Must be called whenever pairs in the job change other than by completing, such as when they
+	 * are rerun or post processed again.
+	 *
+	 * @param jobId The ID of the job
+	 */
+	static void invalidateJob(int jobId) {
+		synchronized (entries) {
+			entries.values().removeIf(e -> e.jobId == jobId);
+		}
+	}
+
+	/**
+	 * Compiles the stats of a hierarchy from every pair in it
+	 */
+	private static void build(Entry entry) throws SQLException {
+		List<JobPair> pairs = Jobs.getJobPairsInJobSpaceHierarchy(entry.jobSpaceId, entry.primitivesToAnonymize);
+		if (pairs == null) {
+			throw new SQLException("could not get the pairs in job space " + entry.jobSpaceId);
+		}
+		Map<String, SolverStats> stats = new HashMap<>();
+		List<JobPair> pending = new ArrayList<>();
+		int lastCompletionId = 0;
+		for (JobPair jp : pairs) {
+			Jobs.addPairToSolverStats(entry.jobId, stats, jp);
+			if (jp.getCompletionId() == 0) {
+				pending.add(jp);
+			}
+			lastCompletionId = Math.max(lastCompletionId, jp.getCompletionId());
+		}
+		pending.sort(Comparator.comparingInt(JobPair::getId));
+
+		int[] pendingPairIds = new int[pending.size()];
+		int[] pendingContributionIds = new int[pending.size()];
+		List<JobPair> pendingContributions = new ArrayList<>();
+		Map<String, Integer> contributionIds = new HashMap<>();
+		for (int i = 0; i < pending.size(); i++) {
+			JobPair jp = pending.get(i);
+			String contribution = describeContribution(jp);
+			Integer id = contributionIds.get(contribution);
+			if (id == null) {
+				id = pendingContributions.size();
+				pendingContributions.add(jp);
+				contributionIds.put(contribution, id);
+			}
+			pendingPairIds[i] = jp.getId();
+			pendingContributionIds[i] = id;
+		}
+
+		entry.stats = stats;
+		entry.pendingPairIds = pendingPairIds;
+		entry.pendingContributionIds = pendingContributionIds;
+		entry.pendingContributions = pendingContributions;
+		entry.lastCompletionId = lastCompletionId;
+		entry.built = true;
+		log.debug("build", "compiled stats for job space " + entry.jobSpaceId + " from " + pairs.size() + " pairs, " +
+		                   pending.size() + " pending");
+	}
+
+	/**
+	 * Folds the pairs in a hierarchy that have completed since its stats were last updated into them. The pairs are
+	 * read and the conflicts counted without holding the entry's lock, so reading the stats does not wait on the
+	 * database.
+	 *
+	 * @param conflicts Conflict counts already made during this poll, keyed by job, configuration and stage. Counts
+	 * made here are added to it.
+	 */
+	private static void update(Entry entry, Map<String, Integer> conflicts) throws SQLException {
+		int since;
+		synchronized (entry) {
+			if (!entry.built) {
+				return;
+			}
+			since = entry.lastCompletionId;
+		}
+		List<JobPair> pairs = Jobs.getJobPairsInJobSpaceHierarchyCompletedSince(
+				entry.jobSpaceId, since, entry.primitivesToAnonymize);
+		if (pairs == null) {
+			throw new SQLException("could not get the completed pairs in job space " + entry.jobSpaceId);
+		}
+		if (pairs.isEmpty()) {
+			return;
+		}
+		// stats key -> (configuration ID, stage number) to count conflicts for
+		Map<String, int[]> touched = new HashMap<>();
+		synchronized (entry) {
+			if (!entry.built || entry.lastCompletionId != since) {
+				// the stats were compiled again while the pairs were read, and already include them
+				return;
+			}
+			for (JobPair jp : pairs) {
+				int index = Arrays.binarySearch(entry.pendingPairIds, jp.getId());
+				if (index < 0 || entry.pendingContributionIds[index] < 0) {
+					// the pair was already counted as complete, so it must have been rerun since. Compile the stats
+					// from scratch the next time they are asked for.
+					entry.built = false;
+					return;
+				}
+				Jobs.removePairFromSolverStats(entry.stats,
+				                               entry.pendingContributions.get(entry.pendingContributionIds[index]));
+				entry.pendingContributionIds[index] = -1;
+				Jobs.addPairToSolverStats(entry.jobId, entry.stats, jp);
+				entry.lastCompletionId = Math.max(entry.lastCompletionId, jp.getCompletionId());
+
+				for (JoblineStage stage : jp.getStages()) {
+					if (stage.isNoOp()) {
+						continue;
+					}
+					int[] configAndStage = {stage.getConfiguration().getId(), stage.getStageNumber()};
+					touched.put(Jobs.getStageConfigHashKey(stage), configAndStage);
+					if (stage.getStageNumber().equals(jp.getPrimaryStageNumber())) {
+						touched.put(0 + ":" + stage.getConfiguration().getId(), configAndStage);
+					}
+				}
+			}
+		}
+		// a new result can make a benchmark conflicting for every configuration that ran it, anywhere in the job,
+		// so conflicts are counted again rather than folded in
+		Map<String, Integer> counts = new HashMap<>();
+		for (Map.Entry<String, int[]> t : touched.entrySet()) {
+			int[] configAndStage = t.getValue();
+			String conflictKey = entry.jobId + ":" + configAndStage[0] + ":" + configAndStage[1];
+			Integer count = conflicts.get(conflictKey);
+			if (count == null) {
+				count = Solvers.getConflictsForConfigInJobWithStage(entry.jobId, configAndStage[0], configAndStage[1]);
+				conflicts.put(conflictKey, count);
+			}
+			counts.put(t.getKey(), count);
+		}
+		synchronized (entry) {
+			for (Map.Entry<String, Integer> c : counts.entrySet()) {
+				SolverStats s = entry.stats.get(c.getKey());
+				if (s != null) {
+					s.setConflicts(c.getValue());
+				}
+			}
+		}
+		log.debug("update", "folded " + pairs.size() + " completed pairs into stats for job space " +
+		                    entry.jobSpaceId);
+	}
+
+	/**
+	 * Describes everything about a pair that addPairToSolverStats looks at, so that pairs that add the same thing to
+	 * the stats have the same description.
+	 */
+	private static String describeContribution(JobPair jp) {
+		StringBuilder sb = new StringBuilder();
+		for (JoblineStage stage : jp.getStages()) {
+			if (stage.isNoOp()) {
+				continue;
+			}
+			sb.append(Jobs.getStageConfigHashKey(stage)).append(',');
+			sb.append(stage.getStatus().getCode().getVal()).append(',');
+			int correct = JobPairs.isPairCorrect(stage);
+			sb.append(correct);
+			if (correct == 0) {
+				sb.append(',').append(stage.getWallclockTime()).append(',').append(stage.getCpuTime());
+			}
+			sb.append(';');
+		}
+		return sb.toString();
+	}
+
+	private static SolverStats copyOf(SolverStats s) {
+		SolverStats copy = new SolverStats();
+		copy.setSolver(s.getSolver());
+		copy.setConfiguration(s.getConfiguration());
+		copy.setStageNumber(s.getStageNumber());
+		copy.setJobSpaceId(s.getJobSpaceId());
+		copy.setConflicts(s.getConflicts());
+		copy.setCompleteJobPairs(s.getCompleteJobPairs());
+		copy.setFailedJobPairs(s.getFailedJobPairs());
+		copy.setIncompleteJobPairs(s.getIncompleteJobPairs());
+		copy.setResourceOutJobPairs(s.getResourceOutJobPairs());
+		copy.setCorrectJobPairs(s.getCorrectJobPairs());
+		copy.setIncorrectJobPairs(s.getIncorrectJobPairs());
+		copy.setWallTime(s.getWallTime());
+		copy.setCpuTime(s.getCpuTime());
+		return copy;
+	}
+}
@@ -20,6 +20,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.Date;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -2348,6 +2349,39 @@ public class Solvers {
 		return null;
 	}
 
+	/**
+	 * Gets the most recent configuration timestamp, as getMostRecentTimestamp does, of every solver used by a
+	 * pending pair of a job with an ID in the given range
+	 *
+	 * @param jobId The ID of the job the pairs are in
+	 * @param minPairId The smallest pair ID to get the solvers of
+	 * @param maxPairId The largest pair ID to get the solvers of
+	 * @param con The open connection to make the call on
+	 * @return A map from solver IDs to timestamps
+	 * @throws SQLException If the timestamps could not be retrieved
+	 */
+	public static Map<Integer, String> getMostRecentTimestamps(
+			int jobId, int minPairId, int maxPairId, Connection con) throws SQLException {
+		CallableStatement procedure = null;
+		ResultSet results = null;
+		try {
+			procedure = con.prepareCall("{CALL GetMaxConfigTimestampsForJobPairsInRange(?, ?, ?)}");
+			procedure.setInt(1, jobId);
+			procedure.setInt(2, minPairId);
+			procedure.setInt(3, maxPairId);
+			results = procedure.executeQuery();
+			Map<Integer, String> timestamps = new HashMap<>();
+			while (results.next()) {
+				Timestamp t = results.getTimestamp("recent");
+				timestamps.put(results.getInt("solver_id"), t == null ? "0000-00-00" : t.toString());
+			}
+			return timestamps;
+		} finally {
+			Common.safeClose(procedure);
+			Common.safeClose(results);
+		}
+	}
+
 	/**
 	 * Returns the path on disk to where a new solver should be stored
 	 *
@@ -2448,19 +2482,35 @@ public class Solvers {
 		if (Util.isNullOrEmpty(searchQuery)) {
 			return solvers;
 		}
-		searchQuery = searchQuery.toLowerCase();
+		Predicate<Solver> filter = getSolverFilter(searchQuery);
 		List<Solver> filteredSolvers = new ArrayList<>();
 		for (Solver s : solvers) {
+			if (filter.test(s)) {
+				filteredSolvers.add(s);
+			}
+		}
+		return filteredSolvers;
+	}
+
+	/**
+	 * Gets the test used by filterSolvers, so that solvers can be filtered without building a new list
+	 *
+	 * @param searchQuery Query for the solvers. Not case sensitive. Every solver passes if it is empty
+	 * @return A test that solvers whose name or description includes the query pass
+	 */
+	protected static Predicate<Solver> getSolverFilter(String searchQuery) {
+		if (Util.isNullOrEmpty(searchQuery)) {
+			return s -> true;
+		}
+		final String query = searchQuery.toLowerCase();
+		return s -> {
 			try {
-				if (s.getName().toLowerCase().contains(searchQuery) ||
-						s.getDescription().toLowerCase().contains(searchQuery)) {
-					filteredSolvers.add(s);
-				}
+				return s.getName().toLowerCase().contains(query) || s.getDescription().toLowerCase().contains(query);
 			} catch (Exception e) {
 				log.warn("filtering solvers had an exception for solver id= " + s.getId());
+				return false;
 			}
-		}
-		return filteredSolvers;
+		};
 	}
 
 	/**
@@ -2478,12 +2528,10 @@ public class Solvers {
 		final String methodName = "getSolversForNextPageByUser";
 		List<Solver> solvers = Solvers.getByUser(userId);
 
-		totals[0] = solvers.size();
-		solvers = Solvers.filterSolvers(solvers, query.getSearchQuery());
-
-		totals[1] = solvers.size();
 		SolverComparator compare = new SolverComparator(query.getSortColumn(), query.isSortASC());
-		return Util.handlePagination(solvers, compare, query.getStartingRecord(), query.getNumRecords());
+		return Util.handlePagination(solvers, s -> true, getSolverFilter(query.getSearchQuery()), compare,
+		                             query.getStartingRecord(), query.getNumRecords(), totals
+		);
 	}
 
 	/**
@@ -16,7 +16,6 @@ import org.starexec.util.dataStructures.TreeNode;
 import java.io.IOException;
 import java.sql.*;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Handles all database interaction for spaces
@@ -215,151 +214,6 @@ public class Spaces {
 		return -1;
 	}
 
-	/**
-	 * Clears entries from the job space closure table that haven't been used in more than the given number of days
-	 *
-	 * @param daysOlderThan
-	 * @return True on success and false otherwise
-	 */
-	public static boolean clearJobClosureEntries(int daysOlderThan) {
-		Timestamp cutoffTime = new Timestamp(
-				System.currentTimeMillis() - (TimeUnit.MILLISECONDS.convert(daysOlderThan, TimeUnit.DAYS)));
-		Connection con = null;
-		CallableStatement procedure = null;
-		try {
-			con = Common.getConnection();
-			procedure = con.prepareCall("{CALL ClearOldJobClosureEntries(?)}");
-			procedure.setTimestamp(1, cutoffTime);
-			procedure.executeUpdate();
-			return true;
-		} catch (Exception e) {
-			log.error("clearJobClosureEntries", e);
-		} finally {
-			Common.safeClose(con);
-			Common.safeClose(procedure);
-		}
-		return false;
-	}
-
-	/**
-	 * Adds a given ancestor / descendant pair to the job space closure table
-	 *
-	 * @param ancestor
-	 * @param descendant
-	 * @param time
-	 * @param con
-	 * @return
-	 */
-	private static boolean addToJobSpaceClosure(int ancestor, int descendant, Timestamp time, Connection con) {
-		CallableStatement procedure = null;
-		try {
-			procedure = con.prepareCall("{CALL InsertIntoJobSpaceClosure(?,?,?)}");
-			procedure.setInt(1, ancestor);
-			procedure.setInt(2, descendant);
-			procedure.setTimestamp(3, time);
-			procedure.executeUpdate();
-			return true;
-		} catch (Exception e) {
-			log.error("addToJobSpaceClosure", e);
-		} finally {
-			Common.safeClose(procedure);
-		}
-		return false;
-	}
-
-	/**
-	 * Checks to see whether a specific ancestor is in the job space closure table. If it does exist, the last_used
-	 * column is updated
-	 *
-	 * @param jobSpaceId
-	 * @return
-	 */
-	private static boolean jobSpaceAncestorExists(int jobSpaceId) {
-		Connection con = null;
-		CallableStatement procedure = null;
-		ResultSet results = null;
-		try {
-			Timestamp time = new Timestamp(System.currentTimeMillis());
-			con = Common.getConnection();
-			procedure = con.prepareCall("{CALL RefreshEntriesByAncestor(?,?)}");
-			procedure.setInt(1, jobSpaceId);
-			procedure.setTimestamp(2, time);
-			results = procedure.executeQuery();
-			if (results.next()) {
-				//it exists if there is an entry
-				return results.getInt("count") > 0;
-			}
-		} catch (Exception e) {
-			log.error("jobSpaceAncestorExists", "jobSpaceId="+jobSpaceId, e);
-		} finally {
-			Common.safeClose(con);
-			Common.safeClose(procedure);
-			Common.safeClose(results);
-		}
-		return false;
-	}
-
-	/**
-	 * Adds every entry necessary in the closure table where the given space is the root. If the entries are already
-	 * present, this function just returns true
-	 *
-	 * @param jobSpaceId
-	 */
-	public static void updateJobSpaceClosureTable(int jobSpaceId) {
-		int callID = new Random().nextInt();
-		log.debug("beginning updateJobSpaceClosureTable " + callID);
-		if (jobSpaceAncestorExists(jobSpaceId)) {
-			//don't update-- it is already present
-			log.debug("closure entries were already present");
-			return;
-		}
-		Connection con = null;
-		try {
-			con = Common.getConnection();
-			Common.beginTransaction(con);
-			boolean success = updateJobSpaceClosureTable(jobSpaceId, con);
-			if (!success) {
-				Common.doRollback(con);
-				log.debug("ending with error updateJobSpaceClosureTable " + callID);
-
-				return;
-			}
-			Common.endTransaction(con);
-			log.debug("ending successfully updateJobSpaceClosureTable " + callID);
-		} catch (Exception e) {
-			Common.doRollback(con);
-			log.error("updateJobSpaceClosureTable", e);
-		} finally {
-			Common.safeClose(con);
-		}
-	}
-
-	/**
-	 * Adds every entry necessary in the closure table where the given space is the root
-	 *
-	 * @param jobSpaceId
-	 * @return
-	 */
-	private static boolean updateJobSpaceClosureTable(int jobSpaceId, Connection con) {
-		try {
-			Timestamp time = new Timestamp(System.currentTimeMillis());
-			JobSpace root = new JobSpace();
-			root.setId(jobSpaceId);
-			List<JobSpace> spaces = Spaces.getSubSpacesForJob(jobSpaceId, true);
-			spaces.add(root);
-			for (JobSpace s : spaces) {
-				boolean success = addToJobSpaceClosure(root.getId(), s.getId(), time, con);
-				if (!success) {
-					return false;
-				}
-			}
-			return true;
-		} catch (Exception e) {
-			log.error("updateJobSpaceClosureTable", e);
-		}
-		return false;
-	}
-
 	/**
 	 * Adds a new job space to the job space table
 	 *
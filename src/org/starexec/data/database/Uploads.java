@@ -1,9 +1,11 @@
 package org.starexec.data.database;
 
+import org.starexec.constants.R;
 import org.starexec.data.to.Benchmark;
 import org.starexec.data.to.BenchmarkUploadStatus;
 import org.starexec.data.to.SpaceXMLUploadStatus;
 import org.starexec.logger.StarLogger;
+import org.starexec.util.Timer;
 
 import java.sql.CallableStatement;
 import java.sql.Connection;
@@ -693,6 +695,56 @@ public class Uploads {
 		}
 	}
 
+	/**
+	 * Counts validated and failed benchmarks for an upload status from any number of threads, and adds the counts to
+	 * the database at most once every R.UPLOAD_STATUS_TIME_BETWEEN_UPDATES milliseconds, plus once more when flush is
+	 * called at the end.
+	 */
+	public static class BenchmarkValidationCounter {
+		private final Integer statusId;
+		private final Timer timer = new Timer();
+		private int validated = 0;
+		private int failed = 0;
+
+		/**
+		 * @param statusId The ID of the upload status to update, or null to count nothing
+		 */
+		public BenchmarkValidationCounter(Integer statusId) {
+			this.statusId = statusId;
+		}
+
+		public synchronized void addValidated() {
+			validated++;
+			flushIfDue();
+		}
+
+		public synchronized void addFailed() {
+			failed++;
+			flushIfDue();
+		}
+
+		private void flushIfDue() {
+			if (timer.getTime() > R.UPLOAD_STATUS_TIME_BETWEEN_UPDATES) {
+				flush();
+			}
+		}
+
+		/**
+		 * Adds the counts since the last update to the database
+		 */
+		public synchronized void flush() {
+			if (validated > 0) {
+				incrementValidatedBenchmarks(statusId, validated);
+				validated = 0;
+			}
+			if (failed > 0) {
+				incrementFailedBenchmarks(statusId, failed);
+				failed = 0;
+			}
+			timer.reset();
+		}
+	}
+
 	/**
 	 * Adds 1 to the count of validated benchmarks when a benchmark is processed and validated.  Benchmark must
 	 * still be
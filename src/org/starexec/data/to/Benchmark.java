@@ -28,6 +28,7 @@ public class Benchmark extends Identifiable implements Nameable, Locatable {
 	private boolean deleted;
 	private boolean recycled;
 	private Boolean usesDependencies = null;
+	private Boolean hasBrokenDependencies = null;
 	private List<BenchmarkDependency> dependencies = null;
 
 	public Benchmark() {
@@ -190,6 +191,18 @@ public class Benchmark extends Identifiable implements Nameable, Locatable {
 		this.usesDependencies = usesDependencies;
 	}
 
+	/**
+	 * @return True if some dependency of this benchmark has been deleted or recycled, false if not, and null if
+	 * this was not retrieved along with the benchmark.
+	 */
+	public Boolean getHasBrokenDependencies() {
+		return hasBrokenDependencies;
+	}
+
+	public void setHasBrokenDependencies(Boolean hasBrokenDependencies) {
+		this.hasBrokenDependencies = hasBrokenDependencies;
+	}
+
 	public List<BenchmarkDependency> getDependencies() {
 		return dependencies;
 	}
@@ -10,6 +10,7 @@ import org.starexec.data.to.pipelines.JoblineStage;
 import org.starexec.data.to.pipelines.StageAttributes;
 import org.starexec.logger.StarLogger;
 import org.starexec.util.Util;
+import org.starexec.util.dataStructures.ConcatenatedList;
 
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -66,7 +67,7 @@ public class Job extends Identifiable implements Iterable<JobPair>, Nameable {
 	private String outputBenchmarksPath;
 
 	public Job() {
-		jobPairs = new LinkedList<>();
+		jobPairs = new ConcatenatedList<>();
 
 		queue = new Queue();
 		setStageAttributes(new ArrayList<>());
@@ -212,6 +213,10 @@ public class Job extends Identifiable implements Iterable<JobPair>, Nameable {
 		return attrs;
 	}
 
+	/**
+	 * @param pairs the job pairs to add to the job. A list that allows fast access by index is kept rather than
+	 * copied, so it must not be changed afterwards.
+	 */
 	public void addJobPairs(Collection<JobPair> pairs) {
 		jobPairs.addAll(pairs);
 	}
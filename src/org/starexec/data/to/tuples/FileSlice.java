@@ -0,0 +1,18 @@
+package org.starexec.data.to.tuples;
+
+// Simple tuple holding part of a text file: the text, the byte offsets in the file where it starts and ends (end is
+// exclusive), and the size of the whole file in bytes. The next slice of the file starts at end.
+public class FileSlice {
+
+	public final String text;
+	public final long start;
+	public final long end;
+	public final long size;
+
+	public FileSlice(String text, long start, long end, long size) {
+		this.text = text;
+		this.start = start;
+		this.end = end;
+		this.size = size;
+	}
+}
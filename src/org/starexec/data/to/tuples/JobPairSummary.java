@@ -0,0 +1,16 @@
+package org.starexec.data.to.tuples;
+
+// Simple tuple describing a set of job pairs: how many there are, the newest completion ID among them, and the most
+// stages any one of them has.
+public class JobPairSummary {
+
+	public final int pairCount;
+	public final int maxCompletionId;
+	public final int maxStages;
+
+	public JobPairSummary(int pairCount, int maxCompletionId, int maxStages) {
+		this.pairCount = pairCount;
+		this.maxCompletionId = maxCompletionId;
+		this.maxStages = maxStages;
+	}
+}
@@ -0,0 +1,18 @@
+package org.starexec.data.to.tuples;
+
+import java.util.Properties;
+
+// Simple tuple holding the attributes a post processor produced for one stage of a job pair. The attributes are null
+// if the post processor could not be run.
+public class PostProcessedStage {
+
+	public final int pairId;
+	public final int stageNumber;
+	public final Properties attributes;
+
+	public PostProcessedStage(int pairId, int stageNumber, Properties attributes) {
+		this.pairId = pairId;
+		this.stageNumber = stageNumber;
+		this.attributes = attributes;
+	}
+}
@@ -0,0 +1,18 @@
+package org.starexec.data.to.tuples;
+
+import java.sql.Timestamp;
+
+// Simple tuple describing pairs that completed on a queue: the queue ID, the newest completion ID seen on the
+// queue, and the earliest end time of those pairs.
+public class QueueCompletions {
+
+	public final int queueId;
+	public final int lastCompletionId;
+	public final Timestamp firstEndTime;
+
+	public QueueCompletions(int queueId, int lastCompletionId, Timestamp firstEndTime) {
+		this.queueId = queueId;
+		this.lastCompletionId = lastCompletionId;
+		this.firstEndTime = firstEndTime;
+	}
+}
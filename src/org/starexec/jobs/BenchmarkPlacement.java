@@ -0,0 +1,73 @@
+package org.starexec.jobs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chooses a node to prefer for each pair submitted during one run of the job manager, based on which nodes hold the
+ * pair's benchmark in their benchmark cache. The preference is only a hint to the backend, which can still run the
+ * pair anywhere. So that the pairs of a popular benchmark do not all wait on the one node that holds it, no more than
+ * perNodeLimit pairs are sent to each node; pairs past that get no preference.
+ */
+public class BenchmarkPlacement {
+	private final Map<Integer, List<String>> benchToNodes = new HashMap<>();
+	private final Map<String, Integer> nodeToAssigned = new HashMap<>();
+	private final int perNodeLimit;
+
+	/**
+	 * @param perNodeLimit The most pairs that will be sent to any one node
+	 */
+	public BenchmarkPlacement(int perNodeLimit) {
+		this.perNodeLimit = perNodeLimit;
+	}
+
+	/**
+	 * @param cachedNodes A map from benchmark IDs to the names of the nodes that hold them in their cache
+	 */
+	public void addCachedNodes(Map<Integer, List<String>> cachedNodes) {
+		for (Map.Entry<Integer, List<String>> entry : cachedNodes.entrySet()) {
+			List<String> nodes = benchToNodes.computeIfAbsent(entry.getKey(), k -> new ArrayList<>());
+			for (String node : entry.getValue()) {
+				if (!nodes.contains(node)) {
+					nodes.add(node);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Chooses the node that a pair using the given benchmark should be sent to and counts the pair against it. Of the
+	 * nodes that hold the benchmark, the one that has been sent the fewest pairs so far is chosen.
+	 *
+	 * @param benchId The ID of the pair's benchmark
+	 * @return The name of the node, or null if no node holding the benchmark can take another pair
+	 */
+	public String choose(int benchId) {
+		List<String> nodes = benchToNodes.get(benchId);
+		if (nodes == null) {
+			return null;
+		}
+		String best = null;
+		int bestAssigned = perNodeLimit;
+		for (String node : nodes) {
+			int assigned = nodeToAssigned.getOrDefault(node, 0);
+			if (assigned < bestAssigned) {
+				best = node;
+				bestAssigned = assigned;
+			}
+		}
+		if (best != null) {
+			nodeToAssigned.put(best, bestAssigned + 1);
+		}
+		return best;
+	}
+
+	/**
+	 * @return The number of benchmarks that some node holds
+	 */
+	public int getCachedBenchmarkCount() {
+		return benchToNodes.size();
+	}
+}
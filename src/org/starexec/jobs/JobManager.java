@@ -30,6 +30,13 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -42,19 +49,34 @@ public abstract class JobManager {
 
 	private static String mainTemplate = null; // initialized below
 
-	private static Map<Integer, LoadBalanceMonitor> queueToMonitor = new HashMap<>();
+	private static volatile Map<Integer, LoadBalanceMonitor> queueToMonitor = new ConcurrentHashMap<>();
+
+	// held for reading while scheduling a queue and for writing while clearing all load balancing data
+	private static final ReadWriteLock monitorsLock = new ReentrantReadWriteLock();
+
+	// schedules each queue on its own worker thread
+	private static final QueueScheduler queueScheduler = new QueueScheduler(R.QUEUE_SCHEDULER_THREADS);
+
+	// writes job scripts for the pairs in a submission batch in parallel
+	private static final ExecutorService scriptWriterPool = Executors.newFixedThreadPool(R.JOB_SCRIPT_WRITER_THREADS);
+
+	// guards creation of the directory that saved output benchmarks go to, which happens on the writer threads
+	private static final Object outputBenchmarksPathLock = new Object();
 
 	/**
 	 * Returns the string representation of the LoadBalanceMonitor for the given queue.
 	 *
 	 * @param queueId
-	 * @return The string. Note that it may be slightly out of date, as it is only updated once per run of
-	 * JobManager.submitJobs.
+	 * @return The string, rendered from the loads as of the last run of JobManager.submitJobs on the queue.
 	 */
 	public static String getLoadRepresentationForQueue(int queueId) {
 		log.debug("getLoadRepresentationForQueue", "retrieving load data for queue: " + queueId);
 		if (queueToMonitor.containsKey(queueId)) {
-			return queueToMonitor.get(queueId).toString();
+			String idleTimes = SubmissionTrigger.getIdleTimeRepresentation(queueId);
+			if (idleTimes.isEmpty()) {
+				return queueToMonitor.get(queueId).toString();
+			}
+			return queueToMonitor.get(queueId).toString() + "\n" + idleTimes;
 		}
 		String knownQueues = queueToMonitor.keySet().toString();
 		log.warn(
@@ -67,73 +89,138 @@ public abstract class JobManager {
 
 	/**
 	 * Completely clears all load data from memory and also from the database.
-	 * This function is synchronized to prevent concurrent modification
-	 * of the queueToMonitor structure between this and the SubmitJobs
-	 * function.
+	 * This waits for any queues that are being scheduled to finish, so that
+	 * the load data is not cleared halfway through a scheduling run.
 	 */
-	public synchronized static void clearLoadBalanceMonitors() {
+	public static void clearLoadBalanceMonitors() {
 		log.debug("Clearing out all load balancing data");
-		queueToMonitor = new HashMap<>();
-		JobPairs.getAndClearTimeDeltas(-1);
+		monitorsLock.writeLock().lock();
+		try {
+			queueToMonitor = new ConcurrentHashMap<>();
+			JobPairs.getAndClearTimeDeltas(-1);
+		} finally {
+			monitorsLock.writeLock().unlock();
+		}
 	}
 
-	public synchronized static void checkPendingJobs() {
+	/**
+	 * Submits pending pairs to every active queue. Each queue is scheduled on its own worker thread, and this
+	 * function returns once all of them are done.
+	 */
+	public static void checkPendingJobs() {
 		Timer timer = new Timer();
 		try {
-			Boolean devJobsOnly = false;
-			log.debug("about to check if the system is paused");
-			if (Jobs.isSystemPaused()) {
-				if (Queues.developerJobsExist()) {
-					log.info("Submitting only developer jobs");
-					devJobsOnly = true;
-				} else {
-					log.info("Not adding more job pairs to any queues, as the system is paused");
-					return;
-				}
+			Boolean devJobsOnly = getDevJobsOnly();
+			if (devJobsOnly == null) {
+				return;
 			}
 			Common.logConnectionsOpen();
 			log.debug("about to get all queues");
 
 			List<Queue> queues = Queues.getAllActive();
 			log.debug("found this many queues " + queues.size());
-			for (Queue q : queues) {
-				log.debug("about to submit to queue " + q.getId());
-				int qId = q.getId();
-				String qname = q.getName();
-				int nodeCount = Queues.getNodes(qId).size();
-				int queueSize = Queues.getSizeOfQueue(qId);
-				log.debug("trying to submit on queue " + qId + " with " + nodeCount + " nodes and " + queueSize +
-				          " pairs");
-				if (queueSize < R.NODE_MULTIPLIER * nodeCount) {
-					List<Job> joblist;
-					if (devJobsOnly) {
-						joblist = Queues.getPendingDeveloperJobs(qId);
-					} else {
-						joblist = Queues.getPendingJobs(qId);
-					}
-					if (!joblist.isEmpty() || joblist != null) {
-						log.debug("about to submit this many jobs " + joblist.size());
-						submitJobs(joblist, q, queueSize, nodeCount);
-					} else {
-						// If we have no jobs to submit, reset the queue monitor
-						// so that it is no longer tracking users. This strategy ensures
-						// that it is always in the user's best interest to run job pairs.
-						LoadBalanceMonitor m = queueToMonitor.get(q.getId());
-						if (m != null) {
-							log.info("No jobs to submit, resetting monitor for queue with id: " + q.getId());
-							m.reset();
-							m.setUserLoadDataFormattedString();
-						}
-					}
-				} else {
-					log.info("Not adding more job pairs to queue " + qname + ", which has " + queueSize +
-					         " pairs enqueued.");
+			queueScheduler.runOnQueues(queues, q -> checkPendingJobsOnQueue(q, devJobsOnly));
+		} catch (Exception e) {
+			log.error("checkPendingJobs", e);
+		} finally {
+			log.info("checkPendingJobs", "Finished in " + timer.getTime() + " milliseconds");
+		}
+	}
+
+	/**
+	 * Submits pending pairs to the given queues. Used by SubmissionTrigger to fill queues as soon as slots free up
+	 * on them, rather than waiting for the next periodic run of checkPendingJobs.
+	 *
+	 * @param queueIds The IDs of the queues to submit pairs to
+	 */
+	public static void checkPendingJobs(Collection<Integer> queueIds) {
+		Timer timer = new Timer();
+		try {
+			Boolean devJobsOnly = getDevJobsOnly();
+			if (devJobsOnly == null) {
+				return;
+			}
+			List<Queue> queues = new ArrayList<>();
+			for (int queueId : queueIds) {
+				Queue q = Queues.get(queueId);
+				if (q == null || !R.QUEUE_STATUS_ACTIVE.equals(q.getStatus())) {
+					log.debug("checkPendingJobs", "not submitting to inactive or missing queue " + queueId);
+					continue;
 				}
+				queues.add(q);
 			}
+			queueScheduler.runOnQueues(queues, q -> checkPendingJobsOnQueue(q, devJobsOnly));
 		} catch (Exception e) {
 			log.error("checkPendingJobs", e);
 		} finally {
-			log.info("checkPendingJobs", "Finished in " + timer.getTime() + " milliseconds");
+			log.info("checkPendingJobs", "Finished queues " + queueIds + " in " + timer.getTime() + " milliseconds");
+		}
+	}
+
+	/**
+	 * Checks whether the system is paused.
+	 *
+	 * @return null if no pairs should be submitted at all, true if only developer jobs should be submitted, and
+	 * false if all jobs should be submitted.
+	 */
+	private static Boolean getDevJobsOnly() {
+		log.debug("about to check if the system is paused");
+		if (Jobs.isSystemPaused()) {
+			if (Queues.developerJobsExist()) {
+				log.info("Submitting only developer jobs");
+				return true;
+			} else {
+				log.info("Not adding more job pairs to any queues, as the system is paused");
+				return null;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Submits pending pairs to one queue. Called on a QueueScheduler worker, which ensures that no other thread is
+	 * scheduling the same queue.
+	 */
+	private static void checkPendingJobsOnQueue(Queue q, boolean devJobsOnly) {
+		monitorsLock.readLock().lock();
+		try {
+			submitPendingJobsToQueue(q, devJobsOnly);
+		} finally {
+			monitorsLock.readLock().unlock();
+		}
+	}
+
+	private static void submitPendingJobsToQueue(Queue q, boolean devJobsOnly) {
+		log.debug("about to submit to queue " + q.getId());
+		int qId = q.getId();
+		String qname = q.getName();
+		int nodeCount = Queues.getNodes(qId).size();
+		int queueSize = Queues.getSizeOfQueue(qId);
+		log.debug("trying to submit on queue " + qId + " with " + nodeCount + " nodes and " + queueSize +
+		          " pairs");
+		if (queueSize < R.NODE_MULTIPLIER * nodeCount) {
+			List<Job> joblist;
+			if (devJobsOnly) {
+				joblist = Queues.getPendingDeveloperJobs(qId);
+			} else {
+				joblist = Queues.getPendingJobs(qId);
+			}
+			if (!joblist.isEmpty() || joblist != null) {
+				log.debug("about to submit this many jobs " + joblist.size());
+				submitJobs(joblist, q, queueSize, nodeCount);
+			} else {
+				// If we have no jobs to submit, reset the queue monitor
+				// so that it is no longer tracking users. This strategy ensures
+				// that it is always in the user's best interest to run job pairs.
+				LoadBalanceMonitor m = queueToMonitor.get(q.getId());
+				if (m != null) {
+					log.info("No jobs to submit, resetting monitor for queue with id: " + q.getId());
+					m.reset();
+				}
+			}
+		} else {
+			log.info("Not adding more job pairs to queue " + qname + ", which has " + queueSize +
+			         " pairs enqueued.");
 		}
 	}
 
@@ -145,7 +232,7 @@ public abstract class JobManager {
 	 *
 	 * @author Aaron Stump
 	 */
-	protected static void initMainTemplateIf() {
+	protected synchronized static void initMainTemplateIf() {
 		if (mainTemplate == null) {
 			// Read in the job script template and format it for this global configuration
 			File f = new File(R.CONFIG_PATH, "sge/jobscript");
@@ -166,6 +253,7 @@ public abstract class JobManager {
 			mainTemplate = mainTemplate.replace("$$SANDBOX_USER_ONE$$", R.SANDBOX_USER_ONE);
 			mainTemplate = mainTemplate.replace("$$SANDBOX_USER_TWO$$", R.SANDBOX_USER_TWO);
 			mainTemplate = mainTemplate.replace("$$WORKING_DIR_BASE$$", R.BACKEND_WORKING_DIR);
+			mainTemplate = mainTemplate.replace("$$BENCH_CACHE_MAX_KB$$", String.valueOf(R.BENCH_CACHE_MAX_KB));
 			mainTemplate = mainTemplate.replace("$$SCRIPT_DIR$$", R.getScriptDir());
 			mainTemplate = mainTemplate.replace("$$JOBPAR_EXECUTION_PREFIX$$", R.JOBPAIR_EXECUTION_PREFIX);
 		}
@@ -178,10 +266,7 @@ public abstract class JobManager {
 	 * @return
 	 */
 	private static LoadBalanceMonitor getMonitor(int queueId) {
-		if (!queueToMonitor.containsKey(queueId)) {
-			queueToMonitor.put(queueId, new LoadBalanceMonitor());
-		}
-		return queueToMonitor.get(queueId);
+		return queueToMonitor.computeIfAbsent(queueId, k -> new LoadBalanceMonitor());
 	}
 
 	// Builds a map from user to the SchedulingStates containing high priority jobs in the schedule.
@@ -308,7 +393,9 @@ public abstract class JobManager {
 			// updates user load values to take into account actual job pair runtimes.
 			monitor.subtractTimeDeltas(JobPairs.getAndClearTimeDeltas(q.getId()));
 
-			final LinkedList<SchedulingState> schedule = buildSchedule(joblist, q, queueSize, nodeCount);
+			// prefers nodes that hold a pair's benchmark in their cache, filled in while the schedule is built
+			final BenchmarkPlacement placement = new BenchmarkPlacement(R.NODE_MULTIPLIER);
+			final LinkedList<SchedulingState> schedule = buildSchedule(joblist, q, queueSize, nodeCount, placement);
 
 			// Map from (user id) -> ( (high priority job id) -> (# of times job been selected) )
 			// Balances out the number of times a high priority job can be selected.
@@ -337,6 +424,7 @@ public abstract class JobManager {
 			// happen
 			final int maxLoops = 500;
 			int curLoops = 0;
+			int pairsSubmitted = 0;
 			while (!schedule.isEmpty()) {
 
 				curLoops++;
@@ -361,9 +449,12 @@ public abstract class JobManager {
 				}
 
 				monitor.setUsers(pendingUsers);
-				monitor.setUserLoadDataFormattedString();
 				it = schedule.iterator();
 
+				// pairs selected during this pass through the schedule, in the order chosen by the monitor
+				final List<PairSubmission> batch = new ArrayList<>();
+				final List<Integer> brokenDependencyPairs = new ArrayList<>();
+
 				while (it.hasNext()) {
 					SchedulingState s = it.next();
 
@@ -446,74 +537,38 @@ public abstract class JobManager {
 						}
 						monitor.changeLoad(s.job.getUserId(), s.job.getWallclockTimeout());
 						i++;
-						log.trace("About to submit pair " + pair.getId());
-						// Check if the benchmark for this pair has any broken dependencies.
-						int benchId = pair.getBench().getId();
-						log.debug("Bench id for pair about to be submitted is: " + benchId);
+						log.trace("Selected pair " + pair.getId() + " for submission");
+						// Check if the benchmark for this pair has any broken dependencies. This was prefetched
+						// along with the pending pairs, so we only go to the database if it is somehow missing.
 						try {
-							log.debug("Checking bench dependencies for bench with id: " + benchId);
-							if(!pair.getBenchInputs().isEmpty()) {
-								List<Benchmark> brokenDependencies = Benchmarks.getBrokenBenchDependencies(benchId);
-								log.debug("Found " + brokenDependencies.size() + " missing dependencies.");
-								if (!brokenDependencies.isEmpty()) {
-									log.debug("Skipping pair with broken bench dependency...");
-									JobPairs.setStatusForPairAndStages(pair
-											.getId(), StatusCode.ERROR_BENCH_DEPENDENCY_MISSING.getVal());
-									continue;
-								}
-							} else {
-								log.debug("bench had no dependencies-- skipping check");
+							if (!pair.getBenchInputs().isEmpty() && hasBrokenDependencies(pair.getBench())) {
+								log.debug("Skipping pair with broken bench dependency...");
+								brokenDependencyPairs.add(pair.getId());
+								continue;
 							}
 						} catch (SQLException e) {
 							log.error("submitJobs", "Database error while trying to get broken bench dependencies.", e);
 							// submit the pair anyway, if there are broken bench dependencies then we will get a
 							// submit_failed status.
 						}
-
-						try {
-							// Write the script that will run this individual pair
-							final String scriptPath = JobManager.writeJobScript(s.jobTemplate, s.job, pair, q);
-							log.trace("About to get the log path from the database...");
-							final String logPath = JobPairs.getLogFilePath(pair);
-							log.trace("Just got the log path from the database.");
-							final File file = new File(logPath);
-							file.getParentFile().mkdirs();
-
-							if (file.exists()) {
-								log.debug("Deleting old log file for " + pair.getId());
-								file.delete();
-							}
-
-							
-							log.trace("About to set the pair and stage status...");
-							// do this first, before we submit to grid engine, to avoid race conditions
-							JobPairs.setStatusForPairAndStages(pair.getId(), StatusCode.STATUS_ENQUEUED.getVal());
-							// Submit to the grid engine
-
-							log.trace("About to submit pair " + pair.getId());
-
-							int execId = R.BACKEND.submitScript(scriptPath, R.BACKEND_WORKING_DIR, logPath);
-
-							log.trace("Just submitted pair " + pair.getId());
-
-							if (R.BACKEND.isError(execId)) {
-								JobPairs.setStatusForPairAndStages(pair.getId(), StatusCode.ERROR_SGE_REJECT.getVal());
-							} else {
-								JobPairs.updateBackendExecId(pair.getId(), execId);
-							}
-							queueSize++;
-						} catch (BenchmarkDependencyMissingException e) {
-							log.error("submitJobs", "ERROR_BENCHMARK for pair: " + pair.getId(), e);
-							JobPairs.setStatusForPairAndStages(pair.getId(), StatusCode.ERROR_BENCHMARK.getVal());
-						} catch (Exception e) {
-							log.error("submitJobs", "ERROR_SUBMIT_FAIL for pair: " + pair.getId(), e);
-							JobPairs.setStatusForPairAndStages(pair.getId(), StatusCode.ERROR_SUBMIT_FAIL.getVal());
-						}
+						batch.add(new PairSubmission(s, pair));
 					}
 				} // end iterating once through the schedule
+
+				JobPairs.setStatusForPairsAndStages(
+						brokenDependencyPairs, StatusCode.ERROR_BENCH_DEPENDENCY_MISSING.getVal());
+				final int submittedThisPass = submitPairBatch(batch, q, placement);
+				queueSize += submittedThisPass;
+				pairsSubmitted += submittedThisPass;
 			} // end looping until schedule is empty or we have submitted enough job pairs
 
-			log.info(methodName, "Finished in " + timer.getTime() + " milliseconds");
+			if (pairsSubmitted > 0) {
+				SubmissionTrigger.pairsEnqueued(q.getId());
+			}
+			final long elapsed = timer.getTime();
+			log.info(methodName, "Finished in " + elapsed + " milliseconds, submitted " + pairsSubmitted +
+			                     " pairs to queue " + q.getName() + " (" + pairsPerSecond(pairsSubmitted, elapsed) +
+			                     " pairs/second)");
 
 		} catch (Exception e) {
 			log.error(methodName, "Running for" + timer.getTime() + " milliseconds", e);
@@ -521,6 +576,172 @@ public abstract class JobManager {
 
 	} // end submitJobs()
 
+	/**
+	 * Determines whether the given benchmark has any deleted or recycled dependencies. Uses the value retrieved along
+	 * with the pending pairs if it is present, and queries the database otherwise.
+	 *
+	 * @param bench The benchmark to check
+	 * @return True if the benchmark has broken dependencies
+	 * @throws SQLException If the database needed to be queried and there was an error
+	 */
+	private static boolean hasBrokenDependencies(Benchmark bench) throws SQLException {
+		if (bench.getHasBrokenDependencies() != null) {
+			return bench.getHasBrokenDependencies();
+		}
+		List<Benchmark> brokenDependencies = Benchmarks.getBrokenBenchDependencies(bench.getId());
+		log.debug("Found " + brokenDependencies.size() + " missing dependencies.");
+		return !brokenDependencies.isEmpty();
+	}
+
+	/**
+	 * Submits the pairs chosen during one pass through the schedule. Job scripts are written in parallel, every pair
+	 * is set to ENQUEUED with one batched update before any of them reach the backend, and backend IDs and failure
+	 * statuses are written back with batched updates afterwards. Pairs of the same job that are asked to run on the
+	 * same node are submitted together, which lets backends such as grid engine queue them as one array job.
+	 *
+	 * @param batch The pairs to submit, in the order the load balance monitor selected them
+	 * @param q The queue the pairs are being submitted to
+	 * @param placement Chooses the node each pair is asked to run on
+	 * @return The number of pairs that were handed to the backend
+	 */
+	private static int submitPairBatch(final List<PairSubmission> batch, final Queue q,
+	                                   final BenchmarkPlacement placement) {
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		final String methodName = "submitPairBatch";
+		final Timer timer = new Timer();
+
+		// Jobs.getLogDirectory checks the disk, so only do it once per job in the batch
+		final Map<Integer, String> jobLogDirectories = new ConcurrentHashMap<>();
+		final List<Future<?>> preparations = new ArrayList<>(batch.size());
+		for (final PairSubmission sub : batch) {
+			preparations.add(scriptWriterPool.submit(() -> {
+				prepareSubmission(sub, q, jobLogDirectories);
+				return null;
+			}));
+		}
+
+		final List<PairSubmission> prepared = new ArrayList<>(batch.size());
+		final List<Integer> benchmarkErrors = new ArrayList<>();
+		final List<Integer> submitFailures = new ArrayList<>();
+		for (int i = 0; i < batch.size(); i++) {
+			final PairSubmission sub = batch.get(i);
+			try {
+				preparations.get(i).get();
+				prepared.add(sub);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof BenchmarkDependencyMissingException) {
+					log.error(methodName, "ERROR_BENCHMARK for pair: " + sub.pair.getId(), e.getCause());
+					benchmarkErrors.add(sub.pair.getId());
+				} else {
+					log.error(methodName, "ERROR_SUBMIT_FAIL for pair: " + sub.pair.getId(), e.getCause());
+					submitFailures.add(sub.pair.getId());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				log.error(methodName, "Interrupted while writing job script for pair: " + sub.pair.getId(), e);
+				submitFailures.add(sub.pair.getId());
+			}
+		}
+		JobPairs.setStatusForPairsAndStages(benchmarkErrors, StatusCode.ERROR_BENCHMARK.getVal());
+
+		// do this first, before we submit to grid engine, to avoid race conditions
+		final List<Integer> preparedIds = prepared.stream().map(sub -> sub.pair.getId()).collect(Collectors.toList());
+		JobPairs.setStatusForPairsAndStages(preparedIds, StatusCode.STATUS_ENQUEUED.getVal());
+
+		// pairs of the same job that prefer the same node are handed to the backend together
+		final Map<List<Object>, List<PairSubmission>> groups = new LinkedHashMap<>();
+		for (PairSubmission sub : prepared) {
+			final String preferredNode = placement.choose(sub.pair.getBench().getId());
+			groups.computeIfAbsent(Arrays.asList(sub.pair.getJobId(), preferredNode), k -> new ArrayList<>()).add(sub);
+		}
+
+		final Map<Integer, Integer> pairIdsToExecIds = new HashMap<>();
+		final List<Integer> rejected = new ArrayList<>();
+		int submitted = 0;
+		for (Map.Entry<List<Object>, List<PairSubmission>> group : groups.entrySet()) {
+			final List<PairSubmission> subs = group.getValue();
+			final String preferredNode = (String) group.getKey().get(1);
+			try {
+				log.trace("About to submit " + subs.size() + " pairs starting with " + subs.get(0).pair.getId());
+				final int[] execIds;
+				if (subs.size() == 1) {
+					execIds = new int[] {R.BACKEND.submitScript(subs.get(0).scriptPath, R.BACKEND_WORKING_DIR,
+					                                            subs.get(0).logPath, preferredNode)};
+				} else {
+					final List<String> scriptPaths = subs.stream().map(sub -> sub.scriptPath).collect(Collectors.toList());
+					final List<String> logPaths = subs.stream().map(sub -> sub.logPath).collect(Collectors.toList());
+					execIds = R.BACKEND.submitScripts(scriptPaths, R.BACKEND_WORKING_DIR, logPaths, preferredNode);
+				}
+				log.trace("Just submitted " + subs.size() + " pairs starting with " + subs.get(0).pair.getId());
+				for (int i = 0; i < subs.size(); i++) {
+					if (R.BACKEND.isError(execIds[i])) {
+						rejected.add(subs.get(i).pair.getId());
+					} else {
+						pairIdsToExecIds.put(subs.get(i).pair.getId(), execIds[i]);
+					}
+				}
+				submitted += subs.size();
+			} catch (Exception e) {
+				for (PairSubmission sub : subs) {
+					log.error(methodName, "ERROR_SUBMIT_FAIL for pair: " + sub.pair.getId(), e);
+					submitFailures.add(sub.pair.getId());
+				}
+			}
+		}
+		JobPairs.updateBackendExecIds(pairIdsToExecIds);
+		JobPairs.setStatusForPairsAndStages(rejected, StatusCode.ERROR_SGE_REJECT.getVal());
+		JobPairs.setStatusForPairsAndStages(submitFailures, StatusCode.ERROR_SUBMIT_FAIL.getVal());
+
+		final long elapsed = timer.getTime();
+		log.debug(methodName, "Submitted " + submitted + " of " + batch.size() + " pairs to queue " + q.getName() +
+		                      " in " + elapsed + " milliseconds (" + pairsPerSecond(submitted, elapsed) +
+		                      " pairs/second)");
+		return submitted;
+	}
+
+	/**
+	 * Writes the job script for a single pair and clears out any old log file for it. This is safe to call from
+	 * several threads at once for different pairs.
+	 *
+	 * @param sub The pair to prepare. Its script and log paths are filled in.
+	 * @param q The queue the pair is being submitted to
+	 * @param jobLogDirectories A cache from job IDs to job log directories shared by the whole batch
+	 * @throws Exception If the job script could not be written
+	 */
+	private static void prepareSubmission(PairSubmission sub, Queue q, Map<Integer, String> jobLogDirectories)
+			throws Exception {
+		// Write the script that will run this individual pair
+		sub.scriptPath = JobManager.writeJobScript(sub.state.jobTemplate, sub.state.job, sub.pair, q);
+		String logDirectory = jobLogDirectories.computeIfAbsent(sub.pair.getJobId(), Jobs::getLogDirectory);
+		sub.logPath = JobPairs.getLogFilePath(sub.pair, logDirectory);
+		final File file = new File(sub.logPath);
+		file.getParentFile().mkdirs();
+
+		if (file.exists()) {
+			log.debug("Deleting old log file for " + sub.pair.getId());
+			file.delete();
+		}
+	}
+
+	/**
+	 * @param pairs A number of pairs
+	 * @param millis The number of milliseconds it took to handle them
+	 * @return The rate at which the pairs were handled, formatted to two decimal places
+	 */
+	private static String pairsPerSecond(int pairs, long millis) {
+		return String.format("%.2f", pairs * 1000.0 / Math.max(1L, millis));
+	}
+
+	/**
+	 * Stops the threads used to schedule queues and write job scripts. Called when StarExec shuts down.
+	 */
+	public static void shutdown() {
+		queueScheduler.shutdown();
+		scriptWriterPool.shutdownNow();
+	}
+
 	protected static String base64encode(String s) {
 		return new String(Base64.encodeBase64(s.getBytes()));
 	}
@@ -559,10 +780,11 @@ public abstract class JobManager {
 	}
 
 	/**
-	 * Helper method that builds the schedule to be used for scheduling.
+	 * Helper method that builds the schedule to be used for scheduling. The nodes that hold the benchmarks of the
+	 * pairs in the schedule are added to placement.
 	 */
 	private static LinkedList<SchedulingState> buildSchedule(final List<Job> joblist, final Queue q, int queueSize,
-	                                                         final int nodeCount) {
+	                                                         final int nodeCount, final BenchmarkPlacement placement) {
 
 		Map<Integer, JobCount> userToJobCountMap = buildUserToJobCountMap(joblist);
 		final LinkedList<SchedulingState> schedule = new LinkedList<>();
@@ -609,6 +831,13 @@ public abstract class JobManager {
 			log.trace("finished call to getPendingPairsDetailed");
 
 			if (!pairs.isEmpty()) {
+				if (R.BENCH_CACHE_MAX_KB > 0) {
+					final Map<Integer, List<String>> cachedNodes =
+							Cluster.getCachedBenchmarkNodes(job.getId(), q.getId(), limit);
+					if (cachedNodes != null) {
+						placement.addCachedNodes(cachedNodes);
+					}
+				}
 				final Iterator<JobPair> pairIter = pairs.iterator();
 				final SchedulingState s = new SchedulingState(job, jobTemplate, pairIter);
 				schedule.add(s);
@@ -739,24 +968,7 @@ public abstract class JobManager {
 			log.debug("Pair with id=" + pair.getId() +
 			          " had stdout save option or extra save option enabled. Creating benchmark directory.");
 			try {
-				String benchDirPath;
-				if (job.getOutputBenchmarksPath() != null) {
-					// Get the directory that has already been created for this job if it exists.
-					benchDirPath = job.getOutputBenchmarksPath();
-				} else {
-					// If the bench directory was only updated this job scheduling cycle it won't in the Job object
-					// so we check the DB directly.
-					Optional<String> benchDir = Jobs.getOutputBenchmarksPath(job.getId());
-					if (benchDir.isPresent()) {
-						benchDirPath = benchDir.get();
-					} else {
-						// Make a new directory for this job if it hasn't been done yet.
-						benchDirPath =
-								UploadBenchmark.getDirectoryForBenchmarkUpload(job.getUserId(), null)
-								.getAbsolutePath();
-						Jobs.setOutputBenchmarksPath(job.getId(), benchDirPath);
-					}
-				}
+				String benchDirPath = getOrCreateOutputBenchmarksPath(job);
 				replacements.put("$$BENCH_SAVE_PATH$$", benchDirPath);
 			} catch (FileNotFoundException e) {
 				log.error("Could not get unique benchmark directory.", e);
@@ -847,6 +1059,36 @@ public abstract class JobManager {
 		return scriptPath;
 	}
 
+	/**
+	 * Gets the directory that benchmarks created from the output of the given job are saved to, creating it if it
+	 * does not exist yet. Job scripts are written on several threads at once, so this is locked to make sure only
+	 * one directory is ever created per job.
+	 *
+	 * @param job The job to get the directory for
+	 * @return The absolute path to the directory
+	 * @throws FileNotFoundException If a new directory could not be created
+	 * @throws SQLException If the directory could not be read from or saved to the database
+	 */
+	private static String getOrCreateOutputBenchmarksPath(Job job) throws FileNotFoundException, SQLException {
+		if (job.getOutputBenchmarksPath() != null) {
+			// Get the directory that has already been created for this job if it exists.
+			return job.getOutputBenchmarksPath();
+		}
+		synchronized (outputBenchmarksPathLock) {
+			// If the bench directory was only updated this job scheduling cycle it won't in the Job object
+			// so we check the DB directly.
+			Optional<String> benchDir = Jobs.getOutputBenchmarksPath(job.getId());
+			if (benchDir.isPresent()) {
+				return benchDir.get();
+			}
+			// Make a new directory for this job if it hasn't been done yet.
+			String benchDirPath =
+					UploadBenchmark.getDirectoryForBenchmarkUpload(job.getUserId(), null).getAbsolutePath();
+			Jobs.setOutputBenchmarksPath(job.getId(), benchDirPath);
+			return benchDirPath;
+		}
+	}
+
 	/**
 	 * Given a list of pipeline dependencies, this creates a single string containing all of the relevant arguments
 	 * so that all the dependencies can be passed to the configuration.
@@ -1054,26 +1296,8 @@ public abstract class JobManager {
 		if (sm != null) {
 			spaceName = sm;
 		}
-		// Pair up the solvers and benchmarks
-		for (Benchmark bench : benchmarks) {
-			for (Solver solver : solvers) {
-				JobPair pair = new JobPair();
-				pair.setBench(bench);
-				JoblineStage stage = new JoblineStage();
-				stage.setStageNumber(1);
-				pair.setPrimaryStageNumber(1);
-				stage.setNoOp(false);
-
-				stage.setSolver(solver);
-				stage.setConfiguration(solver.getConfigurations().get(0));
-				pair.addStage(stage);
-
-				pair.setSpace(Spaces.get(spaceId));
-				pair.setPath(spaceName);
-				j.addJobPair(pair);
-
-			}
-		}
+		// Pair up the solvers and benchmarks. The pairs are created as they are added to the database.
+		j.addJobPairs(new JobPairCrossProduct(benchmarks, solvers, Spaces.get(spaceId), spaceName));
 	}
 
 	/**
@@ -1090,49 +1314,24 @@ public abstract class JobManager {
 		//log.debug("calling addJobPairsFrom space on space ID = "+spaceId);
 		//log.debug("the path for the pairs will be ");
 		//log.debug(path);
-		List<JobPair> pairs = new ArrayList<>();
 		// Get the benchmarks and solvers from this space
 		List<Benchmark> benchmarks = Benchmarks.getBySpace(spaceId);
 		//log.debug("found this many benchmarks in the space = "+benchmarks.size());
 		List<Solver> solvers = Solvers.getBySpace(spaceId);
+		// one solver per configuration, so that every configuration of every solver is run
+		List<Solver> solverConfigs = new ArrayList<>();
 		for (Solver s : solvers) {
 			List<Configuration> configs = Solvers.getConfigsForSolver(s.getId());
 			for (Configuration c : configs) {
-				s.addConfiguration(c);
+				Solver clone = JobManager.cloneSolver(s);
+				// Now we're going to work with this solver with this configuration
+				clone.addConfiguration(c);
+				solverConfigs.add(clone);
 			}
 
 		}
-		JobPair pair;
-		for (Benchmark b : benchmarks) {
-			for (Solver s : solvers) {
-				// Get the configurations for the current solver
-				for (Configuration c : s.getConfigurations()) {
-
-					Solver clone = JobManager.cloneSolver(s);
-					// Now we're going to work with this solver with this configuration
-					clone.addConfiguration(c);
-
-					pair = new JobPair();
-					pair.setBench(b);
-					JoblineStage stage = new JoblineStage();
-					stage.setStageNumber(1);
-					stage.setSolver(clone);
-					stage.setConfiguration(c);
-					pair.addStage(stage);
-
-					pair.setPrimaryStageNumber(1);
-					stage.setNoOp(false);
-
-					pair.setSpace(space);
-					//we are running pairs in a single space, so the path is flat
-					pair.setPath(path);
-					pairs.add(pair);
-
-
-				}
-			}
-		}
-		return pairs;
+		//we are running pairs in a single space, so the path is flat
+		return new JobPairCrossProduct(benchmarks, solverConfigs, space, path);
 	}
 
 	/**
@@ -1207,27 +1406,7 @@ public abstract class JobManager {
 			List<Benchmark> benchmarks = Benchmarks.getBySpace(spaceId);
 
 			// Pair up the solvers and benchmarks
-			List<JobPair> curPairs = new ArrayList<>();
-			for (Benchmark bench : benchmarks) {
-				for (Solver solver : solvers) {
-					JobPair pair = new JobPair();
-					pair.setBench(bench);
-					JoblineStage stage = new JoblineStage();
-					stage.setStageNumber(1);
-					pair.setPrimaryStageNumber(1);
-					stage.setNoOp(false);
-
-					stage.setSolver(solver);
-					stage.setConfiguration(solver.getConfigurations().get(0));
-					pair.addStage(stage);
-
-					pair.setPath(path);
-					pair.setSpace(Spaces.get(spaceId));
-					curPairs.add(pair);
-
-				}
-			}
-			return curPairs;
+			return new JobPairCrossProduct(benchmarks, solvers, Spaces.get(spaceId), path);
 		} catch (Exception e) {
 			log.error("addJobPairsFromSpace", e);
 		}
@@ -1307,25 +1486,8 @@ public abstract class JobManager {
 			for (Space s : spaces) {
 				List<Benchmark> benchmarks = Benchmarks.getBySpace(s.getId());
 				log.debug("found this many benchmarks for space id = " + s.getId() + " " + benchmarks.size());
-				List<JobPair> curPairs = new ArrayList<>();
-				for (Benchmark bench : benchmarks) {
-					for (Solver solver : solvers) {
-						JobPair pair = new JobPair();
-						pair.setBench(bench);
-						JoblineStage stage = new JoblineStage();
-						stage.setStageNumber(1);
-						stage.setSolver(solver);
-						stage.setConfiguration(solver.getConfigurations().get(0));
-						pair.setPrimaryStageNumber(1);
-						stage.setNoOp(false);
-
-						pair.addStage(stage);
-						pair.setPath(SP.get(s.getId()));
-						pair.setSpace(Spaces.get(s.getId()));
-						curPairs.add(pair);
-					}
-				}
-				spaceToPairs.put(s.getId(), curPairs);
+				spaceToPairs.put(s.getId(),
+				                 new JobPairCrossProduct(benchmarks, solvers, Spaces.get(s.getId()), SP.get(s.getId())));
 			}
 			return spaceToPairs;
 		} catch (Exception e) {
@@ -1352,6 +1514,22 @@ public abstract class JobManager {
 		return clone;
 	}
 
+	/**
+	 * A pair selected for submission during one pass through the schedule, along with the state it came from.
+	 * The script and log paths are filled in once the job script has been written.
+	 */
+	static class PairSubmission {
+		final SchedulingState state;
+		final JobPair pair;
+		String scriptPath;
+		String logPath;
+
+		PairSubmission(SchedulingState _state, JobPair _pair) {
+			state = _state;
+			pair = _pair;
+		}
+	}
+
 	static class SchedulingState {
 		final Job job;
 		final String jobTemplate;
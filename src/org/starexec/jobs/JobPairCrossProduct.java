@@ -0,0 +1,133 @@
+package org.starexec.jobs;
+
+import org.starexec.data.to.Benchmark;
+import org.starexec.data.to.JobPair;
+import org.starexec.data.to.Solver;
+import org.starexec.data.to.Space;
+import org.starexec.data.to.pipelines.JoblineStage;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The single stage job pairs that run every one of a list of solvers on every one of a list of benchmarks, ordered
+ * by benchmark and then by solver. Pairs are created when they are asked for instead of being stored, so a job with
+ * millions of pairs can be built and added to the database without holding every pair in memory at once. Every call
+ * to get returns a new pair. The IDs, job IDs and job space IDs given to a pair once it has been added to the database
+ * are remembered and given to later pairs at the same index, but other changes to a pair are not.
+ */
+public class JobPairCrossProduct extends AbstractList<JobPair> implements RandomAccess {
+	private final List<Benchmark> benchmarks;
+	private final List<Solver> solvers;
+	private final Space space;
+	private final String path;
+
+	// the values set on pairs after they were created, by index, or null if none have been set yet
+	private int[] ids = null;
+	private int[] jobIds = null;
+	private int[] jobSpaceIds = null;
+
+	/**
+	 * A pair that remembers the values that are set on it once it has been added to the database
+	 */
+	private class GeneratedPair extends JobPair {
+		private final int index;
+		private boolean created = false;
+
+		GeneratedPair(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public void setId(int id) {
+			super.setId(id);
+			if (created) {
+				ids = remember(ids, index, id);
+			}
+		}
+
+		@Override
+		public void setJobId(int jobId) {
+			super.setJobId(jobId);
+			if (created) {
+				jobIds = remember(jobIds, index, jobId);
+			}
+		}
+
+		@Override
+		public void setJobSpaceId(int jobSpaceId) {
+			super.setJobSpaceId(jobSpaceId);
+			if (created) {
+				jobSpaceIds = remember(jobSpaceIds, index, jobSpaceId);
+			}
+		}
+	}
+
+	/**
+	 * @param benchmarks The benchmarks to run
+	 * @param solvers The solvers to run. The first configuration of each solver is the one that is run.
+	 * @param space The space to give every pair
+	 * @param path The job space path to give every pair
+	 */
+	public JobPairCrossProduct(List<Benchmark> benchmarks, List<Solver> solvers, Space space, String path) {
+		this.benchmarks = new ArrayList<>(benchmarks);
+		this.solvers = new ArrayList<>(solvers);
+		this.space = space;
+		this.path = path;
+		if ((long) benchmarks.size() * solvers.size() > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"too many pairs: " + benchmarks.size() + " benchmarks and " + solvers.size() + " solvers");
+		}
+	}
+
+	@Override
+	public JobPair get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		Solver solver = solvers.get(index % solvers.size());
+
+		GeneratedPair pair = new GeneratedPair(index);
+		pair.setBench(benchmarks.get(index / solvers.size()));
+		JoblineStage stage = new JoblineStage();
+		stage.setStageNumber(1);
+		pair.setPrimaryStageNumber(1);
+		stage.setNoOp(false);
+
+		stage.setSolver(solver);
+		stage.setConfiguration(solver.getConfigurations().get(0));
+		pair.addStage(stage);
+
+		pair.setSpace(space);
+		pair.setPath(path);
+		if (ids != null) {
+			pair.setId(ids[index]);
+		}
+		if (jobIds != null) {
+			pair.setJobId(jobIds[index]);
+		}
+		if (jobSpaceIds != null) {
+			pair.setJobSpaceId(jobSpaceIds[index]);
+		}
+		pair.created = true;
+		return pair;
+	}
+
+	private int[] remember(int[] values, int index, int value) {
+		if (values == null) {
+			// -1 is what a new pair has for each of these
+			values = new int[size()];
+			Arrays.fill(values, -1);
+		}
+		values[index] = value;
+		return values;
+	}
+
+	@Override
+	public int size() {
+		return benchmarks.size() * solvers.size();
+	}
+}
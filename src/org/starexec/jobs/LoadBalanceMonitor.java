@@ -22,6 +22,9 @@ public class LoadBalanceMonitor {
 		 **/
 		Long minBasis;
 		Long load;
+
+		// position of this user in the heap of active users, or -1 if the user is inactive
+		int heapIndex = -1;
 		
 		// If this is null, the user is active. Otherwise, it is the time
 		// at which the user became inactive.
@@ -108,33 +111,132 @@ public class LoadBalanceMonitor {
 	}
 
 	// The basic operations we will be the following
-	// Add / Find / Remove users by userIds: All O(1) with a HashSet
-	// Find min load in set: O(n) with a HashSet
-	// This can be improved on with more complex data structures, but here n is going
-	// to get the number of users simultaneously running jobs on a single queue, which
-	// is always very small. Constant time overheads of more complex structures are
-	// substantial, and so for now this is a very simple and fast option. If we want
-	// to support very large numbers of simultaneous users, we likely want another structure
-	// such as a combination HashMap / PriorityQueue structure.
+	// Add / Find / Remove users by userIds: All O(1) with a HashMap
+	// Find min load among active users: O(1) by looking at the root of a binary min-heap
+	// Change the load of a user: O(log n), as every user knows its position in the heap
+	// During competitions there can be hundreds of users on a queue, and skipUser
+	// checks the minimum once for every pair submitted, so the minimum must be cheap.
 	private HashMap<Integer, UserLoadData> loads = new HashMap<>();
 
+	// active users, ordered as a binary min-heap on load
+	private ArrayList<UserLoadData> heap = new ArrayList<>();
+
+	/**
+	 * A copy of one user's load, taken so that it can be formatted without holding the monitor's lock
+	 */
+	private static class UserLoadSnapshot {
+		final int userId;
+		final boolean active;
+		final long load;
+
+		UserLoadSnapshot(UserLoadData d) {
+			this.userId = d.userId;
+			this.active = d.active();
+			this.load = d.calculateLoadDecay();
+		}
+	}
+
+	/**
+	 * A user's display name and when it was read from the database
+	 */
+	private static class CachedName {
+		final String name;
+		final long readTime;
+
+		CachedName(String name, long readTime) {
+			this.name = name;
+			this.readTime = readTime;
+		}
+	}
+
+	// user ID -> display name, least recently used first. Shared by all monitors, as it is only used by toString
+	private static final Map<Integer, CachedName> userNames = new LinkedHashMap<Integer, CachedName>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, CachedName> eldest) {
+			return size() > R.USER_NAME_CACHE_SIZE;
+		}
+	};
+
+	private void swap(int i, int j) {
+		UserLoadData a = heap.get(i);
+		UserLoadData b = heap.get(j);
+		heap.set(i, b);
+		heap.set(j, a);
+		a.heapIndex = j;
+		b.heapIndex = i;
+	}
+
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (heap.get(i).compareTo(heap.get(parent)) >= 0) {
+				return;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int i) {
+		int size = heap.size();
+		while (true) {
+			int smallest = i;
+			int left = 2 * i + 1;
+			int right = left + 1;
+			if (left < size && heap.get(left).compareTo(heap.get(smallest)) < 0) {
+				smallest = left;
+			}
+			if (right < size && heap.get(right).compareTo(heap.get(smallest)) < 0) {
+				smallest = right;
+			}
+			if (smallest == i) {
+				return;
+			}
+			swap(i, smallest);
+			i = smallest;
+		}
+	}
+
+	private void heapAdd(UserLoadData d) {
+		d.heapIndex = heap.size();
+		heap.add(d);
+		siftUp(d.heapIndex);
+	}
+
+	private void heapRemove(UserLoadData d) {
+		int i = d.heapIndex;
+		int last = heap.size() - 1;
+		if (i != last) {
+			swap(i, last);
+		}
+		heap.remove(last);
+		d.heapIndex = -1;
+		if (i < heap.size()) {
+			siftUp(i);
+			siftDown(i);
+		}
+	}
+
+	/**
+	 * Restores the heap after the load of the given user has changed
+	 */
+	private void loadChanged(UserLoadData d) {
+		if (d.heapIndex >= 0) {
+			siftUp(d.heapIndex);
+			siftDown(d.heapIndex);
+		}
+	}
 
 	/**
 	 * Gets the minimum load value among all active users. Inactive users
 	 * are excluded.
 	 * @return Minimum value among all active users. Returns null if there are no active users
 	 */
-	public Long getMin() {
-		List<UserLoadData> activeUsers = new ArrayList<>();
-		for (UserLoadData d : loads.values()) {
-			if (d.active()) {
-				activeUsers.add(d);
-			}
+	public synchronized Long getMin() {
+		if (heap.isEmpty()) {
+			return null;
 		}
-		if (!activeUsers.isEmpty()) {
-			return Collections.min(activeUsers).load;
-		}
-		return null;
+		return heap.get(0).load;
 	}
 	
 	/**
@@ -145,7 +247,7 @@ public class LoadBalanceMonitor {
 	 * @param userId
 	 * @return Long load value for the given user. Null if that user does not exist.
 	 */
-	public Long getLoad(int userId) {
+	public synchronized Long getLoad(int userId) {
 		UserLoadData d = loads.get(userId);
 		if (d!=null) {
 			return d.load;
@@ -172,10 +274,13 @@ public class LoadBalanceMonitor {
 					d.load = defaultLoad;
 					d.minBasis = basis;
 				}
+				heapAdd(d);
 			}
 			return;
 		}
-		loads.put(userId, new UserLoadData(userId, basis, defaultLoad));
+		UserLoadData d = new UserLoadData(userId, basis, defaultLoad);
+		loads.put(userId, d);
+		heapAdd(d);
 	}
 	
 	/**
@@ -186,14 +291,16 @@ public class LoadBalanceMonitor {
 		UserLoadData u = loads.get(userId);
 		if (u!=null && u.active()) {
 			u.inactivate();
+			heapRemove(u);
 		}
 	}
 
 	/**
 	 * Completely resets the monitor.
 	 */
-	public void reset() {
+	public synchronized void reset() {
 		loads = new HashMap<>();
+		heap = new ArrayList<>();
 	}
 	
 	/**
@@ -201,7 +308,7 @@ public class LoadBalanceMonitor {
 	 * of users.
 	 * @param userIdsToDefaults Mapping of user ids to values to add to their default load.
 	 */
-	public void setUsers(Map<Integer, Long> userIdsToDefaults) {
+	public synchronized void setUsers(Map<Integer, Long> userIdsToDefaults) {
 		/*boolean noneActive = loads.values().stream().noneMatch(UserLoadData::active);
 		if (noneActive) {
 			this.reset();
@@ -229,20 +336,23 @@ public class LoadBalanceMonitor {
 	 * @param userId ID of user to affect. Nothing happens if the user does not already exist.
 	 * @param load Increases user load if positive, decreases user load if negative.
 	 */
-	public void changeLoad(int userId, long load) {
-		if (!loads.containsKey(userId)) {
+	public synchronized void changeLoad(int userId, long load) {
+		UserLoadData d = loads.get(userId);
+		if (d == null) {
 			return;
 		}
-		// the minimum may change only if this user has the current minimum load
-		loads.get(userId).load = loads.get(userId).load + load;
-		if (loads.get(userId).load < 0) {
+		d.load = d.load + load;
+		if (d.load < 0) {
 			log.warn("User "+userId +" has load value set to less than 0!");
-			loads.get(userId).load = 0L;
+			d.load = 0L;
 		}
+		loadChanged(d);
 	}
 	
 	/**
-	 * 
+	 * Lowers the basis of every user whose basis is above the new minimum,
+	 * crediting them the difference. This can change the load of every user,
+	 * so the heap is rebuilt afterwards.
 	 * @param newBasis
 	 */
 	private void setNewBasis(long newBasis) {
@@ -253,6 +363,9 @@ public class LoadBalanceMonitor {
 				d.minBasis = newBasis;
 			}
 		}
+		for (int i = heap.size() / 2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
 	}
 	
 	/**
@@ -260,7 +373,7 @@ public class LoadBalanceMonitor {
 	 * in the map.
 	 * @param users A mapping from users to load values to update by.
 	 */
-	public void subtractTimeDeltas(HashMap<Integer, Integer> users) {
+	public synchronized void subtractTimeDeltas(HashMap<Integer, Integer> users) {
 		Long oldMin = getMin();
 		for (Integer i : users.keySet()) {
 			log.debug("user "+i+" is being credited "+users.get(i));
@@ -280,31 +393,41 @@ public class LoadBalanceMonitor {
 	 * @param userId The ID of the user to check
 	 * @return True if the user should be skipped and false if not.
 	 */
-	public boolean skipUser(int userId) {
+	public synchronized boolean skipUser(int userId) {
 		Long userLoad = this.getLoad(userId);
 		return userLoad - getMin() > R.LOAD_DIFFERENCE_THRESHOLD;
 	}
 	
-	private String stringRepresentation = null;
-	
-	
-	private String userLoadDataAsString(UserLoadData d) {
-		Long loadDecay = d.calculateLoadDecay();
-		if (loadDecay==0) {
-			return "";
+	/**
+	 * Gets the name to display for a user. Names are read from the database at most once per
+	 * R.USER_NAME_CACHE_LIFETIME, so renamed users show their new name after a while.
+	 */
+	private static String getUserName(int userId) {
+		long now = System.currentTimeMillis();
+		synchronized (userNames) {
+			CachedName cached = userNames.get(userId);
+			if (cached != null && now - cached.readTime < R.USER_NAME_CACHE_LIFETIME) {
+				return cached.name;
+			}
 		}
-		StringBuilder sb = new StringBuilder();
-		User u = Users.get(d.userId);
-		if (u==null) {
-			sb.append("unknown user");
-		} else {
-			sb.append(u.getFullName());
+		User u = Users.get(userId);
+		if (u == null) {
+			return "unknown user";
 		}
+		synchronized (userNames) {
+			userNames.put(userId, new CachedName(u.getFullName(), now));
+		}
+		return u.getFullName();
+	}
+
+	private static String userLoadDataAsString(UserLoadSnapshot d) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(getUserName(d.userId));
 		sb.append(" ");
-		if (!d.active()) {
+		if (!d.active) {
 			sb.append("(inactive) ");
 		}
-		sb.append(": load = ").append(loadDecay);
+		sb.append(": load = ").append(d.load);
 		return sb.toString();
 	}
 	
@@ -317,28 +440,39 @@ public class LoadBalanceMonitor {
 	}
 	
 	/**
-	 * Gets all user load data for every queue as a single formatted string, which
-	 * can be displayed on the front end.
+	 * Copies the minimum and the loads of users whose load has not decayed to 0, sorted by load
+	 * @param users The list to add the loads to
+	 * @return The minimum load among active users, or null if there are none
 	 */
-	public void setUserLoadDataFormattedString() {
-		StringBuilder sb = new StringBuilder();
-		sb.append("minimum = ").append(this.getMin());
-		sb.append("\n\n");
-		// updates user load values to take into account actual job pair runtimes.
-		
+	private synchronized Long snapshotLoads(List<UserLoadSnapshot> users) {
 		for (UserLoadData d : getSortedDataList()) {
-			String loadData = userLoadDataAsString(d);
-			if (!loadData.isEmpty()) {
-				sb.append(userLoadDataAsString(d));
-				sb.append("\n");
+			UserLoadSnapshot snapshot = new UserLoadSnapshot(d);
+			if (snapshot.load != 0) {
+				users.add(snapshot);
 			}
 		}
-		sb.append("\n");		
-		stringRepresentation = sb.toString();
+		return getMin();
 	}
-	
+
+	/**
+	 * Gets all user load data for every queue as a single formatted string, which
+	 * can be displayed on the front end. This is only done when the string is asked
+	 * for, as it is not needed for scheduling. The loads are copied under the lock,
+	 * and the user names are looked up after it is released, so that scheduling is
+	 * not held up by the lookups.
+	 */
 	public String toString() {
-		return stringRepresentation;
+		List<UserLoadSnapshot> users = new ArrayList<>();
+		Long min = snapshotLoads(users);
+		StringBuilder sb = new StringBuilder();
+		sb.append("minimum = ").append(min);
+		sb.append("\n\n");
+		for (UserLoadSnapshot d : users) {
+			sb.append(userLoadDataAsString(d));
+			sb.append("\n");
+		}
+		sb.append("\n");
+		return sb.toString();
 	}
 	
 }
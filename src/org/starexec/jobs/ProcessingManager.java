@@ -1,29 +1,262 @@
 package org.starexec.jobs;
 
+import org.apache.commons.io.FileUtils;
 import org.starexec.constants.R;
 import org.starexec.data.database.JobPairs;
+import org.starexec.data.database.Processors;
+import org.starexec.data.to.Processor;
 import org.starexec.data.to.pipelines.PairStageProcessorTriple;
+import org.starexec.data.to.tuples.PostProcessedStage;
+import org.starexec.logger.StarLogger;
+import org.starexec.util.LatencyHistogram;
+import org.starexec.util.Util;
 
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Runs post processors on pairs that are waiting for them. Pairs are handed to a fixed pool of workers, each of which
+ * keeps its own sandboxed copy of the last processor it ran so that consecutive pairs with the same processor do not
+ * pay to copy it again. The results are written back to the database in batches.
+ */
 public class ProcessingManager {
+	private static final StarLogger log = StarLogger.getLogger(ProcessingManager.class);
+
+	// how far back getPairsPerMinute looks
+	private static final long THROUGHPUT_WINDOW = 10 * 60 * 1000;
+
+	/**
+	 * A processor copied into a sandbox, along with a directory to stage pair files in
+	 */
+	private static class ProcessorInstall {
+		final int processorId;
+		final String filePath;
+		final File sandbox;
+		final File staging;
+
+		ProcessorInstall(Processor p, File sandbox, File staging) {
+			this.processorId = p.getId();
+			this.filePath = p.getFilePath();
+			this.sandbox = sandbox;
+			this.staging = staging;
+		}
+
+		boolean isUsableFor(Processor p) {
+			// old sandbox files are cleared periodically, so make sure the install is still there
+			return processorId == p.getId() && filePath.equals(p.getFilePath()) &&
+			       new File(sandbox, new File(filePath).getName()).exists() && staging.exists();
+		}
+
+		void delete() {
+			FileUtils.deleteQuietly(sandbox);
+			FileUtils.deleteQuietly(staging);
+		}
+	}
+
+	private static final ExecutorService workers = Executors.newFixedThreadPool(R.POST_PROCESSING_THREADS);
+	private static final ThreadLocal<ProcessorInstall> installs = new ThreadLocal<>();
+
+	// "pairId:stageNumber" of every stage that has been handed to a worker and whose result is not yet saved
+	private static final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+	private static final List<PostProcessedStage> unsaved = new ArrayList<>();
+	private static volatile int backlog = 0;
+
+	private static final LongAdder processed = new LongAdder();
+	private static final LongAdder failed = new LongAdder();
+	private static final LatencyHistogram processTimes = new LatencyHistogram();
+	// completion time and number of stages of every recent save, oldest first
+	private static final Deque<long[]> recentSaves = new ArrayDeque<>();
+
 	/**
-     * Checks to see which pairs need to be processed and runs the correct 
-     * processors on them
-     */
-    public synchronized static void checkProcessingPairs(){
-    	List<PairStageProcessorTriple> triples=JobPairs.getAllPairsForProcessing();
-    	int num_processed = 0;
-    	
-    	for (PairStageProcessorTriple triple : triples) {
-    		if (num_processed > R.NUM_REPOSTPROCESS_AT_A_TIME) {
+	 * Checks to see which pairs need to be processed and hands them to the workers. At most
+	 * R.NUM_REPOSTPROCESS_AT_A_TIME stages are handed out at once; the rest are picked up as the workers catch up.
+	 */
+	public synchronized static void checkProcessingPairs() {
+		List<PairStageProcessorTriple> triples = JobPairs.getAllPairsForProcessing();
+		if (triples == null) {
+			return;
+		}
+		backlog = triples.size();
+		int queued = 0;
+		for (PairStageProcessorTriple triple : triples) {
+			if (inFlight.size() >= R.NUM_REPOSTPROCESS_AT_A_TIME) {
 				break;
+			}
+			String key = triple.getPairId() + ":" + triple.getStageNumber();
+			if (inFlight.add(key)) {
+				workers.execute(() -> process(triple));
+				queued++;
+			}
+		}
+		if (queued > 0) {
+			log.debug("checkProcessingPairs",
+			          "queued " + queued + " of " + triples.size() + " pair stages waiting for post processing");
+		}
+	}
+
+	/**
+	 * Runs the post processor for one pair stage on the current worker and queues the result to be saved
+	 */
+	private static void process(PairStageProcessorTriple triple) {
+		long start = System.nanoTime();
+		Properties props = null;
+		try {
+			Processor p = Processors.get(triple.getProcessorId());
+			ProcessorInstall install = getInstall(p);
+			props = JobPairs.runPostProcessorOnPair(
+					triple.getPairId(), triple.getStageNumber(), p, install.sandbox, install.staging);
+		} catch (Exception e) {
+			log.error("process", "pairId: " + triple.getPairId(), e);
+		}
+		processTimes.record(System.nanoTime() - start);
+		if (props == null) {
+			failed.increment();
+		}
+		List<PostProcessedStage> toSave = null;
+		synchronized (unsaved) {
+			unsaved.add(new PostProcessedStage(triple.getPairId(), triple.getStageNumber(), props));
+			// save when the batch is full, or when this was the last stage handed out so nothing is left waiting
+			if (unsaved.size() >= R.POST_PROCESSING_SAVE_BATCH_SIZE || unsaved.size() >= inFlight.size()) {
+				toSave = new ArrayList<>(unsaved);
+				unsaved.clear();
+			}
+		}
+		if (toSave != null) {
+			save(toSave);
+		}
+	}
+
+	/**
+	 * Saves a batch of results and, if the workers are running low on work while pairs are still waiting, hands out
+	 * more without waiting for the next periodic check. If the batch cannot be saved, each stage is saved on its own
+	 * so that one bad stage does not hold back the others. Stages that still cannot be saved are left for the next
+	 * periodic check to pick up again.
+	 */
+	private static void save(List<PostProcessedStage> toSave) {
+		int saved = toSave.size();
+		int unsavable = 0;
+		if (!JobPairs.savePostProcessingResults(toSave)) {
+			log.warn("save", "could not save a batch of " + toSave.size() + " pair stages, saving them one at a time");
+			for (PostProcessedStage s : toSave) {
+				if (!JobPairs.savePostProcessingResults(Collections.singletonList(s))) {
+					log.error("save", "could not save post processing results for pair " + s.pairId + " stage " +
+					                  s.stageNumber);
+					unsavable++;
+				}
+			}
+			saved -= unsavable;
+		}
+		for (PostProcessedStage s : toSave) {
+			inFlight.remove(s.pairId + ":" + s.stageNumber);
+		}
+		processed.add(saved);
+		failed.add(unsavable);
+		long now = System.currentTimeMillis();
+		synchronized (recentSaves) {
+			recentSaves.addLast(new long[]{now, saved});
+			while (!recentSaves.isEmpty() && recentSaves.peekFirst()[0] < now - THROUGHPUT_WINDOW) {
+				recentSaves.removeFirst();
+			}
+		}
+		// asking for more work right away would hand the unsavable stages straight back out
+		if (unsavable == 0 && backlog > R.NUM_REPOSTPROCESS_AT_A_TIME &&
+		    inFlight.size() < R.NUM_REPOSTPROCESS_AT_A_TIME / 2) {
+			checkProcessingPairs();
+		}
+	}
+
+	/**
+	 * Gets the sandboxed copy of the given processor for the current worker, copying it into a new sandbox if the
+	 * worker last used a different processor
+	 */
+	private static ProcessorInstall getInstall(Processor p) throws Exception {
+		ProcessorInstall install = installs.get();
+		if (install != null && install.isUsableFor(p)) {
+			return install;
+		}
+		if (install != null) {
+			install.delete();
+			installs.remove();
+		}
+		File sandbox = Util.copyFilesToNewSandbox(Collections.singletonList(new File(p.getFilePath())));
+		install = new ProcessorInstall(p, sandbox, Util.getRandomSandboxDirectory());
+		installs.set(install);
+		return install;
+	}
 
-    		}
-		    
-		   
-		    JobPairs.postProcessPair(triple.getPairId(),triple.getStageNumber(), triple.getProcessorId());
-		    num_processed++;
-    	}
-    }
+	/**
+	 * @return The number of worker threads
+	 */
+	public static int getWorkerCount() {
+		return R.POST_PROCESSING_THREADS;
+	}
+
+	/**
+	 * @return The number of pair stages that were waiting for post processing at the last check
+	 */
+	public static int getBacklog() {
+		return backlog;
+	}
+
+	/**
+	 * @return The number of pair stages handed to workers and not yet saved
+	 */
+	public static int getInFlight() {
+		return inFlight.size();
+	}
+
+	/**
+	 * @return The number of pair stages processed since startup
+	 */
+	public static long getProcessedCount() {
+		return processed.sum();
+	}
+
+	/**
+	 * @return The number of pair stages since startup for which the processor could not be run or whose results
+	 * could not be saved
+	 */
+	public static long getFailedCount() {
+		return failed.sum();
+	}
+
+	/**
+	 * @return A summary of how long processing a pair stage takes, including copying its files
+	 */
+	public static String getProcessTimes() {
+		return processTimes.toString();
+	}
+
+	/**
+	 * @return The average number of pair stages saved per minute over the last ten minutes
+	 */
+	public static double getPairsPerMinute() {
+		long now = System.currentTimeMillis();
+		long total = 0;
+		synchronized (recentSaves) {
+			for (long[] save : recentSaves) {
+				if (save[0] >= now - THROUGHPUT_WINDOW) {
+					total += save[1];
+				}
+			}
+		}
+		return total / (THROUGHPUT_WINDOW / 60000.0);
+	}
+
+	/**
+	 * Stops the workers. Work that has already started is interrupted.
+	 */
+	public static void shutdown() {
+		workers.shutdownNow();
+	}
 }
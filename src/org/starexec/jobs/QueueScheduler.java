@@ -0,0 +1,80 @@
+package org.starexec.jobs;
+
+import org.starexec.data.to.Queue;
+import org.starexec.logger.StarLogger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs scheduling work for several queues at once on a fixed number of worker threads, so that one slow queue does
+ * not hold up the others. Work for any single queue is never run by two threads at the same time, and the number of
+ * worker threads bounds how many database connections scheduling can hold at once.
+ */
+public class QueueScheduler {
+	private static final StarLogger log = StarLogger.getLogger(QueueScheduler.class);
+
+	private final ExecutorService pool;
+
+	// queue ID -> object that must be held while doing scheduling work for that queue
+	private final ConcurrentHashMap<Integer, Object> queueLocks = new ConcurrentHashMap<>();
+
+	/**
+	 * @param threads The maximum number of queues to work on at once
+	 */
+	public QueueScheduler(int threads) {
+		pool = Executors.newFixedThreadPool(threads);
+	}
+
+	/**
+	 * Runs the given work once for every queue, in parallel, and returns once all of it has finished. Exceptions
+	 * thrown for one queue are logged and do not affect the other queues.
+	 *
+	 * @param queues The queues to do work for
+	 * @param work The work to do for each queue
+	 */
+	public void runOnQueues(Collection<Queue> queues, Consumer<Queue> work) {
+		List<Future<?>> futures = new ArrayList<>();
+		for (Queue q : queues) {
+			futures.add(pool.submit(() -> runOnQueue(q, work)));
+		}
+		for (Future<?> f : futures) {
+			try {
+				f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				log.error("runOnQueues", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Runs the given work for one queue on the calling thread, waiting first for any other work on the same queue
+	 * to finish.
+	 *
+	 * @param q The queue to do work for
+	 * @param work The work to do
+	 */
+	public void runOnQueue(Queue q, Consumer<Queue> work) {
+		Object lock = queueLocks.computeIfAbsent(q.getId(), k -> new Object());
+		synchronized (lock) {
+			work.accept(q);
+		}
+	}
+
+	/**
+	 * Stops the worker threads. Work that has already started is interrupted.
+	 */
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+}
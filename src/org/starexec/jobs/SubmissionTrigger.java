@@ -0,0 +1,164 @@
+package org.starexec.jobs;
+
+import org.starexec.constants.R;
+import org.starexec.data.database.JobPairs;
+import org.starexec.data.to.tuples.QueueCompletions;
+import org.starexec.logger.StarLogger;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wakes the scheduler for a single queue when something happens that could let more pairs run on it: pairs on the
+ * queue complete, a job on the queue is created or resumed, or nodes are added to the queue. Requests are debounced
+ * so that a burst of events results in one scheduling run per queue. The periodic SUBMIT_JOBS task still runs as a
+ * fallback in case an event is missed.
+ * <p>
+ * This class also keeps track of how long nodes sit idle, measured from the time a pair on a queue finishes until
+ * the next time pairs are enqueued on that queue.
+ */
+public class SubmissionTrigger {
+	private static final StarLogger log = StarLogger.getLogger(SubmissionTrigger.class);
+
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+	// queues that have had submission requested since the last scheduling run. Guarded by SubmissionTrigger.class
+	private static final Set<Integer> pendingQueues = new HashSet<>();
+	private static boolean runScheduled = false;
+
+	// the newest completion ID that has already been seen by pollCompletions, or null if it has not yet run
+	private static Integer lastCompletionId = null;
+
+	// queue ID -> end time (ms) of the earliest pair that finished since pairs were last enqueued on that queue
+	private static final Map<Integer, Long> earliestUnfilledCompletion = new HashMap<>();
+	private static final Map<Integer, IdleTimeStats> queueIdleTimes = new HashMap<>();
+
+	/**
+	 * Requests that pending pairs be submitted to the given queue soon. Any number of requests for any number of
+	 * queues within the debounce window result in a single scheduling run.
+	 *
+	 * @param queueId The queue to schedule
+	 * @param reason A short description of why submission was requested, for logging
+	 */
+	public static synchronized void requestSubmission(int queueId, String reason) {
+		log.debug("requestSubmission", "submission requested for queue " + queueId + ": " + reason);
+		pendingQueues.add(queueId);
+		if (!runScheduled) {
+			runScheduled = true;
+			scheduler.schedule(SubmissionTrigger::runPendingQueues, R.SUBMISSION_TRIGGER_DEBOUNCE, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Runs the scheduler for every queue that has been requested since the last run.
+	 */
+	private static void runPendingQueues() {
+		Set<Integer> queues;
+		synchronized (SubmissionTrigger.class) {
+			queues = new HashSet<>(pendingQueues);
+			pendingQueues.clear();
+			runScheduled = false;
+		}
+		try {
+			JobManager.checkPendingJobs(queues);
+		} catch (Throwable e) {
+			log.error("runPendingQueues", "error scheduling queues " + queues, e);
+		}
+	}
+
+	/**
+	 * Looks for pairs that have completed since the last call and requests submission for every queue they ran on.
+	 * This is a single indexed range query on job_pair_completion, so it is cheap enough to run every few seconds.
+	 */
+	public static void pollCompletions() {
+		try {
+			if (lastCompletionId == null) {
+				lastCompletionId = JobPairs.getLatestCompletionId();
+				return;
+			}
+			for (QueueCompletions c : JobPairs.getQueuesWithCompletionsSince(lastCompletionId)) {
+				lastCompletionId = Math.max(lastCompletionId, c.lastCompletionId);
+				if (c.firstEndTime != null) {
+					recordCompletion(c.queueId, c.firstEndTime.getTime());
+				}
+				requestSubmission(c.queueId, "pairs completed");
+			}
+		} catch (SQLException e) {
+			log.error("pollCompletions", "could not check for completed pairs", e);
+		}
+	}
+
+	private static synchronized void recordCompletion(int queueId, long endTime) {
+		Long earliest = earliestUnfilledCompletion.get(queueId);
+		if (earliest == null || endTime < earliest) {
+			earliestUnfilledCompletion.put(queueId, endTime);
+		}
+	}
+
+	/**
+	 * Called by the scheduler after it has enqueued pairs on a queue. If a pair finished on the queue before this,
+	 * the time since it finished is recorded as idle time for the queue.
+	 *
+	 * @param queueId The queue that pairs were just enqueued on
+	 */
+	static synchronized void pairsEnqueued(int queueId) {
+		Long earliest = earliestUnfilledCompletion.remove(queueId);
+		if (earliest == null) {
+			return;
+		}
+		long idle = Math.max(0, System.currentTimeMillis() - earliest);
+		IdleTimeStats stats = queueIdleTimes.computeIfAbsent(queueId, k -> new IdleTimeStats());
+		stats.add(idle);
+		log.info("pairsEnqueued", "queue " + queueId + " had a free slot for " + idle +
+		                          " milliseconds before new pairs were enqueued");
+	}
+
+	/**
+	 * @param queueId The ID of a queue
+	 * @return A human readable summary of how long nodes on this queue have sat idle between a pair finishing and
+	 * the next pair being enqueued, or an empty string if nothing has been measured yet.
+	 */
+	public static synchronized String getIdleTimeRepresentation(int queueId) {
+		IdleTimeStats stats = queueIdleTimes.get(queueId);
+		if (stats == null) {
+			return "";
+		}
+		return stats.toString();
+	}
+
+	/**
+	 * Stops the trigger thread. Called when StarExec shuts down.
+	 */
+	public static void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	/**
+	 * Running totals of the idle times measured for one queue
+	 */
+	private static class IdleTimeStats {
+		private long count = 0;
+		private long total = 0;
+		private long max = 0;
+		private long last = 0;
+
+		void add(long idle) {
+			count++;
+			total += idle;
+			max = Math.max(max, idle);
+			last = idle;
+		}
+
+		@Override
+		public String toString() {
+			return "idle time between pair completion and next enqueue (ms): last=" + last + " avg=" +
+			       (total / count) + " max=" + max + " samples=" + count;
+		}
+	}
+}
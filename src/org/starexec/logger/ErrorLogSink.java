@@ -0,0 +1,194 @@
+package org.starexec.logger;
+
+import org.starexec.constants.R;
+import org.starexec.data.database.ErrorLogs;
+import org.starexec.data.to.ErrorLog;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Saves the messages logged by StarLogger to the error_logs table from a single background thread, so that logging an
+ * error never waits on the database. Messages are queued and written in batches. A message that is logged again at the
+ * same level within the same window, stack trace and all, is saved once along with the number of times it was logged.
+ * If the queue fills up, new messages are dropped and the number dropped is saved with the next batch.
+ */
+public class ErrorLogSink {
+	// This class is called by StarLogger, so it must not log with StarLogger itself.
+	private static final NonSavingStarLogger log = NonSavingStarLogger.getLogger(ErrorLogSink.class);
+
+	private static final ErrorLogSink sink =
+			new ErrorLogSink(R.ERROR_LOG_QUEUE_SIZE, R.ERROR_LOG_COALESCE_WINDOW, R.ERROR_LOG_BATCH_SIZE,
+			                 ErrorLogs::addAll);
+
+	/**
+	 * A message and the number of times it was logged in the current window
+	 */
+	private static class Entry {
+		final ErrorLog first;
+		int count = 1;
+		Timestamp last;
+
+		Entry(ErrorLog first) {
+			this.first = first;
+			this.last = first.getTime();
+		}
+
+		ErrorLog toErrorLog() {
+			if (count == 1) {
+				return first;
+			}
+			long seconds = (last.getTime() - first.getTime().getTime()) / 1000;
+			String message = "(logged " + count + " times in " + seconds + " seconds) " + first.getMessage();
+			return new ErrorLog(-1, message, first.getLevel(), first.getTime());
+		}
+	}
+
+	private final BlockingQueue<ErrorLog> queue;
+	private final long window;
+	private final int batchSize;
+	private final Predicate<List<ErrorLog>> writer;
+	// queued by shutdown to wake the worker up, and never saved
+	private final ErrorLog stop = new ErrorLog(-1, "", StarLevel.OFF, null);
+	private final Thread worker;
+	private volatile boolean running = true;
+
+	private final LongAdder dropped = new LongAdder();
+	// the number of dropped messages that have been reported in the error_logs table
+	private long reportedDrops = 0;
+
+	/**
+	 * Creates a sink and starts its worker thread. StarLogger uses the one returned by getSink; other sinks are only
+	 * useful for testing.
+	 *
+	 * @param capacity the number of messages that can be waiting to be saved before new ones are dropped
+	 * @param window milliseconds over which repeated messages are counted rather than saved again
+	 * @param batchSize the number of distinct messages waiting that causes them to be saved before the window ends
+	 * @param writer saves a batch of logs, returning false if it could not
+	 */
+	public ErrorLogSink(int capacity, long window, int batchSize, Predicate<List<ErrorLog>> writer) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.window = window;
+		this.batchSize = batchSize;
+		this.writer = writer;
+		this.worker = new Thread(this::run, "error-log-sink");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * @return the sink that StarLogger saves errors to
+	 */
+	public static ErrorLogSink getSink() {
+		return sink;
+	}
+
+	/**
+	 * Queues a message to be saved. Never blocks: if the queue is full or the sink has been shut down, the message is
+	 * dropped and counted.
+	 *
+	 * @param message the message, including the logger name and any stack trace
+	 * @param level the level the message was logged at
+	 */
+	public void add(String message, StarLevel level) {
+		if (!running || !queue.offer(new ErrorLog(-1, message, level, new Timestamp(System.currentTimeMillis())))) {
+			dropped.increment();
+		}
+	}
+
+	private void run() {
+		Map<String, Entry> pending = new LinkedHashMap<>();
+		List<ErrorLog> drained = new ArrayList<>();
+		long windowEnd = System.currentTimeMillis() + window;
+		while (running || !queue.isEmpty()) {
+			try {
+				ErrorLog next = queue.poll(Math.max(windowEnd - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+				if (next != null) {
+					drained.add(next);
+					queue.drainTo(drained, batchSize);
+					for (ErrorLog errorLog : drained) {
+						if (errorLog == stop) {
+							continue;
+						}
+						pending.compute(errorLog.getLevel() + ":" + errorLog.getMessage(), (key, entry) -> {
+							if (entry == null) {
+								return new Entry(errorLog);
+							}
+							entry.count++;
+							entry.last = errorLog.getTime();
+							return entry;
+						});
+					}
+					drained.clear();
+				}
+			} catch (InterruptedException e) {
+				log.warn("run", "Interrupted while waiting for error logs.");
+			}
+			if (System.currentTimeMillis() >= windowEnd || pending.size() >= batchSize ||
+			    (!running && queue.isEmpty())) {
+				save(pending);
+				windowEnd = System.currentTimeMillis() + window;
+			}
+		}
+		save(pending);
+	}
+
+	/**
+	 * Saves the pending entries, along with a note of any messages dropped since the last save, and clears them
+	 */
+	private void save(Map<String, Entry> pending) {
+		List<ErrorLog> batch = new ArrayList<>(pending.size() + 1);
+		for (Entry entry : pending.values()) {
+			batch.add(entry.toErrorLog());
+		}
+		pending.clear();
+		long drops = dropped.sum() - reportedDrops;
+		if (drops > 0) {
+			batch.add(new ErrorLog(-1, "(" + ErrorLogSink.class.getName() + ") - " + drops +
+			                           " messages were dropped because the error log queue was full", StarLevel.WARN,
+			                       new Timestamp(System.currentTimeMillis())));
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+		if (writer.test(batch)) {
+			reportedDrops += drops;
+		} else {
+			log.warn("save", "Failed to save " + batch.size() + " error logs.");
+		}
+	}
+
+	/**
+	 * @return the number of messages dropped since startup because the queue was full
+	 */
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Stops accepting messages and waits for the ones already queued to be saved.
+	 *
+	 * @param timeout the most milliseconds to wait
+	 */
+	public void shutdown(long timeout) {
+		running = false;
+		// if the queue is full the worker is not waiting, and will see that it should stop once it has saved it
+		queue.offer(stop);
+		try {
+			worker.join(timeout);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (worker.isAlive()) {
+			log.warn("shutdown", "Gave up waiting for " + queue.size() + " error logs to be saved.");
+		}
+	}
+}
@@ -1,13 +1,11 @@
 package org.starexec.logger;
 
 import org.apache.log4j.Logger;
-import org.starexec.data.database.ErrorLogs;
 import org.starexec.util.Util;
 
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
-import java.util.Optional;
 
 public class StarLogger extends BaseStarLogger {
 
@@ -76,11 +74,8 @@ public class StarLogger extends BaseStarLogger {
 
 		
 		
-		Optional<Integer> logId = ErrorLogs.add(messageAndTrace, level);
-		if (!logId.isPresent()) {
-			// This log is just a basic log4j logger.
-			log.error("Failed to add error message to logs.");
-		}
+		// Saved from a background thread so that a burst of errors does not wait on the database.
+		ErrorLogSink.getSink().add(messageAndTrace, level);
     }
 
 
@@ -13,6 +13,7 @@ import org.starexec.data.security.ValidatorStatusCode;
 import org.starexec.data.to.*;
 import org.starexec.data.to.enums.ProcessorType;
 import org.starexec.data.to.pipelines.JoblineStage;
+import org.starexec.data.to.tuples.JobPairSummary;
 import org.starexec.logger.StarLogger;
 import org.starexec.util.*;
 
@@ -21,13 +22,13 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 
 /**
@@ -271,85 +272,89 @@ public class Download extends HttpServlet {
 	}
 
 	/**
-	 * Processes a job csv file to be downloaded. The file contains the information of all the job pairs within the
-	 * specific job, given a random name, and placed in a secure folder on the server.
+	 * Streams a job csv file to the client. The file contains the information of all the job pairs within the
+	 * specific job. Rows are read from the database and written to the response as they arrive, so memory use does
+	 * not depend on the number of pairs in the job.
 	 *
 	 * @param jobId the job needed to be processed.
 	 * @param userId the Id of the user who sends the request for the file.
 	 * @param response the servlet response sent back.
-	 * @return a file representing the archive to send back to the client
-	 * @throws IOException
+	 * @param since If not null, only pairs with completion IDs greater than this are included
+	 * @param returnIds Whether to include pair, benchmark, solver and configuration IDs
+	 * @param onlyCompleted Whether to leave out incomplete pairs
+	 * @param gzip If true, the csv is sent gzipped on its own. Otherwise, it is sent in a zip archive
+	 * @return true on success
+	 * @throws Exception
 	 * @author Ruoyu Zhang
 	 */
 	private static boolean handleJob(
 			Integer jobId, int userId, HttpServletResponse response, Integer since, Boolean returnIds,
-			Boolean onlyCompleted
+			Boolean onlyCompleted, boolean gzip
 	) throws Exception {
 		log.info("Request for job " + jobId + " csv from user " + userId);
 
 		Job job = Jobs.get(jobId);
-		HashMap<Integer, HashMap<Integer, Properties>> props = null;
-		if (since == null) {
-			job.setJobPairs(Jobs.getJobPairsInJobSpaceHierarchy(job.getPrimarySpace(), PrimitivesToAnonymize.NONE));
-			props = Jobs.getJobAttributes(jobId);
-		} else {
-			job.setJobPairs(
-					Jobs.getJobPairsInJobSpaceHierarchy(job.getPrimarySpace(), since, PrimitivesToAnonymize.NONE));
-			props = Jobs.getNewJobAttributes(jobId, since);
+		JobPairSummary summary = Jobs.getJobPairSummaryInJobSpaceHierarchy(job.getPrimarySpace(), since);
+		if (since != null) {
 			int olderPairs = Jobs.countOlderPairs(jobId, since);
 
-			log.debug("found this many new job pairs " + job.getJobPairs().size());
+			log.debug("found this many new job pairs " + summary.pairCount);
 			//we want to find the largest completion ID seen and send that back to the client
-			//so that they know what to ask for next time (mostly for StarexecCommand)
-			int maxCompletion = since;
-			for (JobPair x : job.getJobPairs()) {
-				log.trace("found pair id = " + x.getId() + " with completion id = " + x.getCompletionId());
-				if (x.getCompletionId() > maxCompletion) {
-					maxCompletion = x.getCompletionId();
-				}
-			}
-
-			response.addCookie(new Cookie("Max-Completion", String.valueOf(maxCompletion)));
-			response.addCookie(new Cookie("Pairs-Found", String.valueOf(job.getJobPairs().size())));
+			//so that they know what to ask for next time (mostly for StarexecCommand). Only pairs up to this
+			//completion ID are written, so pairs that complete while the csv is being sent are picked up next time
+			response.addCookie(new Cookie("Max-Completion", String.valueOf(summary.maxCompletionId)));
+			response.addCookie(new Cookie("Pairs-Found", String.valueOf(summary.pairCount)));
 			response.addCookie(new Cookie("Older-Pairs", String.valueOf(olderPairs)));
 			response.addCookie(new Cookie("Total-Pairs", String.valueOf(Jobs.getPairCount(jobId))));
 		}
-		Jobs.loadPropertiesIntoPairs(job.getJobPairs(), props);
-		log.debug("about to create a job CSV with " + job.getJobPairs().size() + " pairs");
-		String jobFile = CreateJobCSV(job, returnIds, onlyCompleted);
-		ArchiveUtil.createAndOutputZip(new File(jobFile), response.getOutputStream(), "Job"+jobId, false);
+		List<String> attrNames =
+				Jobs.getCompletedAttrNamesInJobSpaceHierarchy(job.getPrimarySpace(), since, summary.maxCompletionId);
+		log.debug("about to stream a job CSV with " + summary.pairCount + " pairs");
+
+		String csvName = "Job" + jobId + "_info.csv";
+		OutputStream output;
+		ZipArchiveOutputStream zip = null;
+		if (gzip) {
+			output = new GZIPOutputStream(response.getOutputStream());
+		} else {
+			zip = new ZipArchiveOutputStream(response.getOutputStream());
+			zip.putArchiveEntry(new ZipArchiveEntry("Job" + jobId + File.separator + csvName));
+			output = zip;
+		}
+		Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+		writeJobCSV(writer, job, since, summary, attrNames, returnIds, onlyCompleted);
+		writer.flush();
+		if (zip != null) {
+			zip.closeArchiveEntry();
+		}
+		writer.close();
 
 		return true;
 	}
 
 	/**
-	 * Create the csv file for a specific job
+	 * Writes the csv for a job
 	 *
+	 * @param writer Where to write the csv
 	 * @param job the job needed to be processed
-	 * @return the file name of the created csv file
+	 * @param since If not null, only pairs with completion IDs greater than this are included
+	 * @param summary The summary of the pairs to include, from getJobPairSummaryInJobSpaceHierarchy
+	 * @param attrNames The attribute columns of the csv
+	 * @param returnIds Whether to include pair, benchmark, solver and configuration IDs
+	 * @param getOnlyCompleted Whether to leave out incomplete pairs
 	 * @throws IOException
+	 * @throws SQLException
 	 * @author Ruoyu Zhang
 	 */
-	private static String CreateJobCSV(Job job, Boolean returnIds, Boolean getOnlyCompleted) throws IOException {
-		log.debug("CreateJobCSV called with returnIds set to " + returnIds);
-		StringBuilder sb = new StringBuilder();
-		sb.append(R.STAREXEC_ROOT).append(R.DOWNLOAD_FILE_DIR);
-		sb.append(File.separator);
-		int maxStageNumbers = 0;
-		for (JobPair jp : job) {
-			maxStageNumbers = Math.max(maxStageNumbers, jp.getStages().size());
-		}
-		sb.append("Job");
-		sb.append(job.getId());
-		sb.append("_info");
-		sb.append(".csv");
-		String filename = sb.toString();
-
-		List<JobPair> pairs = job.getJobPairs();
-		Iterator<JobPair> itr = pairs.iterator();
+	private static void writeJobCSV(
+			Writer writer, Job job, Integer since, JobPairSummary summary, List<String> attrNames, Boolean returnIds,
+			Boolean getOnlyCompleted
+	) throws IOException, SQLException {
+		log.debug("writeJobCSV called with returnIds set to " + returnIds);
+		int maxStageNumbers = summary.maxStages;
 
 		/* generate the table header */
-		sb.delete(0, sb.length());
+		StringBuilder sb = new StringBuilder();
 		if (maxStageNumbers > 1) {
 			sb.append("stage number,");
 		}
@@ -361,45 +366,37 @@ public class Download extends HttpServlet {
 			sb.append("benchmark,solver,configuration,status,cpu time,wallclock time,memory usage,result");
 		}
 
-		HashMap<Integer, String> expectedValues = Jobs.getAllAttrsOfNameForJob(job.getId(), R.EXPECTED_RESULT);
-		for (JobPair jp : pairs) {
-			if (expectedValues.containsKey(jp.getBench().getId())) {
-				jp.getPrimaryStage().getAttributes().put(R.EXPECTED_RESULT, expectedValues.get(jp.getBench().getId()));
-			}
-		}
-		/* use the attribute names for the first completed job pair (if any) for more headings for the table
+		/* the attribute names of completed job pairs give more headings for the table
 		We will put result first, then expected if it is there; other attributes follow */
-		Set<String> attrNames = job.attributeNames();
 		boolean have_expected = false;
-		if (attrNames != null) {
-			if (attrNames.contains(R.EXPECTED_RESULT)) {
-				// we have the expected result attribute
-				have_expected = true;
-				sb.append(",expected");
-			}
-			for (String attr : attrNames) {
-				if (!attr.equals(R.STAREXEC_RESULT) && !attr.equals(R.EXPECTED_RESULT)) {
-					// skip printing result and expected result in the header of the table, since we already included
-					// them
-					sb.append(",");
-					sb.append(attr);
-				}
+		if (attrNames.contains(R.EXPECTED_RESULT)) {
+			// we have the expected result attribute
+			have_expected = true;
+			sb.append(",expected");
+		}
+		for (String attr : attrNames) {
+			if (!attr.equals(R.STAREXEC_RESULT) && !attr.equals(R.EXPECTED_RESULT)) {
+				// skip printing result and expected result in the header of the table, since we already included
+				// them
+				sb.append(",");
+				sb.append(attr);
 			}
 		}
 		sb.append("\r\n");
+		writer.write(sb.toString());
 
-		while (itr.hasNext()) {
-			JobPair pair = itr.next();
+		final boolean haveExpected = have_expected;
+		final int[] written = {0, 0};
+		Jobs.forEachJobPairInJobSpaceHierarchy(job.getPrimarySpace(), since, summary.maxCompletionId, pair -> {
+			written[0]++;
+			//users can optionally get only completed pairs
 			if (getOnlyCompleted) {
 				if (pair.getStatus().getCode().incomplete()) {
-					log.debug("found an incomplete pair to exclude!");
-					continue;
+					return;
 				}
 			}
-			pair.sortStages();
+			sb.setLength(0);
 			for (JoblineStage stage : pair.getStages()) {
-				//users can optionally get only completed pairs
-
 				if (maxStageNumbers > 1) {
 					sb.append(stage.getStageNumber());
 					sb.append(",");
@@ -446,33 +443,38 @@ public class Download extends HttpServlet {
 				sb.append(",");
 				sb.append(stage.getStarexecResult());
 
-				if (attrNames != null) {
-					// print out attributes for this job pair
-					Properties props = stage.getAttributes();
+				// print out attributes for this job pair
+				Properties props = stage.getAttributes();
 
-					if (have_expected && props != null) {
+				if (haveExpected && props != null) {
+					sb.append(",");
+					sb.append(props.getProperty(R.EXPECTED_RESULT, "-"));
+				}
+				for (String attr : attrNames) {
+					if (!attr.equals(R.STAREXEC_RESULT) && !attr.equals(R.EXPECTED_RESULT)) {
+						/* we skip printing the starexec-result, and starexec-expected-result attributes,
+						   because we printed them already */
 						sb.append(",");
-						sb.append(props.getProperty(R.EXPECTED_RESULT, "-"));
-					}
-					for (String attr : attrNames) {
-						if (!attr.equals(R.STAREXEC_RESULT) && !attr.equals(R.EXPECTED_RESULT)) {
-							/* we skip printing the starexec-result, and starexec-expected-result attributes,
-							   because we printed them already */
-							sb.append(",");
-							sb.append(props.getProperty(attr, "-"));
-						}
+						sb.append(props.getProperty(attr, "-"));
 					}
 				}
 				sb.append("\r\n");
+				written[1]++;
 			}
-		}
-		FileUtils.write(new File(filename), sb.toString());
-		return filename;
+			writer.write(sb.toString());
+			if (written[0] % R.JOB_CSV_PROGRESS_INTERVAL == 0) {
+				log.debug("job " + job.getId() + " csv: read " + written[0] + " of " + summary.pairCount +
+				          " pairs, wrote " + written[1] + " rows");
+			}
+		});
+		log.debug("job " + job.getId() + " csv: finished with " + written[1] + " rows from " + written[0] + " pairs");
 	}
 
 	/**
 	 * Puts all the given pairs into a zip archive that is streamed into the http response object. The http output
-	 * stream is closed at the end
+	 * stream is closed at the end. Whether anything has been modified is decided from file metadata before any
+	 * output is compressed, and the archive is then written straight to the response as it is built, so memory use
+	 * does not grow with the size of the output.
 	 *
 	 * @param pairs The pairs to output
 	 * @param response The HTTP response
@@ -484,83 +486,101 @@ public class Download extends HttpServlet {
 	private static void addJobPairsToZipOutput(
 			List<JobPair> pairs, HttpServletResponse response, String baseName, boolean useSpacePath, Long earlyDate
 	) {
+		try {
+			long lastModified = addJobPairsToZip(pairs, null, baseName, useSpacePath, earlyDate);
+			if (lastModified == -1 || earlyDate == Long.valueOf(lastModified)) {
+				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				response.getOutputStream().close();
+				return;
+			}
+			response.setDateHeader("Last-Modified", lastModified);
+			ZipArchiveOutputStream stream = new ZipArchiveOutputStream(response.getOutputStream());
+			addJobPairsToZip(pairs, stream, baseName, useSpacePath, earlyDate);
+			stream.finish();
+			stream.close();
+		} catch (Exception e) {
+			log.error("addJobPairsToZipOutput", e);
+		}
+	}
+
+	/**
+	 * Adds the output of the given pairs to a zip archive.
+	 *
+	 * @param pairs The pairs to output
+	 * @param stream The archive to write to. If null, nothing is written and only the modification time is found.
+	 * @param baseName The top level name to give to the archive
+	 * @param useSpacePath See addJobPairsToZipOutput
+	 * @param earlyDate Only retrieve files that were modified after the given date, for running job pairs only
+	 * @return The time the most recently modified file in the output was modified, or -1 if there were no files
+	 * @throws Exception
+	 */
+	private static long addJobPairsToZip(
+			List<JobPair> pairs, ZipArchiveOutputStream stream, String baseName, boolean useSpacePath, Long earlyDate
+	) throws Exception {
 		long lastModified;
 		if (earlyDate != null) {
 			lastModified = earlyDate;
 		} else {
 			lastModified = -1;
 		}
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		ZipArchiveOutputStream stream = new ZipArchiveOutputStream(buffer);
-		try {
-			for (JobPair p : pairs) {
-				String zipFileNameParent = "";
-				StringBuilder zipFileName = new StringBuilder(baseName);
+		for (JobPair p : pairs) {
+			String zipFileNameParent = "";
+			StringBuilder zipFileName = new StringBuilder(baseName);
+			zipFileName.append(File.separator);
+			if (useSpacePath) {
+				zipFileName.append(p.getBenchPath());
+				zipFileNameParent = zipFileName.toString();
 				zipFileName.append(File.separator);
-				if (useSpacePath) {
-					zipFileName.append(p.getBenchPath());
-					zipFileNameParent = zipFileName.toString();
-					zipFileName.append(File.separator);
-					zipFileName.append(p.getId());
-				}
-				List<File> files = JobPairs.getOutputPaths(p);
-				boolean running = p.getStatus().getCode().running();
-				for (File file : files) {
-					if (file.exists()) {
-						long modified;
-						StringBuilder singleFileName;
-						if (file.isDirectory()) {
-							if (useSpacePath) {
-								singleFileName = new StringBuilder(zipFileNameParent);
-							} else {
-								singleFileName = new StringBuilder(zipFileName);
-							}
-							//means this is adjacent to a stdout file
-							if (files.size() > 1) {
-								singleFileName.append(File.separator);
-								singleFileName.append(p.getId()).append("_output");
-							}
-							if (!running || earlyDate == null) {
-								modified = ArchiveUtil.addDirToArchive(stream, file, singleFileName.toString());
-							} else {
-								modified =
-										ArchiveUtil.addDirToArchive(stream, file, singleFileName.toString(),
-										                            earlyDate);
-							}
-						} else {
+				zipFileName.append(p.getId());
+			}
+			List<File> files = JobPairs.getOutputPaths(p);
+			boolean running = p.getStatus().getCode().running();
+			// files are only filtered by date for running pairs
+			long since = (!running || earlyDate == null) ? -1 : earlyDate;
+			for (File file : files) {
+				if (file.exists()) {
+					long modified;
+					StringBuilder singleFileName;
+					if (file.isDirectory()) {
+						if (useSpacePath) {
 							singleFileName = new StringBuilder(zipFileNameParent);
+						} else {
+							singleFileName = new StringBuilder(zipFileName);
+						}
+						//means this is adjacent to a stdout file
+						if (files.size() > 1) {
 							singleFileName.append(File.separator);
-							singleFileName.append(file.getName());
-							if (!running || earlyDate == null) {
-								modified = ArchiveUtil.addFileToArchive(stream, file, singleFileName.toString());
-							} else {
-								modified = ArchiveUtil
-										.addFileToArchive(stream, file, singleFileName.toString(), earlyDate);
-							}
+							singleFileName.append(p.getId()).append("_output");
 						}
-
-						if (modified > lastModified) {
-							lastModified = modified;
+						if (stream == null) {
+							modified = ArchiveUtil.getLastModified(file, since);
+						} else {
+							modified = ArchiveUtil.addDirToArchive(stream, file, singleFileName.toString(), since);
 						}
 					} else {
-						//if we can't find output for the pair, just put an empty file there
-						zipFileName.append(".txt");
-						ArchiveUtil.addStringToArchive(stream, "", zipFileName.toString());
+						singleFileName = new StringBuilder(zipFileNameParent);
+						singleFileName.append(File.separator);
+						singleFileName.append(file.getName());
+						if (stream == null) {
+							modified = ArchiveUtil.getLastModified(file, since);
+						} else if (since == -1) {
+							modified = ArchiveUtil.addFileToArchive(stream, file, singleFileName.toString());
+						} else {
+							modified = ArchiveUtil.addFileToArchive(stream, file, singleFileName.toString(), since);
+						}
 					}
+
+					if (modified > lastModified) {
+						lastModified = modified;
+					}
+				} else if (stream != null) {
+					//if we can't find output for the pair, just put an empty file there
+					zipFileName.append(".txt");
+					ArchiveUtil.addStringToArchive(stream, "", zipFileName.toString());
 				}
 			}
-			if (lastModified == -1 || earlyDate == Long.valueOf(lastModified)) {
-				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
-			} else {
-				response.setDateHeader("Last-Modified", lastModified);
-				stream.finish();
-				buffer.writeTo(response.getOutputStream());
-			}
-			response.getOutputStream().close();
-			stream.close();
-		} catch (Exception e) {
-			log.error("addJobPairsToZipOutput", e);
 		}
+		return lastModified;
 	}
 
 	/**
@@ -1048,9 +1068,17 @@ public class Download extends HttpServlet {
 				log.debug(methodName, "returnids = " + ids);
 				log.debug(methodName, sinceParam + " = " + since);
 
+				final String gzipParam = "gzip";
+				boolean gzip = Boolean.parseBoolean(request.getParameter(gzipParam));
+				log.debug(methodName, gzipParam + " = " + gzip);
+
 				shortName = "Job" + jobId + "_info";
-				response.addHeader("Content-Disposition", "attachment; filename=" + shortName + ".zip");
-				success = handleJob(jobId, u.getId(), response, since, ids, complete);
+				if (gzip) {
+					response.addHeader("Content-Disposition", "attachment; filename=" + shortName + ".csv.gz");
+				} else {
+					response.addHeader("Content-Disposition", "attachment; filename=" + shortName + ".zip");
+				}
+				success = handleJob(jobId, u.getId(), response, since, ids, complete, gzip);
 			} else if (request.getParameter(PARAM_TYPE).equals(R.SPACE)) {
 				log.debug(methodName, "Handling " + R.SPACE);
 				Space space = Spaces.getDetails(Integer.parseInt(request.getParameter(PARAM_ID)), u.getId());
@@ -0,0 +1,209 @@
+package org.starexec.servlets;
+
+import org.starexec.constants.R;
+import org.starexec.data.database.JobPairs;
+import org.starexec.data.database.Jobs;
+import org.starexec.data.security.JobSecurity;
+import org.starexec.data.security.ValidatorStatusCode;
+import org.starexec.data.to.JobPair;
+import org.starexec.data.to.Status.StatusCode;
+import org.starexec.data.to.tuples.FileSlice;
+import org.starexec.logger.StarLogger;
+import org.starexec.util.OutputFollower;
+import org.starexec.util.SessionUtil;
+import org.starexec.util.Validator;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.SQLException;
+import java.util.regex.Pattern;
+
+/**
+ * Streams the output of a running pair to the browser as server-sent events while it is copied back, so that a user
+ * watching a long-running pair does not need to keep reloading it. Each event holds the output added since the last
+ * one and has the byte offset that it ends at as its ID, so a browser that reconnects picks up where it left off.
+ * When the pair finishes and all of its output has been sent, a "done" event is sent and the stream is closed.
+ * Requests are handled asynchronously and the output file is followed by OutputFollower, so open streams do not hold
+ * request threads.
+ */
+public class FollowPairOutput extends HttpServlet {
+	private static final StarLogger log = StarLogger.getLogger(FollowPairOutput.class);
+
+	// event data cannot contain line breaks, so each line of output is sent as its own data field
+	private static final Pattern LINE_BREAK = Pattern.compile("\r\n|\r|\n");
+
+	@Override
+	protected void doPost(HttpServletRequest request, HttpServletResponse response)
+			throws ServletException, IOException {
+		response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED, "Wrong type of request.");
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response)
+			throws ServletException, IOException {
+		ValidatorStatusCode status = validateRequest(request);
+		if (!status.isSuccess()) {
+			response.addCookie(new Cookie(R.STATUS_MESSAGE_COOKIE, status.getMessage()));
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, status.getMessage());
+			return;
+		}
+		int pairId = Integer.parseInt(request.getParameter("id"));
+		int stageNumber = Integer.parseInt(request.getParameter("stage"));
+		JobPair jp = JobPairs.getPair(pairId);
+		if (jp == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, "The given pair does not exist");
+			return;
+		}
+		status = JobSecurity.canUserSeeJob(jp.getJobId(), SessionUtil.getUserId(request));
+		if (!status.isSuccess()) {
+			response.sendError(HttpServletResponse.SC_FORBIDDEN, status.getMessage());
+			return;
+		}
+		if (!Boolean.TRUE.equals(Jobs.doesJobCopyBackIncrementally(jp.getJobId()))) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+			                   "Output can only be followed for jobs that copy back output while pairs run");
+			return;
+		}
+		String path = JobPairs.getStdout(pairId, stageNumber);
+		if (path == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, "The output for the given stage could not be found");
+			return;
+		}
+
+		// a browser that reconnects sends the ID of the last event it got, which is the offset to continue from
+		String lastEventId = request.getHeader("Last-Event-ID");
+		long offset = 0;
+		if (Validator.isValidLong(lastEventId)) {
+			offset = Long.parseLong(lastEventId);
+		} else if (Validator.isValidLong(request.getParameter("offset"))) {
+			offset = Long.parseLong(request.getParameter("offset"));
+		}
+
+		response.setContentType("text/event-stream");
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader("Cache-Control", "no-cache");
+		AsyncContext async = request.startAsync();
+		async.setTimeout(R.OUTPUT_FOLLOW_TIMEOUT);
+		EventStream stream = new EventStream(async, pairId);
+		async.addListener(stream);
+		if (!OutputFollower.getFollower().follow(new File(path), offset, stream)) {
+			log.warn("doGet", "Too many viewers are following output to follow pair " + pairId);
+			response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			async.complete();
+			return;
+		}
+		// sends the headers, so that the browser knows the stream is open before there is any output
+		response.flushBuffer();
+	}
+
+	private static ValidatorStatusCode validateRequest(HttpServletRequest request) {
+		if (!Validator.isValidPosInteger(request.getParameter("id"))) {
+			return new ValidatorStatusCode(false, "The supplied id is not a valid integer");
+		}
+		if (!Validator.isValidPosInteger(request.getParameter("stage"))) {
+			return new ValidatorStatusCode(false, "The supplied stage is not a valid integer");
+		}
+		return new ValidatorStatusCode(true);
+	}
+
+	/**
+	 * Sends the output of one pair to one browser
+	 */
+	private static class EventStream implements OutputFollower.Viewer, AsyncListener {
+		private final AsyncContext async;
+		private final int pairId;
+		private boolean closed = false;
+
+		EventStream(AsyncContext async, int pairId) {
+			this.async = async;
+			this.pairId = pairId;
+		}
+
+		private synchronized void write(String event) throws IOException {
+			if (closed) {
+				throw new IOException("the stream for pair " + pairId + " has been closed");
+			}
+			PrintWriter writer = async.getResponse().getWriter();
+			writer.write(event);
+			writer.flush();
+			if (writer.checkError()) {
+				throw new IOException("the browser following pair " + pairId + " has disconnected");
+			}
+		}
+
+		@Override
+		public void send(FileSlice slice) throws IOException {
+			StringBuilder event = new StringBuilder(slice.text.length() + 64);
+			event.append("id: ").append(slice.end).append('\n');
+			for (String line : LINE_BREAK.split(slice.text, -1)) {
+				event.append("data: ").append(line).append('\n');
+			}
+			write(event.append('\n').toString());
+		}
+
+		@Override
+		public void keepAlive() throws IOException {
+			write(":\n\n");
+		}
+
+		@Override
+		public boolean isFinished() {
+			try {
+				StatusCode code = JobPairs.getPairStatusCode(pairId);
+				return code == null || code.finishedRunning();
+			} catch (SQLException e) {
+				log.error("isFinished", e);
+				return false;
+			}
+		}
+
+		@Override
+		public void close(boolean finished) {
+			try {
+				if (finished) {
+					write("event: done\ndata: \n\n");
+				}
+			} catch (IOException e) {
+				log.debug("close", e.getMessage());
+			}
+			complete();
+		}
+
+		private synchronized void complete() {
+			if (!closed) {
+				closed = true;
+				async.complete();
+			}
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			OutputFollower.getFollower().stop(this);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			OutputFollower.getFollower().stop(this);
+			complete();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			OutputFollower.getFollower().stop(this);
+			complete();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+		}
+	}
+}
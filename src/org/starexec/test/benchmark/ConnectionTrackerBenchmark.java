@@ -0,0 +1,132 @@
+package org.starexec.test.benchmark;
+
+import org.starexec.constants.R;
+import org.starexec.data.database.ConnectionTracker;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+/**
+ * Compares how long many threads take to borrow and return connections when they are counted by ConnectionTracker
+ * and when they are counted the way Common used to, where every borrow and return, including the pool's own work,
+ * synchronized on one lock to update a counter and ask the pool for its active count. Not part of the unit tests; run
+ * it with
+ * <pre>ant benchmark -Dbenchmark=ConnectionTrackerBenchmark [-Dbenchmark.args="threads iterations"]</pre>
+ */
+public class ConnectionTrackerBenchmark {
+	// roughly what the pool spends borrowing or returning a connection
+	private static final long POOL_WORK_NANOS = 2000;
+	private static final int ROUNDS = 3;
+
+	private static void poolWork() {
+		long end = System.nanoTime() + POOL_WORK_NANOS;
+		while (System.nanoTime() < end) {
+			// spin
+		}
+	}
+
+	// the old accounting in Common.getConnection and Common.safeClose
+	private static class SynchronizedAccounting {
+		private int connectionsOpened = 0;
+		private int poolActive = 0;
+		private int connectionsDrift = 0;
+
+		synchronized void acquired() {
+			poolWork();
+			poolActive++;
+			connectionsOpened++;
+			checkConnectionsCount();
+		}
+
+		synchronized void released() {
+			poolWork();
+			poolActive--;
+			connectionsOpened--;
+			checkConnectionsCount();
+		}
+
+		private synchronized void checkConnectionsCount() {
+			if (connectionsOpened - poolActive != connectionsDrift) {
+				connectionsDrift = connectionsOpened - poolActive;
+			}
+		}
+	}
+
+	// a connection that does nothing, usable as a map key
+	private static Connection newConnection() {
+		return (Connection) Proxy.newProxyInstance(
+				ConnectionTrackerBenchmark.class.getClassLoader(), new Class<?>[]{Connection.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						return null;
+					}
+				});
+	}
+
+	/**
+	 * @return How long, in milliseconds, all threads took to borrow and return their connections
+	 */
+	private static long runThreads(int threads, int iterations, Consumer<Connection> borrowAndReturn)
+			throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			Connection c = newConnection();
+			new Thread(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < iterations; i++) {
+						borrowAndReturn.accept(c);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			}).start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		done.await();
+		return (System.nanoTime() - begin) / 1000000;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+		SynchronizedAccounting old = new SynchronizedAccounting();
+		ConnectionTracker tracker = new ConnectionTracker(R.CONNECTION_CALL_SITE_SAMPLE_RATE);
+		Consumer<Connection> oldBorrow = c -> {
+			old.acquired();
+			old.released();
+		};
+		Consumer<Connection> trackerBorrow = c -> {
+			long begin = System.nanoTime();
+			poolWork();
+			tracker.acquired(c, System.nanoTime() - begin);
+			tracker.released(c);
+			poolWork();
+		};
+
+		System.out.println("borrowing and returning " + (threads * iterations) + " connections on " + threads +
+		                   " threads (" + Runtime.getRuntime().availableProcessors() + " cores)");
+		// the first round warms up both
+		for (int round = 0; round <= ROUNDS; round++) {
+			long oldTime = runThreads(threads, iterations, oldBorrow);
+			long newTime = runThreads(threads, iterations, trackerBorrow);
+			if (round > 0) {
+				System.out.println("round " + round + ": synchronized accounting took " + oldTime +
+				                   " ms, ConnectionTracker took " + newTime + " ms");
+			}
+		}
+		System.out.println(tracker.getStatistics(R.CONNECTION_STATISTICS_CALL_SITES));
+	}
+}
@@ -0,0 +1,105 @@
+package org.starexec.test.benchmark;
+
+import org.apache.commons.io.FileUtils;
+import org.starexec.backend.GridEngineBackend;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how many pairs per second a real grid engine accepts when pairs are submitted one at a time with
+ * submitScript and when they are submitted as array jobs with submitScripts, the two paths JobManager.submitPairBatch
+ * takes. It must be run on a grid engine head node with SGE_ROOT set, as the user that submits pairs. Every job it
+ * submits runs a script that exits immediately and is deleted once it has been timed, so use a queue that is not busy.
+ * Not part of the unit tests; run it with
+ * <pre>ant benchmark -Dbenchmark=GridEngineSubmissionBenchmark -Dbenchmark.args="scratchDir queue [pairs] [rounds]"</pre>
+ */
+public class GridEngineSubmissionBenchmark {
+
+	/**
+	 * Writes pairs scripts that ask for the queue and exit, along with a log path for each
+	 */
+	private static void writeScripts(File dir, String queue, int pairs, List<String> scriptPaths,
+	                                 List<String> logPaths) throws IOException {
+		for (int i = 0; i < pairs; i++) {
+			File script = new File(dir, "pair_" + i + ".bash");
+			FileUtils.writeStringToFile(script, "#!/bin/bash\n#$ -q " + queue + "\nexit 0\n", StandardCharsets.UTF_8);
+			if (!script.setExecutable(true, false) || !script.setReadable(true, false)) {
+				throw new IOException("could not make " + script.getAbsolutePath() + " executable");
+			}
+			scriptPaths.add(script.getAbsolutePath());
+			logPaths.add(new File(dir, "pair_" + i + ".log").getAbsolutePath());
+		}
+	}
+
+	private static double pairsPerSecond(int pairs, long nanos) {
+		return pairs / (nanos / 1e9);
+	}
+
+	/**
+	 * Deletes the jobs that were submitted and counts the ones grid engine rejected
+	 * @return the number of exec IDs that are errors
+	 */
+	private static int cleanUp(GridEngineBackend backend, int[] execIds) {
+		List<Integer> submitted = new ArrayList<>();
+		int errors = 0;
+		for (int execId : execIds) {
+			if (backend.isError(execId)) {
+				errors++;
+			} else {
+				submitted.add(execId);
+			}
+		}
+		backend.killPairs(submitted);
+		return errors;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("usage: GridEngineSubmissionBenchmark scratchDir queue [pairs] [rounds]");
+			return;
+		}
+		File scratch = new File(args[0]);
+		String queue = args[1];
+		int pairs = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+		int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+		File dir = Files.createTempDirectory(scratch.toPath(), "submission_benchmark").toFile();
+		List<String> scriptPaths = new ArrayList<>();
+		List<String> logPaths = new ArrayList<>();
+		writeScripts(dir, queue, pairs, scriptPaths, logPaths);
+
+		GridEngineBackend backend = new GridEngineBackend();
+		// the same root the web app is configured with
+		backend.initialize(System.getenv("SGE_ROOT"));
+		try {
+			System.out.println("submitting " + pairs + " pairs to " + queue);
+			for (int round = 1; round <= rounds; round++) {
+				int[] execIds = new int[pairs];
+				long begin = System.nanoTime();
+				for (int i = 0; i < pairs; i++) {
+					execIds[i] = backend.submitScript(scriptPaths.get(i), dir.getAbsolutePath(), logPaths.get(i));
+				}
+				long singleNanos = System.nanoTime() - begin;
+				int singleErrors = cleanUp(backend, execIds);
+
+				begin = System.nanoTime();
+				execIds = backend.submitScripts(scriptPaths, dir.getAbsolutePath(), logPaths, null);
+				long arrayNanos = System.nanoTime() - begin;
+				int arrayErrors = cleanUp(backend, execIds);
+
+				System.out.println(String.format(
+						"round %d: one at a time %.0f pairs/s (%d rejected), array jobs %.0f pairs/s (%d rejected)",
+						round, pairsPerSecond(pairs, singleNanos), singleErrors, pairsPerSecond(pairs, arrayNanos),
+						arrayErrors));
+			}
+		} finally {
+			backend.destroyIf();
+			FileUtils.deleteQuietly(dir);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package org.starexec.test.benchmark;
+
+import org.starexec.constants.R;
+import org.starexec.data.database.JobPairs;
+import org.starexec.data.to.Benchmark;
+import org.starexec.data.to.Configuration;
+import org.starexec.data.to.Job;
+import org.starexec.data.to.Solver;
+import org.starexec.data.to.Space;
+import org.starexec.jobs.JobPairCrossProduct;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times creating and adding the pairs of jobs with 10k, 100k and 1M pairs through JobPairs.insertJobPairs. The
+ * connection does nothing but count the statements it is sent, so the time reported is the time spent building and
+ * binding pairs, and the time spent waiting on the database is estimated from the number of round trips and the
+ * given round trip time. For comparison, it prints the round trips and estimated wait of adding the pairs one at a
+ * time with AddJobPair, as job creation used to do. Not part of the unit tests; run it with
+ * <pre>ant benchmark -Dbenchmark=JobPairInsertionBenchmark [-Dbenchmark.args="roundTripMicros"]</pre>
+ */
+public class JobPairInsertionBenchmark {
+	private static final int[] PAIR_COUNTS = {10000, 100000, 1000000};
+	private static final int SOLVERS = 10;
+	private static final String PATH = "root/sub";
+
+	private static int roundTrips = 0;
+
+	// a connection whose statements do nothing but count round trips
+	private static Connection newConnection() {
+		return (Connection) Proxy.newProxyInstance(
+				JobPairInsertionBenchmark.class.getClassLoader(), new Class<?>[]{Connection.class},
+				(proxy, method, args) -> {
+					if (method.getName().equals("prepareCall")) {
+						return newStatement();
+					}
+					return defaultValue(method.getReturnType());
+				});
+	}
+
+	private static CallableStatement newStatement() {
+		return (CallableStatement) Proxy.newProxyInstance(
+				JobPairInsertionBenchmark.class.getClassLoader(), new Class<?>[]{CallableStatement.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "executeBatch":
+						roundTrips++;
+						return new int[0];
+					case "executeUpdate":
+					case "execute":
+						roundTrips++;
+						return defaultValue(method.getReturnType());
+					default:
+						return defaultValue(method.getReturnType());
+					}
+				});
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		} else if (type == int.class) {
+			return 0;
+		} else if (type == long.class) {
+			return 0L;
+		}
+		return null;
+	}
+
+	private static Job getJob(int pairs) {
+		List<Solver> solvers = new ArrayList<>();
+		for (int i = 0; i < SOLVERS; i++) {
+			Solver s = new Solver();
+			s.setId(i + 1);
+			s.setName("solver" + i);
+			Configuration c = new Configuration();
+			c.setId(i + 1);
+			c.setName("default");
+			s.addConfiguration(c);
+			solvers.add(s);
+		}
+		List<Benchmark> benchmarks = new ArrayList<>();
+		for (int i = 0; i < pairs / SOLVERS; i++) {
+			Benchmark b = new Benchmark();
+			b.setId(i + 1);
+			b.setName("bench" + i + ".smt2");
+			benchmarks.add(b);
+		}
+		Job job = new Job();
+		job.addJobPairs(new JobPairCrossProduct(benchmarks, solvers, new Space(), PATH));
+		return job;
+	}
+
+	public static void main(String[] args) throws SQLException {
+		long roundTripMicros = args.length > 0 ? Long.parseLong(args[0]) : 200;
+		System.out.println("estimating database waits at " + roundTripMicros + " us per round trip, batches of " +
+		                   R.JOB_PAIR_INSERT_BATCH_SIZE + " pairs");
+		for (int pairs : PAIR_COUNTS) {
+			System.gc();
+			long begin = System.nanoTime();
+			Job job = getJob(pairs);
+			roundTrips = 0;
+			JobPairs.insertJobPairs(newConnection(), 1, job.getJobPairs(), 1);
+			long millis = (System.nanoTime() - begin) / 1000000;
+
+			int batches = (pairs + R.JOB_PAIR_INSERT_BATCH_SIZE - 1) / R.JOB_PAIR_INSERT_BATCH_SIZE;
+			// one AddJobPair call per pair, plus the stage batches
+			int oneAtATimeRoundTrips = pairs + batches;
+			System.out.println(
+					pairs + " pairs: " + millis + " ms building and binding, " + roundTrips + " round trips (about " +
+					(roundTrips * roundTripMicros / 1000) + " ms); one at a time takes " + oneAtATimeRoundTrips +
+					" round trips (about " + (oneAtATimeRoundTrips * roundTripMicros / 1000) + " ms)");
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package org.starexec.test.benchmark;
+
+import org.starexec.constants.R;
+import org.starexec.jobs.LoadBalanceMonitor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Times the operations the scheduler performs on a LoadBalanceMonitor for every submitted pair, with 10, 1k and 10k
+ * users: check the user against the minimum load, then charge them for the pair. For comparison, it also times the
+ * same operations when the minimum is found by scanning every user, as getMin used to do. Not part of the unit tests;
+ * run it with
+ * <pre>ant benchmark -Dbenchmark=LoadBalanceMonitorBenchmark [-Dbenchmark.args="operations"]</pre>
+ */
+public class LoadBalanceMonitorBenchmark {
+	private static final int[] USER_COUNTS = {10, 1000, 10000};
+	private static final int ROUNDS = 5;
+
+	private static LoadBalanceMonitor newMonitor(int users, Random random) {
+		LoadBalanceMonitor monitor = new LoadBalanceMonitor();
+		Map<Integer, Long> defaults = new HashMap<>();
+		for (int i = 0; i < users; i++) {
+			defaults.put(i, (long) random.nextInt(1000));
+		}
+		monitor.setUsers(defaults);
+		return monitor;
+	}
+
+	private static long scanMin(LoadBalanceMonitor monitor, int users) {
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < users; i++) {
+			min = Math.min(min, monitor.getLoad(i));
+		}
+		return min;
+	}
+
+	/**
+	 * @return The average time in nanoseconds per scheduled pair
+	 */
+	private static long run(int users, int operations, boolean scan) {
+		Random random = new Random(users);
+		LoadBalanceMonitor monitor = newMonitor(users, random);
+		long start = System.nanoTime();
+		for (int op = 0; op < operations; op++) {
+			int userId = random.nextInt(users);
+			long min = scan ? scanMin(monitor, users) : monitor.getMin();
+			if (monitor.getLoad(userId) - min <= R.LOAD_DIFFERENCE_THRESHOLD) {
+				monitor.changeLoad(userId, random.nextInt(100));
+			}
+			if (op % 1000 == 0) {
+				HashMap<Integer, Integer> deltas = new HashMap<>();
+				deltas.put(random.nextInt(users), random.nextInt(500));
+				monitor.subtractTimeDeltas(deltas);
+			}
+		}
+		return (System.nanoTime() - start) / operations;
+	}
+
+	public static void main(String[] args) {
+		int operations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		for (int users : USER_COUNTS) {
+			// scanning is slow with many users, so it gets fewer operations
+			int scanOperations = Math.min(operations, Math.max(1000, operations * 10 / users));
+			// the first rounds warm up the JIT, so the best round is reported
+			long best = Long.MAX_VALUE;
+			long bestScan = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; round++) {
+				best = Math.min(best, run(users, operations, false));
+				bestScan = Math.min(bestScan, run(users, scanOperations, true));
+			}
+			System.out.println(users + " users: " + best + " ns per scheduled pair, " + bestScan +
+			                   " ns when the minimum is found by scanning every user");
+		}
+	}
+}
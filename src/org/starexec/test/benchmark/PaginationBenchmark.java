@@ -0,0 +1,88 @@
+package org.starexec.test.benchmark;
+
+import org.starexec.data.to.Benchmark;
+import org.starexec.data.to.Configuration;
+import org.starexec.data.to.JobPair;
+import org.starexec.data.to.Solver;
+import org.starexec.data.to.Status.StatusCode;
+import org.starexec.data.to.compare.JobPairComparator;
+import org.starexec.data.to.pipelines.JoblineStage;
+import org.starexec.util.Util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times taking pages of 10k, 100k and 1M synthetic job pairs with Util.handlePagination, which keeps only the rows up
+ * to the end of the page, against copying and sorting the whole list as pages used to be taken. Both use the
+ * comparator the job pairs table uses, and take the first page and a page 100 rows in. Not part of the unit tests; run
+ * it with
+ * <pre>ant benchmark -Dbenchmark=PaginationBenchmark [-Dbenchmark.args="pageStart"]</pre>
+ */
+public class PaginationBenchmark {
+	private static final int[] PAIR_COUNTS = {10000, 100000, 1000000};
+	private static final int PAGE = 10;
+	private static final int ROUNDS = 3;
+
+	private static List<JobPair> getPairs(int count) {
+		Random random = new Random(count);
+		Solver solver = new Solver();
+		solver.setName("solver");
+		Configuration config = new Configuration();
+		config.setName("config");
+		List<JobPair> pairs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			JobPair pair = new JobPair();
+			pair.setId(i + 1);
+			Benchmark bench = new Benchmark();
+			bench.setName("bench" + random.nextInt(count / 10 + 1));
+			pair.setBench(bench);
+			JoblineStage stage = new JoblineStage();
+			stage.setStageNumber(1);
+			stage.setSolver(solver);
+			stage.setConfiguration(config);
+			stage.setWallclockTime((double) random.nextInt(1000));
+			stage.setCpuUsage(random.nextDouble() * 1000);
+			stage.getStatus().setCode(StatusCode.STATUS_COMPLETE.getVal());
+			pair.addStage(stage);
+			pairs.add(pair);
+		}
+		return pairs;
+	}
+
+	// the page as it was taken before: copy everything, sort it and take a sublist
+	private static <T> List<T> sortedPage(List<T> items, Comparator<T> compare, int start) {
+		List<T> copy = new ArrayList<>(items);
+		copy.sort(compare);
+		if (start >= copy.size()) {
+			return new ArrayList<>();
+		}
+		return new ArrayList<>(copy.subList(start, Math.min(start + PAGE, copy.size())));
+	}
+
+	public static void main(String[] args) {
+		int pageStart = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		JobPairComparator compare = new JobPairComparator(4, 1, false);
+		for (int count : PAIR_COUNTS) {
+			List<JobPair> pairs = getPairs(count);
+			int[] totals = new int[2];
+			// the first rounds warm up the JIT, so the best round is reported
+			long bestSort = Long.MAX_VALUE;
+			long bestHeap = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; round++) {
+				long begin = System.nanoTime();
+				sortedPage(pairs, compare, 0);
+				sortedPage(pairs, compare, pageStart);
+				bestSort = Math.min(bestSort, (System.nanoTime() - begin) / 1000000);
+				begin = System.nanoTime();
+				Util.handlePagination(pairs, jp -> true, jp -> true, compare, 0, PAGE, totals);
+				Util.handlePagination(pairs, jp -> true, jp -> true, compare, pageStart, PAGE, totals);
+				bestHeap = Math.min(bestHeap, (System.nanoTime() - begin) / 1000000);
+			}
+			System.out.println("first page and page at " + pageStart + " of " + count + " job pairs: " + bestSort +
+			                   " ms sorting everything, " + bestHeap + " ms keeping the top " + (pageStart + PAGE));
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package org.starexec.test.benchmark;
+
+import org.starexec.backend.Backend;
+import org.starexec.backend.LocalBackend;
+import org.starexec.data.to.Queue;
+import org.starexec.jobs.QueueScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Times a full scheduling round over several synthetic queues against a LocalBackend, once with the queues scheduled
+ * one after another and once with a worker for each queue. One queue is slow, standing in for a queue whose database
+ * and backend calls take longer than the others'. Not part of the unit tests; run it with
+ * <pre>ant benchmark -Dbenchmark=QueueSchedulerBenchmark [-Dbenchmark.args="queues pairsPerQueue rounds"]</pre>
+ */
+public class QueueSchedulerBenchmark {
+	private static final long SLOW_QUEUE_DELAY = 400;
+	private static final long QUEUE_DELAY = 100;
+
+	// stands in for one queue's share of checkPendingJobs: slow database and backend calls, then submission
+	private static Consumer<Queue> submitPairs(Backend backend, int pairsPerQueue, AtomicInteger submitted) {
+		return q -> {
+			try {
+				Thread.sleep(q.getId() == 1 ? SLOW_QUEUE_DELAY : QUEUE_DELAY);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			for (int i = 0; i < pairsPerQueue; i++) {
+				if (!backend.isError(backend.submitScript(q.getName() + " pair " + i, "/test", "/log"))) {
+					submitted.incrementAndGet();
+				}
+			}
+		};
+	}
+
+	private static long timeRound(QueueScheduler scheduler, List<Queue> queues, Consumer<Queue> work) {
+		long start = System.nanoTime();
+		scheduler.runOnQueues(queues, work);
+		return (System.nanoTime() - start) / 1000000;
+	}
+
+	public static void main(String[] args) {
+		int queueCount = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int pairsPerQueue = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		Backend backend = new LocalBackend();
+		List<Queue> queues = new ArrayList<>();
+		for (int i = 1; i <= queueCount; i++) {
+			Queue q = new Queue();
+			q.setId(i);
+			q.setName("queue" + i);
+			queues.add(q);
+		}
+		QueueScheduler serial = new QueueScheduler(1);
+		QueueScheduler parallel = new QueueScheduler(queueCount);
+		try {
+			System.out.println(queueCount + " queues, " + pairsPerQueue + " pairs each, slowest queue takes " +
+			                   SLOW_QUEUE_DELAY + " ms and the others " + QUEUE_DELAY + " ms");
+			for (int round = 1; round <= rounds; round++) {
+				AtomicInteger submitted = new AtomicInteger(0);
+				long serialTime = timeRound(serial, queues, submitPairs(backend, pairsPerQueue, submitted));
+				long parallelTime = timeRound(parallel, queues, submitPairs(backend, pairsPerQueue, submitted));
+				System.out.println("round " + round + ": one at a time " + serialTime + " ms, one worker per queue " +
+				                   parallelTime + " ms, " + submitted.get() + " pairs submitted");
+			}
+		} finally {
+			serial.shutdown();
+			parallel.shutdown();
+		}
+	}
+}
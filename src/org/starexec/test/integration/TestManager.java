@@ -7,6 +7,7 @@ import org.starexec.test.integration.StateTests.IntroStateTests;
 import org.starexec.test.integration.app.RESTHelpersTests;
 import org.starexec.test.integration.app.RESTServicesSecurityTests;
 import org.starexec.test.integration.database.*;
+import org.starexec.test.integration.jobs.JobManagerTests;
 import org.starexec.test.integration.security.*;
 import org.starexec.test.integration.servlets.BenchmarkUploaderTests;
 import org.starexec.test.integration.util.JobUtilTests;
@@ -82,6 +83,10 @@ public class TestManager {
 		tests.add(new ErrorLogsTests());
 		tests.add(new BenchmarkUploaderTests());
 		tests.add(new XMLValidationTests());
+		// submits real pairs, which should not happen on a shared cluster
+		if (R.LOCAL_TYPE.equals(R.BACKEND_TYPE)) {
+			tests.add(new JobManagerTests());
+		}
 	}
 	/**
 	 *
@@ -55,8 +55,8 @@ public class RESTServicesSecurityTests extends TestSequence {
 	@StarexecTest
 	private void getFinishedPairsForMatrixTest() {
 		assertResultIsInvalid(services.getFinishedJobPairsForMatrix(job.getPrimarySpace(),
-				1, TestUtil.getMockHttpRequest(user.getId())));
-		assertResultIsInvalid(services.getFinishedJobPairsForMatrix(-1, 1, TestUtil.getMockHttpRequest(user.getId())));
+				1, 0, TestUtil.getMockHttpRequest(user.getId())));
+		assertResultIsInvalid(services.getFinishedJobPairsForMatrix(-1, 1, 0, TestUtil.getMockHttpRequest(user.getId())));
 	}
 
 	@StarexecTest
@@ -181,6 +181,40 @@ public class JobTests extends TestSequence {
 		Assert.assertTrue(count>=0);
 	}
 
+	@StarexecTest
+	private void GetPendingPairsDetailedTest() throws SQLException {
+		// We need our own job because we are going to make its pairs pending
+		Job temp = loader.loadJobIntoDatabase(space.getId(), user.getId(), solver.getId(), benchmarkIds);
+		try {
+			for (JobPair p : temp.getJobPairs()) {
+				JobPairs.setStatusForPairAndStages(p.getId(), StatusCode.STATUS_PENDING_SUBMIT.getVal());
+			}
+			Job pending = Jobs.get(temp.getId());
+			// load inputs and dependencies too, even though this job has none
+			pending.setUsingDependencies(true);
+			List<JobPair> pairs = Jobs.getPendingPairsDetailed(pending, temp.getJobPairs().size());
+			Assert.assertEquals(temp.getJobPairs().size(), pairs.size());
+			for (int i = 0; i < pairs.size(); i++) {
+				if (i > 0) {
+					Assert.assertTrue(pairs.get(i - 1).getId() < pairs.get(i).getId());
+				}
+				Assert.assertEquals(1, pairs.get(i).getStages().size());
+				Assert.assertTrue(pairs.get(i).getBenchInputPaths().isEmpty());
+				Assert.assertNotNull(pairs.get(i).getPrimaryStage().getSolver().getMostRecentUpdate());
+			}
+
+			final int runs = 20;
+			long begin = System.nanoTime();
+			for (int i = 0; i < runs; i++) {
+				Jobs.getPendingPairsDetailed(pending, temp.getJobPairs().size());
+			}
+			log.info("GetPendingPairsDetailedTest", "loading " + pairs.size() + " pending pairs took " +
+			                                         (System.nanoTime() - begin) / runs / 1000 + " us on average");
+		} finally {
+			Jobs.deleteAndRemove(temp.getId());
+		}
+	}
+
 	@StarexecTest
 	private void CountIncompletePairsTest() {
 		int count=Jobs.countIncompletePairs(job.getId());
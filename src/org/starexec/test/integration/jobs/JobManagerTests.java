@@ -0,0 +1,100 @@
+package org.starexec.test.integration.jobs;
+
+import org.junit.Assert;
+import org.starexec.constants.R;
+import org.starexec.data.database.JobPairs;
+import org.starexec.data.database.Jobs;
+import org.starexec.data.database.Queues;
+import org.starexec.data.to.Job;
+import org.starexec.data.to.JobPair;
+import org.starexec.data.to.Queue;
+import org.starexec.data.to.Solver;
+import org.starexec.data.to.Space;
+import org.starexec.data.to.Status.StatusCode;
+import org.starexec.data.to.User;
+import org.starexec.jobs.JobManager;
+import org.starexec.test.integration.StarexecTest;
+import org.starexec.test.integration.TestSequence;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests scheduling through org.starexec.jobs.JobManager.checkPendingJobs. These tests submit real pairs, so they are
+ * only run on instances that use the local backend.
+ */
+public class JobManagerTests extends TestSequence {
+	private User owner = null;
+	private Space space = null;
+	private Solver solver = null;
+	private List<Integer> benchmarkIds = null;
+	private Queue queue = null;
+	private Queue emptyQueue = null; // inactive, and has no nodes
+	private Job job = null; // on the queue
+	private Job emptyQueueJob = null; // on the empty queue
+
+	@Override
+	protected String getTestName() {
+		return "JobManagerTests";
+	}
+
+	private static void setPairsPending(Job j) {
+		for (JobPair pair : j.getJobPairs()) {
+			JobPairs.setStatusForPairAndStages(pair.getId(), StatusCode.STATUS_PENDING_SUBMIT.getVal());
+		}
+	}
+
+	private static int countPendingPairs(Job j) {
+		int pending = 0;
+		for (JobPair pair : j.getJobPairs()) {
+			if (JobPairs.getPair(pair.getId()).getStatus().getCode() == StatusCode.STATUS_PENDING_SUBMIT) {
+				pending++;
+			}
+		}
+		return pending;
+	}
+
+	@StarexecTest
+	private void pendingPairsAreSubmittedTest() {
+		Assert.assertFalse("pairs are not submitted while the system is paused", Jobs.isSystemPaused());
+		setPairsPending(job);
+
+		JobManager.checkPendingJobs(Collections.singletonList(queue.getId()));
+
+		Assert.assertEquals(0, countPendingPairs(job));
+		for (JobPair pair : job.getJobPairs()) {
+			Assert.assertTrue(JobPairs.getPair(pair.getId()).getBackendExecId() > 0);
+		}
+	}
+
+	@StarexecTest
+	private void inactiveQueueIsNotSubmittedTest() {
+		setPairsPending(emptyQueueJob);
+
+		JobManager.checkPendingJobs(Collections.singletonList(emptyQueue.getId()));
+
+		Assert.assertEquals(emptyQueueJob.getJobPairs().size(), countPendingPairs(emptyQueueJob));
+	}
+
+	@Override
+	protected void setup() throws Exception {
+		queue = Queues.getAllQ();
+		Assert.assertFalse(Queues.getNodes(queue.getId()).isEmpty());
+		emptyQueue = loader.loadQueueIntoDatabase(1000, 1000);
+		Queues.setStatus(emptyQueue.getName(), R.QUEUE_STATUS_INACTIVE);
+		owner = loader.loadUserIntoDatabase();
+		space = loader.loadSpaceIntoDatabase(owner.getId(), 1);
+		solver = loader.loadSolverIntoDatabase(space.getId(), owner.getId());
+		benchmarkIds = loader.loadBenchmarksIntoDatabase(space.getId(), owner.getId());
+		job = loader.loadJobIntoDatabase(space.getId(), owner.getId(), solver.getId(), benchmarkIds);
+		emptyQueueJob = loader.loadJobIntoDatabase(space.getId(), owner.getId(), solver.getId(), benchmarkIds);
+		Jobs.changeQueue(emptyQueueJob.getId(), emptyQueue.getId());
+	}
+
+	@Override
+	protected void teardown() throws Exception {
+		Jobs.kill(job.getId());
+		Jobs.kill(emptyQueueJob.getId());
+		loader.deleteAllPrimitives();
+	}
+}
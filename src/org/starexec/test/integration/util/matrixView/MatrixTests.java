@@ -81,7 +81,8 @@ public class MatrixTests extends TestSequence {
 		benchmarks.sort(Comparator.comparing(b -> b.getName().toLowerCase()));
 
 		try {
-			matrix = Matrix.getMatrixForJobSpaceFromJobAndStageNumber(job, space.getId(), jobPairs.get(0).getPrimaryStageNumber());
+			matrix = Matrix.getMatrixPageForJobSpace(space.getId(), jobPairs.get(0).getPrimaryStageNumber(), 0,
+			                                         benchmarks.size());
 		} catch (StarExecException e) {
 			Assert.fail("StarExecException thrown while trying to get matrix: " + e.getMessage());
 			return;
@@ -98,5 +99,30 @@ public class MatrixTests extends TestSequence {
 
 		List<Pair<Solver, Configuration>> solverHeader = matrix.getSolverConfigsByColumn();
 		Assert.assertEquals(solverHeader.get(0).getLeft().getName(), solver.getName());
+		Assert.assertEquals(benchmarks.size(), matrix.getTotalRowCount());
+	}
+
+	@StarexecTest
+	private void getMatrixPageForJobSpaceTest() throws StarExecException {
+		List<Benchmark> benchmarks = Benchmarks.get(benchmarkIds);
+		benchmarks.sort(Comparator.comparing(b -> b.getName().toLowerCase()));
+		int stageNumber = job.getJobPairs().get(0).getPrimaryStageNumber();
+
+		Matrix matrix = Matrix.getMatrixPageForJobSpace(space.getId(), stageNumber, 1, 1);
+
+		Assert.assertEquals(1, matrix.getFirstRow());
+		Assert.assertEquals(1, matrix.getRowCount());
+		Assert.assertEquals(benchmarks.size(), matrix.getTotalRowCount());
+		Assert.assertEquals(benchmarks.get(1).getName(), matrix.getBenchmarksByRow().get(0).getName());
+		// every solver-config is a column, whichever benchmarks are on the page
+		long configs = job.getJobPairs().stream().map(jp -> jp.getPrimaryStage().getConfiguration().getId()).distinct()
+		                  .count();
+		Assert.assertEquals(configs, matrix.getColumnCount());
+
+		// a page past the end shows the last benchmark
+		matrix = Matrix.getMatrixPageForJobSpace(space.getId(), stageNumber, benchmarks.size() + 10, 1);
+		Assert.assertEquals(benchmarks.size() - 1, matrix.getFirstRow());
+		Assert.assertEquals(benchmarks.get(benchmarks.size() - 1).getName(),
+		                    matrix.getBenchmarksByRow().get(0).getName());
 	}
 }
@@ -244,6 +244,13 @@ public class GetPageTests extends TestSequence {
 		Assert.assertTrue(con.canGetPage("secure/details/pair.jsp?id="+job.getJobPairs().get(0).getId()));
 	}
 
+	@StarexecTest
+	private void getPairOutputTest(){
+		JobPair pair = job.getJobPairs().get(0);
+		Assert.assertTrue(con.canGetPage("secure/details/pairOutput.jsp?id="+pair.getId()+"&stage="+pair.getPrimaryStageNumber()));
+		Assert.assertTrue(con.canGetPage("secure/details/pairOutput.jsp?id="+pair.getId()+"&type=log"));
+	}
+
 	@StarexecTest
 	private void getResubmitPairsTest() {
 		Assert.assertTrue(con.canGetPage("secure/edit/resubmitPairs.jsp?id="+job.getId()));
@@ -0,0 +1,177 @@
+package org.starexec.test.junit.backend;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.starexec.backend.LocalBackend;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs scripts that copy benchmarks through the node benchmark cache on a LocalBackend with several pretend nodes,
+ * each with its own working directory. Database calls the scripts make are written to db.log in the node's
+ * directory instead. Scripts are run one at a time, in the order they are submitted.
+ */
+public class BenchmarkCacheTests {
+	private static final String CACHE_SCRIPT = "src/org/starexec/config/sge/benchcache.bash";
+	private static final int BENCH_KB = 100;
+
+	private File root;
+	private final Map<String, File> nodes = new LinkedHashMap<>();
+	private final List<File> benchmarks = new ArrayList<>();
+	private LocalBackend backend;
+	private final List<Integer> execIds = new ArrayList<>();
+	private int scripts = 0;
+
+	@Before
+	public void setup() throws IOException {
+		root = Files.createTempDirectory("benchcache").toFile();
+		for (String node : new String[] {"n001", "n002", "n003"}) {
+			File dir = new File(root, node);
+			dir.mkdir();
+			nodes.put(node, dir);
+		}
+		byte[] contents = new byte[BENCH_KB * 1024];
+		for (int i = 1; i <= 3; i++) {
+			Arrays.fill(contents, (byte) ('a' + i));
+			File bench = new File(root, "bench" + i + ".smt2");
+			Files.write(bench.toPath(), contents);
+			benchmarks.add(bench);
+		}
+		backend = new LocalBackend(nodes, 1);
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		backend.killAll();
+		FileUtils.deleteDirectory(root);
+	}
+
+	/**
+	 * Submits a script that copies a benchmark to the node's directory through the cache
+	 *
+	 * @return the file the benchmark is copied to
+	 */
+	private File submit(int benchId, String preferredNode, int maxKb) throws IOException {
+		scripts++;
+		File script = new File(root, "script" + scripts + ".bash");
+		File copy = new File(root, "copy" + scripts);
+		String text = "#!/bin/bash\n" +
+		              "function log { echo \"$1\"; }\n" +
+		              "function dbEscape { echo ${@//[\\'\\\"]/}; }\n" +
+		              "function dbExec { echo \"$1\" >> \"$STAREXEC_WORKING_DIR_BASE/db.log\"; }\n" +
+		              "WORKING_DIR_BASE=\"$STAREXEC_WORKING_DIR_BASE\"\n" +
+		              "BENCH_CACHE_MAX_KB=" + maxKb + "\n" +
+		              ". '" + new File(CACHE_SCRIPT).getAbsolutePath() + "'\n" +
+		              "echo \"$HOSTNAME\" > '" + copy.getAbsolutePath() + ".node'\n" +
+		              "copyBenchmarkFromCache '" + benchmarks.get(benchId - 1).getAbsolutePath() + "' '" +
+		              copy.getAbsolutePath() + "' " + benchId + "\n";
+		Files.write(script.toPath(), text.getBytes(StandardCharsets.UTF_8));
+		script.setExecutable(true);
+		int execId = backend.submitScript(script.getAbsolutePath(), root.getAbsolutePath(),
+		                                  new File(root, "script" + scripts + ".log").getAbsolutePath(), preferredNode);
+		Assert.assertFalse(backend.isError(execId));
+		execIds.add(execId);
+		return copy;
+	}
+
+	private void runAll() throws IOException, InterruptedException {
+		backend.initialize("");
+		long end = System.currentTimeMillis() + 30000;
+		while (!backend.getActiveExecutionIds().isEmpty() && System.currentTimeMillis() < end) {
+			Thread.sleep(20);
+		}
+		Assert.assertTrue(backend.getActiveExecutionIds().isEmpty());
+	}
+
+	private String nodeOf(File copy) throws IOException {
+		return new String(Files.readAllBytes(new File(copy.getAbsolutePath() + ".node").toPath())).trim();
+	}
+
+	private List<String> dbCalls(String node) throws IOException {
+		File log = new File(nodes.get(node), "db.log");
+		if (!log.exists()) {
+			return new ArrayList<>();
+		}
+		return Files.readAllLines(log.toPath());
+	}
+
+	private String logOf(int script) throws IOException {
+		return new String(Files.readAllBytes(new File(root, "script" + script + ".log").toPath()));
+	}
+
+	private int cachedEntries(String node) {
+		File[] entries = new File(nodes.get(node), "benchcache").listFiles(f -> new File(f, "finished.lock").isDirectory());
+		return entries == null ? 0 : entries.length;
+	}
+
+	@Test
+	public void secondCopyComesFromCacheTest() throws IOException, InterruptedException {
+		File first = submit(1, "n002", 10000);
+		File second = submit(1, "n002", 10000);
+		runAll();
+
+		Assert.assertArrayEquals(Files.readAllBytes(benchmarks.get(0).toPath()), Files.readAllBytes(second.toPath()));
+		Assert.assertEquals("n002", nodeOf(first));
+		Assert.assertFalse(logOf(1).contains("copied from the cache"));
+		Assert.assertTrue(logOf(2).contains("copied from the cache"));
+		Assert.assertEquals(1, cachedEntries("n002"));
+		Assert.assertEquals(0, cachedEntries("n001"));
+		Assert.assertEquals(Arrays.asList("CALL AddCachedBenchmark('n002', 1)"), dbCalls("n002"));
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedTest() throws IOException, InterruptedException {
+		// room for two benchmarks but not three
+		int maxKb = BENCH_KB * 3 - 20;
+		submit(1, "n001", maxKb);
+		submit(2, "n001", maxKb);
+		submit(1, "n001", maxKb);
+		submit(3, "n001", maxKb);
+		File last = submit(1, "n001", maxKb);
+		runAll();
+
+		Assert.assertEquals(2, cachedEntries("n001"));
+		Assert.assertTrue(logOf(5).contains("copied from the cache"));
+		Assert.assertArrayEquals(Files.readAllBytes(benchmarks.get(0).toPath()), Files.readAllBytes(last.toPath()));
+		Assert.assertEquals(Arrays.asList("CALL AddCachedBenchmark('n001', 1)", "CALL AddCachedBenchmark('n001', 2)",
+		                                  "CALL AddCachedBenchmark('n001', 3)", "CALL RemoveCachedBenchmark('n001', 2);"),
+		                    dbCalls("n001"));
+	}
+
+	@Test
+	public void pairsWithoutPreferenceTakeTurnsTest() throws IOException, InterruptedException {
+		File first = submit(1, null, 10000);
+		File second = submit(1, "n999", 10000);
+		File third = submit(1, null, 10000);
+		runAll();
+
+		Assert.assertEquals("n001", nodeOf(first));
+		Assert.assertEquals("n002", nodeOf(second));
+		Assert.assertEquals("n003", nodeOf(third));
+		for (String node : nodes.keySet()) {
+			Assert.assertEquals(1, cachedEntries(node));
+		}
+		Assert.assertArrayEquals(new String[] {"n001", "n002", "n003"}, backend.getWorkerNodes());
+	}
+
+	@Test
+	public void cacheOffTest() throws IOException, InterruptedException {
+		File copy = submit(1, "n001", 0);
+		runAll();
+
+		Assert.assertArrayEquals(Files.readAllBytes(benchmarks.get(0).toPath()), Files.readAllBytes(copy.toPath()));
+		Assert.assertFalse(new File(nodes.get("n001"), "benchcache").exists());
+		Assert.assertTrue(dbCalls("n001").isEmpty());
+	}
+}
@@ -0,0 +1,156 @@
+package org.starexec.test.junit.backend;
+
+import org.apache.commons.io.FileUtils;
+import org.ggf.drmaa.JobTemplate;
+import org.ggf.drmaa.Session;
+import org.ggf.drmaa.SimpleJobTemplate;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.starexec.backend.GridEngineBackend;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class GridEngineArrayJobTests {
+	private File root;
+	private final List<String> remoteCommands = new ArrayList<>();
+	private int runJobCalls = 0;
+	private int runBulkJobsCalls = 0;
+	private int nextJobId = 4000;
+
+	/**
+	 * @return a session that hands out job IDs like grid engine without running anything
+	 */
+	private Session fakeSession() {
+		return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] {Session.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "createJobTemplate":
+						return new SimpleJobTemplate();
+					case "runJob":
+						runJobCalls++;
+						remoteCommands.add(((JobTemplate) args[0]).getRemoteCommand());
+						return String.valueOf(nextJobId++);
+					case "runBulkJobs":
+						runBulkJobsCalls++;
+						remoteCommands.add(((JobTemplate) args[0]).getRemoteCommand());
+						List<String> ids = new ArrayList<>();
+						for (int task = (int) args[1]; task <= (int) args[2]; task += (int) args[3]) {
+							ids.add(nextJobId + "." + task);
+						}
+						nextJobId++;
+						return ids;
+					default:
+						return null;
+					}
+				});
+	}
+
+	@Before
+	public void setup() throws IOException {
+		root = Files.createTempDirectory("gridengine").toFile();
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileUtils.deleteDirectory(root);
+	}
+
+	/**
+	 * Writes job scripts that each record their task's output path in their log
+	 */
+	private List<String> writeScripts(int count, List<String> logPaths) throws IOException {
+		List<String> scriptPaths = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			File script = new File(root, "job_" + i + ".bash");
+			String text = "#!/bin/bash\n#$ -q all.q\n#$ -j y\necho \"script " + i + " $SGE_STDOUT_PATH\"\n";
+			Files.write(script.toPath(), text.getBytes(StandardCharsets.UTF_8));
+			script.setExecutable(true);
+			scriptPaths.add(script.getAbsolutePath());
+			logPaths.add(new File(root, "job_" + i + ".log").getAbsolutePath());
+		}
+		return scriptPaths;
+	}
+
+	@Test
+	public void submitsArrayJobsTest() throws IOException, InterruptedException {
+		GridEngineBackend backend = new GridEngineBackend(fakeSession());
+		List<String> logPaths = new ArrayList<>();
+		List<String> scriptPaths = writeScripts(150, logPaths);
+		int[] execIds = backend.submitScripts(scriptPaths, root.getAbsolutePath(), logPaths, null);
+
+		Assert.assertEquals(2, runBulkJobsCalls);
+		Assert.assertEquals(0, runJobCalls);
+		Assert.assertEquals("4000.1", GridEngineBackend.toJobTaskId(execIds[0]));
+		Assert.assertEquals("4000.99", GridEngineBackend.toJobTaskId(execIds[98]));
+		Assert.assertEquals("4001.51", GridEngineBackend.toJobTaskId(execIds[149]));
+		Assert.assertEquals(150, Arrays.stream(execIds).distinct().filter(id -> !backend.isError(id)).count());
+
+		// run the second task of the first array job the way grid engine would
+		String arrayScript = new String(Files.readAllBytes(new File(remoteCommands.get(0)).toPath()));
+		Assert.assertTrue(arrayScript.contains("#$ -q all.q\n#$ -j y\n"));
+		ProcessBuilder task = new ProcessBuilder("bash", remoteCommands.get(0));
+		task.environment().put("SGE_TASK_ID", "2");
+		Assert.assertEquals(0, task.start().waitFor());
+		Assert.assertEquals("script 1 " + logPaths.get(1),
+		                    new String(Files.readAllBytes(new File(logPaths.get(1)).toPath())).trim());
+	}
+
+	@Test
+	public void singleScriptIsNotAnArrayJobTest() throws IOException {
+		GridEngineBackend backend = new GridEngineBackend(fakeSession());
+		List<String> logPaths = new ArrayList<>();
+		int[] execIds = backend.submitScripts(writeScripts(100, logPaths), root.getAbsolutePath(), logPaths, "n001");
+
+		Assert.assertEquals(1, runBulkJobsCalls);
+		Assert.assertEquals(1, runJobCalls);
+		Assert.assertEquals("4001", GridEngineBackend.toJobTaskId(execIds[99]));
+	}
+
+	@Test
+	public void parsesArrayTasksFromQstatTest() {
+		String output =
+				"job-ID  prior   name       user         state submit/start at     queue                          slots ja-task-ID\n" +
+				"-----------------------------------------------------------------------------------------------------------------\n" +
+				"   3990 0.55500 job_1.bash tomcat       r     10/17/2026 10:01:02 all.q@n001.star.edu                1\n" +
+				"   4000 0.55500 array_1.ba tomcat       r     10/17/2026 10:01:02 all.q@n002.star.edu                1 7\n" +
+				"   4000 0.55500 array_1.ba tomcat       qw    10/17/2026 10:00:58                                    1 8\n" +
+				"   3991 0.55500 job_2.bash tomcat       qw    10/17/2026 10:00:58                                    1\n";
+		Set<Integer> expected = new HashSet<>(Arrays.asList(3990, 3991, GridEngineBackend.toArrayExecId("4000.7"),
+		                                                    GridEngineBackend.toArrayExecId("4000.8")));
+		Assert.assertEquals(expected, GridEngineBackend.parseActiveExecutionIds(output));
+	}
+
+	@Test
+	public void unmappableTaskIdTest() {
+		Assert.assertEquals(-1, GridEngineBackend.toArrayExecId("4000"));
+		Assert.assertEquals(-1, GridEngineBackend.toArrayExecId("4000.100"));
+		Assert.assertEquals(-1, GridEngineBackend.toArrayExecId("99999999.1"));
+		Assert.assertEquals("123", GridEngineBackend.toJobTaskId(123));
+	}
+
+	@Test
+	public void submissionRequestCountTest() throws IOException {
+		int pairs = 500;
+		List<String> logPaths = new ArrayList<>();
+		List<String> scriptPaths = writeScripts(pairs, logPaths);
+
+		GridEngineBackend backend = new GridEngineBackend(fakeSession());
+		int[] execIds = backend.submitScripts(scriptPaths, root.getAbsolutePath(), logPaths, null);
+
+		// one request per array job rather than one per pair
+		Assert.assertEquals(0, runJobCalls);
+		Assert.assertEquals(6, runBulkJobsCalls);
+		Assert.assertEquals(pairs, Arrays.stream(execIds).distinct().filter(id -> !backend.isError(id)).count());
+	}
+}
@@ -0,0 +1,43 @@
+package org.starexec.test.junit.backend;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.starexec.backend.LocalBackend;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class LocalBackendKillTests {
+	private LocalBackend backend;
+	private final List<Integer> execIds = new ArrayList<>();
+
+	@Before
+	public void setup() {
+		// the backend is never initialized, so nothing is run
+		backend = new LocalBackend();
+		for (int i = 0; i < 5; i++) {
+			execIds.add(backend.submitScript("job" + i, "/test", "/log"));
+		}
+	}
+
+	@Test
+	public void killsOnlyGivenPairsTest() throws IOException {
+		Assert.assertTrue(backend.killPairs(Arrays.asList(execIds.get(0), execIds.get(2), execIds.get(4))));
+		Assert.assertEquals(new HashSet<>(Arrays.asList(execIds.get(1), execIds.get(3))),
+		                    backend.getActiveExecutionIds());
+		Assert.assertFalse(backend.getRunningJobsStatus().contains("job0"));
+		Assert.assertTrue(backend.getRunningJobsStatus().contains("job1"));
+	}
+
+	@Test
+	public void unknownAndEmptyTest() throws IOException {
+		Assert.assertTrue(backend.killPairs(Collections.emptyList()));
+		Assert.assertTrue(backend.killPairs(Collections.singletonList(-1)));
+		Assert.assertEquals(5, backend.getActiveExecutionIds().size());
+	}
+}
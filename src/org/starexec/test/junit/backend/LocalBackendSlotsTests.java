@@ -0,0 +1,122 @@
+package org.starexec.test.junit.backend;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.starexec.backend.LocalBackend;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs scripts on a LocalBackend with several slots. Each script marks that it has started, then waits until the
+ * test creates its release file.
+ */
+public class LocalBackendSlotsTests {
+	private static final int SLOTS = 3;
+
+	private File root;
+	private LocalBackend backend;
+	private final List<Integer> execIds = new ArrayList<>();
+
+	@Before
+	public void setup() throws IOException {
+		root = Files.createTempDirectory("localslots").toFile();
+		backend = new LocalBackend(SLOTS);
+		backend.initialize("");
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		backend.killAll();
+		FileUtils.deleteDirectory(root);
+	}
+
+	private void submit(int count) throws IOException {
+		for (int i = 0; i < count; i++) {
+			int script = execIds.size();
+			File file = new File(root, "script" + script + ".bash");
+			String text = "#!/bin/bash\n" +
+			              "touch '" + root.getAbsolutePath() + "/started" + script + "'\n" +
+			              "while [ ! -e '" + root.getAbsolutePath() + "/release" + script + "' ]; do sleep 0.02; done\n";
+			Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+			file.setExecutable(true);
+			execIds.add(backend.submitScript(file.getAbsolutePath(), root.getAbsolutePath(),
+			                                 new File(root, "script" + script + ".log").getAbsolutePath()));
+		}
+	}
+
+	private boolean started(int script) {
+		return new File(root, "started" + script).exists();
+	}
+
+	private void release(int script) throws IOException {
+		new File(root, "release" + script).createNewFile();
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long end = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		Assert.assertTrue(condition.getAsBoolean());
+	}
+
+	@Test
+	public void runsOnePairPerSlotTest() throws IOException, InterruptedException {
+		submit(SLOTS + 1);
+		waitFor(() -> started(0) && started(1) && started(2));
+		Thread.sleep(200);
+		Assert.assertFalse(started(3));
+		Assert.assertTrue(backend.getRunningJobsStatus().startsWith("3 of 3 slots in use\n"));
+
+		release(1);
+		waitFor(() -> started(3));
+		Assert.assertFalse(backend.getActiveExecutionIds().contains(execIds.get(1)));
+		for (int i = 0; i < SLOTS + 1; i++) {
+			release(i);
+		}
+		waitFor(() -> {
+			try {
+				return backend.getActiveExecutionIds().isEmpty();
+			} catch (IOException e) {
+				return false;
+			}
+		});
+		Assert.assertTrue(backend.getRunningJobsStatus().startsWith("0 of 3 slots in use\n"));
+	}
+
+	@Test
+	public void startsSubmittedPairImmediatelyTest() throws IOException, InterruptedException {
+		Thread.sleep(100);
+		long start = System.currentTimeMillis();
+		submit(1);
+		waitFor(() -> started(0));
+		Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+	}
+
+	@Test
+	public void killFreesSlotTest() throws IOException, InterruptedException {
+		submit(SLOTS + 2);
+		waitFor(() -> started(0) && started(1) && started(2));
+
+		Assert.assertTrue(backend.killPair(execIds.get(0)));
+		waitFor(() -> started(3));
+		Assert.assertFalse(started(4));
+		Assert.assertTrue(backend.killPair(execIds.get(4)));
+		Assert.assertFalse(backend.getRunningJobsStatus().contains("script4"));
+
+		Assert.assertTrue(backend.killAll());
+		Assert.assertTrue(backend.getActiveExecutionIds().isEmpty());
+		waitFor(() -> backend.getRunningJobsStatus().startsWith("0 of 3 slots in use\n"));
+		Thread.sleep(200);
+		Assert.assertFalse(started(4));
+	}
+}
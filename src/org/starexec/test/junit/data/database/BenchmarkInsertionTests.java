@@ -0,0 +1,188 @@
+package org.starexec.test.junit.data.database;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.starexec.constants.R;
+import org.starexec.data.database.Benchmarks;
+import org.starexec.data.to.Benchmark;
+import org.starexec.data.to.BenchmarkDependency;
+import org.starexec.data.to.Processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that Benchmarks.insertBenchmarks sends benchmarks, attributes, dependencies and space associations in
+ * batches. There is no database here, so each statement sent is counted as a round trip.
+ */
+public class BenchmarkInsertionTests {
+	private static final int ATTRIBUTES = 5;
+	private static File benchFile;
+
+	/**
+	 * A connection whose statements do nothing but count the statements sent and the rows added to batches
+	 */
+	private static class CountingConnection {
+		int roundTrips = 0;
+		final Map<String, Integer> rows = new HashMap<>();
+		final List<Integer> benchIds = new ArrayList<>();
+		final List<String> attrKeys = new ArrayList<>();
+
+		Connection get() {
+			return (Connection) Proxy.newProxyInstance(
+					getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+						if (method.getName().equals("prepareCall")) {
+							return statement((String) args[0]);
+						}
+						return defaultValue(method.getReturnType());
+					});
+		}
+
+		private CallableStatement statement(String sql) {
+			Object[] params = new Object[10];
+			return (CallableStatement) Proxy.newProxyInstance(
+					getClass().getClassLoader(), new Class<?>[]{CallableStatement.class}, (proxy, method, args) -> {
+						switch (method.getName()) {
+						case "setInt":
+						case "setString":
+							params[(int) args[0]] = args[1];
+							return null;
+						case "addBatch":
+							rows.merge(sql, 1, Integer::sum);
+							if (sql.contains("AddBenchmarkWithId")) {
+								benchIds.add((Integer) params[1]);
+							} else if (sql.contains("AddBenchAttr")) {
+								attrKeys.add((String) params[2]);
+							}
+							return null;
+						case "executeBatch":
+							roundTrips++;
+							return new int[0];
+						default:
+							return defaultValue(method.getReturnType());
+						}
+					});
+		}
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		} else if (type == int.class) {
+			return 0;
+		} else if (type == long.class) {
+			return 0L;
+		}
+		return null;
+	}
+
+	@BeforeClass
+	public static void createBenchFile() throws IOException {
+		benchFile = File.createTempFile("bench", ".smt2");
+		Files.write(benchFile.toPath(), "(check-sat)".getBytes());
+	}
+
+	@AfterClass
+	public static void deleteBenchFile() {
+		benchFile.delete();
+	}
+
+	private static List<Benchmark> getBenchmarks(int count, int firstId) {
+		Processor type = new Processor();
+		type.setId(3);
+		List<Benchmark> benchmarks = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Benchmark b = new Benchmark();
+			b.setId(firstId + i);
+			b.setName("bench" + i + ".smt2");
+			b.setPath(benchFile.getAbsolutePath());
+			b.setUserId(1);
+			b.setType(type);
+			Map<String, String> attrs = new HashMap<>();
+			attrs.put(R.VALID_BENCHMARK_ATTRIBUTE, "true");
+			for (int a = 0; a < ATTRIBUTES; a++) {
+				attrs.put("attr" + a, "value" + a);
+			}
+			b.setAttributes(attrs);
+			b.addDependency(new BenchmarkDependency(0, 7, "Axioms/SET001+0.ax"));
+			benchmarks.add(b);
+		}
+		return benchmarks;
+	}
+
+	@Test
+	public void sendsEachKindInOneBatchTest() throws SQLException {
+		CountingConnection con = new CountingConnection();
+		Benchmarks.insertBenchmarks(con.get(), getBenchmarks(50, 100), 4);
+
+		Assert.assertEquals(4, con.roundTrips);
+		Assert.assertEquals(50, con.benchIds.size());
+		for (int i = 0; i < con.benchIds.size(); i++) {
+			Assert.assertEquals(100 + i, (int) con.benchIds.get(i));
+		}
+		Assert.assertEquals(50 * ATTRIBUTES, con.attrKeys.size());
+		Assert.assertFalse(con.attrKeys.contains(R.VALID_BENCHMARK_ATTRIBUTE));
+		Assert.assertEquals(50, (int) con.rows.get("{CALL AddBenchDependency(?, ?, ?)}"));
+		Assert.assertEquals(50, (int) con.rows.get("{CALL AssociateBench(?, ?)}"));
+	}
+
+	@Test
+	public void overLengthAttributeIsSkippedTest() throws SQLException {
+		StringBuilder tooLong = new StringBuilder();
+		for (int i = 0; i < 129; i++) {
+			tooLong.append('x');
+		}
+		List<Benchmark> benchmarks = getBenchmarks(3, 1);
+		benchmarks.get(1).getAttributes().put("long-value", tooLong.toString());
+		benchmarks.get(1).getAttributes().put(tooLong.toString(), "value");
+		CountingConnection con = new CountingConnection();
+		Benchmarks.insertBenchmarks(con.get(), benchmarks, 4);
+
+		// the other attributes of every benchmark are still added, in the same number of round trips
+		Assert.assertEquals(4, con.roundTrips);
+		Assert.assertEquals(3, con.benchIds.size());
+		Assert.assertEquals(3 * ATTRIBUTES, con.attrKeys.size());
+		Assert.assertFalse(con.attrKeys.contains("long-value"));
+		Assert.assertFalse(con.attrKeys.contains(tooLong.toString()));
+	}
+
+	@Test
+	public void noSpaceTest() throws SQLException {
+		CountingConnection con = new CountingConnection();
+		Benchmarks.insertBenchmarks(con.get(), getBenchmarks(10, 1), null);
+		Assert.assertEquals(3, con.roundTrips);
+		Assert.assertNull(con.rows.get("{CALL AssociateBench(?, ?)}"));
+	}
+
+	@Test
+	public void uploadInGroupsTest() throws SQLException {
+		// an upload is added one group of BENCHMARK_INSERT_BATCH_SIZE benchmarks at a time
+		int count = 3 * R.BENCHMARK_INSERT_BATCH_SIZE;
+		List<Benchmark> benchmarks = getBenchmarks(count, 1);
+		int roundTrips = 0;
+		List<Integer> benchIds = new ArrayList<>();
+		for (int start = 0; start < count; start += R.BENCHMARK_INSERT_BATCH_SIZE) {
+			CountingConnection con = new CountingConnection();
+			List<Benchmark> group = benchmarks.subList(start, start + R.BENCHMARK_INSERT_BATCH_SIZE);
+			Benchmarks.insertBenchmarks(con.get(), group, 4);
+			roundTrips += con.roundTrips;
+			benchIds.addAll(con.benchIds);
+		}
+		Assert.assertEquals(4 * 3, roundTrips);
+		Assert.assertEquals(count, benchIds.size());
+		for (int i = 0; i < count; i++) {
+			Assert.assertEquals(i + 1, (int) benchIds.get(i));
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package org.starexec.test.junit.data.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.starexec.constants.R;
+import org.starexec.data.database.ConnectionTracker;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks the connection accounting in ConnectionTracker
+ */
+public class ConnectionTrackerTests {
+	private static final int THREADS = 16;
+	private static final int ITERATIONS = 2000;
+
+	@Test
+	public void concurrentBorrowsBalanceTest() throws InterruptedException {
+		ConnectionTracker tracker = new ConnectionTracker(R.CONNECTION_CALL_SITE_SAMPLE_RATE);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(THREADS);
+		AtomicInteger overCount = new AtomicInteger(0);
+		for (int t = 0; t < THREADS; t++) {
+			Connection c = Mockito.mock(Connection.class);
+			new Thread(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < ITERATIONS; i++) {
+						tracker.acquired(c, 1000);
+						// each thread holds at most one connection at a time
+						if (tracker.getConnectionsOpened() > THREADS) {
+							overCount.incrementAndGet();
+						}
+						tracker.released(c);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			}).start();
+		}
+		start.countDown();
+		done.await();
+		Assert.assertEquals(0, overCount.get());
+		Assert.assertEquals(0, tracker.getConnectionsOpened());
+	}
+
+	@Test
+	public void countsOpenConnectionsTest() {
+		ConnectionTracker tracker = new ConnectionTracker(1);
+		List<Connection> connections = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Connection c = Mockito.mock(Connection.class);
+			connections.add(c);
+			tracker.acquired(c, 1000);
+		}
+		Assert.assertEquals(5, tracker.getConnectionsOpened());
+		for (Connection c : connections) {
+			tracker.released(c);
+		}
+		Assert.assertEquals(0, tracker.getConnectionsOpened());
+	}
+
+	@Test
+	public void releaseUnknownConnectionTest() {
+		ConnectionTracker tracker = new ConnectionTracker(1);
+		Connection c = Mockito.mock(Connection.class);
+		tracker.released(c);
+		Assert.assertEquals(0, tracker.getConnectionsOpened());
+		tracker.acquired(c, 0);
+		tracker.released(c);
+		tracker.released(c);
+		Assert.assertEquals(0, tracker.getConnectionsOpened());
+	}
+
+	@Test
+	public void recordsCallSiteTest() {
+		ConnectionTracker tracker = new ConnectionTracker(1);
+		Connection c = Mockito.mock(Connection.class);
+		tracker.acquired(c, 0);
+		tracker.released(c);
+		Assert.assertTrue(tracker.getStatistics(10).contains("ConnectionTrackerTests.recordsCallSiteTest"));
+	}
+
+	@Test
+	public void recordsAcquireTimeByCallSiteTest() {
+		ConnectionTracker tracker = new ConnectionTracker(1);
+		Connection c = Mockito.mock(Connection.class);
+		// a connection that has not been released yet already counts toward its call site's acquire time
+		tracker.acquired(c, 5000000);
+		String stats = tracker.getStatistics(10);
+		int acquireSites = stats.indexOf("acquire by call site");
+		Assert.assertTrue(acquireSites >= 0);
+		Assert.assertTrue(stats.indexOf("ConnectionTrackerTests.recordsAcquireTimeByCallSiteTest", acquireSites) >= 0);
+		Assert.assertFalse(stats.contains("hold by call site"));
+		tracker.released(c);
+		Assert.assertTrue(tracker.getStatistics(10).contains("hold by call site"));
+	}
+}
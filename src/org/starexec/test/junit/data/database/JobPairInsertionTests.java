@@ -0,0 +1,170 @@
+package org.starexec.test.junit.data.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.starexec.constants.R;
+import org.starexec.data.database.JobPairs;
+import org.starexec.data.to.Benchmark;
+import org.starexec.data.to.Configuration;
+import org.starexec.data.to.Job;
+import org.starexec.data.to.JobPair;
+import org.starexec.data.to.Solver;
+import org.starexec.data.to.Space;
+import org.starexec.jobs.JobPairCrossProduct;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that JobPairs.insertJobPairs gives pairs their reserved IDs and sends them in batches. There is no database
+ * here, so each statement sent is counted as a round trip.
+ */
+public class JobPairInsertionTests {
+	private static final int SOLVERS = 10;
+	private static final String PATH = "root/sub";
+
+	/**
+	 * A connection whose statements do nothing but count the statements sent and the rows added to batches
+	 */
+	private static class CountingConnection {
+		int roundTrips = 0;
+		final Map<String, Integer> rows = new HashMap<>();
+		final List<Integer> pairIds = new ArrayList<>();
+		final List<Integer> jobSpaceIds = new ArrayList<>();
+
+		Connection get() {
+			return (Connection) Proxy.newProxyInstance(
+					getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+						if (method.getName().equals("prepareCall")) {
+							return statement((String) args[0]);
+						}
+						return defaultValue(method.getReturnType());
+					});
+		}
+
+		private CallableStatement statement(String sql) {
+			int[] params = new int[10];
+			return (CallableStatement) Proxy.newProxyInstance(
+					getClass().getClassLoader(), new Class<?>[]{CallableStatement.class}, (proxy, method, args) -> {
+						switch (method.getName()) {
+						case "setInt":
+							params[(int) args[0]] = (int) args[1];
+							return null;
+						case "addBatch":
+							rows.merge(sql, 1, Integer::sum);
+							if (sql.contains("AddJobPairWithId")) {
+								pairIds.add(params[1]);
+								jobSpaceIds.add(params[6]);
+							}
+							return null;
+						case "executeBatch":
+							roundTrips++;
+							return new int[0];
+						case "executeUpdate":
+							roundTrips++;
+							return 1;
+						case "execute":
+							roundTrips++;
+							return false;
+						default:
+							return defaultValue(method.getReturnType());
+						}
+					});
+		}
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		} else if (type == int.class) {
+			return 0;
+		} else if (type == long.class) {
+			return 0L;
+		}
+		return null;
+	}
+
+	private static List<Solver> getSolvers() {
+		List<Solver> solvers = new ArrayList<>();
+		for (int i = 0; i < SOLVERS; i++) {
+			Solver s = new Solver();
+			s.setId(i + 1);
+			s.setName("solver" + i);
+			Configuration c = new Configuration();
+			c.setId(i + 1);
+			c.setName("default");
+			s.addConfiguration(c);
+			solvers.add(s);
+		}
+		return solvers;
+	}
+
+	private static List<Benchmark> getBenchmarks(int count) {
+		List<Benchmark> benchmarks = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Benchmark b = new Benchmark();
+			b.setId(i + 1);
+			b.setName("bench" + i + ".smt2");
+			benchmarks.add(b);
+		}
+		return benchmarks;
+	}
+
+	private static Job getJob(int pairs) {
+		Job job = new Job();
+		job.addJobPairs(new JobPairCrossProduct(getBenchmarks(pairs / SOLVERS), getSolvers(), new Space(), PATH));
+		return job;
+	}
+
+	@Test
+	public void assignsReservedIdsTest() throws SQLException {
+		Job job = getJob(2500);
+		for (JobPair pair : job.getJobPairs()) {
+			pair.setJobSpaceId(7);
+		}
+		CountingConnection con = new CountingConnection();
+		JobPairs.insertJobPairs(con.get(), 1, job.getJobPairs(), 100);
+
+		Assert.assertEquals(2500, con.pairIds.size());
+		for (int i = 0; i < con.pairIds.size(); i++) {
+			Assert.assertEquals(100 + i, (int) con.pairIds.get(i));
+			Assert.assertEquals(7, (int) con.jobSpaceIds.get(i));
+		}
+		Assert.assertEquals(2500, (int) con.rows.get("{CALL AddJobPairStage(?,?,?,?,?,?,?,?,?)}"));
+		// pairs and stages each go in three batches
+		Assert.assertEquals(6, con.roundTrips);
+	}
+
+	@Test
+	public void generatedPairsKeepIdsTest() throws SQLException {
+		Job job = getJob(20);
+		job.getJobPairs().get(3).setJobSpaceId(5);
+		JobPairs.insertJobPairs(new CountingConnection().get(), 2, job.getJobPairs(), 1);
+		for (int i = 0; i < job.getJobPairs().size(); i++) {
+			JobPair pair = job.getJobPairs().get(i);
+			Assert.assertEquals(i + 1, pair.getId());
+			Assert.assertEquals(2, pair.getJobId());
+			Assert.assertEquals(i == 3 ? 5 : -1, pair.getJobSpaceId());
+		}
+	}
+
+	@Test
+	public void batchesByConfiguredSizeTest() throws SQLException {
+		// one partial batch at the end
+		int pairs = 2 * R.JOB_PAIR_INSERT_BATCH_SIZE + SOLVERS;
+		Job job = getJob(pairs);
+		CountingConnection con = new CountingConnection();
+		JobPairs.insertJobPairs(con.get(), 1, job.getJobPairs(), 1);
+
+		Assert.assertEquals(pairs, con.pairIds.size());
+		Assert.assertEquals(pairs, (int) con.rows.get("{CALL AddJobPairStage(?,?,?,?,?,?,?,?,?)}"));
+		// pairs and stages each go in three batches, where adding pairs one at a time would take a round trip each
+		Assert.assertEquals(6, con.roundTrips);
+	}
+}
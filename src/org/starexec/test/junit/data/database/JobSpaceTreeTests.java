@@ -0,0 +1,57 @@
+package org.starexec.test.junit.data.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.starexec.data.database.JobSpaceTree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+public class JobSpaceTreeTests {
+	/**
+	 * 1 -> (2 -> (4, 5), 3 -> 6)
+	 */
+	private static JobSpaceTree makeTree() {
+		Map<Integer, Integer> parents = new HashMap<>();
+		parents.put(1, null);
+		parents.put(2, 1);
+		parents.put(3, 1);
+		parents.put(4, 2);
+		parents.put(5, 2);
+		parents.put(6, 3);
+		return new JobSpaceTree(7, parents);
+	}
+
+	@Test
+	public void descendantsTest() {
+		JobSpaceTree tree = makeTree();
+		Assert.assertEquals(7, tree.getJobId());
+		Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4, 5, 6)), tree.getDescendantIds(1));
+		Assert.assertEquals(new HashSet<>(Arrays.asList(2, 4, 5)), tree.getDescendantIds(2));
+		Assert.assertEquals(new HashSet<>(Arrays.asList(6)), tree.getDescendantIds(6));
+		Assert.assertTrue(tree.getDescendantIds(8).isEmpty());
+		Assert.assertFalse(tree.contains(8));
+	}
+
+	@Test
+	public void pairConditionTest() {
+		JobSpaceTree tree = makeTree();
+		Assert.assertEquals("job_pairs.job_id=7", tree.getPairCondition(1));
+		Assert.assertTrue(tree.getPairCondition(3).matches("job_pairs\\.job_space_id IN \\((3,6|6,3)\\)"));
+		Assert.assertEquals("job_pairs.job_space_id IN (5)", tree.getPairCondition(5));
+		Assert.assertEquals("SELECT 1 FROM job_pairs WHERE job_pairs.job_space_id IN (5) AND x= :x",
+		                    tree.restrictToHierarchy("SELECT 1 FROM job_pairs WHERE {hierarchy} AND x= :x", 5));
+	}
+
+	@Test
+	public void loopTest() {
+		Map<Integer, Integer> parents = new HashMap<>();
+		parents.put(1, null);
+		parents.put(2, 3);
+		parents.put(3, 2);
+		JobSpaceTree tree = new JobSpaceTree(1, parents);
+		Assert.assertEquals(new HashSet<>(Arrays.asList(2, 3)), tree.getDescendantIds(2));
+	}
+}
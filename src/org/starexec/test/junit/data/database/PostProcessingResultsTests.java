@@ -0,0 +1,132 @@
+package org.starexec.test.junit.data.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.starexec.data.database.JobPairs;
+import org.starexec.data.to.tuples.PostProcessedStage;
+
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Checks that JobPairs.savePostProcessingResults saves a batch of several stages when one of them has an attribute
+ * that is too long for the attribute table. There is no database here, so the connection records what would have
+ * been sent and, like MySQL in strict mode, fails the batch if any value does not fit.
+ */
+public class PostProcessingResultsTests {
+
+	/**
+	 * A connection that records the attributes added to batches and the stages marked complete
+	 */
+	private static class RecordingConnection {
+		final List<String> attributes = new ArrayList<>();
+		final List<String> completedStages = new ArrayList<>();
+
+		Connection get() {
+			return (Connection) Proxy.newProxyInstance(
+					getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+						if (method.getName().equals("prepareCall")) {
+							return statement((String) args[0]);
+						}
+						return defaultValue(method.getReturnType());
+					});
+		}
+
+		private CallableStatement statement(String sql) {
+			Object[] params = new Object[10];
+			List<Object[]> batch = new ArrayList<>();
+			return (CallableStatement) Proxy.newProxyInstance(
+					getClass().getClassLoader(), new Class<?>[]{CallableStatement.class}, (proxy, method, args) -> {
+						switch (method.getName()) {
+						case "setInt":
+						case "setString":
+							params[(int) args[0]] = args[1];
+							return null;
+						case "addBatch":
+							batch.add(params.clone());
+							return null;
+						case "executeBatch":
+							for (Object[] row : batch) {
+								if (((String) row[2]).length() > 128 || ((String) row[3]).length() > 128) {
+									throw new BatchUpdateException("Data too long", new int[0]);
+								}
+							}
+							for (Object[] row : batch) {
+								attributes.add(row[1] + ":" + row[4] + ":" + row[2] + "=" + row[3]);
+							}
+							return new int[batch.size()];
+						case "executeUpdate":
+							if (sql.contains("UpdatePairStageStatus")) {
+								completedStages.add(params[1] + ":" + params[2]);
+							}
+							return 1;
+						default:
+							return defaultValue(method.getReturnType());
+						}
+					});
+		}
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		} else if (type == int.class) {
+			return 0;
+		} else if (type == long.class) {
+			return 0L;
+		}
+		return null;
+	}
+
+	private static String repeat(char c, int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void overLengthAttributeIsSkippedTest() throws SQLException {
+		List<PostProcessedStage> stages = new ArrayList<>();
+		for (int pairId = 1; pairId <= 3; pairId++) {
+			Properties props = new Properties();
+			props.setProperty("result", "sat");
+			if (pairId == 2) {
+				props.setProperty("model", repeat('x', 129));
+				props.setProperty(repeat('k', 129), "value");
+			}
+			stages.add(new PostProcessedStage(pairId, 1, props));
+		}
+		stages.add(new PostProcessedStage(4, 2, null));
+
+		RecordingConnection con = new RecordingConnection();
+		JobPairs.savePostProcessingResults(con.get(), stages);
+
+		Assert.assertEquals(3, con.attributes.size());
+		for (int pairId = 1; pairId <= 3; pairId++) {
+			Assert.assertTrue(con.attributes.contains(pairId + ":1:result=sat"));
+		}
+		Assert.assertEquals(4, con.completedStages.size());
+		Assert.assertTrue(con.completedStages.contains("2:1"));
+		Assert.assertTrue(con.completedStages.contains("4:2"));
+	}
+
+	@Test
+	public void attributeAtMaxLengthIsKeptTest() throws SQLException {
+		Properties props = new Properties();
+		props.setProperty(repeat('k', 128), repeat('v', 128));
+		RecordingConnection con = new RecordingConnection();
+		List<PostProcessedStage> stages = new ArrayList<>();
+		stages.add(new PostProcessedStage(1, 1, props));
+		JobPairs.savePostProcessingResults(con.get(), stages);
+
+		Assert.assertEquals(1, con.attributes.size());
+	}
+}
@@ -0,0 +1,59 @@
+package org.starexec.test.junit.jobs;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.starexec.jobs.BenchmarkPlacement;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BenchmarkPlacementTests {
+	private BenchmarkPlacement placement;
+
+	@Before
+	public void setup() {
+		placement = new BenchmarkPlacement(2);
+		Map<Integer, List<String>> cached = new HashMap<>();
+		cached.put(1, Arrays.asList("n001", "n002"));
+		cached.put(2, Collections.singletonList("n001"));
+		placement.addCachedNodes(cached);
+	}
+
+	@Test
+	public void uncachedBenchmarkHasNoPreferenceTest() {
+		Assert.assertNull(placement.choose(3));
+	}
+
+	@Test
+	public void spreadsPairsOverHoldingNodesTest() {
+		Assert.assertEquals("n001", placement.choose(1));
+		Assert.assertEquals("n002", placement.choose(1));
+		Assert.assertEquals("n001", placement.choose(1));
+		Assert.assertEquals("n002", placement.choose(1));
+	}
+
+	@Test
+	public void stopsPreferringFullNodesTest() {
+		Assert.assertEquals("n001", placement.choose(2));
+		Assert.assertEquals("n001", placement.choose(2));
+		Assert.assertNull(placement.choose(2));
+		// n001 is full, but n002 also holds benchmark 1
+		Assert.assertEquals("n002", placement.choose(1));
+	}
+
+	@Test
+	public void mergesNodesFromSeveralJobsTest() {
+		Map<Integer, List<String>> cached = new HashMap<>();
+		cached.put(2, Arrays.asList("n001", "n003"));
+		cached.put(4, Collections.singletonList("n003"));
+		placement.addCachedNodes(cached);
+		Assert.assertEquals(3, placement.getCachedBenchmarkCount());
+		Assert.assertEquals("n001", placement.choose(2));
+		Assert.assertEquals("n003", placement.choose(2));
+		Assert.assertEquals("n003", placement.choose(4));
+	}
+}
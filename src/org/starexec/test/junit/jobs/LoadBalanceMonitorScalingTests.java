@@ -0,0 +1,84 @@
+package org.starexec.test.junit.jobs;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.starexec.jobs.LoadBalanceMonitor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Runs the operations the scheduler performs for every submitted pair against monitors with 10, 1k and 10k users,
+ * checking the minimum against a full scan as the loads change.
+ */
+public class LoadBalanceMonitorScalingTests {
+	private static final int OPERATIONS = 20000;
+
+	private long bruteForceMin(LoadBalanceMonitor monitor, int users) {
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < users; i++) {
+			min = Math.min(min, monitor.getLoad(i));
+		}
+		return min;
+	}
+
+	private void runWithUsers(int users) {
+		Random random = new Random(users);
+		LoadBalanceMonitor monitor = new LoadBalanceMonitor();
+		Map<Integer, Long> defaults = new HashMap<>();
+		for (int i = 0; i < users; i++) {
+			defaults.put(i, (long) random.nextInt(1000));
+		}
+		monitor.setUsers(defaults);
+
+		for (int op = 0; op < OPERATIONS; op++) {
+			int userId = random.nextInt(users);
+			// what submitJobs does for each pair: check the user against the minimum, then charge them
+			if (!monitor.skipUser(userId)) {
+				monitor.changeLoad(userId, random.nextInt(100));
+			}
+			if (op % 1000 == 0) {
+				HashMap<Integer, Integer> deltas = new HashMap<>();
+				deltas.put(random.nextInt(users), random.nextInt(500));
+				monitor.subtractTimeDeltas(deltas);
+				Assert.assertEquals(bruteForceMin(monitor, users), (long) monitor.getMin());
+			}
+		}
+		Assert.assertEquals(bruteForceMin(monitor, users), (long) monitor.getMin());
+	}
+
+	@Test
+	public void tenUsersTest() {
+		runWithUsers(10);
+	}
+
+	@Test
+	public void thousandUsersTest() {
+		runWithUsers(1000);
+	}
+
+	@Test
+	public void tenThousandUsersTest() {
+		runWithUsers(10000);
+	}
+
+	@Test
+	public void minimumTracksRemovedUsersTest() {
+		LoadBalanceMonitor monitor = new LoadBalanceMonitor();
+		Map<Integer, Long> users = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			users.put(i, (long) i);
+		}
+		monitor.setUsers(users);
+		for (int i = 0; i < 50; i++) {
+			users.remove(i);
+		}
+		monitor.setUsers(users);
+		Assert.assertEquals(50, (long) monitor.getMin());
+		monitor.changeLoad(50, 100);
+		Assert.assertEquals(51, (long) monitor.getMin());
+		monitor.changeLoad(99, -99);
+		Assert.assertEquals(0, (long) monitor.getMin());
+	}
+}
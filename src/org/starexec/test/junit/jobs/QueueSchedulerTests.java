@@ -0,0 +1,134 @@
+package org.starexec.test.junit.jobs;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.starexec.backend.Backend;
+import org.starexec.backend.LocalBackend;
+import org.starexec.data.to.Queue;
+import org.starexec.jobs.QueueScheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Schedules several synthetic queues against a LocalBackend, both one after another and with a worker for each queue.
+ */
+public class QueueSchedulerTests {
+	private static final int QUEUE_COUNT = 8;
+	private static final int PAIRS_PER_QUEUE = 50;
+	private static final long QUEUE_DELAY = 10;
+
+	private Backend backend = null;
+	private List<Queue> queues = null;
+	private QueueScheduler serial = null;
+	private QueueScheduler parallel = null;
+
+	@Before
+	public void setup() {
+		backend = new LocalBackend();
+		queues = new ArrayList<>();
+		for (int i = 1; i <= QUEUE_COUNT; i++) {
+			Queue q = new Queue();
+			q.setId(i);
+			q.setName("queue" + i);
+			queues.add(q);
+		}
+		serial = new QueueScheduler(1);
+		parallel = new QueueScheduler(QUEUE_COUNT);
+	}
+
+	@After
+	public void teardown() {
+		serial.shutdown();
+		parallel.shutdown();
+	}
+
+	// stands in for one queue's share of checkPendingJobs: slow database and backend calls, then submission
+	private Consumer<Queue> submitPairs(AtomicInteger submitted) {
+		return q -> {
+			try {
+				Thread.sleep(QUEUE_DELAY);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			for (int i = 0; i < PAIRS_PER_QUEUE; i++) {
+				if (!backend.isError(backend.submitScript(q.getName() + " pair " + i, "/test", "/log"))) {
+					submitted.incrementAndGet();
+				}
+			}
+		};
+	}
+
+	@Test
+	public void everyQueueIsScheduledTest() {
+		AtomicInteger serialSubmitted = new AtomicInteger(0);
+		AtomicInteger parallelSubmitted = new AtomicInteger(0);
+		serial.runOnQueues(queues, submitPairs(serialSubmitted));
+		parallel.runOnQueues(queues, submitPairs(parallelSubmitted));
+		Assert.assertEquals(QUEUE_COUNT * PAIRS_PER_QUEUE, serialSubmitted.get());
+		Assert.assertEquals(QUEUE_COUNT * PAIRS_PER_QUEUE, parallelSubmitted.get());
+	}
+
+	@Test
+	public void differentQueuesRunConcurrentlyTest() {
+		// each queue waits for every other queue to start, which only happens if they all run at once
+		CountDownLatch started = new CountDownLatch(QUEUE_COUNT);
+		AtomicInteger allStarted = new AtomicInteger(0);
+		parallel.runOnQueues(queues, q -> {
+			started.countDown();
+			try {
+				if (started.await(5, TimeUnit.SECONDS)) {
+					allStarted.incrementAndGet();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		Assert.assertEquals(QUEUE_COUNT, allStarted.get());
+	}
+
+	@Test
+	public void sameQueueNeverRunsConcurrentlyTest() {
+		Queue q = queues.get(0);
+		List<Queue> sameQueue = Collections.nCopies(QUEUE_COUNT, q);
+		ConcurrentHashMap<Integer, Boolean> running = new ConcurrentHashMap<>();
+		AtomicInteger overlaps = new AtomicInteger(0);
+		AtomicInteger runs = new AtomicInteger(0);
+		parallel.runOnQueues(sameQueue, queue -> {
+			if (running.putIfAbsent(queue.getId(), true) != null) {
+				overlaps.incrementAndGet();
+			}
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			runs.incrementAndGet();
+			running.remove(queue.getId());
+		});
+		Assert.assertEquals(QUEUE_COUNT, runs.get());
+		Assert.assertEquals(0, overlaps.get());
+	}
+
+	@Test
+	public void failingQueueDoesNotStopRoundTest() {
+		AtomicInteger submitted = new AtomicInteger(0);
+		Consumer<Queue> work = submitPairs(submitted);
+		parallel.runOnQueues(queues, q -> {
+			if (q.getId() == 2) {
+				throw new RuntimeException("synthetic failure");
+			}
+			work.accept(q);
+		});
+		Assert.assertEquals((QUEUE_COUNT - 1) * PAIRS_PER_QUEUE, submitted.get());
+	}
+}
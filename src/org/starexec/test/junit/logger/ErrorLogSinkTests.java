@@ -0,0 +1,94 @@
+package org.starexec.test.junit.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.starexec.data.to.ErrorLog;
+import org.starexec.logger.ErrorLogSink;
+import org.starexec.logger.StarLevel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ErrorLogSinkTests {
+
+	@Test
+	public void coalescesRepeatedMessagesTest() {
+		List<List<ErrorLog>> batches = Collections.synchronizedList(new ArrayList<>());
+		ErrorLogSink sink = new ErrorLogSink(1000, 60 * 1000, 100, batches::add);
+		for (int i = 0; i < 500; i++) {
+			sink.add("node flapping", StarLevel.WARN);
+		}
+		sink.add("node flapping", StarLevel.ERROR);
+		sink.add("other", StarLevel.WARN);
+		sink.shutdown(5000);
+
+		List<ErrorLog> saved = new ArrayList<>();
+		batches.forEach(saved::addAll);
+		Assert.assertEquals(3, saved.size());
+		Assert.assertTrue(saved.get(0).getMessage().startsWith("(logged 500 times in "));
+		Assert.assertTrue(saved.get(0).getMessage().endsWith("node flapping"));
+		Assert.assertEquals(StarLevel.WARN, saved.get(0).getLevel());
+		Assert.assertEquals("node flapping", saved.get(1).getMessage());
+		Assert.assertEquals(StarLevel.ERROR, saved.get(1).getLevel());
+		Assert.assertEquals("other", saved.get(2).getMessage());
+	}
+
+	@Test
+	public void countsDroppedMessagesTest() throws InterruptedException {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<ErrorLog> saved = Collections.synchronizedList(new ArrayList<>());
+		ErrorLogSink sink = new ErrorLogSink(10, 0, 1, batch -> {
+			writing.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				return false;
+			}
+			saved.addAll(batch);
+			return true;
+		});
+		// the first message holds up the worker so that the queue fills behind it
+		sink.add("first", StarLevel.ERROR);
+		Assert.assertTrue(writing.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 25; i++) {
+			sink.add("message " + i, StarLevel.ERROR);
+		}
+		Assert.assertEquals(15, sink.getDroppedCount());
+		release.countDown();
+		sink.shutdown(5000);
+
+		Assert.assertEquals(12, saved.size());
+		Assert.assertEquals(1, saved.stream().filter(l -> l.getMessage().contains("15 messages were dropped")).count());
+	}
+
+	@Test
+	public void addingDoesNotWaitForWriterTest() throws InterruptedException {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<ErrorLog> saved = Collections.synchronizedList(new ArrayList<>());
+		ErrorLogSink sink = new ErrorLogSink(2000, 0, 100, batch -> {
+			writing.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				return false;
+			}
+			saved.addAll(batch);
+			return true;
+		});
+		sink.add("first", StarLevel.WARN);
+		Assert.assertTrue(writing.await(5, TimeUnit.SECONDS));
+		// the writer is stalled, and every one of these returns without waiting for it
+		for (int i = 0; i < 1000; i++) {
+			sink.add("message " + i, StarLevel.WARN);
+		}
+		Assert.assertEquals(0, sink.getDroppedCount());
+		release.countDown();
+		sink.shutdown(5000);
+		Assert.assertEquals(1001, saved.size());
+	}
+}
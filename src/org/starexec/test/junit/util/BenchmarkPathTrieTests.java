@@ -0,0 +1,81 @@
+package org.starexec.test.junit.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.starexec.util.dataStructures.BenchmarkPathTrie;
+
+public class BenchmarkPathTrieTests {
+	private static final int ROOT = 10;
+	private BenchmarkPathTrie trie;
+
+	@Before
+	public void setup() {
+		// spaces are added child first to make sure the order they come from the database in does not matter
+		trie = new BenchmarkPathTrie(ROOT);
+		trie.addSpace(11, 12, "SET");
+		trie.addSpace(ROOT, 11, "Axioms");
+		trie.addSpace(ROOT, 13, "dup");
+		trie.addSpace(ROOT, 14, "dup");
+		trie.addBenchmark(12, 100, "SET001+0.ax");
+		trie.addBenchmark(12, 101, "SET002+0.ax");
+		trie.addBenchmark(12, 102, "SET002+0.ax");
+		trie.addBenchmark(ROOT, 103, "top.ax");
+		trie.addBenchmark(13, 104, "hidden.ax");
+	}
+
+	@Test
+	public void resolvesPathsTest() {
+		Assert.assertEquals(100, trie.resolve("Axioms/SET/SET001+0.ax", false));
+		Assert.assertEquals(103, trie.resolve("top.ax", false));
+		Assert.assertEquals(-1, trie.resolve("Axioms/SET/SET003+0.ax", false));
+		Assert.assertEquals(-1, trie.resolve("Axioms/NUM/SET001+0.ax", false));
+		Assert.assertEquals(-1, trie.resolve("Axioms/SET001+0.ax", false));
+	}
+
+	@Test
+	public void skipsRootWhenLinkedTest() {
+		Assert.assertEquals(100, trie.resolve("TPTP/Axioms/SET/SET001+0.ax", true));
+		Assert.assertEquals(103, trie.resolve("TPTP/top.ax", true));
+		Assert.assertEquals(-1, trie.resolve("TPTP", true));
+	}
+
+	@Test
+	public void ambiguousNamesDoNotResolveTest() {
+		Assert.assertEquals(-1, trie.resolve("Axioms/SET/SET002+0.ax", false));
+		Assert.assertEquals(-1, trie.resolve("dup/hidden.ax", false));
+	}
+
+	@Test
+	public void rootSpaceHoldsNoDependenciesTest() {
+		BenchmarkPathTrie fromRoot = new BenchmarkPathTrie(1);
+		fromRoot.addBenchmark(1, 5, "a.ax");
+		fromRoot.addSpace(1, 2, "sub");
+		fromRoot.addBenchmark(2, 6, "a.ax");
+		Assert.assertEquals(-1, fromRoot.resolve("a.ax", false));
+		Assert.assertEquals(6, fromRoot.resolve("sub/a.ax", false));
+	}
+
+	@Test
+	public void resolvesEveryBenchmarkInLibraryTest() {
+		// a TPTP-like library: 50 domains with 200 axiom files each
+		BenchmarkPathTrie library = new BenchmarkPathTrie(ROOT);
+		int space = ROOT + 1;
+		int bench = 1;
+		library.addSpace(ROOT, space, "Axioms");
+		int axioms = space;
+		for (int d = 0; d < 50; d++) {
+			library.addSpace(axioms, ++space, "D" + d);
+			for (int a = 0; a < 200; a++) {
+				library.addBenchmark(space, bench++, "D" + d + "-" + a + ".ax");
+			}
+		}
+		for (int d = 0; d < 50; d++) {
+			for (int a = 0; a < 200; a++) {
+				String path = "TPTP/Axioms/D" + d + "/D" + d + "-" + a + ".ax";
+				Assert.assertEquals(d * 200 + a + 1, library.resolve(path, true));
+			}
+		}
+		Assert.assertEquals(-1, library.resolve("TPTP/Axioms/D0/D1-0.ax", true));
+	}
+}
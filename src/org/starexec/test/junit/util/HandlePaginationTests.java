@@ -0,0 +1,132 @@
+package org.starexec.test.junit.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.starexec.data.to.Benchmark;
+import org.starexec.data.to.Configuration;
+import org.starexec.data.to.JobPair;
+import org.starexec.data.to.Solver;
+import org.starexec.data.to.Status.StatusCode;
+import org.starexec.data.to.compare.JobPairComparator;
+import org.starexec.data.to.pipelines.JoblineStage;
+import org.starexec.util.Util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * Checks that Util.handlePagination returns the same pages as sorting the whole list, over synthetic job pairs using
+ * the comparator the job pairs table uses.
+ */
+public class HandlePaginationTests {
+	private static final int PAGE = 10;
+
+	private static List<JobPair> getPairs(int count, long seed) {
+		Random random = new Random(seed);
+		Solver solver = new Solver();
+		solver.setName("solver");
+		Configuration config = new Configuration();
+		config.setName("config");
+		List<JobPair> pairs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			JobPair pair = new JobPair();
+			pair.setId(i + 1);
+			Benchmark bench = new Benchmark();
+			// few distinct names, so that there are plenty of ties
+			bench.setName("bench" + random.nextInt(count / 10 + 1));
+			pair.setBench(bench);
+			JoblineStage stage = new JoblineStage();
+			stage.setStageNumber(1);
+			stage.setSolver(solver);
+			stage.setConfiguration(config);
+			stage.setWallclockTime((double) random.nextInt(1000));
+			stage.setCpuUsage(random.nextDouble() * 1000);
+			stage.getStatus().setCode(random.nextInt(4) == 0 ? StatusCode.STATUS_RUNNING.getVal() :
+			                          StatusCode.STATUS_COMPLETE.getVal());
+			pair.addStage(stage);
+			pairs.add(pair);
+		}
+		return pairs;
+	}
+
+	/**
+	 * The pages as they were taken before: filter into new lists, sort everything and take a sublist
+	 */
+	private static <T> List<T> sortedPage(
+			List<T> items, Predicate<T> filter, Comparator<T> compare, int start, int records, int[] totals
+	) {
+		List<T> filtered = new ArrayList<>();
+		for (T item : items) {
+			if (filter.test(item)) {
+				filtered.add(item);
+			}
+		}
+		totals[1] = filtered.size();
+		filtered.sort(compare);
+		if (start >= filtered.size()) {
+			return new ArrayList<>();
+		}
+		return new ArrayList<>(filtered.subList(start, Math.min(start + records, filtered.size())));
+	}
+
+	@Test
+	public void matchesStableSortTest() {
+		List<JobPair> pairs = getPairs(5000, 1);
+		Predicate<JobPair> complete = jp -> jp.getStageFromNumber(1).getStatus().getCode().statComplete();
+		for (int column : new int[]{0, 4, 8}) {
+			for (boolean asc : new boolean[]{true, false}) {
+				JobPairComparator compare = new JobPairComparator(column, 1, asc);
+				for (int start : new int[]{0, 10, 3740, 3750, 6000}) {
+					int[] expectedTotals = new int[2];
+					int[] totals = new int[2];
+					List<JobPair> expected = sortedPage(pairs, complete, compare, start, PAGE, expectedTotals);
+					List<JobPair> page =
+							Util.handlePagination(pairs, jp -> true, complete, compare, start, PAGE, totals);
+					Assert.assertEquals(expected, page);
+					Assert.assertEquals(pairs.size(), totals[0]);
+					Assert.assertEquals(expectedTotals[1], totals[1]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void typeFilterIsCountedSeparatelyTest() {
+		List<Integer> numbers = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			numbers.add(i);
+		}
+		int[] totals = new int[2];
+		List<Integer> page = Util.handlePagination(numbers, i -> i % 2 == 0, i -> i % 3 == 0,
+		                                           Comparator.reverseOrder(), 2, 3, totals);
+		Assert.assertEquals(50, totals[0]);
+		Assert.assertEquals(17, totals[1]);
+		Assert.assertEquals(List.of(84, 78, 72), page);
+	}
+
+	@Test
+	public void allRecordsTest() {
+		List<Integer> numbers = List.of(3, 1, 2);
+		Assert.assertEquals(List.of(1, 2, 3), Util.handlePagination(numbers, Comparator.naturalOrder(), 0, -1));
+		Assert.assertEquals(List.of(), Util.handlePagination(numbers, Comparator.naturalOrder(), 3, 10));
+	}
+
+	@Test
+	public void unfilteredPagesMatchSortTest() {
+		List<JobPair> pairs = getPairs(20000, 2);
+		JobPairComparator compare = new JobPairComparator(4, 1, false);
+		// the first page and a page a little way in, which is where people actually look
+		for (int start : new int[]{0, 100}) {
+			int[] expectedTotals = new int[2];
+			int[] totals = new int[2];
+			List<JobPair> expected = sortedPage(pairs, jp -> true, compare, start, PAGE, expectedTotals);
+			Assert.assertEquals(expected, Util.handlePagination(pairs, jp -> true, jp -> true, compare, start, PAGE,
+			                                                    totals));
+			Assert.assertEquals(pairs.size(), totals[0]);
+			Assert.assertEquals(pairs.size(), totals[1]);
+		}
+	}
+}
@@ -0,0 +1,251 @@
+package org.starexec.test.junit.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.starexec.data.to.tuples.FileSlice;
+import org.starexec.util.OutputFollower;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class OutputFollowerTests {
+	private static final int CHUNK_BYTES = 100;
+	private OutputFollower follower;
+	private File output;
+
+	/**
+	 * Records what it is sent
+	 */
+	private static class RecordingViewer implements OutputFollower.Viewer {
+		final StringBuffer text = new StringBuffer();
+		final List<FileSlice> slices = Collections.synchronizedList(new ArrayList<>());
+		volatile boolean finished = false;
+		volatile int keepAlives = 0;
+		final CountDownLatch closed = new CountDownLatch(1);
+		volatile boolean closedFinished = false;
+
+		@Override
+		public void send(FileSlice slice) throws IOException {
+			slices.add(slice);
+			text.append(slice.text);
+		}
+
+		@Override
+		public void keepAlive() {
+			keepAlives++;
+		}
+
+		@Override
+		public boolean isFinished() {
+			return finished;
+		}
+
+		@Override
+		public void close(boolean finished) {
+			closedFinished = finished;
+			closed.countDown();
+		}
+	}
+
+	@Before
+	public void setup() throws IOException {
+		follower = new OutputFollower(10, CHUNK_BYTES, 50, 20, 1000, 2);
+		output = File.createTempFile("stdout", ".txt");
+	}
+
+	@After
+	public void cleanup() {
+		follower.shutdown();
+		output.delete();
+	}
+
+	private void append(String text) throws IOException {
+		try (FileOutputStream out = new FileOutputStream(output, true)) {
+			out.write(text.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static void waitFor(RecordingViewer viewer, String text) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (!viewer.text.toString().equals(text) && System.currentTimeMillis() < end) {
+			Thread.sleep(5);
+		}
+		Assert.assertEquals(text, viewer.text.toString());
+	}
+
+	@Test
+	public void sendsNewOutputTest() throws IOException, InterruptedException {
+		append("first line\n");
+		RecordingViewer viewer = new RecordingViewer();
+		Assert.assertTrue(follower.follow(output, 0, viewer));
+		waitFor(viewer, "first line\n");
+		append("second line\n");
+		waitFor(viewer, "first line\nsecond line\n");
+
+		viewer.finished = true;
+		Assert.assertTrue(viewer.closed.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(viewer.closedFinished);
+		Assert.assertEquals(0, follower.getViewerCount());
+	}
+
+	@Test
+	public void startsAtOffsetTest() throws IOException, InterruptedException {
+		append("already seen\nnew\n");
+		RecordingViewer viewer = new RecordingViewer();
+		follower.follow(output, "already seen\n".length(), viewer);
+		waitFor(viewer, "new\n");
+	}
+
+	@Test
+	public void sendsBoundedChunksTest() throws IOException, InterruptedException {
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			expected.append("line ").append(i).append('\n');
+		}
+		append(expected.toString());
+		RecordingViewer viewer = new RecordingViewer();
+		follower.follow(output, 0, viewer);
+		waitFor(viewer, expected.toString());
+		long offset = 0;
+		for (FileSlice slice : viewer.slices) {
+			Assert.assertEquals(offset, slice.start);
+			Assert.assertTrue(slice.end - slice.start <= CHUNK_BYTES);
+			offset = slice.end;
+		}
+	}
+
+	@Test
+	public void sendsRemainingOutputBeforeFinishingTest() throws IOException, InterruptedException {
+		RecordingViewer viewer = new RecordingViewer();
+		viewer.finished = true;
+		append("last words\n");
+		follower.follow(output, 0, viewer);
+		Assert.assertTrue(viewer.closed.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals("last words\n", viewer.text.toString());
+	}
+
+	@Test
+	public void keepsIdleViewersAliveTest() throws InterruptedException {
+		RecordingViewer viewer = new RecordingViewer();
+		follower.follow(output, 0, viewer);
+		Thread.sleep(300);
+		Assert.assertTrue(viewer.keepAlives > 0);
+		Assert.assertEquals(1, follower.getViewerCount());
+	}
+
+	@Test
+	public void failedViewerIsDroppedTest() throws IOException, InterruptedException {
+		CountDownLatch dropped = new CountDownLatch(1);
+		append("output\n");
+		follower.follow(output, 0, new RecordingViewer() {
+			@Override
+			public void send(FileSlice slice) throws IOException {
+				throw new IOException("disconnected");
+			}
+
+			@Override
+			public void close(boolean finished) {
+				Assert.assertFalse(finished);
+				dropped.countDown();
+			}
+		});
+		Assert.assertTrue(dropped.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals(0, follower.getViewerCount());
+	}
+
+	@Test
+	public void slowViewerDoesNotHoldUpOthersTest() throws IOException, InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingViewer slow = new RecordingViewer() {
+			@Override
+			public void send(FileSlice slice) throws IOException {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				super.send(slice);
+			}
+		};
+		RecordingViewer fast = new RecordingViewer();
+		append("output\n");
+		follower.follow(output, 0, slow);
+		follower.follow(output, 0, fast);
+		waitFor(fast, "output\n");
+		append("more\n");
+		waitFor(fast, "output\nmore\n");
+		release.countDown();
+		waitFor(slow, "output\nmore\n");
+	}
+
+	@Test
+	public void blockedViewersDoNotUseUpWriterThreadsTest() throws IOException, InterruptedException {
+		OutputFollower single = new OutputFollower(10, CHUNK_BYTES, 50, 20, 10, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			append("output\n");
+			List<RecordingViewer> blocked = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				RecordingViewer viewer = new RecordingViewer() {
+					@Override
+					public void send(FileSlice slice) throws IOException {
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							throw new IOException(e);
+						}
+						super.send(slice);
+					}
+				};
+				blocked.add(viewer);
+				single.follow(output, 0, viewer);
+			}
+			RecordingViewer fast = new RecordingViewer();
+			single.follow(output, 0, fast);
+			waitFor(fast, "output\n");
+			release.countDown();
+			for (RecordingViewer viewer : blocked) {
+				waitFor(viewer, "output\n");
+			}
+		} finally {
+			release.countDown();
+			single.shutdown();
+		}
+	}
+
+	@Test
+	public void refusesViewersPastLimitTest() {
+		OutputFollower small = new OutputFollower(10, CHUNK_BYTES, 50, 20, 1, 1);
+		try {
+			Assert.assertTrue(small.follow(output, 0, new RecordingViewer()));
+			Assert.assertFalse(small.follow(output, 0, new RecordingViewer()));
+		} finally {
+			small.shutdown();
+		}
+	}
+
+	@Test
+	public void manyViewersTest() throws IOException, InterruptedException {
+		int viewers = 100;
+		List<RecordingViewer> followed = new ArrayList<>();
+		for (int i = 0; i < viewers; i++) {
+			RecordingViewer viewer = new RecordingViewer();
+			followed.add(viewer);
+			Assert.assertTrue(follower.follow(output, 0, viewer));
+		}
+		append("new output\n");
+		for (RecordingViewer viewer : followed) {
+			waitFor(viewer, "new output\n");
+		}
+		Assert.assertEquals(viewers, follower.getViewerCount());
+	}
+}
@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.starexec.util.DataTablesQuery;
+import org.starexec.util.PageCursor;
 import org.starexec.util.PaginationQueryBuilder;
 
 
@@ -35,4 +36,73 @@ public class PaginationQueryBuilderTests {
 		Assert.assertEquals(expected, b.getSQL());
 		
 	}
+
+	@Test
+	public void testGetSQLWithIdColumnWithoutCursor() {
+		PaginationQueryBuilder b = new PaginationQueryBuilder(baseSQL, "first_name", "users.id", query);
+		String expected = "select first_name AS page_cursor_value, users.id AS page_cursor_id, * from users\n" +
+		                  "ORDER BY first_name DESC, users.id DESC\nLIMIT 3, 5;";
+		Assert.assertFalse(b.usesCursor());
+		Assert.assertEquals(expected, b.getSQL());
+	}
+
+	@Test
+	public void testGetSQLSeeksPastCursor() {
+		query.setSortASC(true);
+		query.setCursor(new PageCursor(query, 3, "ann", 12));
+		PaginationQueryBuilder b = new PaginationQueryBuilder(baseSQL + " where deleted=0", "first_name", "users.id",
+		                                                      query);
+		String expected = "select first_name AS page_cursor_value, users.id AS page_cursor_id, * from users where " +
+		                  "deleted=0\nAND (first_name > :cursorValue OR (first_name = :cursorValue AND users.id > " +
+		                  ":cursorId))\nORDER BY first_name ASC, users.id ASC\nLIMIT 5;";
+		Assert.assertTrue(b.usesCursor());
+		Assert.assertEquals(expected, b.getSQL());
+	}
+
+	@Test
+	public void testGetSQLSeeksPastNullCursor() {
+		query.setCursor(new PageCursor(query, 3, null, 12));
+		PaginationQueryBuilder b = new PaginationQueryBuilder(baseSQL, "first_name", "users.id", query);
+		Assert.assertTrue(b.getSQL().contains("\nAND (first_name IS NULL AND users.id < :cursorId)\n"));
+		query.setSortASC(true);
+		query.setCursor(new PageCursor(query, 3, null, 12));
+		Assert.assertTrue(b.getSQL().contains("\nAND (first_name IS NOT NULL OR users.id > :cursorId)\n"));
+	}
+
+	@Test
+	public void testCursorOnlyContinuesItsPage() {
+		query.setCursor(new PageCursor(query, 3, "ann", 12));
+		PaginationQueryBuilder b = new PaginationQueryBuilder(baseSQL, "first_name", "users.id", query);
+		Assert.assertTrue(b.usesCursor());
+
+		query.setStartingRecord(8);
+		Assert.assertFalse(b.usesCursor());
+		Assert.assertTrue(b.getSQL().endsWith("LIMIT 8, 5;"));
+		query.setStartingRecord(3);
+		query.setSearchQuery("bob");
+		Assert.assertFalse(b.usesCursor());
+		query.setSearchQuery(null);
+		query.setCursorScope(7);
+		Assert.assertFalse(b.usesCursor());
+		query.setCursorScope(0);
+		query.setSortASC(true);
+		Assert.assertFalse(b.usesCursor());
+		Assert.assertFalse(new PaginationQueryBuilder(baseSQL, "first_name", query).getSQL().contains("cursor"));
+	}
+
+	@Test
+	public void testCursorEncoding() {
+		query.setCursorScope("/starexec/services/space/4/benchmarks/pagination".hashCode());
+		PageCursor cursor = new PageCursor(query, 8, "a:b c", 42);
+		PageCursor decoded = PageCursor.decode(cursor.encode());
+		Assert.assertEquals("a:b c", decoded.getValue());
+		Assert.assertEquals(42, decoded.getId());
+		query.setStartingRecord(8);
+		Assert.assertTrue(decoded.continues(query));
+
+		Assert.assertNull(PageCursor.decode(new PageCursor(query, 8, null, 42).encode()).getValue());
+		Assert.assertNull(PageCursor.decode(null));
+		Assert.assertNull(PageCursor.decode("not a cursor"));
+		Assert.assertNull(PageCursor.decode("MTox"));
+	}
 }
@@ -0,0 +1,116 @@
+package org.starexec.test.junit.util;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.starexec.data.to.tuples.FileSlice;
+import org.starexec.util.RangedFileReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class RangedFileReaderTests {
+	private static final int LINES = 10000;
+	private static File bigFile;
+
+	@BeforeClass
+	public static void createBigFile() throws IOException {
+		bigFile = File.createTempFile("stdout", ".txt");
+		try (BufferedWriter writer = Files.newBufferedWriter(bigFile.toPath(), StandardCharsets.UTF_8)) {
+			for (int i = 0; i < LINES; i++) {
+				writer.write(i + "\t0.01\tline " + i + " of the solver output\n");
+			}
+		}
+	}
+
+	@AfterClass
+	public static void deleteBigFile() {
+		bigFile.delete();
+	}
+
+	private static File write(String contents) throws IOException {
+		File f = File.createTempFile("slice", ".txt");
+		f.deleteOnExit();
+		Files.write(f.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		return f;
+	}
+
+	@Test
+	public void tailTest() throws IOException {
+		File f = write("one\ntwo\nthree\nfour\n");
+		Assert.assertEquals("three\nfour\n", RangedFileReader.tail(f, 2, 1000).text);
+		Assert.assertEquals("one\ntwo\nthree\nfour\n", RangedFileReader.tail(f, 10, 1000).text);
+		Assert.assertEquals("four\n", RangedFileReader.tail(f, 1, 1000).text);
+		Assert.assertEquals("", RangedFileReader.tail(f, 0, 1000).text);
+		// the lines are cut off at the byte limit
+		Assert.assertEquals("ee\nfour\n", RangedFileReader.tail(f, 3, 8).text);
+
+		File noFinalBreak = write("one\ntwo\nthree");
+		Assert.assertEquals("two\nthree", RangedFileReader.tail(noFinalBreak, 2, 1000).text);
+		Assert.assertEquals("", RangedFileReader.tail(write(""), 5, 1000).text);
+	}
+
+	@Test
+	public void pagesThroughFileTest() throws IOException {
+		String contents = "line one\nline two\nline three\n";
+		File f = write(contents);
+		StringBuilder read = new StringBuilder();
+		long start = 0;
+		FileSlice slice;
+		do {
+			slice = RangedFileReader.read(f, start, 7);
+			Assert.assertEquals(start, slice.start);
+			Assert.assertEquals(contents.length(), slice.size);
+			read.append(slice.text);
+			start = slice.end;
+		} while (slice.end < slice.size);
+		Assert.assertEquals(contents, read.toString());
+
+		slice = RangedFileReader.read(f, contents.length() + 10, 7);
+		Assert.assertEquals("", slice.text);
+		Assert.assertEquals(contents.length(), slice.start);
+	}
+
+	@Test
+	public void doesNotSplitCharactersTest() throws IOException {
+		// two, three and four byte characters
+		String contents = "a\u00e9\u20ac\ud83d\ude00b";
+		File f = write(contents);
+		StringBuilder read = new StringBuilder();
+		long start = 0;
+		FileSlice slice;
+		do {
+			slice = RangedFileReader.read(f, start, 4);
+			read.append(slice.text);
+			start = slice.end;
+		} while (slice.end < slice.size);
+		Assert.assertEquals(contents, read.toString());
+
+		// starting in the middle of the euro sign skips to the next character
+		slice = RangedFileReader.read(f, 4, 100);
+		Assert.assertEquals(6, slice.start);
+		Assert.assertEquals("\ud83d\ude00b", slice.text);
+		// a slice too short to hold the character it starts on is empty
+		Assert.assertEquals("", RangedFileReader.read(f, 6, 3).text);
+	}
+
+	@Test
+	public void largeFileTest() throws IOException {
+		long size = bigFile.length();
+		String whole = new String(Files.readAllBytes(bigFile.toPath()), StandardCharsets.UTF_8);
+
+		FileSlice tail = RangedFileReader.tail(bigFile, 100, 1024 * 1024);
+		Assert.assertTrue(tail.text.startsWith((LINES - 100) + "\t"));
+		Assert.assertEquals(size, tail.end);
+		Assert.assertTrue(whole.endsWith(tail.text));
+
+		FileSlice middle = RangedFileReader.read(bigFile, size / 2, 64 * 1024);
+		Assert.assertEquals(64 * 1024, middle.end - middle.start);
+		// the output is ASCII, so byte offsets are character offsets
+		Assert.assertEquals(whole.substring((int) middle.start, (int) middle.end), middle.text);
+	}
+}
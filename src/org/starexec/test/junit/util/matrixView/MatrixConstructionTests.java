@@ -0,0 +1,145 @@
+package org.starexec.test.junit.util.matrixView;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.starexec.constants.R;
+import org.starexec.data.to.Benchmark;
+import org.starexec.data.to.Configuration;
+import org.starexec.data.to.JobPair;
+import org.starexec.data.to.Solver;
+import org.starexec.data.to.Status.StatusCode;
+import org.starexec.data.to.pipelines.JoblineStage;
+import org.starexec.exceptions.StarExecException;
+import org.starexec.util.matrixView.Matrix;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+public class MatrixConstructionTests {
+
+	private static JobPair getPair(int id, Benchmark bench, Solver solver, Configuration config, int... stageNumbers) {
+		JobPair pair = new JobPair();
+		pair.setId(id);
+		pair.setBench(bench);
+		for (int stageNumber : stageNumbers) {
+			JoblineStage stage = new JoblineStage();
+			stage.setStageNumber(stageNumber);
+			stage.getStatus().setCode(StatusCode.STATUS_COMPLETE.getVal());
+			stage.getAttributes().put(R.STAREXEC_RESULT, "sat");
+			stage.getAttributes().put(R.EXPECTED_RESULT, "sat");
+			stage.setWallclockTime((double) id);
+			stage.setSolver(solver);
+			stage.setConfiguration(config);
+			pair.addStage(stage);
+		}
+		return pair;
+	}
+
+	private static Benchmark getBenchmark(int id, String name) {
+		Benchmark bench = new Benchmark();
+		bench.setId(id);
+		bench.setName(name);
+		return bench;
+	}
+
+	private static Solver getSolver(int id, String name) {
+		Solver solver = new Solver();
+		solver.setId(id);
+		solver.setName(name);
+		return solver;
+	}
+
+	private static Configuration getConfig(int id, String name) {
+		Configuration config = new Configuration();
+		config.setId(id);
+		config.setName(name);
+		return config;
+	}
+
+	@Test
+	public void sortsHeadersAndPlacesCellsTest() throws StarExecException {
+		Benchmark b = getBenchmark(1, "b.smt2");
+		Benchmark a = getBenchmark(2, "A.smt2");
+		Solver z3 = getSolver(1, "z3");
+		Solver cvc = getSolver(2, "CVC");
+		Configuration z3Default = getConfig(10, "default");
+		Configuration cvcDefault = getConfig(11, "default");
+		List<JobPair> pairs = new ArrayList<>();
+		pairs.add(getPair(100, b, z3, z3Default, 1));
+		pairs.add(getPair(101, a, z3, z3Default, 1));
+		pairs.add(getPair(102, b, cvc, cvcDefault, 1));
+
+		Matrix matrix = Matrix.getMatrixFromJobPairs(pairs, "space", 5, 1, false);
+		Assert.assertEquals(2, matrix.getRowCount());
+		Assert.assertEquals(2, matrix.getColumnCount());
+		Assert.assertEquals("A.smt2", matrix.getBenchmarksByRow().get(0).getName());
+		Assert.assertEquals("CVC", matrix.getSolverConfigsByColumn().get(0).getLeft().getName());
+		// A.smt2 was only run with z3
+		Assert.assertNull(matrix.get(0, 0));
+		Assert.assertEquals("101", matrix.get(0, 1).getJobPairId());
+		Assert.assertEquals("102", matrix.get(1, 0).getJobPairId());
+		Assert.assertEquals("100", matrix.get(1, 1).getJobPairId());
+		Assert.assertEquals("solved", matrix.get(1, 1).getStatus());
+		Assert.assertEquals(2, matrix.getInternalMatrixRepresentation().size());
+		Assert.assertEquals("100", matrix.getInternalMatrixRepresentation().get(1).get(1).getJobPairId());
+	}
+
+	@Test
+	public void leavesOutPairsWithoutStageTest() throws StarExecException {
+		Solver solver = getSolver(1, "solver");
+		Configuration config = getConfig(10, "config");
+		List<JobPair> pairs = new ArrayList<>();
+		pairs.add(getPair(100, getBenchmark(1, "one"), solver, config, 1, 2));
+		pairs.add(getPair(101, getBenchmark(2, "two"), solver, config, 1));
+
+		Matrix matrix = Matrix.getMatrixFromJobPairs(pairs, "space", 5, 2, true);
+		Assert.assertEquals(1, matrix.getRowCount());
+		Assert.assertEquals("one", matrix.getBenchmarksByRow().get(0).getName());
+		Assert.assertTrue(matrix.hasMultipleStages());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void setOutsideMatrixTest() throws StarExecException {
+		Matrix matrix = Matrix.getMatrixFromJobPairs(Collections.emptyList(), "space", 5, 1, false);
+		matrix.set(0, 0, null);
+	}
+
+	@Test
+	public void placesShuffledPairsTest() throws StarExecException {
+		// more benchmarks than fit on one page
+		int benchmarkCount = R.MATRIX_VIEW_ROWS_PER_PAGE + 50;
+		int configCount = 8;
+		List<Benchmark> benchmarks = new ArrayList<>();
+		for (int i = 0; i < benchmarkCount; i++) {
+			benchmarks.add(getBenchmark(i, "bench" + i));
+		}
+		List<JobPair> pairs = new ArrayList<>();
+		for (int c = 0; c < configCount; c++) {
+			Solver solver = getSolver(c, "solver" + c);
+			Configuration config = getConfig(c, "config" + c);
+			for (Benchmark bench : benchmarks) {
+				pairs.add(getPair(pairs.size() + 1, bench, solver, config, 1));
+			}
+		}
+		// pairs come back from the database in no particular order
+		Collections.shuffle(pairs, new Random(1));
+
+		Matrix matrix = Matrix.getMatrixFromJobPairs(pairs, "space", 5, 1, false);
+		Assert.assertEquals(benchmarkCount, matrix.getRowCount());
+		Assert.assertEquals(configCount, matrix.getColumnCount());
+		for (int row = 0; row < matrix.getRowCount(); row++) {
+			int benchId = matrix.getBenchmarksByRow().get(row).getId();
+			for (int column = 0; column < matrix.getColumnCount(); column++) {
+				int solverId = matrix.getSolverConfigsByColumn().get(column).getLeft().getId();
+				int pairId = solverId * benchmarkCount + benchId + 1;
+				Assert.assertEquals(String.valueOf(pairId), matrix.get(row, column).getJobPairId());
+			}
+		}
+		for (List<?> row : matrix.getInternalMatrixRepresentation().subList(0, R.MATRIX_VIEW_ROWS_PER_PAGE)) {
+			Assert.assertEquals(configCount, row.stream().filter(Objects::nonNull).count());
+		}
+	}
+}
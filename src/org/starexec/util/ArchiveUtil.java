@@ -389,6 +389,29 @@ public class ArchiveUtil {
 		return earlyDate;
 	}
 
+	/**
+	 * Finds the time that addFileToArchive or addDirToArchive would return for the given file or directory, without
+	 * reading any file contents.
+	 *
+	 * @param srcFile The file or directory
+	 * @param earlyDate Milliseconds since the epoch, or -1 to include every file
+	 * @return max of earlyDate and the timestamp of the most recently modified file
+	 */
+	public static long getLastModified(File srcFile, long earlyDate) {
+		if (!srcFile.isDirectory()) {
+			long timestamp = srcFile.lastModified();
+			return timestamp > earlyDate ? timestamp : earlyDate;
+		}
+		long maxTime = earlyDate;
+		final File[] files = srcFile.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				maxTime = Math.max(maxTime, getLastModified(file, earlyDate));
+			}
+		}
+		return maxTime;
+	}
+
 	/**
 	 * Calculate Unix file permissions for file f
 	 * @param f File to calculate permissions for
@@ -15,6 +15,9 @@ public class DataTablesQuery {
 	private int totalRecords;
 	private int totalRecordsAfterQuery;
 	private int syncValue;
+	private int cursorScope = 0;
+	private PageCursor cursor = null;
+	private PageCursor nextCursor = null;
 
 	public DataTablesQuery() {
 		
@@ -89,6 +92,36 @@ public class DataTablesQuery {
 		this.syncValue = syncValue;
 	}
 	
+	/**
+	 * @return A value that identifies the table this request is for, such as a hash of its URL. Cursors only apply
+	 * to requests with the same scope as the one they were made for
+	 */
+	public int getCursorScope() {
+		return cursorScope;
+	}
+	public void setCursorScope(int cursorScope) {
+		this.cursorScope = cursorScope;
+	}
+	/**
+	 * @return The cursor the client sent with this request, or null if it sent none
+	 */
+	public PageCursor getCursor() {
+		return cursor;
+	}
+	public void setCursor(PageCursor cursor) {
+		this.cursor = cursor;
+	}
+	/**
+	 * @return The cursor marking the last row of the page returned for this request, or null if the page was not
+	 * found in a way that supports cursors
+	 */
+	public PageCursor getNextCursor() {
+		return nextCursor;
+	}
+	public void setNextCursor(PageCursor nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
 	public boolean hasSearchQuery() {
 		return !Util.isNullOrEmpty(this.getSearchQuery());
 	}
@@ -0,0 +1,85 @@
+package org.starexec.util;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations that many threads can record into without blocking each other. Durations are kept in
+ * buckets whose bounds are powers of two microseconds, so percentiles are reported as the upper bound of the bucket
+ * they fall in.
+ */
+public class LatencyHistogram {
+	private static final int BUCKETS = 40;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records one duration
+	 *
+	 * @param nanos The duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(0, nanos);
+		long micros = nanos / 1000;
+		int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		buckets[bucket].increment();
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	/**
+	 * @return The number of durations recorded
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return The total of all durations recorded, in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	/**
+	 * @param fraction A number between 0 and 1, such as 0.99 for the 99th percentile
+	 * @return An upper bound, in microseconds, on the given percentile of the recorded durations
+	 */
+	public long getPercentileMicros(double fraction) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		long target = (long) Math.ceil(total * fraction);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= target && seen > 0) {
+				return (1L << i) - 1;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		long n = getCount();
+		if (n == 0) {
+			return "n=0";
+		}
+		return "n=" + n + " mean=" + (getTotalNanos() / n / 1000) + "us p50<=" + getPercentileMicros(0.5) +
+		       "us p99<=" + getPercentileMicros(0.99) + "us max=" + (maxNanos.get() / 1000) + "us";
+	}
+}
@@ -0,0 +1,244 @@
+package org.starexec.util;
+
+import org.starexec.constants.R;
+import org.starexec.data.to.tuples.FileSlice;
+import org.starexec.logger.StarLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows growing output files, such as the stdout of a running pair in a job that copies output back incrementally,
+ * and sends new bytes to the viewers watching them. A single watcher thread checks the size of every followed file
+ * once per interval, so the cost of a viewer is one file size check per interval rather than a thread or a reread of
+ * the file. Files are polled rather than watched for changes because pair output is written to shared storage by the
+ * nodes, where file system notifications are not delivered.
+ * <p>
+ * When a file has grown, the new bytes are read and sent to the viewer by a pool of writer threads. A viewer
+ * has at most one read in flight, of at most chunkBytes, and is skipped by the watcher until it has been sent, so a
+ * slow viewer falls behind in the file rather than holding more of it in memory. Sends block until the viewer has
+ * taken the bytes, so the pool keeps only a few threads while sends are quick and starts more while they are not,
+ * up to one for each viewer. A browser that stops reading then holds up only its own thread.
+ */
+public class OutputFollower {
+	private static final StarLogger log = StarLogger.getLogger(OutputFollower.class);
+
+	private static final OutputFollower follower =
+			new OutputFollower(R.OUTPUT_FOLLOW_INTERVAL, R.OUTPUT_FOLLOW_CHUNK_BYTES, R.OUTPUT_FOLLOW_HEARTBEAT,
+			                   R.OUTPUT_FOLLOW_STATUS_INTERVAL, R.MAX_OUTPUT_FOLLOWERS, R.OUTPUT_FOLLOW_WRITER_THREADS);
+
+	/**
+	 * Somewhere new output is sent. Methods are called from the writer threads, one at a time for each viewer.
+	 */
+	public interface Viewer {
+		/**
+		 * @param slice The bytes of the file that were added since the last slice sent
+		 * @throws IOException If the viewer could not be sent the slice, in which case it is no longer followed
+		 */
+		void send(FileSlice slice) throws IOException;
+
+		/**
+		 * Sends the viewer something that does not change its output, so that an idle connection is not closed
+		 *
+		 * @throws IOException If the viewer could not be reached, in which case it is no longer followed
+		 */
+		void keepAlive() throws IOException;
+
+		/**
+		 * @return True if the file will not grow any more. Only called once the file has stopped growing, and no more
+		 * than once per status interval.
+		 */
+		boolean isFinished();
+
+		/**
+		 * Called once when the viewer is no longer followed, unless it was stopped with OutputFollower.stop
+		 *
+		 * @param finished True if the viewer was sent the whole file, and false if following stopped because of an error
+		 */
+		void close(boolean finished);
+	}
+
+	private static class Follow {
+		final File file;
+		final Viewer viewer;
+		// only changed by the writer thread handling the viewer, which the watcher waits for through busy
+		long offset;
+		long lastSent;
+		long lastStatusCheck;
+		volatile boolean busy = false;
+
+		Follow(File file, long offset, Viewer viewer) {
+			this.file = file;
+			this.offset = offset;
+			this.viewer = viewer;
+			this.lastSent = System.currentTimeMillis();
+			this.lastStatusCheck = lastSent;
+		}
+	}
+
+	private final int chunkBytes;
+	private final long heartbeat;
+	private final long statusInterval;
+	private final int maxViewers;
+	private final Map<Viewer, Follow> follows = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService watcher;
+	private final ExecutorService writers;
+
+	/**
+	 * Creates a follower and starts its threads. Pair output is followed by the one returned by getFollower; other
+	 * followers are only useful for testing.
+	 *
+	 * @param interval milliseconds between checks of the followed files
+	 * @param chunkBytes the most bytes read for one viewer at a time
+	 * @param heartbeat milliseconds without new output before a viewer is sent keepAlive
+	 * @param statusInterval milliseconds between calls to isFinished while a file is not growing
+	 * @param maxViewers the most viewers that can be followed at once
+	 * @param writerThreads the number of threads kept to read new output and send it to viewers. More are started
+	 * while sends are blocked, up to one for each viewer, and stop once they have been idle for a minute.
+	 */
+	public OutputFollower(long interval, int chunkBytes, long heartbeat, long statusInterval, int maxViewers,
+			int writerThreads) {
+		this.chunkBytes = chunkBytes;
+		this.heartbeat = heartbeat;
+		this.statusInterval = statusInterval;
+		this.maxViewers = maxViewers;
+		this.watcher = Executors.newSingleThreadScheduledExecutor(daemonThreads("output-follower"));
+		// with one update in flight per viewer, maxViewers threads are enough to never queue an update behind a
+		// blocked send
+		this.writers = new ThreadPoolExecutor(writerThreads, Math.max(writerThreads, maxViewers), 60, TimeUnit.SECONDS,
+		                                      new SynchronousQueue<>(), daemonThreads("output-follower-writer"));
+		watcher.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	private static ThreadFactory daemonThreads(String name) {
+		return r -> {
+			Thread t = new Thread(r, name);
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+	/**
+	 * @return the follower that pair output is followed with
+	 */
+	public static OutputFollower getFollower() {
+		return follower;
+	}
+
+	/**
+	 * Starts sending a viewer the bytes of a file from the given offset on, including any that are already there
+	 *
+	 * @param f The file to follow. It does not need to exist yet
+	 * @param offset The byte to start at
+	 * @param viewer Where to send the file
+	 * @return False if the viewer was not followed because too many viewers already are
+	 */
+	public boolean follow(File f, long offset, Viewer viewer) {
+		if (follows.size() >= maxViewers) {
+			return false;
+		}
+		follows.put(viewer, new Follow(f, Math.max(0, offset), viewer));
+		return true;
+	}
+
+	/**
+	 * Stops following a viewer, without calling its close method. A send that is already in progress is finished.
+	 *
+	 * @param viewer The viewer to stop following
+	 */
+	public void stop(Viewer viewer) {
+		follows.remove(viewer);
+	}
+
+	/**
+	 * @return the number of viewers being followed
+	 */
+	public int getViewerCount() {
+		return follows.size();
+	}
+
+	private void poll() {
+		long now = System.currentTimeMillis();
+		for (Follow follow : follows.values()) {
+			if (follow.busy) {
+				continue;
+			}
+			if (follow.file.length() > follow.offset || now - follow.lastSent >= heartbeat ||
+			    now - follow.lastStatusCheck >= statusInterval) {
+				follow.busy = true;
+				try {
+					writers.execute(() -> update(follow));
+				} catch (RejectedExecutionException e) {
+					// a viewer that was just stopped may still hold a thread, so try again on the next check
+					follow.busy = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends a viewer its new output, or checks whether its output is finished if there is none
+	 */
+	private void update(Follow follow) {
+		boolean finished = false;
+		try {
+			if (!follows.containsKey(follow.viewer)) {
+				return;
+			}
+			long now = System.currentTimeMillis();
+			if (follow.file.length() > follow.offset) {
+				FileSlice slice = RangedFileReader.read(follow.file, follow.offset, chunkBytes);
+				if (slice.end > slice.start) {
+					follow.viewer.send(slice);
+					follow.offset = slice.end;
+					follow.lastSent = now;
+					return;
+				}
+			}
+			if (now - follow.lastStatusCheck >= statusInterval) {
+				follow.lastStatusCheck = now;
+				// output may have been copied back between the size check above and the pair finishing
+				if (follow.viewer.isFinished() && follow.file.length() <= follow.offset) {
+					finished = true;
+					end(follow, true);
+					return;
+				}
+			}
+			if (now - follow.lastSent >= heartbeat) {
+				follow.viewer.keepAlive();
+				follow.lastSent = now;
+			}
+		} catch (IOException | RuntimeException e) {
+			log.debug("update", "stopped following " + follow.file.getAbsolutePath() + ": " + e.getMessage());
+			if (!finished) {
+				end(follow, false);
+			}
+		} finally {
+			follow.busy = false;
+		}
+	}
+
+	private void end(Follow follow, boolean finished) {
+		if (follows.remove(follow.viewer) != null) {
+			follow.viewer.close(finished);
+		}
+	}
+
+	/**
+	 * Stops the follower's threads. Viewers still being followed are not closed. Called when StarExec shuts down.
+	 */
+	public void shutdown() {
+		watcher.shutdownNow();
+		writers.shutdownNow();
+	}
+}
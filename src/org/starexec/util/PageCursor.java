@@ -0,0 +1,97 @@
+package org.starexec.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Marks where a page of a DataTables table ended, so that the next page can be found by seeking past the last row
+ * of this one instead of counting rows from the start of the table. The client is sent a cursor with each page and
+ * sends it back when it asks for another. A cursor only applies to the page right after the one it came from, in
+ * the same table with the same sort order and search query; any other page is found by its offset as before.
+ */
+public class PageCursor {
+	private final int scope;
+	private final int startingRecord;
+	private final int sortColumn;
+	private final boolean sortASC;
+	private final int searchHash;
+	private final String value;
+	private final int id;
+
+	/**
+	 * @param query The query the row was returned for
+	 * @param startingRecord The index of the record right after the row
+	 * @param value The value the row was sorted on, or null if it had none
+	 * @param id The ID the row was sorted on after the value
+	 */
+	public PageCursor(DataTablesQuery query, int startingRecord, String value, int id) {
+		this(query.getCursorScope(), startingRecord, query.getSortColumn(), query.isSortASC(),
+		     query.getSearchQuery().hashCode(), value, id);
+	}
+
+	private PageCursor(int scope, int startingRecord, int sortColumn, boolean sortASC, int searchHash, String value,
+	                   int id) {
+		this.scope = scope;
+		this.startingRecord = startingRecord;
+		this.sortColumn = sortColumn;
+		this.sortASC = sortASC;
+		this.searchHash = searchHash;
+		this.value = value;
+		this.id = id;
+	}
+
+	/**
+	 * @return The value the last row was sorted on, or null if it had none
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * @return The ID of the last row
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * @param query A request for a page
+	 * @return True if the requested page is the one that follows the row this cursor marks
+	 */
+	public boolean continues(DataTablesQuery query) {
+		return scope == query.getCursorScope() && startingRecord == query.getStartingRecord() &&
+		       sortColumn == query.getSortColumn() && sortASC == query.isSortASC() &&
+		       searchHash == query.getSearchQuery().hashCode();
+	}
+
+	/**
+	 * @return The cursor as a string that can be sent to the client and read back with decode
+	 */
+	public String encode() {
+		String fields = scope + ":" + startingRecord + ":" + sortColumn + ":" + sortASC + ":" + searchHash + ":" + id +
+		                ":" + (value == null ? "n" : "v" + value);
+		return Base64.getUrlEncoder().encodeToString(fields.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param s A string returned by encode
+	 * @return The cursor, or null if s is empty or not a cursor
+	 */
+	public static PageCursor decode(String s) {
+		if (Util.isNullOrEmpty(s)) {
+			return null;
+		}
+		try {
+			String[] fields = new String(Base64.getUrlDecoder().decode(s), StandardCharsets.UTF_8).split(":", 7);
+			if (fields.length != 7 || fields[6].isEmpty()) {
+				return null;
+			}
+			String value = fields[6].charAt(0) == 'v' ? fields[6].substring(1) : null;
+			return new PageCursor(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+			                      Boolean.parseBoolean(fields[3]), Integer.parseInt(fields[4]), value,
+			                      Integer.parseInt(fields[5]));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
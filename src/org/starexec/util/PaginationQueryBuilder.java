@@ -1,9 +1,21 @@
 package org.starexec.util;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * This is a simple class that is used to build up pagination queries, which for us
  * are queries that have an order by, a starting record, and a number of records
  * 
+ * When it is given an ID column, rows are ordered by the ID after the order column, and
+ * a request that comes with a cursor for the previous page seeks past the cursor's row
+ * with a WHERE predicate instead of skipping rows with a LIMIT offset, so that deep pages
+ * cost as much as the first. The SQL must then start with its SELECT and end inside its
+ * WHERE clause, and the order column must be usable in a WHERE clause. Rows with a NULL
+ * order value are handled the way MySQL sorts them, before all others in ASC order.
+ *
  * Note that the insertion of an order column, which is a string, is NOT SAFE against SQL injection!
  * This class is designed to be used ONLY for queries where such strings are provided
  * by Starexec, NOT by users. Other columns are numeric, and so are safe against SQL injection.
@@ -20,8 +32,16 @@ public class PaginationQueryBuilder {
 		}
 		return "DESC";
 	}
+	// the first line that starts with SELECT, which starts the outermost query
+	private static final Pattern FIRST_SELECT =
+			Pattern.compile("^\\s*SELECT\\b", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+	private static final String CURSOR_VALUE_COLUMN = "page_cursor_value";
+	private static final String CURSOR_ID_COLUMN = "page_cursor_id";
+
 	DataTablesQuery query = null;
 	final String orderColumn;
+	final String idColumn;
+	private int rowsRead = 0;
 	/**
 	 * This is the SQL query without any order by statement or limit statement, and also without a 
 	 * closing semicolon
@@ -29,14 +49,100 @@ public class PaginationQueryBuilder {
 	private String baseSQL = null;
 	
 	public PaginationQueryBuilder(String sql, String orderColumn, DataTablesQuery query) {
+		this(sql, orderColumn, null, query);
+	}
+
+	/**
+	 * @param sql The query without an order by or limit
+	 * @param orderColumn The column to order by
+	 * @param idColumn A unique column to order by after orderColumn, or null if cursors should not be used
+	 * @param query The request for the page
+	 */
+	public PaginationQueryBuilder(String sql, String orderColumn, String idColumn, DataTablesQuery query) {
 		baseSQL = sql;
 		this.query=query;
 		this.orderColumn=orderColumn;
+		this.idColumn=idColumn;
+	}
+
+	/**
+	 * @return True if the page will be found by seeking past the row of the query's cursor
+	 */
+	public boolean usesCursor() {
+		return idColumn != null && query.getCursor() != null && query.getCursor().continues(query);
 	}
 	
 	public String getSQL() {
+		if (idColumn == null) {
+			return baseSQL + "\n" + "ORDER BY " + orderColumn + " " + getOrderDirectionString() + "\n" + "LIMIT " +
+			            query.getStartingRecord() + ", " + query.getNumRecords() + ";";
+		}
+		StringBuilder sql = new StringBuilder();
+		Matcher select = FIRST_SELECT.matcher(baseSQL);
+		if (select.find()) {
+			sql.append(baseSQL, 0, select.end()).append(" ").append(orderColumn).append(" AS ").append(CURSOR_VALUE_COLUMN)
+			   .append(", ").append(idColumn).append(" AS ").append(CURSOR_ID_COLUMN).append(",")
+			   .append(baseSQL, select.end(), baseSQL.length());
+		} else {
+			sql.append(baseSQL);
+		}
+		if (usesCursor()) {
+			sql.append("\nAND ").append(getSeekPredicate());
+		}
+		String direction = getOrderDirectionString();
+		sql.append("\nORDER BY ").append(orderColumn).append(" ").append(direction).append(", ").append(idColumn)
+		   .append(" ").append(direction).append("\nLIMIT ");
+		if (!usesCursor()) {
+			sql.append(query.getStartingRecord()).append(", ");
+		}
+		return sql.append(query.getNumRecords()).append(";").toString();
+	}
+
+	private String getSeekPredicate() {
+		boolean isNull = query.getCursor().getValue() == null;
+		if (query.isSortASC()) {
+			if (isNull) {
+				return "(" + orderColumn + " IS NOT NULL OR " + idColumn + " > :cursorId)";
+			}
+			return "(" + orderColumn + " > :cursorValue OR (" + orderColumn + " = :cursorValue AND " + idColumn +
+			       " > :cursorId))";
+		}
+		if (isNull) {
+			return "(" + orderColumn + " IS NULL AND " + idColumn + " < :cursorId)";
+		}
+		return "(" + orderColumn + " < :cursorValue OR (" + orderColumn + " = :cursorValue AND " + idColumn +
+		       " < :cursorId) OR " + orderColumn + " IS NULL)";
+	}
 
-		return baseSQL + "\n" + "ORDER BY " + orderColumn + " " + getOrderDirectionString() + "\n" + "LIMIT " +
-		            query.getStartingRecord() + ", " + query.getNumRecords() + ";";
+	/**
+	 * Sets the parameters the SQL uses to seek past the cursor's row, if it uses any
+	 *
+	 * @param statement A statement made from the SQL returned by getSQL
+	 * @throws SQLException If a parameter could not be set
+	 */
+	public void setCursorParameters(NamedParameterStatement statement) throws SQLException {
+		if (!usesCursor()) {
+			return;
+		}
+		statement.setInt("cursorId", query.getCursor().getId());
+		if (query.getCursor().getValue() != null) {
+			statement.setString("cursorValue", query.getCursor().getValue());
+		}
+	}
+
+	/**
+	 * Records a row of the page as the query's next cursor. Should be called for every row, in order, so that the
+	 * cursor ends up at the last one. Does nothing if no ID column was given.
+	 *
+	 * @param results The results of the SQL returned by getSQL, positioned at a row
+	 * @throws SQLException If the row could not be read
+	 */
+	public void readCursor(ResultSet results) throws SQLException {
+		if (idColumn == null) {
+			return;
+		}
+		rowsRead++;
+		query.setNextCursor(new PageCursor(query, query.getStartingRecord() + rowsRead,
+		                                   results.getString(CURSOR_VALUE_COLUMN), results.getInt(CURSOR_ID_COLUMN)));
 	}
 }
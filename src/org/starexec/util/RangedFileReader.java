@@ -0,0 +1,128 @@
+package org.starexec.util;
+
+import org.starexec.data.to.tuples.FileSlice;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads parts of large text files, such as pair output and logs, without reading the rest of the file. Reads are
+ * positioned reads on a FileChannel, so the cost of a read depends only on the number of bytes asked for. Files are
+ * read as UTF-8, and slices never start or end in the middle of a character, so the end of one slice can be used as
+ * the start of the next.
+ */
+public class RangedFileReader {
+	// how far back tail reads at a time while looking for line breaks
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	private RangedFileReader() {
+	}
+
+	/**
+	 * Reads the bytes of a file starting at the given offset
+	 *
+	 * @param f The file to read
+	 * @param start The byte offset to start at. It is moved into the file if it is outside of it, and forward to the
+	 * next character if it is in the middle of one
+	 * @param maxBytes The most bytes to read
+	 * @return The slice that was read
+	 * @throws IOException If the file could not be read
+	 */
+	public static FileSlice read(File f, long start, int maxBytes) throws IOException {
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			return read(channel, start, maxBytes);
+		}
+	}
+
+	/**
+	 * Reads the last lines of a file
+	 *
+	 * @param f The file to read
+	 * @param lines The number of lines to read. A line break at the very end of the file does not start a new line
+	 * @param maxBytes The most bytes to read. If the lines take more than this, only the last maxBytes are read
+	 * @return The slice that was read
+	 * @throws IOException If the file could not be read
+	 */
+	public static FileSlice tail(File f, int lines, int maxBytes) throws IOException {
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (lines <= 0) {
+				return new FileSlice("", size, size, size);
+			}
+			long earliest = Math.max(0, size - maxBytes);
+			long start = earliest;
+			// the last byte is left out so that a final line break is not counted
+			long position = Math.max(0, size - 1);
+			int breaks = 0;
+			search:
+			while (position > earliest) {
+				int length = (int) Math.min(BLOCK_SIZE, position - earliest);
+				byte[] block = readFully(channel, position - length, length);
+				for (int i = length - 1; i >= 0; i--) {
+					if (block[i] == '\n' && ++breaks == lines) {
+						start = position - length + i + 1;
+						break search;
+					}
+				}
+				position -= length;
+			}
+			return read(channel, start, (int) (size - start));
+		}
+	}
+
+	private static FileSlice read(FileChannel channel, long start, int maxBytes) throws IOException {
+		long size = channel.size();
+		start = Math.max(0, Math.min(start, size));
+		int length = (int) Math.min(Math.max(maxBytes, 0), size - start);
+		byte[] bytes = readFully(channel, start, length);
+		int from = 0;
+		while (from < bytes.length && isContinuation(bytes[from])) {
+			from++;
+		}
+		int to = bytes.length;
+		if (start + to < size) {
+			to = trimToCharacter(bytes, from, to);
+		}
+		return new FileSlice(new String(bytes, from, to - from, StandardCharsets.UTF_8), start + from, start + to, size);
+	}
+
+	private static byte[] readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				break;
+			}
+		}
+		if (buffer.hasRemaining()) {
+			// the file got shorter while it was being read
+			byte[] bytes = new byte[buffer.position()];
+			System.arraycopy(buffer.array(), 0, bytes, 0, bytes.length);
+			return bytes;
+		}
+		return buffer.array();
+	}
+
+	private static boolean isContinuation(byte b) {
+		return (b & 0xc0) == 0x80;
+	}
+
+	/**
+	 * @return to, or the start of the character that to cuts in half
+	 */
+	private static int trimToCharacter(byte[] bytes, int from, int to) {
+		int lead = to - 1;
+		while (lead > from && lead > to - 4 && isContinuation(bytes[lead])) {
+			lead--;
+		}
+		if (lead < from) {
+			return to;
+		}
+		int b = bytes[lead] & 0xff;
+		int length = b >= 0xf0 ? 4 : b >= 0xe0 ? 3 : b >= 0xc0 ? 2 : 1;
+		return lead + length > to ? lead : to;
+	}
+}
@@ -5,6 +5,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 import org.apache.commons.io.filefilter.FileFilterUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.starexec.constants.R;
 import org.starexec.data.database.Common;
@@ -22,6 +23,7 @@ import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.Charset;
 import java.sql.Timestamp;
 import java.sql.SQLException;
 import java.text.DecimalFormat;
@@ -30,6 +32,7 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
@@ -85,6 +88,19 @@ public class Util {
 	 * @return The contents of the file as a String (null if it could not be found)
 	 */
 	public static Optional<String> readFileLimited(File f, int lineLimit) throws IOException {
+		return readFileLimited(f, lineLimit, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Gives back a String that is the contents of the first n lines of the file where n always less
+	 * than or equal to lineLimit, reading no more than byteLimit bytes of the file
+	 *
+	 * @param f The file to read
+	 * @param lineLimit The maximum number of lines to read (anything less than 0 indicates no limit)
+	 * @param byteLimit The maximum number of bytes to read. The last line is cut off if it goes past this
+	 * @return The contents of the file as a String (null if it could not be found)
+	 */
+	public static Optional<String> readFileLimited(File f, int lineLimit, long byteLimit) throws IOException {
 		final String methodName = "readFileLimited";
 		LineIterator lineItr = null;
 		log.debug(methodName, "calling readFileLimited");
@@ -96,7 +112,8 @@ public class Util {
 			if (f.exists()) {
 				// Create a buffer to store the lines in and an iterator to iterate over the lines
 				StringBuilder sb = new StringBuilder();
-				lineItr = FileUtils.lineIterator(f);
+				lineItr = IOUtils.lineIterator(new BoundedInputStream(new FileInputStream(f), byteLimit),
+				                               Charset.defaultCharset());
 				int i = 0;
 
 				// While there are more lines in the file...
@@ -886,15 +903,72 @@ public class Util {
 	 * @return Entries sorted and filtered according to the given comparator
 	 */
 
-	public static <T> List<T> handlePagination(List<T> arr, Comparator<T> compare, int start, int records) {
-		arr.sort(compare);
+	public static <T> List<T> handlePagination(List<T> arr, Comparator<? super T> compare, int start, int records) {
+		return handlePagination(arr, item -> true, item -> true, compare, start, records, new int[2]);
+	}
+
+	/**
+	 * Filters a list and returns one page of it for a DataTables object, in a single pass over the list. Rather than
+	 * sorting the whole list, only the first start+records entries in order are kept, in a bounded heap, so a page
+	 * costs O(n log(start+records)) instead of O(n log n). Entries that compare as equal stay in the order they have
+	 * in the list, so the pages are the same as those of a stable sort.
+	 *
+	 * @param <T> Type of the given list and comparator
+	 * @param arr List to take the page from. It is not modified
+	 * @param typeFilter Entries that fail this are neither counted nor shown
+	 * @param searchFilter Entries that pass typeFilter but fail this are counted in totals[0] but not shown
+	 * @param compare Determines the order of the entries
+	 * @param start Record to start on
+	 * @param records Number of records to give back, or a negative number for all of them
+	 * @param totals A size 2 array that, on return, holds the number of entries that pass typeFilter and the number
+	 * that pass both filters
+	 * @return The entries on the page, in order
+	 */
+	public static <T> List<T> handlePagination(
+			List<T> arr, Predicate<? super T> typeFilter, Predicate<? super T> searchFilter,
+			Comparator<? super T> compare, int start, int records, int[] totals
+	) {
+		List<T> items = arr instanceof RandomAccess ? arr : new ArrayList<>(arr);
+		int kept = records < 0 ? Integer.MAX_VALUE : (int) Math.min((long) start + records, Integer.MAX_VALUE);
+		// entries are held by index so that ties can be broken by position in the list
+		Comparator<Integer> order = (a, b) -> {
+			int comparison = compare.compare(items.get(a), items.get(b));
+			return comparison != 0 ? comparison : Integer.compare(a, b);
+		};
+		// the head of the heap is the last entry kept so far, which is the one a better entry replaces
+		PriorityQueue<Integer> heap =
+				new PriorityQueue<>(Math.max(1, Math.min(kept, items.size())), order.reversed());
+		int total = 0;
+		int filtered = 0;
+		for (int i = 0; i < items.size(); i++) {
+			T item = items.get(i);
+			if (!typeFilter.test(item)) {
+				continue;
+			}
+			total++;
+			if (!searchFilter.test(item)) {
+				continue;
+			}
+			filtered++;
+			if (heap.size() < kept) {
+				heap.add(i);
+			} else if (kept > 0 && order.compare(i, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(i);
+			}
+		}
+		totals[0] = total;
+		totals[1] = filtered;
+
 		List<T> returnList = new ArrayList<>();
-		if (start >= arr.size()) {
+		if (start >= heap.size()) {
 			//we'll just return nothing
-		} else if (start + records > arr.size()) {
-			returnList = arr.subList(start, arr.size());
-		} else {
-			returnList = arr.subList(start, start + records);
+			return returnList;
+		}
+		Integer[] page = heap.toArray(new Integer[0]);
+		Arrays.sort(page, order);
+		for (int i = start; i < page.length; i++) {
+			returnList.add(items.get(page[i]));
 		}
 		return returnList;
 	}
@@ -1054,6 +1128,41 @@ public class Util {
 		return sandbox2;
 	}
 
+	/**
+	 * Copies a single file into a sandbox directory made by copyFilesToNewSandbox, so that the sandbox user owns it
+	 * and has full permissions over it. The file is staged without starting a process, so this costs two commands
+	 * per file instead of the five copyFilesToNewSandbox needs, which matters when one sandbox is reused for many
+	 * files.
+	 *
+	 * @param file The file to copy
+	 * @param staging A directory from getRandomSandboxDirectory to stage the copy in. The staged copy is removed
+	 * again before returning
+	 * @param sandbox The sandbox directory to copy the file into
+	 * @return The copy of the file in the sandbox
+	 * @throws IOException
+	 */
+	public static File copyFileToSandbox(File file, File staging, File sandbox) throws IOException {
+		File staged = new File(staging, file.getName());
+		try {
+			FileUtils.copyFile(file, staged);
+			String[] sudoCpCmd = new String[4];
+			sudoCpCmd[0] = "cp";
+			sudoCpCmd[1] = "-r";
+			sudoCpCmd[2] = staged.getAbsolutePath();
+			sudoCpCmd[3] = sandbox.getAbsolutePath();
+			Util.executeSandboxCommand(sudoCpCmd);
+		} finally {
+			FileUtils.deleteQuietly(staged);
+		}
+		File copy = new File(sandbox, file.getName());
+		String[] chmod = new String[3];
+		chmod[0] = "chmod";
+		chmod[1] = "u+rwx,g+rwx";
+		chmod[2] = copy.getAbsolutePath();
+		Util.executeSandboxCommand(chmod);
+		return copy;
+	}
+
 	/**
 	 * Creates and returns a unique, empty directory immediately inside
 	 * of the sandbox directory on the head node
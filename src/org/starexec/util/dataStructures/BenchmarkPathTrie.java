@@ -0,0 +1,96 @@
+package org.starexec.util.dataStructures;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The spaces and benchmarks below a benchmark dependency root space, indexed by name so that the include paths
+ * produced by a benchmark processor can be resolved without going back to the database for each path segment.
+ * A path resolves the same way as a chain of Spaces.getSubSpaceIDbyName calls followed by Benchmarks.getBenchIdByName:
+ * every segment but the last names a subspace, the last names a benchmark, and a name that matches more than one
+ * subspace or benchmark does not resolve.
+ */
+public class BenchmarkPathTrie {
+	// the value given to a name that more than one space or benchmark has
+	private static final int AMBIGUOUS = -1;
+
+	private static class Node {
+		final int spaceId;
+		final Map<String, Integer> subspaces = new HashMap<>();
+		final Map<String, Integer> benchmarks = new HashMap<>();
+
+		Node(int spaceId) {
+			this.spaceId = spaceId;
+		}
+	}
+
+	private final Map<Integer, Node> nodes = new HashMap<>();
+	private final Node root;
+
+	/**
+	 * @param rootSpaceId The ID of the dependency root space
+	 */
+	public BenchmarkPathTrie(int rootSpaceId) {
+		root = getNode(rootSpaceId);
+	}
+
+	private Node getNode(int spaceId) {
+		return nodes.computeIfAbsent(spaceId, Node::new);
+	}
+
+	private static void put(Map<String, Integer> names, String name, int id) {
+		names.merge(name, id, (oldId, newId) -> oldId.equals(newId) ? oldId : AMBIGUOUS);
+	}
+
+	/**
+	 * Adds a space below the root. Spaces may be added in any order.
+	 *
+	 * @param parentId The ID of the space's parent
+	 * @param spaceId The ID of the space
+	 * @param name The name of the space
+	 */
+	public void addSpace(int parentId, int spaceId, String name) {
+		getNode(spaceId);
+		put(getNode(parentId).subspaces, name, spaceId);
+	}
+
+	/**
+	 * Adds a benchmark to a space. Benchmarks in spaces that are not reachable from the root are ignored when
+	 * resolving paths.
+	 *
+	 * @param spaceId The ID of the space the benchmark is in
+	 * @param benchId The ID of the benchmark
+	 * @param name The name of the benchmark
+	 */
+	public void addBenchmark(int spaceId, int benchId, String name) {
+		put(getNode(spaceId).benchmarks, name, benchId);
+	}
+
+	/**
+	 * Finds the benchmark an include path refers to
+	 *
+	 * @param includePath The path, with segments separated by '/'
+	 * @param linked True if the first segment of the path names the root space itself and should be skipped
+	 * @return The ID of the benchmark, or -1 if there is no single benchmark at that path
+	 */
+	public int resolve(String includePath, boolean linked) {
+		String[] names = includePath.split("/");
+		int index = linked ? 1 : 0;
+		if (index >= names.length) {
+			return -1;
+		}
+		Node current = root;
+		for (; index < names.length - 1; index++) {
+			Integer spaceId = current.subspaces.get(names[index]);
+			if (spaceId == null || spaceId == AMBIGUOUS) {
+				return -1;
+			}
+			current = nodes.get(spaceId);
+		}
+		// the root space never holds dependencies
+		if (current.spaceId <= 1) {
+			return -1;
+		}
+		return current.benchmarks.getOrDefault(names[index], -1);
+	}
+}
@@ -0,0 +1,105 @@
+package org.starexec.util.dataStructures;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * A list made of other lists placed end to end. Lists added with addAll are kept as they are rather than copied, so
+ * a list that creates its elements when they are asked for can be added without creating them all. Single elements
+ * added with add are kept in a list of their own. Elements cannot be removed.
+ */
+public class ConcatenatedList<E> extends AbstractList<E> implements RandomAccess {
+	private final List<List<E>> parts = new ArrayList<>();
+	// the index in this list of the first element of each part
+	private final List<Integer> starts = new ArrayList<>();
+	// the last part, if it holds elements added one at a time
+	private List<E> tail = null;
+	private int size = 0;
+
+	@Override
+	public E get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int part = Collections.binarySearch(starts, index);
+		if (part < 0) {
+			// the part before the insertion point is the one that contains the index
+			part = -part - 2;
+		}
+		return parts.get(part).get(index - starts.get(part));
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean add(E e) {
+		if (tail == null) {
+			tail = new ArrayList<>();
+			addPart(tail);
+		}
+		tail.add(e);
+		size++;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Adds every element of the given collection to the end of this list. Lists that allow fast access by index are
+	 * kept rather than copied, so they must not be changed afterwards.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		if (c.isEmpty()) {
+			return false;
+		}
+		List<E> part;
+		if (c instanceof List && c instanceof RandomAccess) {
+			part = Collections.unmodifiableList((List<? extends E>) c);
+		} else {
+			part = new ArrayList<>(c);
+		}
+		addPart(part);
+		tail = null;
+		size += part.size();
+		modCount++;
+		return true;
+	}
+
+	private void addPart(List<E> part) {
+		starts.add(size);
+		parts.add(part);
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private final Iterator<List<E>> remainingParts = parts.iterator();
+			private Iterator<E> current = Collections.emptyIterator();
+
+			@Override
+			public boolean hasNext() {
+				while (!current.hasNext() && remainingParts.hasNext()) {
+					current = remainingParts.next().iterator();
+				}
+				return current.hasNext();
+			}
+
+			@Override
+			public E next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return current.next();
+			}
+		};
+	}
+}
@@ -12,133 +12,200 @@ import org.starexec.data.to.pipelines.JoblineStage;
 import org.starexec.exceptions.StarExecException;
 import org.starexec.logger.StarLogger;
 
+import java.sql.SQLException;
 import java.util.*;
 
 
 /**
- * Represents the matrix on the details/jobMatrixView page.
+ * Represents the matrix on the details/jobMatrixView page. A matrix read for the page holds one page of benchmark
+ * rows, along with every solver-config column of the job space.
  * @author Albert Giegerich
  */
 public class Matrix {
 
-	private ArrayList<Benchmark> benchmarksByRow;
-	private ArrayList<Pair<Solver,Configuration>> solverConfigsByColumn;
-	private ArrayList<ArrayList<MatrixElement>> matrix;
-	private boolean hasMultipleStages;
-	private String jobSpaceName;
-	private Integer jobSpaceId;
+	private final List<Benchmark> benchmarksByRow;
+	private final List<Pair<Solver,Configuration>> solverConfigsByColumn;
+	// matrix[row][column] is the cell for benchmarksByRow.get(row) and solverConfigsByColumn.get(column), or null
+	// if no pair ran that benchmark with that solver-config. Cells are made from the pair in pairs[row][column] the
+	// first time they are read, so that only the rows that are shown pay for formatting their cells.
+	private final MatrixElement[][] matrix;
+	private final JobPair[][] pairs;
+	private final int stageNumber;
+	private final int firstRow;
+	private final int totalRowCount;
+	private final boolean hasMultipleStages;
+	private final String jobSpaceName;
+	private final Integer jobSpaceId;
 
 
 	private static final StarLogger log = StarLogger.getLogger(Matrix.class);
 
 
 	/**
-	 * Builds a Matrix for the job matrix display page given a Job and a stageNumber.
+	 * Builds a Matrix for the job matrix display page from the job pairs in one job space.
+	 * Benchmarks and solver-configs are numbered in the order they are first seen, the numbers are mapped to
+	 * their positions once the headers are sorted, and each cell is then placed directly, so building the matrix
+	 * takes time proportional to the number of pairs plus the sorting of the headers.
 	 * @param jobPairs the job pairs to build the matrix display with.
+	 * @param columns the solver-configs to show, or null to show the ones the pairs ran with
+	 * @param jobSpaceName the name of the job space the pairs are in
+	 * @param jobSpaceId the job space the pairs are in
 	 * @param stageNumber filter the job pairs to view by this stage.
-	 * @param jobSpaceId the job space to filter the pairs by
+	 * @param firstRow the position in the whole job space of the first benchmark of the pairs
+	 * @param totalRowCount the number of benchmarks in the whole job space, or -1 if the pairs have all of them
+	 * @param hasMultipleStages true if any pair in the job space has more than one stage
 	 * @author Albert Giegerich
 	 */
-	private Matrix(List<JobPair> jobPairs, final Integer jobSpaceId, final int stageNumber) {
+	private Matrix(List<JobPair> jobPairs, List<Pair<Solver,Configuration>> columns, String jobSpaceName,
+	               Integer jobSpaceId, int stageNumber, int firstRow, int totalRowCount, boolean hasMultipleStages)
+			throws StarExecException {
 		final String method = "Matrix constructor";
 		log.entry(method);
-		try {
-			log.debug(method, "Found "+jobPairs.size()+" job pairs.");
-			String jobSpaceName = Spaces.getJobSpace(jobSpaceId).getName();
-			initializeMatrixFields(jobSpaceName, jobSpaceId);
-
-
-			Set<Benchmark> uniqueBenchmarks = new HashSet<>();
-			Set<Pair<Solver,Configuration>> uniqueSolverConfigs = new HashSet<>();
-
-			// Maps benchmark and solver-configuration vectors to the data that should appear in the cell where the two
-			// vectors intersect.
-			HashMap<Pair<Benchmark,Pair<Solver,Configuration>>,MatrixElement> vectorIntersectionToCellDataMap =
-                    new HashMap<>();
+		log.debug(method, "Found "+jobPairs.size()+" job pairs.");
+		this.jobSpaceName = jobSpaceName;
+		this.jobSpaceId = jobSpaceId;
+		this.hasMultipleStages = hasMultipleStages;
+		this.stageNumber = stageNumber;
+		this.firstRow = firstRow;
+
+		Map<Integer, Integer> benchmarkOrdinals = new HashMap<>();
+		Map<Integer, Integer> configOrdinals = new HashMap<>();
+		List<Benchmark> benchmarks = new ArrayList<>();
+		List<Pair<Solver,Configuration>> solverConfigs = new ArrayList<>();
+		if (columns != null) {
+			for (Pair<Solver,Configuration> column : columns) {
+				configOrdinals.put(column.getRight().getId(), solverConfigs.size());
+				solverConfigs.add(column);
+			}
+		}
 
-			// Build the sets and the map that were just defined.
-			for (JobPair pair : jobPairs) {
-				addToUniqueVectorListsAndIntersectionMap(uniqueBenchmarks, uniqueSolverConfigs, vectorIntersectionToCellDataMap, pair, stageNumber);
-				if (!this.hasMultipleStages) {
-					this.hasMultipleStages = testForMultipleStages(pair);
-				}
+		// The benchmark and solver-config ordinals of each pair, or -1 if it does not have the stage.
+		int[] pairBenchmarks = new int[jobPairs.size()];
+		int[] pairConfigs = new int[jobPairs.size()];
+		for (int i = 0; i < jobPairs.size(); i++) {
+			JobPair pair = jobPairs.get(i);
+			// Will get the primary stage if stageNumber <= 0.
+			JoblineStage stage = pair.getStageFromNumber(stageNumber);
+			if (stage == null) {
+				pairBenchmarks[i] = -1;
+				continue;
 			}
+			Benchmark bench = pair.getBench();
+			Integer benchmarkOrdinal = benchmarkOrdinals.get(bench.getId());
+			if (benchmarkOrdinal == null) {
+				benchmarkOrdinal = benchmarks.size();
+				benchmarkOrdinals.put(bench.getId(), benchmarkOrdinal);
+				benchmarks.add(bench);
+			}
+			Configuration config = stage.getConfiguration();
+			Integer configOrdinal = configOrdinals.get(config.getId());
+			if (configOrdinal == null) {
+				configOrdinal = solverConfigs.size();
+				configOrdinals.put(config.getId(), configOrdinal);
+				solverConfigs.add(new ImmutablePair<>(stage.getSolver(), config));
+			}
+			pairBenchmarks[i] = benchmarkOrdinal;
+			pairConfigs[i] = configOrdinal;
+		}
 
+		if ((long) benchmarks.size() * solverConfigs.size() > R.MAX_MATRIX_CELLS) {
+			throw new StarExecException("Matrix supports up to " + R.MAX_MATRIX_CELLS + " cells, but this job space has " +
+			                            benchmarks.size() + " benchmarks and " + solverConfigs.size() + " solver-configs.");
+		}
 
-			log.debug(method,"Sorting benchmarks and solver-config pairs.");
-			// Sort the benchmarks alphabetically by name ignoring case.
-			ArrayList<Benchmark> uniqueBenchmarkList = new ArrayList<>(uniqueBenchmarks);
-			uniqueBenchmarkList.sort(NameableComparators.getCaseInsensitiveAlphabeticalComparator());
-
-			ArrayList<Pair<Solver,Configuration>> uniqueSolverConfigList =
-                    new ArrayList<>(uniqueSolverConfigs);
-			// Names of solver config will be "solver (config)", sort the solverConfigs
-			// alphabetically by name, ignore case.
-			uniqueSolverConfigList.sort((sc1, sc2) -> {
-				String solverName1 = sc1.getLeft().getName();
-				String solverName2 = sc2.getLeft().getName();
-				String configName1 = sc1.getRight().getName();
-				String configName2 = sc2.getRight().getName();
-				String sc1Name = String.format("%s (%s)", solverName1, configName1);
-				String sc2Name = String.format("%s (%s)", solverName2, configName2);
-				return sc1Name.compareToIgnoreCase(sc2Name);
-			});
-
-			// Populate the matrix.
-			populateRowAndColumnHeaders(uniqueBenchmarkList, uniqueSolverConfigList);
-			populateMatrixData(uniqueBenchmarkList, uniqueSolverConfigList, vectorIntersectionToCellDataMap);
-			log.exit(method);
-		} catch (Exception e) {
-			log.warn(method, "Error in constructing matrix for matrix view page." + e.getMessage());
+		log.debug(method,"Sorting benchmarks and solver-config pairs.");
+		// Sort the benchmarks alphabetically by name ignoring case.
+		benchmarksByRow = new ArrayList<>(benchmarks.size());
+		int[] benchmarkRows = sortAndGetPositions(benchmarks, NameableComparators.getCaseInsensitiveAlphabeticalComparator(), benchmarksByRow);
+		// Names of solver config will be "solver (config)", sort the solverConfigs
+		// alphabetically by name, ignore case.
+		solverConfigsByColumn = new ArrayList<>(solverConfigs.size());
+		int[] configColumns = sortAndGetPositions(solverConfigs, Comparator.comparing(
+				sc -> String.format("%s (%s)", sc.getLeft().getName(), sc.getRight().getName()),
+				String.CASE_INSENSITIVE_ORDER), solverConfigsByColumn);
+
+		this.totalRowCount = totalRowCount < 0 ? benchmarksByRow.size() : totalRowCount;
+
+		// Populate the matrix.
+		matrix = new MatrixElement[benchmarksByRow.size()][solverConfigsByColumn.size()];
+		pairs = new JobPair[benchmarksByRow.size()][solverConfigsByColumn.size()];
+		for (int i = 0; i < jobPairs.size(); i++) {
+			if (pairBenchmarks[i] >= 0) {
+				pairs[benchmarkRows[pairBenchmarks[i]]][configColumns[pairConfigs[i]]] = jobPairs.get(i);
+			}
 		}
+		log.exit(method);
 	}
 
 
 	/**
-	 * Gets a matrix for a jobspace from a job and a stage number.
+	 * Gets one page of the matrix for a job space and a stage number. Only the pairs of the page's benchmarks are
+	 * read, so the time this takes does not depend on how many benchmarks the job space has.
+	 * @param jobSpaceId the job space to show
+	 * @param stageNumber the stage to show, or 0 or less to show the primary stage of each pair
+	 * @param firstRow the position of the first benchmark to show. It is moved onto the last benchmark if it is past it.
+	 * @param rowCount the number of benchmarks to show
 	 * @author Albert Giegerich
 	 */
-	public static Matrix getMatrixForJobSpaceFromJobAndStageNumber(Job job, int jobSpaceId, int stageNumber) throws StarExecException {
-		final String method = "getMatricesByJobSpaceFromJobStage";
+	public static Matrix getMatrixPageForJobSpace(int jobSpaceId, int stageNumber, int firstRow, int rowCount)
+			throws StarExecException {
+		final String method = "getMatrixPageForJobSpace";
 		log.entry(method);
-		log.debug(method, "Found "+job.getJobPairs().size()+" job pairs.");
-		/*
-		List<Matrix> matricesByJobSpace = new LinkedList<Matrix>();
-		*/
-		Matrix matrixForJobSpace;
-		List<JobPair> jobPairsAssociatedWithJobSpaceId = getJobPairsForJobSpace(job, jobSpaceId);
-		if (jobPairsAssociatedWithJobSpaceId.size() > R.MAX_MATRIX_JOBPAIRS) {
-			throw new StarExecException("Matrix supports up to " + R.MAX_MATRIX_JOBPAIRS + " job pairs.");
-		}
 		try {
-			matrixForJobSpace = new Matrix(jobPairsAssociatedWithJobSpaceId, jobSpaceId, stageNumber);
-		} catch (Exception e) {
+			int totalRowCount = Jobs.getMatrixBenchmarkCountInJobSpace(jobSpaceId, stageNumber);
+			firstRow = Math.max(0, Math.min(firstRow, totalRowCount - 1));
+			List<JobPair> jobPairs =
+					Jobs.getMatrixPairsInJobSpaceForBenchmarkRows(jobSpaceId, stageNumber, firstRow, rowCount);
+			if (jobPairs.size() > R.MAX_MATRIX_JOBPAIRS) {
+				throw new StarExecException("Matrix supports up to " + R.MAX_MATRIX_JOBPAIRS + " job pairs on a page.");
+			}
+			List<Pair<Solver,Configuration>> columns = Jobs.getMatrixSolverConfigsInJobSpace(jobSpaceId, stageNumber);
+			String jobSpaceName = Spaces.getJobSpace(jobSpaceId).getName();
+			boolean hasMultipleStages = Jobs.getMaxStageNumberInJobSpace(jobSpaceId) > 1;
+			return new Matrix(jobPairs, columns, jobSpaceName, jobSpaceId, stageNumber, firstRow, totalRowCount,
+			                  hasMultipleStages);
+		} catch (SQLException e) {
 			log.warn("Error encountered while attempting to generate matrices for job matrix display.", e);
 			throw new StarExecException("Error encountered while attempting to generate matrices for job matrix display.");
 		}
-		return matrixForJobSpace;
 	}
 
 	/**
-	 * Gets all the job pairs associated with a jobspace in a job.
-	 * @param job the job to get job pairs from
-	 * @param jobSpaceId the id of the jobspace to filter the jobpairs by
-	 * @return a list of jobpairs in the given job associated with the given jobspace
-	 * @author Albert Giegerich
+	 * Builds a matrix from job pairs that have already been read.
+	 * @param jobPairs the pairs in the job space. Pairs without the given stage are left out.
+	 * @param jobSpaceName the name of the job space
+	 * @param jobSpaceId the ID of the job space
+	 * @param stageNumber the stage to show, or 0 or less to show the primary stage of each pair
+	 * @param hasMultipleStages true if any pair in the job space has more than one stage
+	 * @throws StarExecException if there are too many pairs or cells to show
 	 */
-	private static List<JobPair> getJobPairsForJobSpace(Job job, int jobSpaceId) {
-		final String method = "getJobPairsForJobSpace";
-		List<JobPair> jobPairs = job.getJobPairs();
-		List<JobPair> jobPairsInJobSpace = new ArrayList<>();
-		for (JobPair pair : jobPairs) {
-			Integer pairJobSpaceId = pair.getJobSpaceId();
-			log.debug(method, "job space id="+pairJobSpaceId);
-			// Filter by jobSpaceId
-			if (pairJobSpaceId == jobSpaceId) {
-				jobPairsInJobSpace.add(pair);
-			}
+	public static Matrix getMatrixFromJobPairs(List<JobPair> jobPairs, String jobSpaceName, int jobSpaceId,
+	                                           int stageNumber, boolean hasMultipleStages) throws StarExecException {
+		if (jobPairs.size() > R.MAX_MATRIX_JOBPAIRS) {
+			throw new StarExecException("Matrix supports up to " + R.MAX_MATRIX_JOBPAIRS + " job pairs.");
+		}
+		return new Matrix(jobPairs, null, jobSpaceName, jobSpaceId, stageNumber, 0, -1, hasMultipleStages);
+	}
+
+	/**
+	 * Sorts a list of headers into another list and finds where each one ended up.
+	 * @param headers the headers in the order their ordinals were given
+	 * @param comparator the order to sort them into
+	 * @param sorted the list to add the sorted headers to
+	 * @return the position in the sorted list of the header with each ordinal
+	 */
+	private static <T> int[] sortAndGetPositions(List<T> headers, Comparator<? super T> comparator, List<T> sorted) {
+		Integer[] ordinals = new Integer[headers.size()];
+		for (int i = 0; i < ordinals.length; i++) {
+			ordinals[i] = i;
+		}
+		Arrays.sort(ordinals, (a, b) -> comparator.compare(headers.get(a), headers.get(b)));
+		int[] positions = new int[ordinals.length];
+		for (int position = 0; position < ordinals.length; position++) {
+			positions[ordinals[position]] = position;
+			sorted.add(headers.get(ordinals[position]));
 		}
-		return jobPairsInJobSpace;
+		return positions;
 	}
 
 	/**
@@ -187,26 +254,59 @@ public class Matrix {
 
 	/**
 	 * Adds a new element or replaces an old one at the given location.
-	 * This method will fill in all empty spaces with null if the matrix
-	 * is smaller than the specified dimensions.
+	 * The matrix is sized when it is built, so the location must be inside it.
 	 * @param row the row to insert the new element.
 	 * @param column the column to insert the new element.
 	 * @param element the new element.
+	 * @throws IndexOutOfBoundsException if the row or column is outside the matrix
 	 * @author Albert Giegerich
 	 */
 	public void set(int row, int column, MatrixElement element) {
-		// Make sure there are enough rows to accommodate the new row.
-		while (matrix.size() <= row) {
-			matrix.add(new ArrayList<>());
-		}
-		// Make sure there are enough columns to accommodate the new column.
-		// Fill in all ragged edges as well.
-		for (ArrayList<MatrixElement> currentRow : matrix) {
-			while (currentRow.size() <= column) {
-				currentRow.add(null);
-			}
+		matrix[row][column] = element;
+		pairs[row][column] = null;
+	}
+
+	/**
+	 * Gets the element at the given location.
+	 * @return the element, or null if the cell is empty
+	 * @throws IndexOutOfBoundsException if the row or column is outside the matrix
+	 */
+	public MatrixElement get(int row, int column) {
+		JobPair pair = pairs[row][column];
+		if (pair != null) {
+			matrix[row][column] =
+					getCellDataFromStageAndJobPairId(pair.getBench(), pair.getStageFromNumber(stageNumber), pair.getId());
+			pairs[row][column] = null;
 		}
-		matrix.get(row).set(column, element);
+		return matrix[row][column];
+	}
+
+	/**
+	 * @return the number of benchmarks in the matrix
+	 */
+	public int getRowCount() {
+		return benchmarksByRow.size();
+	}
+
+	/**
+	 * @return the position in the whole job space of the first benchmark in the matrix
+	 */
+	public int getFirstRow() {
+		return firstRow;
+	}
+
+	/**
+	 * @return the number of benchmarks in the whole job space
+	 */
+	public int getTotalRowCount() {
+		return totalRowCount;
+	}
+
+	/**
+	 * @return the number of solver-configs in the matrix
+	 */
+	public int getColumnCount() {
+		return solverConfigsByColumn.size();
 	}
 
 
@@ -229,21 +329,33 @@ public class Matrix {
 	}
 
 	/**
-	 * Gets the internal ArrayList<ArrayList> representation of the matrix for use with the JSP foreach element.
-	 * @return the matrix field of the Matrix.
+	 * Gets the rows of the matrix as lists for use with the JSP foreach element. The lists are views of the
+	 * matrix, so nothing is copied, and a page of rows can be shown with the begin and end attributes of foreach.
+	 * @return the rows of the Matrix.
 	 * @author Albert Giegerich
 	 */
-	public ArrayList<ArrayList<MatrixElement>> getInternalMatrixRepresentation() {
-		return matrix;
-	}
+	public List<List<MatrixElement>> getInternalMatrixRepresentation() {
+		return new AbstractList<List<MatrixElement>>() {
+			@Override
+			public List<MatrixElement> get(int row) {
+				return new AbstractList<MatrixElement>() {
+					@Override
+					public MatrixElement get(int column) {
+						return Matrix.this.get(row, column);
+					}
+
+					@Override
+					public int size() {
+						return getColumnCount();
+					}
+				};
+			}
 
-	/**
-	 * Populates the row and column headers from two given lists.
-	 * @author Albert Giegerich
-	 */
-	private void populateRowAndColumnHeaders(List<Benchmark> rowElements, List<Pair<Solver,Configuration>> columnElements) {
-		this.benchmarksByRow.addAll(rowElements);
-		this.solverConfigsByColumn.addAll(columnElements);
+			@Override
+			public int size() {
+				return matrix.length;
+			}
+		};
 	}
 
 	/**
@@ -260,44 +372,6 @@ public class Matrix {
 		return truncatedName;
 	}
 
-	/**
-	 * Builds a Set of Benchmarks and a Set of solver-configs and a mapping form benchmark-solverConfig pairs
-	 * to the the data associated with them.
-	 * @author Albert Giegerich
-	 */
-	private static void addToUniqueVectorListsAndIntersectionMap(
-		Set<Benchmark> uniqueBenchmarks,
-		Set<Pair<Solver,Configuration>> uniqueSolverConfigs,
-		HashMap<Pair<Benchmark,Pair<Solver,Configuration>>,MatrixElement> vectorIntersectionToCellDataMap,
-		JobPair pair,
-		Integer stageNumber)
-	{
-		// Will get the primary stage if stageNumber <= 0.
-		JoblineStage stage = pair.getStageFromNumber(stageNumber);
-		// Filter out all job pairs that do not have the given stage.
-		if (stage != null) {
-			// Get the benchmark solver and config associated with the stage.
-			Benchmark bench = pair.getBench();
-			Solver solver = stage.getSolver();
-			Configuration config = stage.getConfiguration();
-
-			// Keep a list of the benchmarks and solver-configs pairs that have been found.
-			uniqueBenchmarks.add(bench);
-
-			Pair<Solver,Configuration> solverConfig = new ImmutablePair<>(solver, config);
-			uniqueSolverConfigs.add(solverConfig);
-
-			Pair<Benchmark,Pair<Solver,Configuration>> vectorIntersectionPoint =
-                    new ImmutablePair<>(bench, solverConfig);
-
-			MatrixElement jobPairCellData = getCellDataFromStageAndJobPairId(bench, stage, pair.getId());
-
-			// Associate the benchmark-solverConfig intersection point with the data that should appear
-			// at that point.
-			vectorIntersectionToCellDataMap.put(vectorIntersectionPoint, jobPairCellData);
-		}
-	}
-
 	/**
 	 * Takes a JoblineStage and uses it's fields to build a matrix element.
 	 * @param stage the stage
@@ -323,49 +397,6 @@ public class Matrix {
 	}
 
 
-	/**
-	 * Initializes the matrices private fields.
-	 * @author Albert Giegerich
-	 */
-	private void initializeMatrixFields(String jobSpaceName, Integer jobSpaceId) {
-		// Initialize the Matrices' fields
-		this.jobSpaceName = jobSpaceName;
-		this.jobSpaceId = jobSpaceId;
-		matrix = new ArrayList<>();
-		benchmarksByRow = new ArrayList<>();
-		solverConfigsByColumn = new ArrayList<>();
-		hasMultipleStages = false;
-	}
-
-	/**
-	 * Takes a job pair and returns true if it has more than one stage.
-	 * @author Albert Giegerich
-	 */
-	private static boolean testForMultipleStages(JobPair pair) {
-		return pair.getStages().size() > 1;
-	}
-
-
-	/**
-	 * Populates the matrix by checking if each benchmark - solver-config intersection has cell data associated with it
-	 * and adding it to the matrix if it does.
-	 * @author Albert Giegerich
-	 */
-	private void populateMatrixData(List<Benchmark> uniqueBenchmarkList, List<Pair<Solver,Configuration>> uniqueSolverConfigList,
-			HashMap<Pair<Benchmark,Pair<Solver,Configuration>>, MatrixElement> vectorIntersectionToCellDataMap)
-	{
-		for (int i = 0; i < uniqueBenchmarkList.size(); i++) {
-			Benchmark bench = uniqueBenchmarkList.get(i);
-			for (int j = 0; j < uniqueSolverConfigList.size(); j++) {
-				Pair<Solver,Configuration> solverConfig = uniqueSolverConfigList.get(j);
-				Pair<Benchmark,Pair<Solver,Configuration>> vectorIntersectionPoint =
-                        new ImmutablePair<>(bench, solverConfig);
-				MatrixElement cellData = vectorIntersectionToCellDataMap.get(vectorIntersectionPoint);
-				this.set(i, j, cellData);
-			}
-		}
-	}
-
 	/**
 	 * Gets a list of Pairs with the name and ID of each jobspace that the given job
 	 * has in it.
@@ -17,20 +17,16 @@ public class MatrixViewUtil {
 		final String method = "getJobIfAvailableToUser";
 		log.entry(method);
 		if(Permissions.canUserSeeJob(jobId,userId).isSuccess()) {
+			// Only basic info is needed. The matrix reads the pairs of the job space it shows itself.
 			Job job = Jobs.get(jobId);
-			log.debug(method, "Number of job pairs in job with id=" + jobId + " is " + job.getJobPairs().size() );
-			
+
 			int jobSpaceId=job.getPrimarySpace();
-			
-			if (jobSpaceId>0) {
-				// Get all the job pairs for the job as well as basic info.
-				job = Jobs.getJobForMatrix(jobId);
-			} else {
+
+			if (jobSpaceId<=0) {
 				response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "The details for this job could not be obtained");
 				return null;
 			}
 			log.debug(method, "No errors encountered getting job for user with id = " + userId);
-			log.debug(method,"Number of job pairs in job with id=" + jobId + " is " + job.getJobPairs().size() );
 
 			return job;
 		} else {